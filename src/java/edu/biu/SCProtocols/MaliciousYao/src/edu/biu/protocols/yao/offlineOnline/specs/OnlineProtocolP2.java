@@ -866,4 +866,9 @@ public class OnlineProtocolP2 implements Protocol {
 		//Create an output object using the converted array.
 		return new CircuitOutput(byteOutput);
 	}
+	
+	static {	 
+		 //load the MaliciousYaoUtil jni dll that performs the native functions.
+		 System.loadLibrary("MaliciousYaoUtil");
+	}
 }
@@ -10,45 +10,34 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutput;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.security.InvalidKeyException;
 import java.security.SecureRandom;
 
+import javax.crypto.SecretKey;
+
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.tools.BitMatrix;
 
 /**
  * This class represents the K probe-resistant matrix that described in "Blazing Fast 2PC in the "Offline/Online Setting with Security for 
  * Malicious Adversaries" paper by Yehuda Lindell and Ben Riva, Definition 2.1. <P>
+ * 
+ * The keys and the inputs are transformed on a packed copy of the matrix (see {@link BitMatrix}), so that the rows are scanned 
+ * a long at a time and the keys are XORed as whole words. The transformations are pure java and do not need a native library.
  *  
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Asaf Cohen)
  *
  */
 public class KProbeResistantMatrix implements Serializable {
 	
-	/**
-	 * Native function that restore the original keys using the matrix from the given keys.
-	 * @param receivedKeys the transformed keys.
-	 * @param matrix The K probe-resistant matrix to use in order to restore the keys.
-	 * @param n matrix's rows.
-	 * @param m matrix's columns.
-	 * @param retoredKeys The result keys of the function.
-	 */
-	private native void restoreKeys(byte[] receivedKeys, byte[][] matrix, int n, int m, byte[] retoredKeys);
-	
-	/**
-	 * Native function that transform the original keys into the extended keys using the matrix.
-	 * @param originalKeys the keys to transform.
-	 * @param probeResistantKeys the transformed keys. Will be filled during the function execution.
-	 * @param n matrix's rows.
-	 * @param m matrix's columns.
-	 * @param matrix The K probe-resistant matrix to use in order to restore the keys.
-	 */
-	private native void transformKeys(byte[] originalKeys, byte[] probeResistantKeys, byte[] seed, int n, int m, byte[][] matrix);
-	
 	private static final long serialVersionUID = 5332169146342967655L;
 	
 	private final byte[][] matrix; 	//The K probe-resistant matrix.
 	private final int n;			//Number of matrix's rows.
 	private final int m;			//Number of matrix's columns.
+	private transient BitMatrix bits;	//The matrix packed in longs. It is not serialized, and is rebuilt from the matrix when needed.
 	
 	/**
 	 * A constructor that sets the given matrix.
@@ -91,17 +80,93 @@ public class KProbeResistantMatrix implements Serializable {
 		int keySize = mes.getCipherSize();
 		Preconditions.checkArgument(originalKeys.length/keySize/2 == n);
 		
-		//Create an array to hold the new keys. The are two keys for each of the matrix columns.
-		byte[] probeResistantKeys = new byte[m*2*keySize];
+		//Hold each key as a row of bits.
+		int keyBits = keySize * 8;
+		BitMatrix original = BitMatrix.fromBytes(originalKeys, 2*n, keyBits);
+		
+		//Create a matrix to hold the new keys. The are two keys for each of the matrix columns.
+		BitMatrix probeResistantKeys = new BitMatrix(2*m, keyBits);
+		boolean[] isAllocated = new boolean[m];
 		
 		//Generate new keys using the encryption scheme.
-		byte[] seed = mes.generateKey().getEncoded();
+		BitMatrix newKeys = generateNewKeys(mes.generateKey(), keySize);
 		
-		//Call the native function that transform the keys.
-		transformKeys(originalKeys, probeResistantKeys, seed, n, m, matrix);
+		BitMatrix matrix = getBitMatrix();
+		BitMatrix delta = new BitMatrix(1, keyBits);
+		//For each pair of original keys allocate new keys.
+		for (int i = 0; i < n; i++) {
+			//Get the delta between the keys.
+			delta.copyRow(0, original, 2*i);
+			delta.xorRow(0, original, 2*i+1);
+			
+			//Find the last share of the row that has no keys yet. Its keys complete the xor of all the shares.
+			int lastShare = -1;
+			for (int j = matrix.nextSetBit(i, 0); j >= 0; j = matrix.nextSetBit(i, j + 1)) {
+				if (!isAllocated[j]) {
+					lastShare = j;
+				}
+			}
+			if (lastShare == -1) {
+				throw new IllegalStateException("this is not a k-probe resistant matrix: could not transform keys!");
+			}
+			
+			//The xor of the shares is accumulated in the 0-key of the last share.
+			probeResistantKeys.copyRow(2*lastShare, original, 2*i);
+			for (int j = matrix.nextSetBit(i, 0); j >= 0; j = matrix.nextSetBit(i, j + 1)) {
+				if (j == lastShare) {
+					continue;
+				}
+				//Allocate keys to a share that does not have keys yet.
+				if (!isAllocated[j]) {
+					probeResistantKeys.copyRow(2*j, newKeys, i);
+					probeResistantKeys.copyRow(2*j+1, newKeys, i);
+					probeResistantKeys.xorRow(2*j+1, delta, 0);
+					isAllocated[j] = true;
+				}
+				probeResistantKeys.xorRow(2*lastShare, probeResistantKeys, 2*j);
+			}
+			
+			//The last pair of keys are the xor of all shares and the xor of it with delta.
+			probeResistantKeys.copyRow(2*lastShare+1, probeResistantKeys, 2*lastShare);
+			probeResistantKeys.xorRow(2*lastShare+1, delta, 0);
+			isAllocated[lastShare] = true;
+		}
 		
 		//Return the new transformed keys.
-		return probeResistantKeys;
+		return probeResistantKeys.toBytes();
+	}
+	
+	/**
+	 * Generates a new key for each row of the matrix, by encrypting the index of the row under the given seed with AES.
+	 * @param seed The key of the AES.
+	 * @param keySize The size of each key, in bytes.
+	 * @return the new keys, as the rows of a matrix.
+	 */
+	private BitMatrix generateNewKeys(SecretKey seed, int keySize) {
+		BcAES aes = new BcAES();
+		try {
+			aes.setKey(seed);
+		} catch (InvalidKeyException e) {
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		
+		//Each key takes the needed number of blocks, and the blocks are encryptions of a counter.
+		int blocksPerKey = (keySize + 15) / 16;
+		byte[] in = new byte[16];
+		byte[] out = new byte[16];
+		byte[] keys = new byte[n*keySize];
+		for (int i = 0; i < n; i++) {
+			for (int b = 0; b < blocksPerKey; b++) {
+				int counter = i*blocksPerKey + b;
+				in[0] = (byte) counter;
+				in[1] = (byte) (counter >>> 8);
+				in[2] = (byte) (counter >>> 16);
+				in[3] = (byte) (counter >>> 24);
+				aes.computeBlock(in, 0, out, 0);
+				System.arraycopy(out, 0, keys, i*keySize + b*16, Math.min(16, keySize - b*16));
+			}
+		}
+		return BitMatrix.fromBytes(keys, n, keySize*8);
 	}
 	
 	/**
@@ -114,6 +179,7 @@ public class KProbeResistantMatrix implements Serializable {
 		Preconditions.checkArgument(n == originalInput.size());
 		byte[] input = originalInput.asByteArray();
 		byte[] newInput = new byte[m];
+		BitMatrix matrix = getBitMatrix();
 		
 		// Init the new vector with -1 values.
 		for (int j = 0; j < newInput.length; j++) {
@@ -126,12 +192,8 @@ public class KProbeResistantMatrix implements Serializable {
 			int lastIndexInTheLine = -1;
 			int xorOfAllocatedBits = 0;
 			
-			for (int j = 0; j < m; j++) {
-				if (0 == matrix[i][j]) {
-					// The j^th bit in the new vector is **insignificant** to the i^th bit in the old vector/
-					continue; // This bit is NOT added to the XOR.
-				}
-				// If we got here we deal with a significant bit.
+			// Only the significant bits of the line are visited; the other bits of the new vector are NOT added to the XOR.
+			for (int j = matrix.nextSetBit(i, 0); j >= 0; j = matrix.nextSetBit(i, j + 1)) {
 				// A significant bit is ALWAYS added to the XOR.
 				if (newInput[j] == -1) {
 					// This bit is not yet allocated.
@@ -172,13 +234,19 @@ public class KProbeResistantMatrix implements Serializable {
 	public  byte[] restoreKeys(byte[] receivedKeys) {
 		Preconditions.checkArgument(receivedKeys.length/16 == m);
 	
-		//Allocate space for the original keys.
-		byte[] restoredKeysArray = new byte[16*n];
-
-		//Call the native function that computes the restoring.
-		restoreKeys(receivedKeys, matrix, n, m, restoredKeysArray);
-		
-		return restoredKeysArray;
+		//Each original key is the xor of the received keys of the shares in its row, that is, the product of the matrix by the keys.
+		BitMatrix keys = BitMatrix.fromBytes(receivedKeys, m, 128);
+		return getBitMatrix().multiply(keys).toBytes();
+	}
+	
+	/**
+	 * Returns the matrix packed in longs. It is built on the first call, since it is not serialized.
+	 */
+	private BitMatrix getBitMatrix() {
+		if (bits == null) {
+			bits = BitMatrix.fromBitArrays(matrix);
+		}
+		return bits;
 	}
 	
 	/**
@@ -208,9 +276,4 @@ public class KProbeResistantMatrix implements Serializable {
 		input.close();
 		return matrix;
 	}
-	
-	static {	 
-		 //load the MaliciousYaoUtil jni dll that performs the native functions.
-		 System.loadLibrary("MaliciousYaoUtil");
-	}
 }
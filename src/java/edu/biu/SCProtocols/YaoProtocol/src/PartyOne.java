@@ -13,7 +13,7 @@ import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
 import edu.biu.scapi.circuits.garbledCircuit.CircuitCreationValues;
 import edu.biu.scapi.circuits.garbledCircuit.GarblingParameters;
 import edu.biu.scapi.circuits.garbledCircuit.FreeXORGarblingParameters;
-import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuit;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledTablesChunk;
 import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuitImp;
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
@@ -32,8 +32,9 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionG
 public class PartyOne {
 
 	OTBatchSender otSender;			//The OT object that used in the protocol.	
-	GarbledBooleanCircuit circuit;	//The garbled circuit used in the protocol.
+	GarbledBooleanCircuitImp circuit;	//The garbled circuit used in the protocol.
 	Channel channel;				//The channel between both parties.
+	int chunkSize;					//The number of gates in each chunk of garbled tables. Zero means the tables are sent at once.
 	
 	/**
 	 * Constructor that sets the parameters of the OT protocol and creates the garbled circuit.
@@ -43,7 +44,25 @@ public class PartyOne {
 	 * @param otSender The OT object to use in the protocol.
 	 */
 	public PartyOne(Channel channel, BooleanCircuit bc, MultiKeyEncryptionScheme mes, OTBatchSender otSender){
+		this(channel, bc, mes, otSender, 0);
+	}
+	
+	/**
+	 * Constructor that sets the parameters of the OT protocol and creates the garbled circuit.<p>
+	 * The garbled tables are sent in chunks of the given number of gates, each chunk is sent as soon as it is garbled.
+	 * This way, the garbling overlaps the sending and only one chunk of tables is kept in memory.
+	 * @param channel The channel between both parties.
+	 * @param bc The boolean circuit that should be garbled.
+	 * @param mes The encryption scheme to use in the garbled circuit.
+	 * @param otSender The OT object to use in the protocol.
+	 * @param chunkSize The number of gates in each chunk of garbled tables. Zero means that all the tables are sent at once.
+	 */
+	public PartyOne(Channel channel, BooleanCircuit bc, MultiKeyEncryptionScheme mes, OTBatchSender otSender, int chunkSize){
+		if (chunkSize < 0){
+			throw new IllegalArgumentException("chunkSize should not be negative");
+		}
 		//Set the given parameters.
+		this.chunkSize = chunkSize;
 		this.channel = channel;
 		this.otSender = otSender;
 		
@@ -65,6 +84,11 @@ public class PartyOne {
 	 * @throws InvalidDlogGroupException
 	 */
 	public void run(ArrayList<Byte> ungarbledInput) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException{
+		if (chunkSize > 0){
+			runStreaming(ungarbledInput);
+			return;
+		}
+		
 		Date startProtocol = new Date();
 		Date start = new Date();
 		//Constructs the garbled circuit.
@@ -100,6 +124,56 @@ public class PartyOne {
 		
 	}
 
+	/**
+	 * Runs the protocol while sending the garbled tables in chunks.<p>
+	 * The keys are sampled first, so that p1 inputs and the OT can be done before the tables are sent. 
+	 * Then, each chunk of tables is sent as soon as it is garbled. The translation table is known after the last chunk, so it is sent last.
+	 * @param ungarbledInput The input for the circuit, each p1's input wire gets 0 or 1.
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 * @throws CheatAttemptException
+	 * @throws InvalidDlogGroupException
+	 */
+	private void runStreaming(ArrayList<Byte> ungarbledInput) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException{
+		Date startProtocol = new Date();
+		Date start = new Date();
+		//Generate the keys of the garbled circuit.
+		CircuitCreationValues values = circuit.garble(chunkSize);
+		Date end = new Date();
+		long time = (end.getTime() - start.getTime());
+		System.out.println("generate keys took " +time + " milis");
+		
+		start = new Date();
+		//Send p1 input keys to p2.
+		sendP1Inputs(ungarbledInput, values.getAllInputWireValues());
+		end = new Date();
+		time = (end.getTime() - start.getTime());
+		System.out.println("send inputs took " +time + " milis");
+		
+		start = new Date();
+		//Run OT protocol in order to send p2 the necessary keys without revealing any information.
+		runOTProtocol(values.getAllInputWireValues());
+		end = new Date();
+		time = (end.getTime() - start.getTime());
+		System.out.println("run OT took " +time + " milis");
+		
+		start = new Date();
+		//Garble and send the tables chunk after chunk, then send the translation table.
+		GarbledTablesChunk chunk = circuit.nextGarbledTablesChunk();
+		while (chunk != null){
+			channel.send(chunk);
+			chunk = circuit.nextGarbledTablesChunk();
+		}
+		channel.send(circuit.getTranslationTable());
+		end = new Date();
+		time = (end.getTime() - start.getTime());
+		System.out.println("Garble and send garbled tables and translation tables took " +time + " milis");
+		
+		Date yaoEnd = new Date();
+		long yaoTime = (yaoEnd.getTime() - startProtocol.getTime());
+		System.out.println("run one protocol took " +yaoTime + " milis");
+	}
+	
 	/**
 	 * Sends p1 input keys to p2.
 	 * @param ungarbledInput The boolean input of each wire.
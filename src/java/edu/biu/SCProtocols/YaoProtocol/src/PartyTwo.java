@@ -17,7 +17,7 @@ import edu.biu.scapi.circuits.circuit.Wire;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
 import edu.biu.scapi.circuits.garbledCircuit.GarblingParameters;
 import edu.biu.scapi.circuits.garbledCircuit.FreeXORGarblingParameters;
-import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuit;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledTablesChunk;
 import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuitImp;
 import edu.biu.scapi.circuits.garbledCircuit.GarbledTablesHolder;
 import edu.biu.scapi.circuits.garbledCircuit.GarbledWire;
@@ -41,8 +41,9 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionG
 public class PartyTwo {
 
 	OTBatchReceiver otReceiver;			//The OT object that used in the protocol.	
-	GarbledBooleanCircuit circuit;		//The garbled circuit used in the protocol.
+	GarbledBooleanCircuitImp circuit;	//The garbled circuit used in the protocol.
 	Channel channel;					//The channel between both parties.
+	boolean isStreaming;				//Indicates whether the garbled tables are received in chunks.
 	
 	/**
 	 * Constructor that sets the parameters of the OT protocol and creates the garbled circuit.
@@ -52,7 +53,22 @@ public class PartyTwo {
 	 * @param otReceiver The OT object to use in the protocol.
 	 */
 	public PartyTwo(Channel channel, BooleanCircuit bc, MultiKeyEncryptionScheme mes, OTBatchReceiver otReceiver){
+		this(channel, bc, mes, otReceiver, false);
+	}
+	
+	/**
+	 * Constructor that sets the parameters of the OT protocol and creates the garbled circuit.<p>
+	 * In streaming mode, the garbled tables are received in chunks and each chunk is computed as soon as it arrives.
+	 * This way, the computation overlaps the receiving and only one chunk of tables is kept in memory.
+	 * @param channel The channel between both parties.
+	 * @param bc The boolean circuit that should be garbled.
+	 * @param mes The encryption scheme to use in the garbled circuit.
+	 * @param otReceiver The OT object to use in the protocol.
+	 * @param isStreaming Indicates whether party one sends the garbled tables in chunks.
+	 */
+	public PartyTwo(Channel channel, BooleanCircuit bc, MultiKeyEncryptionScheme mes, OTBatchReceiver otReceiver, boolean isStreaming){
 		//Set the given parameters.
+		this.isStreaming = isStreaming;
 		this.channel = channel;
 		this.otReceiver = otReceiver;
 		
@@ -74,6 +90,11 @@ public class PartyTwo {
 	 * @throws InvalidDlogGroupException
 	 */
 	public void run(byte[] ungarbledInput) throws CheatAttemptException, ClassNotFoundException, IOException, InvalidDlogGroupException {
+		if (isStreaming){
+			runStreaming(ungarbledInput);
+			return;
+		}
+		
 		Date startProtocol = new Date();
 		Date start = new Date();
 		//Receive garbled tables and translation table from p1.
@@ -115,6 +136,77 @@ public class PartyTwo {
 		
 	}
 
+	/**
+	 * Runs the protocol while receiving the garbled tables in chunks.
+	 * @param ungarbledInput The input for the circuit, each p2's input wire gets 0 or 1.
+	 * @throws IOException
+	 * @throws ClassNotFoundException
+	 * @throws CheatAttemptException
+	 * @throws InvalidDlogGroupException
+	 */
+	private void runStreaming(byte[] ungarbledInput) throws CheatAttemptException, ClassNotFoundException, IOException, InvalidDlogGroupException {
+		Date startProtocol = new Date();
+		Date start = new Date();
+		//Receive P1 input keys and set them.
+		receiveP1Inputs();
+		Date end = new Date();
+		long time = (end.getTime() - start.getTime());
+		System.out.println("Receive and set inputs from p1 took " +time + " milis");
+		
+		start = new Date();
+		//Run OT protocol in order to get the necessary keys without revealing any information.
+		OTBatchROutput output = runOTProtocol(ungarbledInput);
+		end = new Date();
+		time = (end.getTime() - start.getTime());
+		System.out.println("run OT took " +time + " milis");
+		
+		start = new Date();
+		//Receive the garbled tables chunk after chunk and compute each chunk once it arrives.
+		setP2Inputs(output);
+		try {
+			circuit.startStreamingCompute();
+		} catch (NotAllInputsSetException e) {
+			// Should not occur since both parties' inputs were set.
+		}
+		Serializable msg = channel.receive();
+		while (msg instanceof GarbledTablesChunk){
+			try {
+				circuit.computeGarbledTablesChunk((GarbledTablesChunk) msg);
+			} catch (IllegalArgumentException e) {
+				throw new CheatAttemptException(e.getMessage());
+			}
+			msg = channel.receive();
+		}
+		
+		//The translation table is sent after the last chunk.
+		if (!(msg instanceof HashMap<?, ?>)){
+			throw new CheatAttemptException("the received message should be an instance of HashMap<Integer, Byte>");
+		}
+		@SuppressWarnings("unchecked")
+		HashMap<Integer, Byte> translationTable = (HashMap<Integer, Byte>) msg;
+		circuit.setTranslationTable(translationTable);
+		HashMap<Integer, GarbledWire> garbledOutput = null;
+		try {
+			garbledOutput = circuit.finishStreamingCompute();
+		} catch (IllegalStateException e) {
+			throw new CheatAttemptException(e.getMessage());
+		}
+		Map<Integer, Wire> circuitOutput = circuit.translate(garbledOutput);
+		end = new Date();
+		time = (end.getTime() - start.getTime());
+		System.out.println("Receive garbled tables and compute the circuit took " +time + " milis");
+		
+		Date yaoEnd = new Date();
+		long yaoTime = (yaoEnd.getTime() - startProtocol.getTime());
+		System.out.println("run one protocol took " +yaoTime + " milis");
+		
+		int[] indices = circuit.getOutputWireIndices();
+		for (int index : indices){
+			System.out.print(circuitOutput.get(index).getValue());
+		}
+		System.out.println();
+	}
+	
 	/**
 	 * Receive the circuit's garbled tables and translation table.
 	 * @throws CheatAttemptException
@@ -198,6 +290,28 @@ public class PartyTwo {
 	 * @return 
 	 */
 	private Map<Integer, Wire> computeCircuit(OTBatchROutput otOutput) {
+		//Set party two inputs to the circuit.
+		setP2Inputs(otOutput);
+		
+		//Compute the circuit.
+  		HashMap<Integer, GarbledWire> garbledOutput = null;
+		try {
+			garbledOutput = circuit.compute();
+		} catch (NotAllInputsSetException e) {
+			// TODO Auto-generated catch block
+			e.printStackTrace();
+		}
+		
+		//Translate the result from compute.
+  		Map<Integer, Wire> circuitOutput = circuit.translate(garbledOutput);
+  		return circuitOutput;
+	}
+	
+	/**
+	 * Sets party two inputs to the circuit.
+	 * @param otOutput The output from the OT protocol, which are party two inputs.
+	 */
+	private void setP2Inputs(OTBatchROutput otOutput) {
 		//Get the output of the protocol.
 		byte[] keys = ((OTOnByteArrayROutput)otOutput).getXSigma();
 		
@@ -221,18 +335,5 @@ public class PartyTwo {
   		
   		//Set the input to the circuit.
 		circuit.setInputs(inputs);
-		
-		//Compute the circuit.
-  		HashMap<Integer, GarbledWire> garbledOutput = null;
-		try {
-			garbledOutput = circuit.compute();
-		} catch (NotAllInputsSetException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-		
-		//Translate the result from compute.
-  		Map<Integer, Wire> circuitOutput = circuit.translate(garbledOutput);
-  		return circuitOutput;
 	}
 }
@@ -0,0 +1,291 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * A compact binary format for {@link BooleanCircuit}s. <p>
+ * The binary file contains the same data as the text format, written as variable length unsigned integers (7 bits in each 
+ * byte, where the high bit indicates that more bytes follow) instead of decimal strings: 
+ * <ul>
+ * <li>The magic bytes "SCBC" and a version byte.</li>
+ * <li>The number of gates and the number of parties.</li>
+ * <li>For each party: the number of input wires followed by their indices.</li>
+ * <li>The number of output wires followed by their indices.</li>
+ * <li>For each gate: the number of input wires, the number of output wires, their indices, the number of bytes in the truth table 
+ * and the truth table packed in bytes, where bit j of the table is bit (j mod 8) of byte (j / 8).</li>
+ * </ul>
+ * A text circuit file can be converted once using {@link #convert(File, File)}. Then, the binary file is read from a memory mapped 
+ * buffer, which takes a small fraction of the time of parsing the text file.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class BinaryCircuitFormat {
+	
+	private static final byte[] MAGIC = {'S', 'C', 'B', 'C'};
+	private static final int VERSION = 1;
+	
+	private BinaryCircuitFormat(){}
+	
+	/**
+	 * Writes the given circuit in the binary format to the given stream.
+	 * @param circuit the circuit to write.
+	 * @param out the stream to write to. It is not closed by this function.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void write(BooleanCircuit circuit, OutputStream out) throws IOException {
+		BufferedOutputStream bOut = new BufferedOutputStream(out, 64 * 1024);
+		bOut.write(MAGIC);
+		bOut.write(VERSION);
+		
+		Gate[] gates = circuit.getGates();
+		int numberOfParties = circuit.getNumberOfParties();
+		writeVarInt(gates.length, bOut);
+		writeVarInt(numberOfParties, bOut);
+		
+		//Write the input wires of each party.
+		for (int i = 1; i <= numberOfParties; i++){
+			ArrayList<Integer> inputs;
+			try {
+				inputs = circuit.getInputWireIndices(i);
+			} catch (NoSuchPartyException e) {
+				//Should not occur since the party number is in the valid range.
+				throw new IllegalStateException(e);
+			}
+			writeVarInt(inputs.size(), bOut);
+			for (int j = 0; j < inputs.size(); j++){
+				writeVarInt(inputs.get(j), bOut);
+			}
+		}
+		
+		writeIndices(circuit.getOutputWireIndices(), bOut);
+		
+		//Write the gates.
+		for (int i = 0; i < gates.length; i++){
+			int[] inputs = gates[i].getInputWireIndices();
+			int[] outputs = gates[i].getOutputWireIndices();
+			writeVarInt(inputs.length, bOut);
+			writeVarInt(outputs.length, bOut);
+			for (int j = 0; j < inputs.length; j++){
+				writeVarInt(inputs[j], bOut);
+			}
+			for (int j = 0; j < outputs.length; j++){
+				writeVarInt(outputs[j], bOut);
+			}
+			
+			BitSet truthTable = gates[i].getTruthTable();
+			int tableBytes = (truthTable.length() + 7) / 8;
+			writeVarInt(tableBytes, bOut);
+			for (int j = 0; j < tableBytes; j++){
+				int packed = 0;
+				for (int bit = 0; bit < 8; bit++){
+					if (truthTable.get(8 * j + bit)){
+						packed |= 1 << bit;
+					}
+				}
+				bOut.write(packed);
+			}
+		}
+		bOut.flush();
+	}
+	
+	/**
+	 * Converts a circuit file in the text format to a circuit file in the binary format.
+	 * @param textFile the circuit file to convert.
+	 * @param binaryFile the file to write the binary circuit to.
+	 * @throws FileNotFoundException if the text file does not exist or the binary file cannot be created.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the text file.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static void convert(File textFile, File binaryFile) throws FileNotFoundException, CircuitFileFormatException, IOException {
+		BooleanCircuit circuit = new BooleanCircuit(textFile);
+		FileOutputStream out = new FileOutputStream(binaryFile);
+		try {
+			write(circuit, out);
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * Reads a circuit file in the binary format using a memory mapped buffer.
+	 * @param binaryFile the file to read.
+	 * @return the circuit in the file.
+	 * @throws FileNotFoundException if the file does not exist.
+	 * @throws CircuitFileFormatException if the file is not a valid binary circuit.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static BooleanCircuit read(File binaryFile) throws FileNotFoundException, CircuitFileFormatException, IOException {
+		RandomAccessFile file = new RandomAccessFile(binaryFile, "r");
+		try {
+			FileChannel channel = file.getChannel();
+			return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			file.close();
+		}
+	}
+	
+	/**
+	 * Reads a circuit in the binary format from the given buffer, starting at its position.
+	 * @param buffer the buffer to read from. Its position is advanced to the end of the circuit.
+	 * @return the circuit in the buffer.
+	 * @throws CircuitFileFormatException if the buffer does not contain a valid binary circuit.
+	 */
+	public static BooleanCircuit read(ByteBuffer buffer) throws CircuitFileFormatException {
+		try {
+			if (!hasMagic(buffer) || buffer.get(buffer.position() + MAGIC.length) != VERSION){
+				throw new CircuitFileFormatException();
+			}
+			buffer.position(buffer.position() + MAGIC.length + 1);
+			
+			int numberOfGates = readVarInt(buffer);
+			int numberOfParties = readVarInt(buffer);
+			
+			//Read the input wires of each party.
+			ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>(numberOfParties);
+			for (int i = 0; i < numberOfParties; i++){
+				int size = readVarInt(buffer);
+				ArrayList<Integer> inputs = new ArrayList<Integer>(size);
+				for (int j = 0; j < size; j++){
+					inputs.add(readVarInt(buffer));
+				}
+				eachPartysInputWires.add(inputs);
+			}
+			
+			int[] outputWireIndices = readIndices(buffer);
+			
+			//Read the gates.
+			Gate[] gates = new Gate[numberOfGates];
+			for (int i = 0; i < numberOfGates; i++){
+				int[] inputs = new int[readVarInt(buffer)];
+				int[] outputs = new int[readVarInt(buffer)];
+				for (int j = 0; j < inputs.length; j++){
+					inputs[j] = readVarInt(buffer);
+				}
+				for (int j = 0; j < outputs.length; j++){
+					outputs[j] = readVarInt(buffer);
+				}
+				
+				int tableBytes = readVarInt(buffer);
+				BitSet truthTable = new BitSet(8 * tableBytes);
+				for (int j = 0; j < tableBytes; j++){
+					int packed = buffer.get();
+					for (int bit = 0; bit < 8; bit++){
+						if ((packed & (1 << bit)) != 0){
+							truthTable.set(8 * j + bit);
+						}
+					}
+				}
+				gates[i] = new Gate(i, truthTable, inputs, outputs);
+			}
+			
+			return new BooleanCircuit(gates, outputWireIndices, eachPartysInputWires);
+			
+		} catch (BufferUnderflowException e) {
+			throw new CircuitFileFormatException();
+		} catch (IndexOutOfBoundsException e) {
+			throw new CircuitFileFormatException();
+		}
+	}
+	
+	/**
+	 * Checks if the given buffer contains a binary circuit, starting at its position. The position of the buffer is not changed.
+	 */
+	public static boolean hasMagic(ByteBuffer buffer){
+		if (buffer.remaining() <= MAGIC.length){
+			return false;
+		}
+		for (int i = 0; i < MAGIC.length; i++){
+			if (buffer.get(buffer.position() + i) != MAGIC[i]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	private static void writeIndices(int[] indices, OutputStream out) throws IOException {
+		writeVarInt(indices.length, out);
+		for (int i = 0; i < indices.length; i++){
+			writeVarInt(indices[i], out);
+		}
+	}
+	
+	private static int[] readIndices(ByteBuffer buffer) throws CircuitFileFormatException {
+		int[] indices = new int[readVarInt(buffer)];
+		for (int i = 0; i < indices.length; i++){
+			indices[i] = readVarInt(buffer);
+		}
+		return indices;
+	}
+	
+	/**
+	 * Writes the given non negative number using 7 bits in each byte. The high bit of each byte indicates if more bytes follow.
+	 */
+	private static void writeVarInt(int value, OutputStream out) throws IOException {
+		if (value < 0){
+			throw new IllegalArgumentException("only non negative numbers can be written");
+		}
+		while ((value & ~0x7F) != 0){
+			out.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		out.write(value);
+	}
+	
+	/**
+	 * Reads a number written by writeVarInt.
+	 */
+	private static int readVarInt(ByteBuffer buffer) throws CircuitFileFormatException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7){
+			int b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0){
+				if (value < 0){
+					throw new CircuitFileFormatException();
+				}
+				return value;
+			}
+		}
+		throw new CircuitFileFormatException();
+	}
+}
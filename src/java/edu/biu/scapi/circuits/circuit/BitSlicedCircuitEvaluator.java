@@ -0,0 +1,191 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.circuits.circuit;
+
+import edu.biu.scapi.exceptions.InvalidInputException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * Evaluates a {@link CompiledBooleanCircuit} on many input assignments at once. <p>
+ * The values of each wire in 64 independent evaluations are packed in one long, where bit number j holds the value of 
+ * the wire in the j-th evaluation. Each gate is then computed for all 64 evaluations by a few bitwise operations on the 
+ * packed values of its input wires, according to its truth table. <p>
+ * 
+ * This is useful when the same circuit should be computed in the clear on many inputs, for example when testing a circuit 
+ * or when checking the outputs of a protocol.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class BitSlicedCircuitEvaluator {
+	
+	/**
+	 * The number of evaluations that are computed together.
+	 */
+	public static final int BATCH_SIZE = 64;
+	
+	private CompiledBooleanCircuit circuit;
+	
+	/**
+	 * Creates an evaluator of the given circuit.
+	 * @param circuit the circuit to evaluate.
+	 */
+	public BitSlicedCircuitEvaluator(CompiledBooleanCircuit circuit){
+		this.circuit = circuit;
+	}
+	
+	/**
+	 * Creates an evaluator of the given circuit.
+	 * @param circuit the circuit to evaluate. It is compiled by this constructor.
+	 */
+	public BitSlicedCircuitEvaluator(BooleanCircuit circuit){
+		this(new CompiledBooleanCircuit(circuit));
+	}
+	
+	/**
+	 * Creates an array that can hold the packed values of all the wires of the circuit.
+	 */
+	public long[] createWireValues(){
+		return new long[circuit.getNumberOfWires()];
+	}
+	
+	/**
+	 * Sets the packed input of the given party in the given wire values array. 
+	 * @param wireValues the array to set the inputs in. Should be created by {@link #createWireValues()}.
+	 * @param partyNumber the number of the party whose inputs are set. The parties are numbered from one.
+	 * @param inputs the packed inputs; bit j of inputs[i] is the value of the i-th input wire of the party in the j-th evaluation.
+	 * @throws NoSuchPartyException if the party number is not valid.
+	 * @throws InvalidInputException if the number of inputs is not the number of the party's input wires.
+	 */
+	public void setInputs(long[] wireValues, int partyNumber, long[] inputs) throws NoSuchPartyException, InvalidInputException{
+		int[] wires = circuit.getInputWireIndices(partyNumber);
+		if (inputs.length != wires.length){
+			throw new InvalidInputException();
+		}
+		for (int i = 0; i < wires.length; i++){
+			wireValues[wires[i]] = inputs[i];
+		}
+	}
+	
+	/**
+	 * Computes all the gates of the circuit in place on 64 packed evaluations. The input wires should be set before calling 
+	 * this function.
+	 * @param wireValues the packed values of the wires. Should be created by {@link #createWireValues()}.
+	 */
+	public void evaluate(long[] wireValues){
+		int[] leftInputs = circuit.getLeftInputs();
+		int[] rightInputs = circuit.getRightInputs();
+		int[] gateOutputs = circuit.getGateOutputs();
+		byte[] gateTypes = circuit.getGateTypes();
+		
+		int size = gateTypes.length;
+		for (int i = 0; i < size; i++){
+			long a = wireValues[leftInputs[i]];
+			long b = wireValues[rightInputs[i]];
+			long out;
+			//The gate type is the truth table; bit number (2*a + b) is the output for the inputs a and b.
+			switch (gateTypes[i]){
+				case 0x0: out = 0; break;
+				case 0x1: out = ~(a | b); break;
+				case 0x2: out = ~a & b; break;
+				case 0x3: out = ~a; break;
+				case 0x4: out = a & ~b; break;
+				case 0x5: out = ~b; break;
+				case 0x6: out = a ^ b; break;
+				case 0x7: out = ~(a & b); break;
+				case 0x8: out = a & b; break;
+				case 0x9: out = ~(a ^ b); break;
+				case 0xA: out = b; break;
+				case 0xB: out = ~a | b; break;
+				case 0xC: out = a; break;
+				case 0xD: out = a | ~b; break;
+				case 0xE: out = a | b; break;
+				default: out = -1L; break;
+			}
+			wireValues[gateOutputs[i]] = out;
+		}
+	}
+	
+	/**
+	 * Computes the circuit on any number of input assignments.
+	 * @param inputs the input assignments. inputs[j][p] holds the input bits of party number p+1 in the j-th assignment, 
+	 * in the order of the party's input wires. Each byte should be 0 or 1.
+	 * @return the outputs of the circuit. The j-th array holds the output bits of the j-th assignment, in the order of the output wires.
+	 * @throws NoSuchPartyException if some assignment does not contain an input for each party.
+	 * @throws InvalidInputException if the number of inputs of some party is not the number of its input wires.
+	 */
+	public byte[][] compute(byte[][][] inputs) throws NoSuchPartyException, InvalidInputException{
+		int numberOfParties = circuit.getNumberOfParties();
+		int[] outputWires = circuit.getOutputWireIndices();
+		byte[][] outputs = new byte[inputs.length][];
+		long[] wireValues = createWireValues();
+		
+		//Compute the assignments in batches of 64.
+		for (int start = 0; start < inputs.length; start += BATCH_SIZE){
+			int count = Math.min(BATCH_SIZE, inputs.length - start);
+			
+			//Pack the inputs of each party.
+			for (int party = 1; party <= numberOfParties; party++){
+				int[] wires = circuit.getInputWireIndices(party);
+				long[] packed = new long[wires.length];
+				for (int j = 0; j < count; j++){
+					byte[][] assignment = inputs[start + j];
+					if (assignment.length != numberOfParties){
+						throw new NoSuchPartyException();
+					}
+					byte[] partyInputs = assignment[party - 1];
+					if (partyInputs.length != wires.length){
+						throw new InvalidInputException();
+					}
+					for (int i = 0; i < wires.length; i++){
+						packed[i] |= ((long) (partyInputs[i] & 1)) << j;
+					}
+				}
+				setInputs(wireValues, party, packed);
+			}
+			
+			evaluate(wireValues);
+			
+			//Unpack the outputs of each assignment.
+			for (int j = 0; j < count; j++){
+				byte[] output = new byte[outputWires.length];
+				for (int i = 0; i < outputWires.length; i++){
+					output[i] = (byte) ((wireValues[outputWires[i]] >>> j) & 1);
+				}
+				outputs[start + j] = output;
+			}
+		}
+		
+		return outputs;
+	}
+	
+	/**
+	 * Returns the compiled circuit that this evaluator computes.
+	 */
+	public CompiledBooleanCircuit getCircuit(){
+		return circuit;
+	}
+}
@@ -26,6 +26,7 @@ package edu.biu.scapi.circuits.circuit;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.HashMap;
@@ -94,7 +95,24 @@ public class BooleanCircuit {
 	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
 	 */
 	public BooleanCircuit(File f) throws FileNotFoundException, CircuitFileFormatException {
-		this(new Scanner(f));
+		//The file is read by the byte level parser, which is much faster than the Scanner for big circuits.
+		CircuitTextParser parser = new CircuitTextParser(f);
+		try {
+			init(parser);
+		} finally {
+			parser.close();
+		}
+	}
+	
+	/**
+	 * Constructs a BooleanCircuit from an InputStream that contains a circuit in the text format described in {@link #BooleanCircuit(File)}. <p>
+	 * The stream is read by a byte level parser and is not closed by this constructor.
+	 *
+	 * @param in The {@link InputStream} from which the circuit is read.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit or the stream cannot be read.
+	 */
+	public BooleanCircuit(InputStream in) throws CircuitFileFormatException {
+		init(new CircuitTextParser(in));
 	}
 
 	// Integer.parseInt(s.next()) is significantly faster than s.nextInt() so we use the former.
@@ -109,20 +127,62 @@ public class BooleanCircuit {
 	 * @param s The {@link Scanner} from which the circuit is read.
 	 * @throws CircuitFileFormatException if there is a problem with the format of the circuit.
 	 */
-	public BooleanCircuit(Scanner s) throws CircuitFileFormatException {
+	public BooleanCircuit(final Scanner s) throws CircuitFileFormatException {
+		init(new TokenSource() {
+			public int nextInt() throws CircuitFileFormatException {
+				try {
+					return Integer.parseInt(read(s));
+				} catch (NumberFormatException e) {
+					throw new CircuitFileFormatException();
+				}
+			}
+			public BitSet nextTruthTable() throws CircuitFileFormatException {
+				//We create a BitSet representation of the truth table from the 01 String that we read from the file.
+				BitSet truthTable = new BitSet();
+		    	String tTable = read(s);
+		    	for (int j = 0; j < tTable.length(); j++) {
+		    		if (tTable.charAt(j) == '1') {
+		    			truthTable.set(j);
+		    		}
+		    	}
+		    	return truthTable;
+			}
+		});
+	}
+	
+	/**
+	 * A source of the tokens of a circuit in the text format.
+	 */
+	interface TokenSource {
+		
+		/**
+		 * Reads the next token as an integer.
+		 */
+		int nextInt() throws CircuitFileFormatException;
+		
+		/**
+		 * Reads the next token as a 0-1 string and returns it as a truth table.
+		 */
+		BitSet nextTruthTable() throws CircuitFileFormatException;
+	}
+	
+	/**
+	 * Reads the circuit from the given token source.
+	 */
+	private void init(TokenSource s) throws CircuitFileFormatException {
 	    //Read the number of gates.
-	    int numberOfGates = Integer.parseInt(read(s));
+	    int numberOfGates = s.nextInt();
 	    gates = new Gate[numberOfGates];
 	    //Read the number of parties.
-	    numberOfParties =  Integer.parseInt(read(s));
+	    numberOfParties =  s.nextInt();
 	    isInputSet = new boolean[numberOfParties];
 	    //For each party, read the party's number, number of input wires and their indices.
 	    for (int i = 0; i < numberOfParties; i++) {
-	    	if (Integer.parseInt(read(s)) != i+1) {//add 1 since parties are indexed from 1, not 0
+	    	if (s.nextInt() != i+1) {//add 1 since parties are indexed from 1, not 0
 	    		throw new CircuitFileFormatException();
 	    	}
 	    	//Read the number of input wires.
-	    	int numberOfInputsForCurrentParty = Integer.parseInt(read(s));
+	    	int numberOfInputsForCurrentParty = s.nextInt();
 	    	if(numberOfInputsForCurrentParty < 0){
 	    		throw new CircuitFileFormatException();
 	    	}
@@ -133,7 +193,7 @@ public class BooleanCircuit {
 	    	eachPartysInputWires.add(currentPartyInput);
 	    	//Read the input wires indices.
 	    	for (int j = 0; j < numberOfInputsForCurrentParty; j++) {
-	    		currentPartyInput.add(Integer.parseInt(read(s)));
+	    		currentPartyInput.add(s.nextInt());
 	    	}
 	    }
 	    
@@ -141,40 +201,29 @@ public class BooleanCircuit {
 	     * The ouputWireIndices are the outputs from this circuit. However, this circuit may actually be a single layer of a 
 	     * larger layered circuit. So this output can be part of the input to another layer of the circuit.
 	     */
-	    int numberOfCircuitOutputs = Integer.parseInt(read(s));
+	    int numberOfCircuitOutputs = s.nextInt();
 	    outputWireIndices = new int[numberOfCircuitOutputs];
 	    //Read the output wires indices.
 	    for (int i = 0; i < numberOfCircuitOutputs; i++) {
-	    	outputWireIndices[i] = Integer.parseInt(read(s));
+	    	outputWireIndices[i] = s.nextInt();
 	    }
 	    
 	    int numberOfGateInputs, numberOfGateOutputs;
 	    //For each gate, read the number of input and output wires, their indices and the truth table.
 	    for (int i = 0; i < numberOfGates; i++) {
-	    	numberOfGateInputs = Integer.parseInt(read(s));
-	    	numberOfGateOutputs = Integer.parseInt(read(s));
+	    	numberOfGateInputs = s.nextInt();
+	    	numberOfGateOutputs = s.nextInt();
 	    	int[] inputWireIndices = new int[numberOfGateInputs];
 	    	int[] outputWireIndices = new int[numberOfGateOutputs];
 	    	for (int j = 0; j < numberOfGateInputs; j++) {
-	    		inputWireIndices[j] = Integer.parseInt(read(s));
+	    		inputWireIndices[j] = s.nextInt();
 	    	}
 	    	for (int j = 0; j < numberOfGateOutputs; j++) {
-	    		outputWireIndices[j] = Integer.parseInt(read(s));
+	    		outputWireIndices[j] = s.nextInt();
 	    	}
       
-	    	/*
-	    	 * We create a BitSet representation of the truth table from the 01 String
-	    	 * that we read from the file.
-	    	 */
-	    	BitSet truthTable = new BitSet();
-	    	String tTable = read(s);
-	    	for (int j = 0; j < tTable.length(); j++) {
-	    		if (tTable.charAt(j) == '1') {
-	    			truthTable.set(j);
-	    		}
-	    	}
-	    	//Construct the gate.
-	    	gates[i] = new Gate(i, truthTable, inputWireIndices, outputWireIndices);
+	    	//Read the truth table and construct the gate.
+	    	gates[i] = new Gate(i, s.nextTruthTable(), inputWireIndices, outputWireIndices);
 	    }
 	}
 
@@ -202,6 +251,11 @@ public class BooleanCircuit {
 		this.outputWireIndices = outputWireIndices;
 		this.eachPartysInputWires = eachPartysInputWires;
 		numberOfParties = eachPartysInputWires.size();
+		//A party that has no inputs is considered as a party whose input is set.
+		isInputSet = new boolean[numberOfParties];
+		for (int i = 0; i < numberOfParties; i++) {
+			isInputSet[i] = eachPartysInputWires.get(i).size() == 0;
+		}
   	}
 
     /**
@@ -0,0 +1,181 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * Loads circuit files and caches the parsed circuits. <p>
+ * The format of the file is detected automatically: binary circuit files (see {@link BinaryCircuitFormat}) are read from a 
+ * memory mapped buffer and any other file is parsed as a text circuit file. <p>
+ * The parsed gates are kept in a cache, keyed by the path of the file, its size and its last modification time. Loading the 
+ * same file again returns a new {@link BooleanCircuit} with copies of the gates of the cached circuit, so repeated 
+ * protocol executions in the same process do not parse the file again, and changes to the wire indices of one loaded 
+ * circuit do not affect the others. Each returned circuit has its own inputs. <p>
+ * The cache keeps the circuits that were loaded most recently, up to a capacity that can be changed by {@link #setCacheCapacity(int)}. 
+ * A capacity of zero disables the cache.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class CircuitLoader {
+	
+	/**
+	 * Holds a parsed circuit and the state of the file it was parsed from.
+	 */
+	private static class CacheEntry {
+		long lastModified;
+		long length;
+		BooleanCircuit circuit;
+	}
+	
+	private static final int DEFAULT_CACHE_CAPACITY = 4;
+	private static int cacheCapacity = DEFAULT_CACHE_CAPACITY;	//The maximal number of cached circuits.
+	
+	//The cached circuits, in the order of their last use.
+	private static Map<String, CacheEntry> cache = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+		
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+			return size() > cacheCapacity;
+		}
+	};
+	
+	private CircuitLoader(){}
+	
+	/**
+	 * Loads the circuit in the given file, using the cache if the file has already been loaded and was not changed since.
+	 * @param circuitFile a text or binary circuit file.
+	 * @return a new circuit with the gates in the file.
+	 * @throws FileNotFoundException if the file does not exist.
+	 * @throws CircuitFileFormatException if there is a problem with the format of the file.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public static BooleanCircuit load(File circuitFile) throws FileNotFoundException, CircuitFileFormatException, IOException {
+		String key = circuitFile.getCanonicalPath();
+		long lastModified = circuitFile.lastModified();
+		long length = circuitFile.length();
+		
+		CacheEntry entry;
+		synchronized (cache) {
+			entry = cache.get(key);
+		}
+		if (entry == null || entry.lastModified != lastModified || entry.length != length){
+			entry = new CacheEntry();
+			entry.lastModified = lastModified;
+			entry.length = length;
+			entry.circuit = isBinary(circuitFile) ? BinaryCircuitFormat.read(circuitFile) : new BooleanCircuit(circuitFile);
+			synchronized (cache) {
+				if (cacheCapacity > 0){
+					cache.put(key, entry);
+				}
+			}
+		}
+		
+		return copy(entry.circuit);
+	}
+	
+	/**
+	 * Sets the maximal number of circuits that are kept in the cache. The circuits that were used least recently are removed 
+	 * if the cache holds more circuits.
+	 * @param capacity The number of circuits to keep. Zero disables the cache.
+	 * @throws IllegalArgumentException if the capacity is negative.
+	 */
+	public static void setCacheCapacity(int capacity){
+		if (capacity < 0){
+			throw new IllegalArgumentException("the capacity should not be negative");
+		}
+		synchronized (cache) {
+			cacheCapacity = capacity;
+			while (cache.size() > capacity){
+				cache.remove(cache.keySet().iterator().next());
+			}
+		}
+	}
+	
+	/**
+	 * Removes all the circuits from the cache.
+	 */
+	public static void clearCache(){
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+	
+	/**
+	 * Checks if the given file starts with the magic bytes of the binary format.
+	 */
+	private static boolean isBinary(File circuitFile) throws IOException {
+		FileInputStream in = new FileInputStream(circuitFile);
+		try {
+			byte[] header = new byte[8];
+			int size = 0;
+			int read;
+			while (size < header.length && (read = in.read(header, size, header.length - size)) > 0){
+				size += read;
+			}
+			return BinaryCircuitFormat.hasMagic(ByteBuffer.wrap(header, 0, size));
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Creates a new circuit with copies of the gates, outputs and inputs indices of the given circuit.
+	 */
+	private static BooleanCircuit copy(BooleanCircuit circuit){
+		Gate[] cachedGates = circuit.getGates();
+		Gate[] gates = new Gate[cachedGates.length];
+		for (int i = 0; i < gates.length; i++){
+			Gate gate = cachedGates[i];
+			gates[i] = new Gate(gate.getGateNumber(), (BitSet) gate.getTruthTable().clone(), 
+					gate.getInputWireIndices().clone(), gate.getOutputWireIndices().clone());
+		}
+		
+		ArrayList<ArrayList<Integer>> eachPartysInputWires = new ArrayList<ArrayList<Integer>>();
+		for (int i = 1; i <= circuit.getNumberOfParties(); i++){
+			try {
+				eachPartysInputWires.add(new ArrayList<Integer>(circuit.getInputWireIndices(i)));
+			} catch (NoSuchPartyException e) {
+				//Should not occur since the party number is in the valid range.
+				throw new IllegalStateException(e);
+			}
+		}
+		return new BooleanCircuit(gates, circuit.getOutputWireIndices().clone(), eachPartysInputWires);
+	}
+}
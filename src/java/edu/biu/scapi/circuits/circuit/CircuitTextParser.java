@@ -0,0 +1,180 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.circuits.circuit;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.BitSet;
+
+import edu.biu.scapi.exceptions.CircuitFileFormatException;
+
+/**
+ * A byte level parser of the text format of the circuit files. <p>
+ * The parser reads the stream through a big buffer and parses the numbers directly from the bytes, without creating a 
+ * String for each token as the {@link java.util.Scanner} does. Lines that start with '#' are skipped, as done by the Scanner 
+ * based parser of the {@link BooleanCircuit}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class CircuitTextParser implements BooleanCircuit.TokenSource {
+	
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private InputStream in;
+	private byte[] buffer = new byte[BUFFER_SIZE];
+	private int position;		//The index of the next byte to read in the buffer.
+	private int limit;			//The number of valid bytes in the buffer.
+	
+	/**
+	 * Creates a parser that reads the given file.
+	 * @throws FileNotFoundException if the file does not exist.
+	 */
+	CircuitTextParser(File f) throws FileNotFoundException {
+		this(new FileInputStream(f));
+	}
+	
+	/**
+	 * Creates a parser that reads the given stream.
+	 */
+	CircuitTextParser(InputStream in) {
+		this.in = in;
+	}
+	
+	/**
+	 * Closes the underlying stream.
+	 */
+	void close() {
+		try {
+			in.close();
+		} catch (IOException e) {
+			//There is nothing to do in case the close failed. 
+		}
+	}
+	
+	@Override
+	public int nextInt() throws CircuitFileFormatException {
+		int b = skipToToken();
+		boolean negative = false;
+		if (b == '-'){
+			negative = true;
+			b = read();
+		}
+		if (b < '0' || b > '9'){
+			throw new CircuitFileFormatException();
+		}
+		
+		long value = 0;
+		while (b >= '0' && b <= '9'){
+			value = value * 10 + (b - '0');
+			if (value > Integer.MAX_VALUE){
+				throw new CircuitFileFormatException();
+			}
+			b = read();
+		}
+		checkEndOfToken(b);
+		
+		return (int) (negative ? -value : value);
+	}
+	
+	@Override
+	public BitSet nextTruthTable() throws CircuitFileFormatException {
+		int b = skipToToken();
+		BitSet truthTable = new BitSet();
+		int index = 0;
+		while (b == '0' || b == '1'){
+			if (b == '1'){
+				truthTable.set(index);
+			}
+			index++;
+			b = read();
+		}
+		if (index == 0){
+			throw new CircuitFileFormatException();
+		}
+		checkEndOfToken(b);
+		
+		return truthTable;
+	}
+	
+	/**
+	 * Skips the white spaces and comment lines and returns the first byte of the next token.
+	 * @throws CircuitFileFormatException in case the stream has ended.
+	 */
+	private int skipToToken() throws CircuitFileFormatException {
+		int b = read();
+		while (true){
+			if (b == '#'){
+				//Skip the rest of the line.
+				while (b != '\n' && b != -1){
+					b = read();
+				}
+			} else if (!isWhiteSpace(b)){
+				break;
+			}
+			b = read();
+		}
+		if (b == -1){
+			throw new CircuitFileFormatException();
+		}
+		return b;
+	}
+	
+	/**
+	 * Verifies that the byte that follows a token separates it from the next token.
+	 */
+	private void checkEndOfToken(int b) throws CircuitFileFormatException {
+		if (b != -1 && !isWhiteSpace(b)){
+			throw new CircuitFileFormatException();
+		}
+	}
+	
+	private static boolean isWhiteSpace(int b){
+		return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f';
+	}
+	
+	/**
+	 * Returns the next byte in the stream, or -1 if the stream has ended.
+	 */
+	private int read() throws CircuitFileFormatException {
+		if (position == limit){
+			try {
+				limit = in.read(buffer, 0, buffer.length);
+			} catch (IOException e) {
+				throw new CircuitFileFormatException();
+			}
+			position = 0;
+			if (limit <= 0){
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[position++] & 0xFF;
+	}
+}
@@ -0,0 +1,286 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.circuits.circuit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import edu.biu.scapi.exceptions.InvalidInputException;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * A compiled, flat representation of a {@link BooleanCircuit} that is used for fast plaintext evaluation. <p>
+ * The gates are kept in topological order in primitive arrays: for each gate the indices of its two input wires, the index of 
+ * its output wire and a one byte gate type. The gate type is the truth table of the gate, where bit number (2*a + b) holds 
+ * the output for the inputs a (first input wire) and b (second input wire). Gates with a single input are stored as two input 
+ * gates whose both inputs are the same wire, and gates with more than one output wire are stored as one gate per output wire.<p>
+ * 
+ * The values of the wires are held in a boolean array indexed by the wire number, so the evaluation is a tight loop over the 
+ * gates with no {@link Wire} objects, no boxing and no map lookups. The wire values array can be reused between evaluations.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CompiledBooleanCircuit {
+
+	private int[] leftInputs;			//The index of the first input wire of each gate.
+	private int[] rightInputs;			//The index of the second input wire of each gate.
+	private int[] gateOutputs;			//The index of the output wire of each gate.
+	private byte[] gateTypes;			//The truth table of each gate.
+	
+	private int[] outputWireIndices;	//The indices of the output wires of the circuit.
+	private int[][] partyInputWires;	//The indices of the input wires of each party, indexed by the party number minus one.
+	private int numberOfWires;			//The size of the wire values array; one more than the biggest wire index.
+	
+	/**
+	 * Compiles the given circuit.
+	 * @param circuit the circuit to compile.
+	 * @throws IllegalArgumentException if the circuit contains a gate with more than two inputs.
+	 */
+	public CompiledBooleanCircuit(BooleanCircuit circuit){
+		Gate[] gates = circuit.getGates();
+		
+		//Count the compiled gates, one for each output wire.
+		int size = 0;
+		for (int i = 0; i < gates.length; i++){
+			size += gates[i].getOutputWireIndices().length;
+		}
+		leftInputs = new int[size];
+		rightInputs = new int[size];
+		gateOutputs = new int[size];
+		gateTypes = new byte[size];
+		
+		int maxWire = -1;
+		int index = 0;
+		for (int i = 0; i < gates.length; i++){
+			int[] inputs = gates[i].getInputWireIndices();
+			int[] outputs = gates[i].getOutputWireIndices();
+			byte type = toGateType(gates[i].getTruthTable(), inputs.length);
+			
+			for (int j = 0; j < outputs.length; j++){
+				leftInputs[index] = inputs[0];
+				rightInputs[index] = inputs[inputs.length - 1];
+				gateOutputs[index] = outputs[j];
+				gateTypes[index] = type;
+				maxWire = Math.max(maxWire, Math.max(outputs[j], Math.max(inputs[0], inputs[inputs.length - 1])));
+				index++;
+			}
+		}
+		
+		outputWireIndices = circuit.getOutputWireIndices().clone();
+		for (int i = 0; i < outputWireIndices.length; i++){
+			maxWire = Math.max(maxWire, outputWireIndices[i]);
+		}
+		
+		int numberOfParties = circuit.getNumberOfParties();
+		partyInputWires = new int[numberOfParties][];
+		for (int i = 0; i < numberOfParties; i++){
+			ArrayList<Integer> inputs;
+			try {
+				inputs = circuit.getInputWireIndices(i + 1);
+			} catch (NoSuchPartyException e) {
+				//Should not occur since the party number is in the valid range.
+				throw new IllegalStateException(e);
+			}
+			partyInputWires[i] = new int[inputs.size()];
+			for (int j = 0; j < partyInputWires[i].length; j++){
+				partyInputWires[i][j] = inputs.get(j);
+				maxWire = Math.max(maxWire, partyInputWires[i][j]);
+			}
+		}
+		
+		numberOfWires = maxWire + 1;
+	}
+	
+	/**
+	 * Converts the truth table of a gate with one or two inputs to a gate type.
+	 */
+	private static byte toGateType(BitSet truthTable, int numberOfInputs){
+		if (numberOfInputs == 2){
+			int type = 0;
+			for (int row = 0; row < 4; row++){
+				if (truthTable.get(row)){
+					type |= 1 << row;
+				}
+			}
+			return (byte) type;
+		} 
+		if (numberOfInputs == 1){
+			//Both inputs are the same wire, so only rows 0 (a=b=0) and 3 (a=b=1) are used. 
+			//The other rows are filled by the value of the first input so the type does not depend on the second one.
+			int type = 0;
+			if (truthTable.get(0)){
+				type |= 0x3;
+			}
+			if (truthTable.get(1)){
+				type |= 0xC;
+			}
+			return (byte) type;
+		}
+		throw new IllegalArgumentException("only gates with one or two inputs can be compiled");
+	}
+	
+	/**
+	 * Creates an array that can hold the values of all the wires of this circuit.
+	 */
+	public boolean[] createWireValues(){
+		return new boolean[numberOfWires];
+	}
+	
+	/**
+	 * Sets the input of the given party in the given wire values array.
+	 * @param wireValues the array to set the inputs in. Should be created by {@link #createWireValues()}.
+	 * @param partyNumber the number of the party whose inputs are set. The parties are numbered from one.
+	 * @param inputs the input bits of the party, in the order of the party's input wires. Each byte should be 0 or 1.
+	 * @throws NoSuchPartyException if the party number is not valid.
+	 * @throws InvalidInputException if the number of inputs is not the number of the party's input wires.
+	 */
+	public void setInputs(boolean[] wireValues, int partyNumber, byte[] inputs) throws NoSuchPartyException, InvalidInputException{
+		if (partyNumber < 1 || partyNumber > partyInputWires.length){
+			throw new NoSuchPartyException();
+		}
+		int[] wires = partyInputWires[partyNumber - 1];
+		if (inputs.length != wires.length){
+			throw new InvalidInputException();
+		}
+		for (int i = 0; i < wires.length; i++){
+			wireValues[wires[i]] = (inputs[i] == 1);
+		}
+	}
+	
+	/**
+	 * Computes all the gates of the circuit in place. The input wires should be set before calling this function.
+	 * @param wireValues the values of the wires. Should be created by {@link #createWireValues()}.
+	 */
+	public void evaluate(boolean[] wireValues){
+		int size = gateTypes.length;
+		for (int i = 0; i < size; i++){
+			int row = (wireValues[leftInputs[i]] ? 2 : 0) | (wireValues[rightInputs[i]] ? 1 : 0);
+			wireValues[gateOutputs[i]] = ((gateTypes[i] >>> row) & 1) == 1;
+		}
+	}
+	
+	/**
+	 * Computes the circuit on the given inputs.
+	 * @param inputs the input bits of each party, indexed by the party number minus one. Each byte should be 0 or 1.
+	 * @return the output bits of the circuit, in the order of the output wires.
+	 * @throws NoSuchPartyException if the number of given inputs is not the number of parties.
+	 * @throws InvalidInputException if the number of inputs of some party is not the number of its input wires.
+	 */
+	public byte[] compute(byte[]... inputs) throws NoSuchPartyException, InvalidInputException{
+		if (inputs.length != partyInputWires.length){
+			throw new NoSuchPartyException();
+		}
+		boolean[] wireValues = createWireValues();
+		for (int i = 0; i < inputs.length; i++){
+			setInputs(wireValues, i + 1, inputs[i]);
+		}
+		
+		evaluate(wireValues);
+		
+		return getOutputs(wireValues);
+	}
+	
+	/**
+	 * Returns the values of the output wires in the given wire values array.
+	 * @param wireValues the evaluated wire values.
+	 * @return the output bits of the circuit, in the order of the output wires.
+	 */
+	public byte[] getOutputs(boolean[] wireValues){
+		byte[] outputs = new byte[outputWireIndices.length];
+		for (int i = 0; i < outputs.length; i++){
+			outputs[i] = (byte) (wireValues[outputWireIndices[i]] ? 1 : 0);
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Returns the number of compiled gates.
+	 */
+	public int getNumberOfGates(){
+		return gateTypes.length;
+	}
+	
+	/**
+	 * Returns the size of the wire values array; one more than the biggest wire index.
+	 */
+	public int getNumberOfWires(){
+		return numberOfWires;
+	}
+	
+	/**
+	 * Returns the number of parties of the circuit.
+	 */
+	public int getNumberOfParties(){
+		return partyInputWires.length;
+	}
+	
+	/**
+	 * Returns the indices of the first input wire of each gate.
+	 */
+	public int[] getLeftInputs(){
+		return leftInputs;
+	}
+	
+	/**
+	 * Returns the indices of the second input wire of each gate. For single input gates this is the first input wire.
+	 */
+	public int[] getRightInputs(){
+		return rightInputs;
+	}
+	
+	/**
+	 * Returns the index of the output wire of each gate.
+	 */
+	public int[] getGateOutputs(){
+		return gateOutputs;
+	}
+	
+	/**
+	 * Returns the type of each gate; bit number (2*a + b) holds the output for the inputs a and b.
+	 */
+	public byte[] getGateTypes(){
+		return gateTypes;
+	}
+	
+	/**
+	 * Returns the indices of the output wires of the circuit.
+	 */
+	public int[] getOutputWireIndices(){
+		return outputWireIndices;
+	}
+	
+	/**
+	 * Returns the indices of the input wires of the given party.
+	 * @throws NoSuchPartyException if the party number is not valid.
+	 */
+	public int[] getInputWireIndices(int partyNumber) throws NoSuchPartyException{
+		if (partyNumber < 1 || partyNumber > partyInputWires.length){
+			throw new NoSuchPartyException();
+		}
+		return partyInputWires[partyNumber - 1];
+	}
+}
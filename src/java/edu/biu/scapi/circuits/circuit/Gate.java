@@ -170,12 +170,12 @@ public class Gate {
 		 * Since a truth tables order is the order of binary counting, the index of a desired row can be calculated as follows: 
 		 * For a truth table with L inputs whose input columns are labeled aL...ai...a2,a1, 
 		 * the output index for a given input set is given by: summation from 0 to L : ai *2^i. 
-		 * This is calculated below:
+		 * This is calculated below by shifting in the input values, starting from the most significant one:
 		 */
 		int truthTableIndex = 0;
 		int numberOfInputs = inputWireIndices.length;
-		for (int i = numberOfInputs - 1, j = 0; j < numberOfInputs; i--, j++) {
-			truthTableIndex += computedWires.get(inputWireIndices[i]).getValue() * Math.pow(2, j);
+		for (int i = 0; i < numberOfInputs; i++) {
+			truthTableIndex = (truthTableIndex << 1) | computedWires.get(inputWireIndices[i]).getValue();
 		}
 		return truthTableIndex;
 	}
@@ -24,8 +24,6 @@
 */
 package edu.biu.scapi.circuits.encryption;
 
-import java.nio.ByteBuffer;
-import java.nio.LongBuffer;
 import java.security.InvalidKeyException;
 
 import javax.crypto.IllegalBlockSizeException;
@@ -36,6 +34,8 @@ import edu.biu.scapi.exceptions.KeyNotSetException;
 import edu.biu.scapi.exceptions.TweakNotSetException;
 import edu.biu.scapi.primitives.prf.AES;
 import edu.biu.scapi.primitives.prf.cryptopp.CryptoPpAES;
+import edu.biu.scapi.primitives.prf.miracl.MiraclAES;
+import edu.biu.scapi.primitives.prf.openSSL.OpenSSLPRP;
 
 /**
  * This encryption scheme uses AES with a fixed key and thus has the benefit of not needing to repeatedly perform the costly setKey 
@@ -43,7 +43,16 @@ import edu.biu.scapi.primitives.prf.cryptopp.CryptoPpAES;
  * description of this encryption scheme. <p>
  * 
  * This encryption scheme works by XORing all of the wire values(i.e. keys) to each other and then XORing this to the tweak. 
- * This value is denoted by K. We call AES with the fixed key on K and then XOR the result of that to K and then to the plaintext to encrypt.
+ * This value is denoted by K. We call AES with the fixed key on K and then XOR the result of that to K and then to the plaintext to encrypt. <p>
+ * 
+ * Besides the {@link MultiKeyEncryptionScheme} interface, this class offers a batched API for two-input gates with 128 bit labels: 
+ * {@link #garbleGate(long[], int, int, int, int, int, byte[], int)} computes all four rows of a gate in one multi-block AES call and 
+ * {@link #computeGate(long[], int, int, int, byte[], int, long[], int)} decrypts the row selected by the signal bits. 
+ * Both get the labels as pairs of longs and write to preallocated buffers, so they do not allocate memory. <p>
+ * 
+ * The same fixed key AES is used as the hash function of the half gates technique, see 
+ * {@link #garbleHalfGates(long[], int, int, long[], int, byte[], int, long[], int)} and 
+ * {@link #computeHalfGates(long[], int, int, int, byte[], int, long[], int)}.
  * 
  * @author Steven Goldfeder
  * 
@@ -78,6 +87,15 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 	//To avoid that, the input to the aes function should be different. 
 	//This flag indicates which algorithm to use.
 	private boolean isFreeXor = false; 
+	
+	//Scratch buffers of the batched API. Four blocks are used when garbling a gate and one block when computing it.
+	private final byte[] gateInput = new byte[4 * KEY_SIZE / 8];
+	private final byte[] gateOutput = new byte[4 * KEY_SIZE / 8];
+	private final long[] rowKeys = new long[8];
+	private final byte[] rowInput = new byte[KEY_SIZE / 8];
+	private final byte[] rowOutput = new byte[KEY_SIZE / 8];
+	private final byte[] halfGateInput = new byte[2 * KEY_SIZE / 8];
+	private final byte[] halfGateOutput = new byte[2 * KEY_SIZE / 8];
 
 	public AESFixedKeyMultiKeyEncryption() {
 		this(new CryptoPpAES());
@@ -132,21 +150,17 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 		}
 		// XOR all of the keys to each other.
 		SecretKey[] keys = key.getKeys();
-		byte[] inBytes;
+		byte[] inBytes = keys[0].getEncoded();
 		if (isFreeXor){
 			//In case of free xor circuit, we multiply k0 by two. This is done by shifting k0 bits to the left.
-			inBytes = shiftLeft(keys[0].getEncoded());
-		} else {
-			inBytes = keys[0].getEncoded();
-		}
+			shiftLeft(inBytes);
+		} 
 		for (int i = 1; i < keys.length; i++) {
-			byte[] currKeyBytes;
+			byte[] currKeyBytes = keys[i].getEncoded();
 			if (isFreeXor){	
 				//In case of free xor circuit, we divide k1 by two. This is done by shifting k0 bits to the right.
-				currKeyBytes = shiftRight(keys[i].getEncoded());
-			} else {
-				currKeyBytes = keys[i].getEncoded();
-			}
+				shiftRight(currKeyBytes);
+			} 
 			
 			for (int byteNumber = 0; byteNumber < inBytes.length; byteNumber++) {
 				inBytes[byteNumber] ^= currKeyBytes[byteNumber];
@@ -176,36 +190,278 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 	}
 
 	/**
-	 * Shifts the bits of the given array to the right.
-	 * @param bytes to shift right.
-	 * @return an array containing the given bytes shifted right.
+	 * Garbles all four rows of a two-input gate using one multi-block AES call.<p>
+	 * 
+	 * Each label is given as two longs: the big endian value of its first 8 bytes followed by the big endian value of its last 8 bytes.
+	 * Each of the given offsets points to the 0-label of a wire, which should be followed by the 1-label of that wire. 
+	 * This is the layout used by the garbler's wire label store.<p>
+	 * 
+	 * The result is identical to garbling the gate row by row using {@link #setKey(MultiSecretKey)}, {@link #setTweak(byte[])} and 
+	 * {@link #encrypt(byte[])}, where the tweak is the gate number followed by the signal bits of the input keys.
+	 * 
+	 * @param labels Contains the labels of the gate's wires.
+	 * @param firstInputOffset The index in labels of the first input wire's 0-label.
+	 * @param secondInputOffset The index in labels of the second input wire's 0-label.
+	 * @param outputOffset The index in labels of the output wire's 0-label.
+	 * @param truthTable The truth table of the gate. Bit number 2a+b is the output of the gate on inputs a and b.
+	 * @param gateNumber The number of the gate, which is the first part of the tweak.
+	 * @param garbledTable A preallocated buffer to put the four ciphertexts in, ordered by the signal bits.
+	 * @param tableOffset The index in garbledTable where the first ciphertext should be written.
+	 * @throws IllegalBlockSizeException
+	 */
+	public void garbleGate(long[] labels, int firstInputOffset, int secondInputOffset, int outputOffset, int truthTable, int gateNumber,
+			byte[] garbledTable, int tableOffset) throws IllegalBlockSizeException {
+		
+		//The signal bits are the last bits of the 0-labels.
+		int firstSignalBit = (int) (labels[firstInputOffset + 1] & 1);
+		int secondSignalBit = (int) (labels[secondInputOffset + 1] & 1);
+		
+		//Calculate K of each row and put it in the input of the AES.
+		for (int position = 0; position < 4; position++) {
+			int firstInput = (position >> 1) ^ firstSignalBit;
+			int secondInput = (position & 1) ^ secondSignalBit;
+			rowKey(labels, firstInputOffset + 2 * firstInput, secondInputOffset + 2 * secondInput, gateNumber, position >> 1, position & 1, 
+					rowKeys, 2 * position);
+			putLong(gateInput, 16 * position, rowKeys[2 * position]);
+			putLong(gateInput, 16 * position + 8, rowKeys[2 * position + 1]);
+		}
+		
+		//Compute all rows with one call.
+		computeBlocks(gateInput, gateOutput);
+		
+		//XOR each result with K and with the output label that matches the row.
+		for (int position = 0; position < 4; position++) {
+			int firstInput = (position >> 1) ^ firstSignalBit;
+			int secondInput = (position & 1) ^ secondSignalBit;
+			int output = (truthTable >> (2 * firstInput + secondInput)) & 1;
+			int plaintext = outputOffset + 2 * output;
+			
+			putLong(garbledTable, tableOffset + 16 * position, 
+					getLong(gateOutput, 16 * position) ^ rowKeys[2 * position] ^ labels[plaintext]);
+			putLong(garbledTable, tableOffset + 16 * position + 8, 
+					getLong(gateOutput, 16 * position + 8) ^ rowKeys[2 * position + 1] ^ labels[plaintext + 1]);
+		}
+	}
+	
+	/**
+	 * Computes a two-input gate that was garbled by {@link #garbleGate(long[], int, int, int, int, int, byte[], int)}.<p>
+	 * The row to decrypt is chosen by the signal bits of the given input labels. Labels are given as two longs, as in garbleGate.
+	 * @param labels Contains the labels of the input wires.
+	 * @param firstInputOffset The index in labels of the first input wire's label.
+	 * @param secondInputOffset The index in labels of the second input wire's label.
+	 * @param gateNumber The number of the gate, which is the first part of the tweak.
+	 * @param garbledTable Contains the four ciphertexts of the gate.
+	 * @param tableOffset The index in garbledTable where the first ciphertext begins.
+	 * @param output The array to put the output label in. May be the same as labels.
+	 * @param outputOffset The index in output where the output label should be written.
+	 * @throws IllegalBlockSizeException
+	 */
+	public void computeGate(long[] labels, int firstInputOffset, int secondInputOffset, int gateNumber, byte[] garbledTable, int tableOffset,
+			long[] output, int outputOffset) throws IllegalBlockSizeException {
+		
+		int firstSignalBit = (int) (labels[firstInputOffset + 1] & 1);
+		int secondSignalBit = (int) (labels[secondInputOffset + 1] & 1);
+		int row = tableOffset + 16 * ((firstSignalBit << 1) | secondSignalBit);
+		
+		rowKey(labels, firstInputOffset, secondInputOffset, gateNumber, firstSignalBit, secondSignalBit, rowKeys, 0);
+		putLong(rowInput, 0, rowKeys[0]);
+		putLong(rowInput, 8, rowKeys[1]);
+		aes.computeBlock(rowInput, 0, rowOutput, 0);
+		
+		output[outputOffset] = getLong(rowOutput, 0) ^ rowKeys[0] ^ getLong(garbledTable, row);
+		output[outputOffset + 1] = getLong(rowOutput, 8) ^ rowKeys[1] ^ getLong(garbledTable, row + 8);
+	}
+	
+	/**
+	 * Garbles a two-input AND gate using the half gates technique, which needs only two ciphertexts per gate. 
+	 * See <i>Two Halves Make a Whole</i> by Samee Zahur, Mike Rosulek and David Evans.<p>
+	 * 
+	 * The hash function used is H(X, j) = AES(K) XOR K, where K = 2X XOR j and 2X is the doubling of X in GF(2^128). 
+	 * The tweaks of the gate are 2*gateNumber for the first input and 2*gateNumber+1 for the second input.<p>
+	 * 
+	 * Labels are given as two longs, as in {@link #garbleGate(long[], int, int, int, int, int, byte[], int)}. 
+	 * The 1-label of each input is calculated as its 0-label XOR delta, thus only the 0-labels are read.
+	 * 
+	 * @param labels Contains the labels of the input wires.
+	 * @param firstInputOffset The index in labels of the first input wire's 0-label.
+	 * @param secondInputOffset The index in labels of the second input wire's 0-label.
+	 * @param delta The free XOR offset of the circuit. Its last bit should be 1.
+	 * @param gateNumber The number of the gate, used to calculate the tweaks.
+	 * @param garbledTable A preallocated buffer to put the two ciphertexts in.
+	 * @param tableOffset The index in garbledTable where the first ciphertext should be written.
+	 * @param output The array to put the output 0-label in. May be the same as labels.
+	 * @param outputOffset The index in output where the output 0-label should be written.
+	 * @throws IllegalBlockSizeException
+	 */
+	public void garbleHalfGates(long[] labels, int firstInputOffset, int secondInputOffset, long[] delta, int gateNumber,
+			byte[] garbledTable, int tableOffset, long[] output, int outputOffset) throws IllegalBlockSizeException {
+		
+		long a0High = labels[firstInputOffset];
+		long a0Low = labels[firstInputOffset + 1];
+		long b0High = labels[secondInputOffset];
+		long b0Low = labels[secondInputOffset + 1];
+		
+		//Hash both labels of both inputs using one multi-block AES call.
+		hashKey(a0High, a0Low, 2L * gateNumber, gateInput, 0);
+		hashKey(a0High ^ delta[0], a0Low ^ delta[1], 2L * gateNumber, gateInput, 1);
+		hashKey(b0High, b0Low, 2L * gateNumber + 1, gateInput, 2);
+		hashKey(b0High ^ delta[0], b0Low ^ delta[1], 2L * gateNumber + 1, gateInput, 3);
+		computeBlocks(gateInput, gateOutput);
+		for (int i = 0; i < 8; i++){
+			rowKeys[i] ^= getLong(gateOutput, 8 * i);
+		}
+		
+		//The masks are all ones if the signal bit of the 0-label is 1, and zero otherwise.
+		long firstMask = -(a0Low & 1);
+		long secondMask = -(b0Low & 1);
+		
+		//The generator's half gate.
+		long generatorTableHigh = rowKeys[0] ^ rowKeys[2] ^ (delta[0] & secondMask);
+		long generatorTableLow = rowKeys[1] ^ rowKeys[3] ^ (delta[1] & secondMask);
+		long generatorHigh = rowKeys[0] ^ (generatorTableHigh & firstMask);
+		long generatorLow = rowKeys[1] ^ (generatorTableLow & firstMask);
+		
+		//The evaluator's half gate.
+		long evaluatorTableHigh = rowKeys[4] ^ rowKeys[6] ^ a0High;
+		long evaluatorTableLow = rowKeys[5] ^ rowKeys[7] ^ a0Low;
+		long evaluatorHigh = rowKeys[4] ^ ((evaluatorTableHigh ^ a0High) & secondMask);
+		long evaluatorLow = rowKeys[5] ^ ((evaluatorTableLow ^ a0Low) & secondMask);
+		
+		putLong(garbledTable, tableOffset, generatorTableHigh);
+		putLong(garbledTable, tableOffset + 8, generatorTableLow);
+		putLong(garbledTable, tableOffset + 16, evaluatorTableHigh);
+		putLong(garbledTable, tableOffset + 24, evaluatorTableLow);
+		
+		output[outputOffset] = generatorHigh ^ evaluatorHigh;
+		output[outputOffset + 1] = generatorLow ^ evaluatorLow;
+	}
+	
+	/**
+	 * Computes a two-input AND gate that was garbled by {@link #garbleHalfGates(long[], int, int, long[], int, byte[], int, long[], int)}.
+	 * @param labels Contains the labels of the input wires.
+	 * @param firstInputOffset The index in labels of the first input wire's label.
+	 * @param secondInputOffset The index in labels of the second input wire's label.
+	 * @param gateNumber The number of the gate, used to calculate the tweaks.
+	 * @param garbledTable Contains the two ciphertexts of the gate.
+	 * @param tableOffset The index in garbledTable where the first ciphertext begins.
+	 * @param output The array to put the output label in. May be the same as labels.
+	 * @param outputOffset The index in output where the output label should be written.
+	 * @throws IllegalBlockSizeException
 	 */
-	private byte[] shiftRight(byte[] bytes){
+	public void computeHalfGates(long[] labels, int firstInputOffset, int secondInputOffset, int gateNumber, byte[] garbledTable, int tableOffset,
+			long[] output, int outputOffset) throws IllegalBlockSizeException {
 		
-		ByteBuffer temp = ByteBuffer.wrap(bytes);
-		LongBuffer longBuf = temp.asLongBuffer();
-		int size = longBuf.capacity();
-		for (int i=0; i<size; i++){
-			longBuf.put(i, longBuf.get(i) >> 1);
+		long aHigh = labels[firstInputOffset];
+		long aLow = labels[firstInputOffset + 1];
+		long bHigh = labels[secondInputOffset];
+		long bLow = labels[secondInputOffset + 1];
+		
+		hashKey(aHigh, aLow, 2L * gateNumber, halfGateInput, 0);
+		hashKey(bHigh, bLow, 2L * gateNumber + 1, halfGateInput, 1);
+		computeBlocks(halfGateInput, halfGateOutput);
+		
+		//The signal bits choose whether to use the ciphertexts.
+		long firstMask = -(aLow & 1);
+		long secondMask = -(bLow & 1);
+		
+		long generatorHigh = getLong(halfGateOutput, 0) ^ rowKeys[0] ^ (getLong(garbledTable, tableOffset) & firstMask);
+		long generatorLow = getLong(halfGateOutput, 8) ^ rowKeys[1] ^ (getLong(garbledTable, tableOffset + 8) & firstMask);
+		long evaluatorHigh = getLong(halfGateOutput, 16) ^ rowKeys[2] ^ ((getLong(garbledTable, tableOffset + 16) ^ aHigh) & secondMask);
+		long evaluatorLow = getLong(halfGateOutput, 24) ^ rowKeys[3] ^ ((getLong(garbledTable, tableOffset + 24) ^ aLow) & secondMask);
+		
+		output[outputOffset] = generatorHigh ^ evaluatorHigh;
+		output[outputOffset + 1] = generatorLow ^ evaluatorLow;
+	}
+	
+	/**
+	 * Calculates K = 2X XOR tweak of the half gates hash function, keeps it in rowKeys and puts it in the given block of the AES input.
+	 * The doubling is done in GF(2^128) with the polynomial x^128 + x^7 + x^2 + x + 1.
+	 */
+	private void hashKey(long high, long low, long tweak, byte[] in, int block) {
+		long keyHigh = (high << 1) | (low >>> 63);
+		long keyLow = ((low << 1) ^ (0x87 & -(high >>> 63))) ^ tweak;
+		rowKeys[2 * block] = keyHigh;
+		rowKeys[2 * block + 1] = keyLow;
+		putLong(in, 16 * block, keyHigh);
+		putLong(in, 16 * block + 8, keyLow);
+	}
+	
+	/**
+	 * Calculates K = k_first XOR k_second XOR tweak of a row, where the keys are shifted in case of free xor circuit. 
+	 * See {@link #processRow(byte[])}.
+	 */
+	private void rowKey(long[] labels, int first, int second, int gateNumber, int firstSignalBit, int secondSignalBit, long[] out, int outOffset) {
+		//The tweak is the gate number followed by the signal bits, each one written as an int.
+		long tweakHigh = ((long) gateNumber << 32) | firstSignalBit;
+		long tweakLow = (long) secondSignalBit << 32;
+		
+		if (isFreeXor){
+			out[outOffset] = (labels[first] << 1) ^ (labels[second] >> 1) ^ tweakHigh;
+			out[outOffset + 1] = (labels[first + 1] << 1) ^ (labels[second + 1] >> 1) ^ tweakLow;
+		} else {
+			out[outOffset] = labels[first] ^ labels[second] ^ tweakHigh;
+			out[outOffset + 1] = labels[first + 1] ^ labels[second + 1] ^ tweakLow;
+		}
+	}
+	
+	/**
+	 * Computes AES on all the blocks of the given array. 
+	 * Uses the native multi-block function if the underlying AES has one; otherwise, computes the blocks one by one.
+	 */
+	private void computeBlocks(byte[] inBytes, byte[] outBytes) throws IllegalBlockSizeException {
+		if (aes instanceof CryptoPpAES){
+			((CryptoPpAES) aes).optimizedCompute(inBytes, outBytes);
+		} else if (aes instanceof OpenSSLPRP){
+			((OpenSSLPRP) aes).optimizedCompute(inBytes, outBytes);
+		} else if (aes instanceof MiraclAES){
+			((MiraclAES) aes).optimizedCompute(inBytes, outBytes);
+		} else{
+			int blockSize = aes.getBlockSize();
+			for (int offset = 0; offset < inBytes.length; offset += blockSize){
+				aes.computeBlock(inBytes, offset, outBytes, offset);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the big endian long that begins in the given offset of the given array.
+	 */
+	private static long getLong(byte[] bytes, int offset){
+		long value = 0;
+		for (int i = 0; i < 8; i++){
+			value = (value << 8) | (bytes[offset + i] & 0xFF);
+		}
+		return value;
+	}
+	
+	/**
+	 * Writes the given long to the given array in big endian order.
+	 */
+	private static void putLong(byte[] bytes, int offset, long value){
+		for (int i = 7; i >= 0; i--){
+			bytes[offset + i] = (byte) value;
+			value >>>= 8;
+		}
+	}
+
+	/**
+	 * Shifts the bits of each long in the given array to the right (the sign bit is kept).
+	 * @param bytes to shift right. The array is changed in place.
+	 */
+	private void shiftRight(byte[] bytes){
+		for (int offset = 0; offset + 8 <= bytes.length; offset += 8){
+			putLong(bytes, offset, getLong(bytes, offset) >> 1);
 		}
-		temp.asLongBuffer().put(longBuf);
-		return temp.array();
 	}
 	
 	/**
-	 * Shifts the bits of the given array to the left.
-	 * @param bytes to shift left.
-	 * @return an array containing the given bytes shifted left.
+	 * Shifts the bits of each long in the given array to the left.
+	 * @param bytes to shift left. The array is changed in place.
 	 */
-	private byte[] shiftLeft(byte[] bytes){
-		ByteBuffer temp = ByteBuffer.wrap(bytes);
-		LongBuffer longBuf = temp.asLongBuffer();
-		int size = longBuf.capacity();
-		for (int i=0; i<size; i++){
-			longBuf.put(i, longBuf.get(i) << 1);
+	private void shiftLeft(byte[] bytes){
+		for (int offset = 0; offset + 8 <= bytes.length; offset += 8){
+			putLong(bytes, offset, getLong(bytes, offset) << 1);
 		}
-		temp.asLongBuffer().put(longBuf);
-		return temp.array();
 	}
 	
 	@Override
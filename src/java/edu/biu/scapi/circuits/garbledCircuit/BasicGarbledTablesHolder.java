@@ -59,4 +59,31 @@ public class BasicGarbledTablesHolder implements GarbledTablesHolder{
 	public void setGarbledTables(byte[][] garbledTables){
 		this.garbledTables = garbledTables;
 	}
+	
+	/**
+	 * Removes the tables of the given gates from this holder and returns them as a chunk.
+	 * @param firstGate The index of the first gate to remove.
+	 * @param numberOfGates The number of gates to remove.
+	 * @return the removed tables.
+	 */
+	public GarbledTablesChunk removeChunk(int firstGate, int numberOfGates){
+		byte[][] chunkTables = new byte[numberOfGates][];
+		System.arraycopy(garbledTables, firstGate, chunkTables, 0, numberOfGates);
+		for (int i = firstGate; i < firstGate + numberOfGates; i++){
+			garbledTables[i] = null;
+		}
+		return new GarbledTablesChunk(firstGate, numberOfGates, chunkTables);
+	}
+	
+	/**
+	 * Puts the tables of the given chunk in this holder.
+	 * @param chunk Contains a table for each gate in its range.
+	 */
+	public void putChunk(GarbledTablesChunk chunk){
+		byte[][] chunkTables = chunk.getGarbledTables();
+		if (chunkTables == null || chunkTables.length != chunk.getNumberOfGates()){
+			throw new IllegalArgumentException("the given chunk should contain a table for each gate");
+		}
+		System.arraycopy(chunkTables, 0, garbledTables, chunk.getFirstGate(), chunkTables.length);
+	}
 }
@@ -42,6 +42,21 @@ import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
  */
 interface CircuitTypeUtil {
 	
+	/**
+	 * Creates an empty garbled tables holder that matches this circuit type.<p>
+	 * Most circuit types hold a separate table for each gate; Others may hold the tables of all gates in one array.
+	 * @param ungarbledGates The gates that should be garbled.
+	 * @return the created holder.
+	 */
+	public GarbledTablesHolder createGarbledTablesHolder(Gate[] ungarbledGates);
+	
+	/**
+	 * Sets a runner that garbles the gates in parallel, using a copy of the gates for each worker.<p>
+	 * If the runner is null (the default), the gates are garbled one after the other using the gates given to the garble functions.
+	 * @param gateRunner Runs tasks on the gates of the circuit in parallel.
+	 */
+	public void setGateRunner(LevelParallelGateRunner gateRunner);
+	
 	/**
 	 * Creates the gates that match this circuit type.
 	 * @param ungarbledGates The gates that should be garbled.
@@ -74,4 +89,40 @@ interface CircuitTypeUtil {
 	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
 			GarbledGate[] gates, PseudorandomGenerator prg, byte[] seed) throws InvalidKeyException;
 	
+	/**
+	 * Sets whether the garble functions should defer the creation of the garbled tables.<p>
+	 * In deferred garbling, the garble functions sample the keys but do not create the garbled tables. 
+	 * The tables are created later, a chunk at a time, by {@link #garbleGates(GarbledGate[], GarbledTablesHolder, int, int)}. 
+	 * This way the tables can be sent while the next ones are being created.
+	 * @param isDeferred true in order to defer the garbled tables creation; false (the default) to create them in the garble functions.
+	 */
+	public void setDeferredGarbling(boolean isDeferred);
+	
+	/**
+	 * Creates the garbled tables of the given range of gates, using the keys that were sampled by the last deferred garble call.<p>
+	 * Should be called on consecutive ranges, in the gates' order. 
+	 * Some circuit types calculate the output keys while creating the tables; In this case, the output keys and translation table 
+	 * returned by the garble function are complete only after the tables of the last gate were created.
+	 * @param gates The gates of this circuit.
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param from The index of the first gate to garble.
+	 * @param to One more than the index of the last gate to garble.
+	 * @return the created tables. The tables are removed from the holder.
+	 */
+	public GarbledTablesChunk garbleGates(GarbledGate[] gates, GarbledTablesHolder garbledTablesHolder, int from, int to);
+	
+	/**
+	 * Puts the tables of the given chunk in the given holder, in order to compute the gates of the chunk.
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param chunk The tables of some consecutive gates, that were created by {@link #garbleGates(GarbledGate[], GarbledTablesHolder, int, int)}.
+	 */
+	public void putGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk);
+	
+	/**
+	 * Removes the tables of the given chunk from the given holder, after the gates of the chunk were computed.
+	 * @param garbledTablesHolder The object that points to the garbledTable.
+	 * @param chunk The chunk that was put in the holder.
+	 */
+	public void removeGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk);
+	
 }
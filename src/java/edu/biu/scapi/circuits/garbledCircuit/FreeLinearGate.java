@@ -0,0 +1,220 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+
+/**
+ * A garbled gate for any linear gate with one or two inputs, i.e. a gate whose output is the XOR of some of its inputs and a constant.<p>
+ * This includes XOR, XOR NOT, NOT, identity and constant gates. 
+ * As in the {@link FreeXORGate}, the keys of all wires satisfy k1 = k0 XOR delta and thus no encryption is needed. 
+ * The 0-key of the output wire is the XOR of the 0-keys of the inputs that are used, XOR delta in case the constant is 1. 
+ * The computed key of the output wire is the XOR of the computed keys of the inputs that are used.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class FreeLinearGate implements GarbledGate {
+
+	private int[] inputWireIndices;
+	private int[] outputWireIndices;
+	private int gateNumber;
+	private BitSet truthTable;
+	
+	//The gate computes the XOR of the inputs i with usesInput[i] = true, XORed with constant.
+	private boolean[] usesInput;
+	private int constant;
+	
+	/**
+	 * Constructs a free linear garbled gate from an ungarbled gate.
+	 * @param ungarbledGate The ungarbled Gate that needs to be Garbled. Should be a linear gate with one or two inputs.
+	 */
+	FreeLinearGate(Gate ungarbledGate) {
+		if (!isLinearGate(ungarbledGate)){
+			throw new IllegalArgumentException("a free linear gate should have one or two inputs and a linear truth table");
+		}
+		inputWireIndices = ungarbledGate.getInputWireIndices();
+		outputWireIndices = ungarbledGate.getOutputWireIndices();
+		gateNumber = ungarbledGate.getGateNumber();
+		truthTable = ungarbledGate.getTruthTable();
+		
+		//The constant is the output on the zero row. Input i is used if flipping it (alone) changes the output.
+		int numberOfInputs = inputWireIndices.length;
+		int table = HalfGatesGate.toInt(truthTable, 1 << numberOfInputs);
+		constant = table & 1;
+		usesInput = new boolean[numberOfInputs];
+		for (int i = 0; i < numberOfInputs; i++) {
+			usesInput[i] = ((table >> (1 << (numberOfInputs - 1 - i))) & 1) != constant;
+		}
+	}
+	
+	/**
+	 * Checks if the given gate is a linear gate with one or two inputs.
+	 */
+	static boolean isLinearGate(Gate ungarbledGate){
+		int numberOfInputs = ungarbledGate.getInputWireIndices().length;
+		if (numberOfInputs == 1) {
+			return true;
+		}
+		//A two-input gate is linear if and only if its truth table has an even number of ones.
+		return numberOfInputs == 2 && (Integer.bitCount(HalfGatesGate.toInt(ungarbledGate.getTruthTable(), 4)) & 1) == 0;
+	}
+	
+	/**
+	 * Creates both keys of the output wires of this gate.
+	 * The keys of the input wires should already be in the given store.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The Free XOR delta, packed by the store.
+	 */
+	void garble(WireLabelStore allWireValues, long[] globalKeyOffset) {
+		int output = outputWireIndices[0];
+		
+		//Calculate the 0-key of the output and then the 1-key.
+		xorUsedInputs(allWireValues, 0);
+		if (constant == 1) {
+			allWireValues.xorLabel(output, 0, output, 0, globalKeyOffset);
+		}
+		allWireValues.xorLabel(output, 1, output, 0, globalKeyOffset);
+		
+		//Copy the keys to the rest of the output wires, if there are any.
+		for (int i = 1; i < outputWireIndices.length; i++) {
+			allWireValues.copyLabel(output, 0, outputWireIndices[i], 0);
+			allWireValues.copyLabel(output, 1, outputWireIndices[i], 1);
+		}
+	}
+	
+	/**
+	 * Puts the XOR of the given keys of the used inputs in the given key of the first output wire.
+	 */
+	private void xorUsedInputs(WireLabelStore store, int value) {
+		int output = outputWireIndices[0];
+		
+		//XOR of a key with itself gives the zero key, which is the result in case no input is used.
+		store.xorLabels(output, value, inputWireIndices[0], value, inputWireIndices[0], value);
+		for (int i = 0; i < usesInput.length; i++) {
+			if (usesInput[i]) {
+				store.xorLabels(output, value, output, value, inputWireIndices[i], value);
+			}
+		}
+	}
+	
+	@Override
+	public void compute(Map<Integer, GarbledWire> computedWires) {
+		byte[] outputValue = null;
+		for (int i = 0; i < usesInput.length; i++) {
+			byte[] input = computedWires.get(inputWireIndices[i]).getValueAndSignalBit().getEncoded();
+			if (outputValue == null) {
+				outputValue = new byte[input.length];
+			}
+			if (usesInput[i]) {
+				for (int currentByte = 0; currentByte < outputValue.length; currentByte++) {
+					outputValue[currentByte] ^= input[currentByte];
+				}
+			}
+		}
+		
+		GarbledWire outputWire = new GarbledWire(new SecretKeySpec(outputValue, ""));
+		for (int w : outputWireIndices) {
+			computedWires.put(w, outputWire);
+		}
+	}
+	
+	@Override
+	public void compute(WireLabelStore computedWires) {
+		xorUsedInputs(computedWires, 0);
+		
+		//Copy the result to the rest of the output wires, if there are any.
+		for (int i = 1; i < outputWireIndices.length; i++) {
+			computedWires.copyLabel(outputWireIndices[0], 0, outputWireIndices[i], 0);
+		}
+	}
+	
+	@Override
+	public boolean verify(Gate g, Map<Integer, SecretKey[]> allWireValues) {
+		
+		//Verify that the gate number, input/output indices and truth table are the same as the given ungarbled gate.
+		if (gateNumber != g.getGateNumber() || !truthTable.equals(g.getTruthTable())) {
+			return false;
+		}
+		if (!Arrays.equals(inputWireIndices, g.getInputWireIndices()) || !Arrays.equals(outputWireIndices, g.getOutputWireIndices())) {
+			return false;
+		}
+		
+		//All inputs should have the same delta.
+		byte[] delta = xor(allWireValues.get(inputWireIndices[0])[0].getEncoded(), allWireValues.get(inputWireIndices[0])[1].getEncoded());
+		for (int i = 1; i < inputWireIndices.length; i++) {
+			SecretKey[] keys = allWireValues.get(inputWireIndices[i]);
+			if (!Arrays.equals(delta, xor(keys[0].getEncoded(), keys[1].getEncoded()))) {
+				return false;
+			}
+		}
+		
+		//Calculate the output keys the same way the garbler does.
+		byte[] outputZero = new byte[delta.length];
+		for (int i = 0; i < usesInput.length; i++) {
+			if (usesInput[i]) {
+				outputZero = xor(outputZero, allWireValues.get(inputWireIndices[i])[0].getEncoded());
+			}
+		}
+		if (constant == 1) {
+			outputZero = xor(outputZero, delta);
+		}
+		byte[] outputOne = xor(outputZero, delta);
+		
+		//Add the values for the output wire(s) to the allWireValues map, to be used by the following gates.
+		for (int w : outputWireIndices) {
+			allWireValues.put(w, new SecretKey[] { new SecretKeySpec(outputZero, ""), new SecretKeySpec(outputOne, "") });
+		}
+		return true;
+	}
+	
+	/**
+	 * Returns a new array containing the XOR of the given arrays.
+	 */
+	private static byte[] xor(byte[] first, byte[] second) {
+		byte[] result = new byte[first.length];
+		for (int i = 0; i < first.length; i++) {
+			result[i] = (byte) (first[i] ^ second[i]);
+		}
+		return result;
+	}
+	
+	@Override
+	public int[] getInputWireIndices() {
+		return inputWireIndices;
+	}
+	
+	@Override
+	public int[] getOutputWireIndices() {
+		return outputWireIndices;
+	}
+}
@@ -66,6 +66,11 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	private BitSet XORNOTTruthTable;	
 	private BitSet XORTruthTable;
 	
+	private LevelParallelGateRunner gateRunner;	//Creates the garbled tables in parallel. Null in case of sequential garbling.
+	private boolean isDeferred;					//Indicates whether the garble functions should create the garbled tables.
+	private Gate[] deferredGates;				//The gates and keys of the last deferred garble call.
+	private WireLabelStore deferredWireValues;
+	
 	/**
 	 * Sets the given MultiKeyEncryptionScheme.
 	 * @param mes The concrete encryption object to use.
@@ -84,6 +89,64 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		this(new AESFixedKeyMultiKeyEncryption());
 	}
 	
+	@Override
+	public void setGateRunner(LevelParallelGateRunner gateRunner){
+		this.gateRunner = gateRunner;
+	}
+	
+	@Override
+	public void setDeferredGarbling(boolean isDeferred){
+		this.isDeferred = isDeferred;
+	}
+	
+	@Override
+	public GarbledTablesChunk garbleGates(GarbledGate[] gates, GarbledTablesHolder garbledTablesHolder, int from, int to){
+		if (deferredWireValues == null){
+			throw new IllegalStateException("garbleGates should be called after a deferred garble call");
+		}
+		//Free XOR gate and Free XOR NOT gates do not have a garbled tables.
+		BitSet XORTruthTable = getXORTruthTable();
+		BitSet XORNOTTruthTable = getXORNOTTruthTable();
+		
+		for (int gate = from; gate < to; gate++) {
+			if (deferredGates[gate].getTruthTable().equals(XORTruthTable) || deferredGates[gate].getTruthTable().equals(XORNOTTruthTable)) {
+				continue;
+			}
+			try {
+				((StandardGarbledGate) gates[gate]).createGarbledTable(deferredGates[gate], deferredWireValues);
+			} catch (InvalidKeyException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			} catch (IllegalBlockSizeException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			} catch (PlaintextTooLongException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			}
+		}
+		
+		//The keys are not needed after the last gate was garbled.
+		if (to == gates.length){
+			deferredGates = null;
+			deferredWireValues = null;
+		}
+		return ((BasicGarbledTablesHolder) garbledTablesHolder).removeChunk(from, to - from);
+	}
+	
+	@Override
+	public void putGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		((BasicGarbledTablesHolder) garbledTablesHolder).putChunk(chunk);
+	}
+	
+	@Override
+	public void removeGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		((BasicGarbledTablesHolder) garbledTablesHolder).removeChunk(chunk.getFirstGate(), chunk.getNumberOfGates());
+	}
+	
+	@Override
+	public GarbledTablesHolder createGarbledTablesHolder(Gate[] ungarbledGates){
+		//Each gate has its own garbled table.
+		return new BasicGarbledTablesHolder(new byte[ungarbledGates.length][]);
+	}
+	
 	@Override
 	public GarbledGate[] createGates(Gate[] ungarbledGates, GarbledTablesHolder garbledTablesHolder){
 		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
@@ -130,7 +193,8 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
 			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
 		}
-		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		//Both keys of all wires are kept in one array, indexed by the wire number.
+		WireLabelStore allWireValues = new WireLabelStore(WireLabelStore.countWires(ungarbledCircuit), 2, mes.getCipherSize());
 		Map<Integer, SecretKey[]> allInputWireValues = null;
 		Map<Integer, SecretKey[]> allOutputWireValues = null;
 		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
@@ -151,6 +215,7 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		 * this will be XOR'd with the last bit of the wire value, which is the signal bit in our implementation.
 		 */
 		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		long[] packedGlobalKeyOffset = allWireValues.packLabel(globalKeyOffset);
 				
 		//Sample input keys.
 		allInputWireValues = new HashMap<Integer, SecretKey[]>();
@@ -164,28 +229,25 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 			for (int w : inputWireNumbers) {
 				//Samples random key. The other key will be calculated via XOR with the globalKeyOffset.
 				SecretKey zeroValue = mes.generateKey();
-				sampleInputKeys(allInputWireValues, globalKeyOffset, w, zeroValue);
+				sampleInputKeys(allWireValues, packedGlobalKeyOffset, w, zeroValue);
+				allInputWireValues.put(w, allWireValues.getKeys(w));
 			}
 		}
 			
-		//Set the given keys and signal bits.
-		allWireValues.putAll(allInputWireValues);
-			
 		allOutputWireValues = new HashMap<Integer, SecretKey[]>();
 		translationTable = new HashMap<Integer, Byte>();
 			
 		//Create the keys of the non-input wires.
-		createNonInputWireValues(ungarbledGates, allWireValues, globalKeyOffset);
+		createNonInputWireValues(ungarbledGates, allWireValues, packedGlobalKeyOffset);
 			
 		//Fill the the output wire values to be used in the following sub circuit
 		for (int n : ungarbledCircuit.getOutputWireIndices()) {
 				
 			//Add both values of output wire numbers to the allOutputWireValues Map that was passed as a parameter.
-			allOutputWireValues.put(n, allWireValues.get(n));
+			allOutputWireValues.put(n, allWireValues.getKeys(n));
 			
 			//Signal bit is the last bit of k0.
-			byte[] k0 = allWireValues.get(n)[0].getEncoded();
-			translationTable.put(n, (byte) (k0[k0.length-1] & 1));			
+			translationTable.put(n, allWireValues.getSignalBit(n, 0));			
 		}
 		
 		//now that we have all keys, we can create the garbled tables.
@@ -203,23 +265,15 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	
 	/**
 	 * Generates the input wire keys and signal bits.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FreeXOR circuit's delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FreeXOR circuit's delta, packed by the store.
 	 * @param w The number of the wire to generate keys for.
 	 * @param zeroValue value of the wire's zero key. The other key will be calculated via XOR with the globalKeyOffset.
 	 */
-	protected void sampleInputKeys(Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, int w, SecretKey zeroValue) {
-		SecretKey oneValue;
-		byte[] zeroValueBytes = zeroValue.getEncoded();
-		
-		//Calculate k1 by xoring k0 with globalKeyOffset
-		byte[] oneValueBytes = new byte[zeroValueBytes.length];
-		for (int i = 0; i < zeroValueBytes.length; i++) {
-			oneValueBytes[i] = (byte) (zeroValueBytes[i] ^ globalKeyOffset[i]);
-		}
-		oneValue = new SecretKeySpec(oneValueBytes, "");
-		//Put the keys in the map.
-		allWireValues.put(w, new SecretKey[] { zeroValue, oneValue });
+	protected void sampleInputKeys(WireLabelStore allWireValues, long[] globalKeyOffset, int w, SecretKey zeroValue) {
+		//Put k0 in the store and calculate k1 by xoring k0 with globalKeyOffset.
+		allWireValues.setLabel(w, 0, zeroValue);
+		allWireValues.xorLabel(w, 1, w, 0, globalKeyOffset);
 	}
 
 	/**
@@ -255,13 +309,42 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	 * @param gates The gates of this circuit.
 	 * @param garbledTablesHolder Contains the pointer to the garbled tables.
 	 * @param ungarbledGates The gates that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 */
-	protected void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+	protected void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, final Gate[] ungarbledGates, final WireLabelStore allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
 			
 		// Get the XOR and XORNOT truth table to be used to test against for equality.
-		BitSet XORTruthTable = getXORTruthTable();
-		BitSet XORNOTTruthTable = getXORNOTTruthTable();
+		final BitSet XORTruthTable = getXORTruthTable();
+		final BitSet XORNOTTruthTable = getXORNOTTruthTable();
+		
+		//In deferred garbling, keep the keys. The tables are created later by garbleGates.
+		if (isDeferred){
+			deferredGates = ungarbledGates;
+			deferredWireValues = allWireValues;
+			return;
+		}
+		
+		//Create the tables in parallel, in case there is a gate runner.
+		if (gateRunner != null){
+			gateRunner.runAll(new LevelParallelGateRunner.GateTask() {
+				
+				@Override
+				public void run(GarbledGate gate, int gateIndex) {
+					try {
+						if (!ungarbledGates[gateIndex].getTruthTable().equals(XORTruthTable) && !(ungarbledGates[gateIndex].getTruthTable().equals(XORNOTTruthTable))) {
+							((StandardGarbledGate) gate).createGarbledTable(ungarbledGates[gateIndex], allWireValues);
+						}
+					} catch (InvalidKeyException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					} catch (IllegalBlockSizeException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					} catch (PlaintextTooLongException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					}
+				}
+			});
+			return;
+		}
 				
 		//For each Standard gate, create the suitable StandardGarbledGate object. 
 		//Free XOR gate and Free XOR NOT gates do not have a garbled tables, thus they should not be created.
@@ -276,10 +359,10 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	/**
 	 * Creates the keys of the non-input wires.
 	 * @param ungarbledGates The gates that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
 	 */
-	protected void createNonInputWireValues(Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset){
+	protected void createNonInputWireValues(Gate[] ungarbledGates, WireLabelStore allWireValues, long[] globalKeyOffset){
 		// Get the XOR and XORNOT truth table to be used to test against for equality.
 		BitSet XORTruthTable = getXORTruthTable();
 		BitSet XORNOTTruthTable = getXORNOTTruthTable();
@@ -306,95 +389,78 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	/**
 	 * Generates keys for standard gate.
 	 * @param ungarbledGate The gate that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
 	 * @param zeroValueBytes The value of the first key. 
 	 * We get it as a parameter because the generation of the first key can be done by the encryption scheme or by the prg, depending in the caller function.
 	 * Thus, the caller function generates the first key and this function does the rest.
 	 */
-	protected void generateStandardValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, byte[] zeroValueBytes) {
+	protected void generateStandardValues(Gate ungarbledGate, WireLabelStore allWireValues, long[] globalKeyOffset, byte[] zeroValueBytes) {
 		
 		//Call the function that calculate k1 from k0 and globalKeyOffset.
 		calcK1AndPutInMaps(allWireValues, globalKeyOffset, zeroValueBytes, null, ungarbledGate.getOutputWireIndices()[0]);
 	}
 
 	/**
-	 * Gets k0 and calculate k1 according to it.
-	 * Puts the keys and signal bit in the maps. 
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
-	 * @param zeroValueBytes The value of the first key.
+	 * Gets k0 and calculate k1 according to it (or vice versa).
+	 * Puts the keys in the store. 
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
+	 * @param zeroValueBytes The value of the first key, or null if the second key is given.
+	 * @param oneValueBytes The value of the second key, or null if the first key is given.
 	 * @param index The index of the wire we generate keys for.
 	 */
-	protected void calcK1AndPutInMaps(Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, byte[] zeroValueBytes, byte[] oneValueBytes, int index) {
-		SecretKey zeroValue;
-		SecretKey oneValue;
+	protected void calcK1AndPutInMaps(WireLabelStore allWireValues, long[] globalKeyOffset, byte[] zeroValueBytes, byte[] oneValueBytes, int index) {
 		
 		if (oneValueBytes == null){
-			oneValueBytes = new byte[zeroValueBytes.length];
-			
-			//Calculate the k1 value.
-			for (int i = 0; i < zeroValueBytes.length; i++) {
-				oneValueBytes[i] = (byte) (zeroValueBytes[i] ^ globalKeyOffset[i]);
-			}
+			//Put k0 and calculate the k1 value.
+			allWireValues.setLabel(index, 0, zeroValueBytes, 0);
+			allWireValues.xorLabel(index, 1, index, 0, globalKeyOffset);
 		} else{
-			zeroValueBytes = new byte[oneValueBytes.length];
-			
-			//Calculate the k1 value.
-			for (int i = 0; i < oneValueBytes.length; i++) {
-				zeroValueBytes[i] = (byte) (oneValueBytes[i] ^ globalKeyOffset[i]);
-			}
+			//Put k1 and calculate the k0 value.
+			allWireValues.setLabel(index, 1, oneValueBytes, 0);
+			allWireValues.xorLabel(index, 0, index, 1, globalKeyOffset);
 		}
-		
-		zeroValue = new SecretKeySpec(zeroValueBytes, "");
-		oneValue = new SecretKeySpec(oneValueBytes, "");
-
-		//Put the keys in the map.
-		allWireValues.put(index, new SecretKey[] { zeroValue, oneValue });
 	}
 
 	/**
 	 * Generates keys for XORNOT gate.
 	 * @param ungarbledGate The gate that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
 	 */
-	private void generateXORNOTValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset) {
+	private void generateXORNOTValues(Gate ungarbledGate, WireLabelStore allWireValues, long[] globalKeyOffset) {
+		int[] inputIndices = ungarbledGate.getInputWireIndices();
+		int output = ungarbledGate.getOutputWireIndices()[0];
 		
 		//calculate the value of k1, by xoring all k0 of the input wires.
-		byte[] oneOutputBytes = allWireValues.get(ungarbledGate.getInputWireIndices()[0])[0].getEncoded();// bytes of first input
-		for (int i = 1; i < ungarbledGate.getInputWireIndices().length; i++) {
-			byte[] nextInput = allWireValues.get(ungarbledGate.getInputWireIndices()[i])[0].getEncoded();
-			for (int currentByte = 0; currentByte < oneOutputBytes.length; currentByte++) {
-				oneOutputBytes[currentByte] ^= (byte) nextInput[currentByte];
-			}
+		allWireValues.copyLabel(inputIndices[0], 0, output, 1);
+		for (int i = 1; i < inputIndices.length; i++) {
+			allWireValues.xorLabels(output, 1, output, 1, inputIndices[i], 0);
 		}
 		
-		//Call the function that calculate k0 from k1 and globalKeyOffset.
-		calcK1AndPutInMaps(allWireValues, globalKeyOffset, null, oneOutputBytes, ungarbledGate.getOutputWireIndices()[0]);
-		
+		//Calculate k0 from k1 and globalKeyOffset.
+		allWireValues.xorLabel(output, 0, output, 1, globalKeyOffset);
 	}
 
 	/**
 	 * Generates keys for XOR gate.
 	 * @param ungarbledGate The gate that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
 	 */
-	private void generateXORValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset) {
+	private void generateXORValues(Gate ungarbledGate, WireLabelStore allWireValues, long[] globalKeyOffset) {
+		int[] inputIndices = ungarbledGate.getInputWireIndices();
+		int output = ungarbledGate.getOutputWireIndices()[0];
+		
 		//calculate the value of k0, by xoring all k0 of the input wires.
-		// Get the bytes of first input
-		byte[] zeroValueBytes = allWireValues.get(ungarbledGate.getInputWireIndices()[0])[0].getEncoded();
-		for (int i = 1; i < ungarbledGate.getInputWireIndices().length; i++) {
-			
-			byte[] nextInput = allWireValues.get(ungarbledGate.getInputWireIndices()[i])[0].getEncoded();
-			for (int currentByte = 0; currentByte < zeroValueBytes.length; currentByte++) {
-				zeroValueBytes[currentByte] ^= nextInput[currentByte];
-			}
+		allWireValues.copyLabel(inputIndices[0], 0, output, 0);
+		for (int i = 1; i < inputIndices.length; i++) {
+			allWireValues.xorLabels(output, 0, output, 0, inputIndices[i], 0);
 		}
 		
-		//Call the function that calculate k1 from k0 and globalKeyOffset.
-		calcK1AndPutInMaps(allWireValues, globalKeyOffset, zeroValueBytes, null, ungarbledGate.getOutputWireIndices()[0]);
+		//Calculate k1 from k0 and globalKeyOffset.
+		allWireValues.xorLabel(output, 1, output, 0, globalKeyOffset);
 	}
 
 	/**
@@ -425,7 +491,7 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
 		}
 		
-		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		WireLabelStore allWireValues = new WireLabelStore(WireLabelStore.countWires(ungarbledCircuit), 2, mes.getCipherSize());
 		Gate[] ungarbledGates = ungarbledCircuit.getGates();
 		
 		//Call the function thast actually performs the keys generation.
@@ -448,12 +514,12 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	 * @param ungarbledCircuit The circuit that should be garbled.
 	 * @param prg To use in order to generate the keys.
 	 * @param seed To initialize the prg.
-	 * @param allWireValues An empty map that will be filled with keys during the function execution.
+	 * @param allWireValues An empty store that will be filled with keys during the function execution.
 	 * @param outputGarbledValues 
 	 * @return the created keys of each input and output wire and the translation table.
 	 * @throws InvalidKeyException
 	 */
-	private CircuitCreationValues sampleSeedKeys(BooleanCircuit ungarbledCircuit, PseudorandomGenerator prg, byte[] seed, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException {
+	private CircuitCreationValues sampleSeedKeys(BooleanCircuit ungarbledCircuit, PseudorandomGenerator prg, byte[] seed, WireLabelStore allWireValues) throws InvalidKeyException {
 		Map<Integer, SecretKey[]> allInputWireValues = new HashMap<Integer, SecretKey[]>();
 		Map<Integer, SecretKey[]> outputGarbledValues = new HashMap<Integer, SecretKey[]>();
 		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
@@ -473,6 +539,7 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 		 * this will be XOR'd with the last bit of the wire value, which is the signal bit in our implementation.
 		 */
 		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		long[] packedGlobalKeyOffset = allWireValues.packLabel(globalKeyOffset);
 		
 		//Set input wire keys and the related signal bits.
 		for (int i=1; i <= ungarbledCircuit.getNumberOfParties(); i++){
@@ -485,26 +552,22 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 			for (int w : inputWireIndices) {
 				byte[] zeroValueBytes = new byte[keySize];
 				prg.getPRGBytes(zeroValueBytes, 0, keySize);
-				sampleInputKeys(allInputWireValues, globalKeyOffset, w, new SecretKeySpec(zeroValueBytes, ""));
-	
+				sampleInputKeys(allWireValues, packedGlobalKeyOffset, w, new SecretKeySpec(zeroValueBytes, ""));
+				allInputWireValues.put(w, allWireValues.getKeys(w));
 			}
 		}
 		
-		//Set the keys of the input wires
-		allWireValues.putAll(allInputWireValues);	
-		
 		//Create the keys of the non-input wires.
-		createNonInputWireValuesFromSeed(ungarbledCircuit.getGates(), allWireValues, globalKeyOffset, keySize, prg);
+		createNonInputWireValuesFromSeed(ungarbledCircuit.getGates(), allWireValues, packedGlobalKeyOffset, keySize, prg);
 
 		//Fill the the output wire values to be used in the following sub circuit
 		for (int n : ungarbledCircuit.getOutputWireIndices()) {
 			
 			//Add both values of each output wire to the outputGarbledValues Map that was passed as a parameter.
-			outputGarbledValues.put(n, allWireValues.get(n));
+			outputGarbledValues.put(n, allWireValues.getKeys(n));
 			
 			//Signal bit is the last bit of k0.
-			byte[] k0 = allWireValues.get(n)[0].getEncoded();
-			translationTable.put(n, (byte) (k0[k0.length-1] & 1));	
+			translationTable.put(n, allWireValues.getSignalBit(n, 0));	
 		}
 		
 		return new CircuitCreationValues(allInputWireValues, outputGarbledValues, translationTable);
@@ -513,13 +576,13 @@ class FreeXORGarbledBooleanCircuitUtil implements CircuitTypeUtil {
 	/**
 	 * Creates the keys of the non-input wires using the given prg and seed.
 	 * @param ungarbledGates The gates that should be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
-	 * @param globalKeyOffset The FREE XOR delta.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The FREE XOR delta, packed by the store.
 	 * @param keySize
 	 * @param prg 
 	 */
-	private void createNonInputWireValuesFromSeed(Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues,
-		byte[] globalKeyOffset, int keySize, PseudorandomGenerator prg) {
+	private void createNonInputWireValuesFromSeed(Gate[] ungarbledGates, WireLabelStore allWireValues,
+		long[] globalKeyOffset, int keySize, PseudorandomGenerator prg) {
 		// Get the XOR and XORNOT truth table to be used to test against for equality
 		BitSet XORTruthTable = getXORTruthTable();
 		BitSet XORNOTTruthTable = getXORNOTTruthTable();
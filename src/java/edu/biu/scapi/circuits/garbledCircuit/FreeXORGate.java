@@ -107,7 +107,19 @@ class FreeXORGate implements GarbledGate{
 	     for (int w : outputWireIndices) {
 	    	 computedWires.put(w, new GarbledWire(outputWireValue));
 	     }
-	     
+
+	 }
+
+	 @Override
+	 public void compute(WireLabelStore computedWires) {
+
+		 //XOR the input labels directly into the store. The XOR NOT gate is computed the same way since its keys were chosen accordingly.
+		 computedWires.xorLabels(outputWireIndices[0], 0, inputWireIndices[0], 0, inputWireIndices[1], 0);
+
+		 //Copy the result to the rest of the output wires, if there are any.
+		 for (int i = 1; i < outputWireIndices.length; i++) {
+			 computedWires.copyLabel(outputWireIndices[0], 0, outputWireIndices[i], 0);
+		 }
 	 }
 
 	 @Override
@@ -25,10 +25,8 @@
 package edu.biu.scapi.circuits.garbledCircuit;
 
 import java.nio.ByteBuffer;
-import java.util.Map;
 
 import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
@@ -80,7 +78,7 @@ class FreeXORRowReductionGarbledBooleanCircuitUtil extends FreeXORGarbledBoolean
 	 * Generates keys for a standard gate in the row reduction technique.
 	 * @param zeroValueBytes this value is ignored since the row reduction technique calculates both values from the gate's input keys.
 	 */
-	protected void generateStandardValues(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues, byte[] globalKeyOffset, byte[] zeroValueBytes) {
+	protected void generateStandardValues(Gate ungarbledGate, WireLabelStore allWireValues, long[] globalKeyOffset, byte[] zeroValueBytes) {
 		//The last gate that was added in order to allow sampling keys out of given output keys should not use the row reduction technique.
 		int[] indices = ungarbledGate.getInputWireIndices();
 		int numberOfInputs = indices.length;
@@ -88,7 +86,7 @@ class FreeXORRowReductionGarbledBooleanCircuitUtil extends FreeXORGarbledBoolean
 		int numberOfRows = (int) Math.pow(2, numberOfInputs)-1;
 		
 		//Find the line that we do not save in the table and we use the KDF to find the value of the output key.
-		for (int rowOfTruthTable = 0; (rowOfTruthTable <= numberOfRows) && !(allWireValues.containsKey(ungarbledGate.getOutputWireIndices()[0])); rowOfTruthTable++) {
+		for (int rowOfTruthTable = 0; rowOfTruthTable <= numberOfRows; rowOfTruthTable++) {
 		  	int permutedPosition = 0;
 		  	for (int i = 0, j = (int) Math.pow(2, numberOfInputs - 1), reverseIndex = numberOfInputs - 1; i < numberOfInputs; i++, j /= 2, reverseIndex--) {
 		  	
@@ -102,8 +100,7 @@ class FreeXORRowReductionGarbledBooleanCircuitUtil extends FreeXORGarbledBoolean
 		  		int input = (((rowOfTruthTable & j) == 0) ? 0 : 1);
 		  		
 		  		//signal bit is the last bit of k0.
-		  		byte[] k0 = allWireValues.get(indices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
+		  		byte signalBit = allWireValues.getSignalBit(indices[i], 0);
 		  		
 		  		permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));		
 		  	
@@ -115,45 +112,32 @@ class FreeXORRowReductionGarbledBooleanCircuitUtil extends FreeXORGarbledBoolean
 		  		ByteBuffer kdfBytes = ByteBuffer.allocate(mes.getCipherSize()*numberOfInputs +16);
 		  		
 		  		//The input for the kdf should be the concatenation of input keys, gate number and input keys' signal bits.
-		  		SecretKey[] keys = new SecretKey[numberOfInputs];
+		  		int[] wireKeyIndices = new int[numberOfInputs];
 		  		for (int i=0; i<numberOfInputs; i++){
 		  			//Get the index of the input key.
-		  			int wireKeyIndex = ((rowOfTruthTable & (numberOfInputs - i)) == 0) ? 0 : 1;
+		  			wireKeyIndices[i] = ((rowOfTruthTable & (numberOfInputs - i)) == 0) ? 0 : 1;
 		  			//Put each input key in the kdf array.
-		  			keys[i] = allWireValues.get(indices[i])[wireKeyIndex];
-		  			kdfBytes.put(keys[i].getEncoded());
+		  			allWireValues.writeLabel(indices[i], wireKeyIndices[i], kdfBytes);
 		  		}
 		  		//Put gate number in the kdf array.
 				kdfBytes.putInt(ungarbledGate.getGateNumber());
 				//Put each signal bit in the kdf array.
 				for (int i=0; i<numberOfInputs; i++){
-					kdfBytes.putInt((keys[i].getEncoded()[keys[i].getEncoded().length - 1] & 1) == 0 ? 0 : 1);
+					kdfBytes.putInt(allWireValues.getSignalBit(indices[i], wireKeyIndices[i]));
 				}
 				
 				//Compute the KDF.
 				SecretKey wireValue = kdf.deriveKey(kdfBytes.array(), 0, mes.getCipherSize()*numberOfInputs +16, mes.getCipherSize());
 				
-				byte[] kdfResultBytes = wireValue.getEncoded();
-				//Calculate the other value by xoring the kdf result with the globalKeyOffset
-				byte[] otherBytes = new byte[mes.getCipherSize()];
-				for (int i = 0; i < zeroValueBytes.length; i++) {
-					otherBytes[i] = (byte) (kdfResultBytes[i] ^ globalKeyOffset[i]);
-				}
-				
-				//Now we have both values, calculate the signal bit.
-				boolean output = ungarbledGate.getTruthTable().get(rowOfTruthTable);
-				SecretKey zeroKey, oneKey;
-				if (output == false){
-					zeroKey = wireValue;
-					oneKey = new SecretKeySpec(otherBytes, "");
-				} else {
-					oneKey = wireValue;
-					zeroKey = new SecretKeySpec(otherBytes, "");
-				}
+				//The KDF result is the key that matches the output of this row. 
+				//The other key is calculated by xoring the kdf result with the globalKeyOffset.
+				int output = ungarbledGate.getTruthTable().get(rowOfTruthTable) ? 1 : 0;
+				int outputIndex = ungarbledGate.getOutputWireIndices()[0];
+				allWireValues.setLabel(outputIndex, output, wireValue);
+				allWireValues.xorLabel(outputIndex, 1 - output, outputIndex, output, globalKeyOffset);
 				
-				//Put k0, k1 in the map.
-				allWireValues.put(ungarbledGate.getOutputWireIndices()[0], new SecretKey[] {zeroKey, oneKey});
-					
+				//The keys of the output wire are set, no need to check the other rows.
+				break;
 		  	}
 		}
 		 
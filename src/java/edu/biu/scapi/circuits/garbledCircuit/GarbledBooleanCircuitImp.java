@@ -29,6 +29,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.SecretKey;
 
@@ -52,6 +53,11 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	private CircuitTypeUtil util; 		//Executes all functionalities that specific to the circuit type.
 	private PseudorandomGenerator prg;  //used in case of generating the keys using a seed.
 	private GarbledGate[] gates; 		// The garbled gates of this garbled circuit.
+	private int numberOfWires;			// One more than the biggest wire index of the circuit.
+	private WireLabelStore computedLabels;	// Holds the computed keys of all wires. Allocated once and reused in every computation.
+	private LevelParallelGateRunner gateRunner;	// Garbles and computes the gates in parallel. Null in case of sequential execution.
+	private int streamingChunkSize;		// The number of gates in each chunk of garbled tables, in case of streaming garbling.
+	private int nextChunkGate;			// The first gate of the next chunk to garble or compute, in case of streaming.
 	
   	/**
 	 * Default constructor. Sets the given boolean circuit and creates a Free XOR circuit using a AESFixedKeyMultiKeyEncryption.
@@ -72,8 +78,6 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	 * @param input Specifies which concrete type of circuit to implement.
 	 */
 	public GarbledBooleanCircuitImp(GarblingParameters input){
-		//Create an empty garbled tables.
-		garbledTablesHolder = new BasicGarbledTablesHolder(new byte[input.getUngarbledCircuit().getGates().length][]);
 		//Call the function that creates the gates.
 		doConstruct(input);
 	}
@@ -88,8 +92,6 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	 * @param input Specifies which concrete type of circuit to implement.
 	 */
 	public GarbledBooleanCircuitImp(GarblingParameters input, PseudorandomGenerator prg){
-		//Create an empty garbled tables.
-		garbledTablesHolder = new BasicGarbledTablesHolder(new byte[input.getUngarbledCircuit().getGates().length][]);
 		this.prg = prg;
 		
 		//Call the function that creates the gates.
@@ -108,6 +110,7 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 		bc = input.getUngarbledCircuit();
 		outputWireIndices = bc.getOutputWireIndices();
 		numberOfParties = bc.getNumberOfParties();
+		numberOfWires = WireLabelStore.countWires(bc);
 		
 		//Gets the input indices for each party.
 		for (int i=1; i<=numberOfParties; i++){
@@ -121,10 +124,42 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 			
 		}
 		
-		//Create the circuit's gates.
+		//Create an empty garbled tables and the circuit's gates.
+		garbledTablesHolder = util.createGarbledTablesHolder(bc.getGates());
 		gates = util.createGates(bc.getGates(), garbledTablesHolder);
 	}
 	
+	/**
+	 * Sets this circuit to garble and compute the gates in parallel, level after level. <p>
+	 * The circuit is levelized once, by the dependencies between the wires. The gates of each level do not depend on each other, 
+	 * so they are split between the workers and run on the given pool. Levels that are too small to split are run on the calling thread. <p>
+	 * The encryption schemes are not thread safe, so each worker creates its own copy of the gates from its own input object. 
+	 * Each input object should describe the same circuit type as the input of this circuit, with a different encryption scheme object.
+	 * @param pool The pool to run the workers on. If null, the circuit goes back to garbling and computing the gates one after the other.
+	 * @param parallelismThreshold The minimal number of gates a worker gets.
+	 * @param workersInput An input object for each worker. The number of workers is the length of this array.
+	 */
+	public void setParallelExecution(ForkJoinPool pool, int parallelismThreshold, GarblingParameters[] workersInput){
+		if (pool == null){
+			gateRunner = null;
+			util.setGateRunner(null);
+			return;
+		}
+		
+		//Create the gates of each worker. All workers share this circuit's garbled tables holder.
+		GarbledGate[][] workersGates = new GarbledGate[workersInput.length][];
+		for (int i = 0; i < workersInput.length; i++){
+			CircuitTypeUtil workerUtil = workersInput[i].createCircuitUtil();
+			if (workerUtil.getClass() != util.getClass()){
+				throw new IllegalArgumentException("the workers' input should describe the same circuit type as this circuit's input");
+			}
+			workersGates[i] = workerUtil.createGates(bc.getGates(), garbledTablesHolder);
+		}
+		
+		gateRunner = new LevelParallelGateRunner(bc.getGates(), numberOfWires, workersGates, pool, parallelismThreshold);
+		util.setGateRunner(gateRunner);
+	}
+	
 	@Override
   	public CircuitCreationValues garble() {
 		//Call the utility class to generate the keys and create the garbled tables.
@@ -144,8 +179,143 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 		return values;
 	}
  
+	/**
+	 * Generates the keys of the circuit without garbling its gates, so that the garbled tables can be sent while they are created. <p>
+	 * After this function, {@link #nextGarbledTablesChunk()} should be called until it returns null. 
+	 * Each call garbles the next chunkSize gates and returns their tables. The tables are not kept in this circuit, 
+	 * so only one chunk of tables is in memory at a time.<p>
+	 * The keys of the input wires are returned immediately. The keys of the output wires and the translation table are filled 
+	 * in the returned object (and in this circuit) once the last chunk was garbled.
+	 * @param chunkSize The number of gates in each chunk.
+	 * @return CircuitCreationValues Contains the input keys. The output keys and the translation table are filled after the last chunk.
+	 */
+	public CircuitCreationValues garble(int chunkSize) {
+		util.setDeferredGarbling(true);
+		try {
+			return startStreamingGarble(garble(), chunkSize);
+		} finally {
+			util.setDeferredGarbling(false);
+		}
+	}
+	
+	/**
+	 * Same as {@link #garble(int)}, but generates the keys using the given seed.
+	 * @param seed Used to initialize the prg.
+	 * @param chunkSize The number of gates in each chunk.
+	 * @return CircuitCreationValues Contains the input keys. The output keys and the translation table are filled after the last chunk.
+	 * @throws InvalidKeyException In case the seed is an invalid key for the given PRG.
+	 */
+	public CircuitCreationValues garble(byte[] seed, int chunkSize) throws InvalidKeyException {
+		util.setDeferredGarbling(true);
+		try {
+			return startStreamingGarble(garble(seed), chunkSize);
+		} finally {
+			util.setDeferredGarbling(false);
+		}
+	}
+	
+	/**
+	 * Sets the state of a streaming garble.
+	 * @param values The values returned by the deferred garble.
+	 * @param chunkSize The number of gates in each chunk.
+	 * @return the given values.
+	 */
+	private CircuitCreationValues startStreamingGarble(CircuitCreationValues values, int chunkSize){
+		if (chunkSize <= 0){
+			throw new IllegalArgumentException("chunkSize should be positive");
+		}
+		streamingChunkSize = chunkSize;
+		nextChunkGate = 0;
+		return values;
+	}
+	
+	/**
+	 * Garbles the next chunk of gates and returns their garbled tables.<p>
+	 * Should be called after {@link #garble(int)} or {@link #garble(byte[], int)}.
+	 * @return The garbled tables of the next chunk of gates, or null if all the gates were already garbled.
+	 */
+	public GarbledTablesChunk nextGarbledTablesChunk(){
+		if (streamingChunkSize == 0){
+			throw new IllegalStateException("nextGarbledTablesChunk should be called after a streaming garble");
+		}
+		if (nextChunkGate == gates.length){
+			streamingChunkSize = 0;
+			return null;
+		}
+		int to = Math.min(nextChunkGate + streamingChunkSize, gates.length);
+		GarbledTablesChunk chunk = util.garbleGates(gates, garbledTablesHolder, nextChunkGate, to);
+		nextChunkGate = to;
+		return chunk;
+	}
+	
   	@Override
   	public HashMap<Integer, GarbledWire> compute() throws NotAllInputsSetException{
+  		setComputedInputLabels();
+  		
+  		LevelParallelGateRunner.GateTask computeTask = createComputeTask();
+  		
+  		//In parallel execution, the gates of each level are computed in parallel since they do not depend on each other.
+  		if (gateRunner != null){
+  			gateRunner.runByLevels(computeTask);
+  		} else {
+  			for (int i = 0; i < gates.length; i++) {
+  				computeTask.run(gates[i], i);
+  			}
+  		}
+  		
+  		return getComputedOutput();
+  	}
+  	
+  	/**
+  	 * Starts a computation of a circuit whose garbled tables are received in chunks.<p>
+  	 * The inputs should be set before calling this function. After it, {@link #computeGarbledTablesChunk(GarbledTablesChunk)} 
+  	 * should be called on each chunk, by order, and then {@link #finishStreamingCompute()} returns the output.
+  	 * @throws NotAllInputsSetException if the given inputs array does not includes all of the inputs required for computing the circuit.
+  	 */
+  	public void startStreamingCompute() throws NotAllInputsSetException{
+  		setComputedInputLabels();
+  		nextChunkGate = 0;
+  	}
+  	
+  	/**
+  	 * Computes the gates of the given chunk using its garbled tables. The tables are not kept in this circuit after the computation.
+  	 * @param chunk The garbled tables of the next chunk of gates.
+  	 */
+  	public void computeGarbledTablesChunk(GarbledTablesChunk chunk){
+  		//The sizes are received from the other party, so compare them without adding, which could overflow.
+  		if (chunk.getFirstGate() != nextChunkGate || chunk.getNumberOfGates() <= 0 || chunk.getNumberOfGates() > gates.length - chunk.getFirstGate()){
+  			throw new IllegalArgumentException("the given chunk should start at gate " + nextChunkGate + " and end at gate " + gates.length + " at most");
+  		}
+  		int to = chunk.getFirstGate() + chunk.getNumberOfGates();
+  		
+  		util.putGarbledTablesChunk(garbledTablesHolder, chunk);
+  		
+  		//The gates of a chunk are computed by order, since their number is smaller than a level of a big circuit.
+  		LevelParallelGateRunner.GateTask computeTask = createComputeTask();
+  		for (int i = chunk.getFirstGate(); i < to; i++) {
+  			computeTask.run(gates[i], i);
+  		}
+  		
+  		util.removeGarbledTablesChunk(garbledTablesHolder, chunk);
+  		nextChunkGate = to;
+  	}
+  	
+  	/**
+  	 * Finishes a computation of a circuit whose garbled tables were received in chunks.
+  	 * @return A Map that is the garbled output of the circuit.
+  	 */
+  	public HashMap<Integer, GarbledWire> finishStreamingCompute(){
+  		if (nextChunkGate != gates.length){
+  			throw new IllegalStateException("not all the chunks were computed");
+  		}
+  		return getComputedOutput();
+  	}
+  	
+  	/**
+  	 * Checks that all the inputs have been set and copies them to the store of the computed keys.
+  	 * @throws NotAllInputsSetException if the given inputs array does not includes all of the inputs required for computing the circuit.
+  	 */
+  	private void setComputedInputLabels() throws NotAllInputsSetException{
   		//Check that all the inputs have been set.
   		for (int i=1; i <= getNumberOfParties(); i++){
   			List<Integer> wireNumbers = null;
@@ -162,31 +332,60 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
 	  		}
   		}
   		
+  		/*
+  		 * The computed keys are kept in one array indexed by the wire number rather than in the computedWires map.
+  		 * This way, no GarbledWire, SecretKey or map entry is created for the internal wires of the circuit.
+  		 * Copy the input keys to the store.
+  		 */
+  		for (int i=1; i <= getNumberOfParties(); i++){
+  			for (int wireNumber : eachPartysInputWires.get(i-1)){
+  				SecretKey inputKey = computedWires.get(wireNumber).getValueAndSignalBit();
+  				if (computedLabels == null || computedLabels.getLabelSize() != inputKey.getEncoded().length){
+  					computedLabels = new WireLabelStore(numberOfWires, 1, inputKey.getEncoded().length);
+  				}
+  				computedLabels.setLabel(wireNumber, 0, inputKey);
+  			}
+  		}
+  	}
+  	
+  	/**
+  	 * Creates a task that computes a gate into the store of the computed keys.
+  	 */
+  	private LevelParallelGateRunner.GateTask createComputeTask(){
   		/*
   		 * We use the interface GarbledGate and thus this works for all implementing classes. The compute method of the 
   		 * specific garbled gate being used will be called. This allows us to have circuits with different types of gates 
   		 * {i.e a FreeXORGarbledBooleanCircuit contains both StandardGarbledGates and FreeXORGates) and this will work for all the gates.
   		 */
-  		for (GarbledGate g : gates) {
-  			try {
-				g.compute(computedWires);
-			} catch (InvalidKeyException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-			} catch (IllegalBlockSizeException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
-			} catch (CiphertextTooLongException e) {
-				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+  		return new LevelParallelGateRunner.GateTask() {
+			
+			@Override
+			public void run(GarbledGate gate, int gateIndex) {
+				try {
+					gate.compute(computedLabels);
+				} catch (InvalidKeyException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (IllegalBlockSizeException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				} catch (CiphertextTooLongException e) {
+					// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+				}
 			}
-  		}
-  		
+		};
+  	}
+  	
+  	/**
+  	 * @return A map of the computed keys of the output wires.
+  	 */
+  	private HashMap<Integer, GarbledWire> getComputedOutput(){
   		/*
   		 * Copy only the values that we need to retain -- i.e. the values of the output wires to a new map to be returned. 
-  		 * The computedWire's map contains more values than we need to retain as it has values for all wires, 
+  		 * The store contains more values than we need to retain as it has values for all wires, 
   		 * not only circuit output wires.
   		 */
   		HashMap<Integer, GarbledWire> garbledOutput = new HashMap<Integer, GarbledWire>();
   		for (int w : outputWireIndices) {
-  			garbledOutput.put(w, computedWires.get(w));
+  			garbledOutput.put(w, new GarbledWire(computedLabels.getKey(w, 0)));
   		}
 
   		return garbledOutput;
@@ -247,6 +446,11 @@ public class GarbledBooleanCircuitImp extends GarbledBooleanCircuitAbs implement
   
 	@Override
 	public void setGarbledTables(GarbledTablesHolder garbledTables){
+		//The half gates circuit holds the tables of all gates in one array.
+		if (garbledTablesHolder instanceof HalfGatesGarbledTablesHolder){
+			((HalfGatesGarbledTablesHolder) garbledTablesHolder).setGarbledTables(garbledTables.toDoubleByteArray()[0]);
+			return;
+		}
 		if (!(garbledTables instanceof BasicGarbledTablesHolder)){
 			throw new IllegalArgumentException("garbledTables should be an instance of BasicGarbledTablesHolder");
 		}
@@ -53,6 +53,17 @@ public interface GarbledGate {
 	 */
 	public void compute(Map<Integer, GarbledWire> computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException;
 
+	/**
+	 * Computes the output of this gate and sets the output wire(s) label in the given store.<p>
+	 * This is the same as {@link #compute(Map)}, but does not create a {@link GarbledWire} for each computed wire.
+	 * @param computedWires A store containing the labels of the wires that have already been computed.
+	 * The store should have one label per wire.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 * @throws CiphertextTooLongException
+	 */
+	public void compute(WireLabelStore computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException;
+
 	/**
 	 * This method tests an ungarbled {@link Gate} for equality to this {@code GarbledGate}. <P>
 	 * That is, they have the same truth table and indices.<p>
@@ -0,0 +1,79 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.io.Serializable;
+
+/**
+ * Holds the garbled tables of a range of consecutive gates of a garbled circuit.<p>
+ * Chunks are used to stream the garbled tables: the garbler creates and sends the tables of a few gates at a time and the 
+ * evaluator computes these gates as soon as they are received. This way, neither party holds the tables of the whole circuit. <p>
+ * The format of the tables is the format of the circuit's {@link GarbledTablesHolder}: a table for each gate in case of a 
+ * {@link BasicGarbledTablesHolder}, or the tables of all gates in one array in case of a {@link HalfGatesGarbledTablesHolder}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class GarbledTablesChunk implements Serializable {
+
+	private static final long serialVersionUID = 4213371942583745193L;
+	
+	private int firstGate;
+	private int numberOfGates;
+	private byte[][] garbledTables;
+	
+	/**
+	 * Sets the given range and tables.
+	 * @param firstGate The index of the first gate in the chunk.
+	 * @param numberOfGates The number of gates in the chunk.
+	 * @param garbledTables The garbled tables of the gates in the chunk.
+	 */
+	public GarbledTablesChunk(int firstGate, int numberOfGates, byte[][] garbledTables){
+		this.firstGate = firstGate;
+		this.numberOfGates = numberOfGates;
+		this.garbledTables = garbledTables;
+	}
+	
+	/**
+	 * @return the index of the first gate in the chunk.
+	 */
+	public int getFirstGate(){
+		return firstGate;
+	}
+	
+	/**
+	 * @return the number of gates in the chunk.
+	 */
+	public int getNumberOfGates(){
+		return numberOfGates;
+	}
+	
+	/**
+	 * @return the garbled tables of the gates in the chunk.
+	 */
+	public byte[][] getGarbledTables(){
+		return garbledTables;
+	}
+}
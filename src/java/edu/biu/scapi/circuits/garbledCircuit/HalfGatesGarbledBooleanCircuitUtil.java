@@ -0,0 +1,309 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.security.InvalidKeyException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+import edu.biu.scapi.primitives.prg.PseudorandomGenerator;
+
+/**
+ * The {@code HalfGatesGarbledBooleanCircuitUtil} uses the half gates technique that is explained in depth in <i>Two Halves Make a Whole</i> 
+ * by Samee Zahur, Mike Rosulek and David Evans. <p>
+ * 
+ * The keys of all wires are chosen as in the Free XOR technique, so that k1 = k0 XOR delta. 
+ * Linear gates (XOR, XOR NOT, NOT, etc.) are computed with no encryption, see {@link FreeLinearGate}. 
+ * All other two-input gates are garbled as a pair of half gates with two ciphertexts, see {@link HalfGatesGate}. 
+ * Thus, the garbled tables are a third smaller than the tables of the Free XOR row reduction circuit. <p>
+ * 
+ * The keys of the non-input wires are not random; They are calculated from the input keys during the garbling. 
+ * The hash function is a fixed key AES and the keys are 128 bit long. Gates with more than two inputs are not supported.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGarbledBooleanCircuitUtil implements CircuitTypeUtil {
+
+	private AESFixedKeyMultiKeyEncryption mes;
+	private LevelParallelGateRunner gateRunner;	//Garbles the gates of each level in parallel. Null in case of sequential garbling.
+	private int[] tableOffsets;					//The index of each gate's table in the circuit's tables, followed by the tables' size.
+	
+	//The state of the last deferred garble call, which is used to garble the gates a chunk at a time.
+	private boolean isDeferred;
+	private int[] deferredOutputWireIndices;
+	private WireLabelStore deferredWireValues;
+	private long[] deferredGlobalKeyOffset;
+	private Map<Integer, SecretKey[]> deferredOutputWireValues;
+	private Map<Integer, Byte> deferredTranslationTable;
+	
+	/**
+	 * Sets the given fixed key AES encryption, to be used as the hash function.
+	 * @param mes The concrete encryption object to use.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil(AESFixedKeyMultiKeyEncryption mes){
+		this.mes = mes;
+	}
+	
+	/**
+	 * Default constructor. Uses AESFixedKeyMultiKeyEncryption object.
+	 */
+	HalfGatesGarbledBooleanCircuitUtil(){
+		this(new AESFixedKeyMultiKeyEncryption());
+	}
+	
+	@Override
+	public void setGateRunner(LevelParallelGateRunner gateRunner){
+		this.gateRunner = gateRunner;
+	}
+	
+	@Override
+	public GarbledTablesHolder createGarbledTablesHolder(Gate[] ungarbledGates){
+		//Only the half gates have garbled tables, all of the same size.
+		int numberOfHalfGates = 0;
+		for (Gate gate : ungarbledGates) {
+			if (HalfGatesGate.isHalfGate(gate)) {
+				numberOfHalfGates++;
+			}
+		}
+		return new HalfGatesGarbledTablesHolder(new byte[numberOfHalfGates * HalfGatesGate.TABLE_SIZE]);
+	}
+	
+	@Override
+	public GarbledGate[] createGates(Gate[] ungarbledGates, GarbledTablesHolder garbledTablesHolder){
+		if (!(garbledTablesHolder instanceof HalfGatesGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of HalfGatesGarbledTablesHolder");
+		}
+		
+		GarbledGate[] gates = new GarbledGate[ungarbledGates.length];
+		tableOffsets = new int[ungarbledGates.length + 1];
+		int tableOffset = 0;
+		//For each gate, create the suitable Gate Object. 
+		for (int gate = 0; gate < ungarbledGates.length; gate++) {
+			tableOffsets[gate] = tableOffset;
+			if (HalfGatesGate.isHalfGate(ungarbledGates[gate])) {
+				gates[gate] = new HalfGatesGate(ungarbledGates[gate], mes, (HalfGatesGarbledTablesHolder) garbledTablesHolder, tableOffset);
+				tableOffset += HalfGatesGate.TABLE_SIZE;
+			} else if (FreeLinearGate.isLinearGate(ungarbledGates[gate])) {
+				gates[gate] = new FreeLinearGate(ungarbledGates[gate]);
+			} else {
+				throw new IllegalArgumentException("half gates circuit supports gates with one or two inputs only");
+			}
+		}
+		tableOffsets[ungarbledGates.length] = tableOffset;
+		return gates;
+	}
+
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, GarbledGate[] gates) {
+		if (!(garbledTablesHolder instanceof HalfGatesGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of HalfGatesGarbledTablesHolder");
+		}
+		//The keys are sampled by the encryption scheme.
+		return garble(ungarbledCircuit, gates, null);
+	}
+	
+	@Override
+	public CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledTablesHolder garbledTablesHolder, 
+			GarbledGate[] gates, PseudorandomGenerator prg, byte[] seed) throws InvalidKeyException {
+		if (!(garbledTablesHolder instanceof HalfGatesGarbledTablesHolder)){
+			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of HalfGatesGarbledTablesHolder");
+		}
+		//Sets the given seed as the prg key. The keys are sampled by the prg.
+		prg.setKey(new SecretKeySpec(seed, ""));
+		return garble(ungarbledCircuit, gates, prg);
+	}
+	
+	/**
+	 * Samples the delta and the input keys, then garbles the gates one after the other. 
+	 * @param ungarbledCircuit The circuit that should be garbled.
+	 * @param gates The gates of this circuit.
+	 * @param prg Used to sample the keys. If null, the keys are sampled by the encryption scheme.
+	 * @return CircuitCreationValues contains both keys for each input and output wire and the translation table.
+	 */
+	private CircuitCreationValues garble(BooleanCircuit ungarbledCircuit, GarbledGate[] gates, PseudorandomGenerator prg) {
+		//Both keys of all wires are kept in one array, indexed by the wire number.
+		final WireLabelStore allWireValues = new WireLabelStore(WireLabelStore.countWires(ungarbledCircuit), 2, mes.getCipherSize());
+		Map<Integer, SecretKey[]> allInputWireValues = new HashMap<Integer, SecretKey[]>();
+		Map<Integer, SecretKey[]> allOutputWireValues = new HashMap<Integer, SecretKey[]>();
+		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
+		
+		/*
+		 * The globalKeyOffset is the Free XOR delta. Its last bit is set to 1 so that the signal bits of each wire's keys are different. 
+		 * The half gates technique depends on it as well.
+		 */
+		byte[] globalKeyOffset = sampleKey(prg);
+		globalKeyOffset[globalKeyOffset.length - 1] |= 1;
+		final long[] packedGlobalKeyOffset = allWireValues.packLabel(globalKeyOffset);
+		
+		//Sample input keys. The 1-key is calculated via XOR with the globalKeyOffset.
+		for (int i=1; i<=ungarbledCircuit.getNumberOfParties(); i++){
+			ArrayList<Integer> inputWireNumbers = null;
+			try {
+				inputWireNumbers = ungarbledCircuit.getInputWireIndices(i);
+			} catch (NoSuchPartyException e) {
+				// should not occur since the number is a valid party number
+			}
+			for (int w : inputWireNumbers) {
+				allWireValues.setLabel(w, 0, sampleKey(prg), 0);
+				allWireValues.xorLabel(w, 1, w, 0, packedGlobalKeyOffset);
+				allInputWireValues.put(w, allWireValues.getKeys(w));
+			}
+		}
+		
+		//In deferred garbling, keep the keys. The gates are garbled later by garbleGates, which also fills the output keys.
+		if (isDeferred){
+			deferredOutputWireIndices = ungarbledCircuit.getOutputWireIndices();
+			deferredWireValues = allWireValues;
+			deferredGlobalKeyOffset = packedGlobalKeyOffset;
+			deferredOutputWireValues = allOutputWireValues;
+			deferredTranslationTable = translationTable;
+			return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
+		}
+		
+		/*
+		 * Garble the gates in their topological order. Each gate calculates the keys of its output wires from the keys of its inputs.
+		 * In case there is a gate runner, the gates of each level are garbled in parallel, since they do not depend on each other.
+		 */
+		LevelParallelGateRunner.GateTask garbleTask = new LevelParallelGateRunner.GateTask() {
+			
+			@Override
+			public void run(GarbledGate gate, int gateIndex) {
+				garbleGate(gate, allWireValues, packedGlobalKeyOffset);
+			}
+		};
+		if (gateRunner != null){
+			gateRunner.runByLevels(garbleTask);
+		} else {
+			for (int i = 0; i < gates.length; i++) {
+				garbleTask.run(gates[i], i);
+			}
+		}
+		
+		fillOutputWiresValues(ungarbledCircuit.getOutputWireIndices(), allWireValues, allOutputWireValues, translationTable);
+		
+		return new CircuitCreationValues(allInputWireValues, allOutputWireValues, translationTable);
+	}
+	
+	/**
+	 * Fills the maps containing the keys for the output wires and the translation table.
+	 * @param outputWireIndices Indices of the output wires.
+	 * @param allWireValues A store to take the output wires' keys from.
+	 * @param allOutputWireValues A map to fill with the output wires' keys.
+	 * @param translationTable A map to fill with the output wires' signal bits.
+	 */
+	private void fillOutputWiresValues(int[] outputWireIndices, WireLabelStore allWireValues, Map<Integer, SecretKey[]> allOutputWireValues, 
+			Map<Integer, Byte> translationTable) {
+		for (int n : outputWireIndices) {
+			allOutputWireValues.put(n, allWireValues.getKeys(n));
+			
+			//Signal bit is the last bit of k0.
+			translationTable.put(n, allWireValues.getSignalBit(n, 0));
+		}
+	}
+	
+	@Override
+	public void setDeferredGarbling(boolean isDeferred){
+		this.isDeferred = isDeferred;
+	}
+	
+	@Override
+	public GarbledTablesChunk garbleGates(GarbledGate[] gates, GarbledTablesHolder garbledTablesHolder, int from, int to){
+		if (deferredWireValues == null){
+			throw new IllegalStateException("garbleGates should be called after a deferred garble call");
+		}
+		
+		//The holder gets an array for the tables of the given gates only.
+		HalfGatesGarbledTablesHolder holder = (HalfGatesGarbledTablesHolder) garbledTablesHolder;
+		holder.setGarbledTables(new byte[tableOffsets[to] - tableOffsets[from]], tableOffsets[from]);
+		for (int gate = from; gate < to; gate++) {
+			garbleGate(gates[gate], deferredWireValues, deferredGlobalKeyOffset);
+		}
+		byte[] chunkTables = holder.getGarbledTables();
+		holder.setGarbledTables(new byte[0], 0);
+		
+		//The output keys are known after the last gate was garbled. The rest of the keys are not needed anymore.
+		if (to == gates.length){
+			fillOutputWiresValues(deferredOutputWireIndices, deferredWireValues, deferredOutputWireValues, deferredTranslationTable);
+			deferredWireValues = null;
+			deferredGlobalKeyOffset = null;
+			deferredOutputWireValues = null;
+			deferredTranslationTable = null;
+		}
+		return new GarbledTablesChunk(from, to - from, new byte[][] {chunkTables});
+	}
+	
+	@Override
+	public void putGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		int from = chunk.getFirstGate();
+		int to = from + chunk.getNumberOfGates();
+		byte[][] chunkTables = chunk.getGarbledTables();
+		if (chunkTables == null || chunkTables.length != 1 || chunkTables[0] == null || chunkTables[0].length != tableOffsets[to] - tableOffsets[from]){
+			throw new IllegalArgumentException("the given chunk should contain the tables of its gates in one array");
+		}
+		((HalfGatesGarbledTablesHolder) garbledTablesHolder).setGarbledTables(chunkTables[0], tableOffsets[from]);
+	}
+	
+	@Override
+	public void removeGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		((HalfGatesGarbledTablesHolder) garbledTablesHolder).setGarbledTables(new byte[0], 0);
+	}
+	
+	/**
+	 * Garbles the given gate. The keys of its input wires should already be in the given store.
+	 */
+	private void garbleGate(GarbledGate gate, WireLabelStore allWireValues, long[] globalKeyOffset) {
+		try {
+			if (gate instanceof HalfGatesGate) {
+				((HalfGatesGate) gate).garble(allWireValues, globalKeyOffset);
+			} else {
+				((FreeLinearGate) gate).garble(allWireValues, globalKeyOffset);
+			}
+		} catch (IllegalBlockSizeException e) {
+			// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+		}
+	}
+	
+	/**
+	 * Samples a random key using the given prg, or using the encryption scheme in case the prg is null.
+	 */
+	private byte[] sampleKey(PseudorandomGenerator prg) {
+		if (prg == null){
+			return mes.generateKey().getEncoded();
+		}
+		byte[] key = new byte[mes.getCipherSize()];
+		prg.getPRGBytes(key, 0, key.length);
+		return key;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+/**
+ * This class holds the garbled tables of a half gates circuit.<p>
+ * In half gates, each AND gate has two ciphertexts and all other gates have none. Thus, the tables of all gates are held one after the 
+ * other in one dimensional byte array. When we wish to relate to it as a double byte array as held in SCAPI, we use a double byte array 
+ * whose first location holds the one dimensional byte array. <p>
+ * The garbled circuit and its gates will hold an instance of this class. 
+ * This way, when we want to change the garbled tables, we just have to change the pointer of the tables in this class. 
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class HalfGatesGarbledTablesHolder implements GarbledTablesHolder{
+
+	private static final long serialVersionUID = -2853409468417960862L;
+	private byte[] garbledTables;
+	private int firstTableOffset;	//The index of the first held byte in the tables of the whole circuit. Not zero when streaming the tables.
+	
+	/**
+	 * Sets the given garbled tables.
+	 * @param garbledTables
+	 */
+	public HalfGatesGarbledTablesHolder(byte[] garbledTables){
+		this.garbledTables = garbledTables;
+	}
+
+	@Override
+	public byte[][] toDoubleByteArray(){
+		
+		byte[][] garbledTablesInZeroLocation = new byte[1][];
+		garbledTablesInZeroLocation[0] = garbledTables;
+		
+		return garbledTablesInZeroLocation;
+	}
+	
+	/**
+	 * @return the garbled tables of all gates, in one array. In case of streaming, returns the tables of the current chunk only.
+	 */
+	public byte[] getGarbledTables(){
+		return garbledTables;
+	}
+	
+	/**
+	 * Sets the given garbled tables. <P>
+	 * This allows changing the circuit inner content with no time.
+	 * @param garbledTables of the circuit.
+	 */
+	public void setGarbledTables(byte[] garbledTables){
+		setGarbledTables(garbledTables, 0);
+	}
+	
+	/**
+	 * Sets the given part of the garbled tables. This is used when the tables are streamed in chunks.
+	 * @param garbledTables The tables of some consecutive gates.
+	 * @param firstTableOffset The index of the first given byte in the tables of the whole circuit.
+	 */
+	public void setGarbledTables(byte[] garbledTables, int firstTableOffset){
+		this.garbledTables = garbledTables;
+		this.firstTableOffset = firstTableOffset;
+	}
+	
+	/**
+	 * @return the index of the first held byte in the tables of the whole circuit.
+	 */
+	public int getFirstTableOffset(){
+		return firstTableOffset;
+	}
+}
@@ -0,0 +1,238 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+
+/**
+ * A garbled gate that uses the half gates technique of <i>Two Halves Make a Whole</i> by Samee Zahur, Mike Rosulek and David Evans. <p>
+ * 
+ * The gate is a two-input gate whose truth table has an odd number of ones, i.e. a gate of the form ((a XOR alpha) AND (b XOR beta)) XOR gamma.
+ * This includes AND, OR, NAND, NOR and all other non linear two-input gates. 
+ * The gate is garbled as an AND gate on the keys of (a XOR alpha) and (b XOR beta), which are the keys of a and b with swapped order. 
+ * Its garbled table contains two ciphertexts instead of the three of the row reduction technique, or four of the standard technique.<p>
+ * 
+ * The technique is compatible with Free XOR, so the keys of all wires should satisfy k1 = k0 XOR delta.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class HalfGatesGate implements GarbledGate {
+	
+	//The size of the garbled table of a half gate, in bytes.
+	static final int TABLE_SIZE = 32;
+	
+	private int[] inputWireIndices;
+	private int[] outputWireIndices;
+	private int gateNumber;
+	private BitSet truthTable;
+	
+	//The gate computes ((a XOR alpha) AND (b XOR beta)) XOR gamma.
+	private int alpha;
+	private int beta;
+	private int gamma;
+	
+	private AESFixedKeyMultiKeyEncryption mes;
+	private HalfGatesGarbledTablesHolder garbledTablesHolder;
+	private int tableOffset;	//The index of this gate's garbled table in the tables of the whole circuit.
+	
+	/**
+	 * Constructs a half gates garbled gate from an ungarbled gate.
+	 * @param ungarbledGate The ungarbled Gate that needs to be Garbled. Should be a two-input gate that is not linear.
+	 * @param mes The fixed key AES that is used as the hash function.
+	 * @param garbledTablesHolder Holds the garbled tables of the circuit.
+	 * @param tableOffset The index of this gate's garbled table in the tables of the circuit.
+	 */
+	HalfGatesGate(Gate ungarbledGate, AESFixedKeyMultiKeyEncryption mes, HalfGatesGarbledTablesHolder garbledTablesHolder, int tableOffset) {
+		if (!isHalfGate(ungarbledGate)){
+			throw new IllegalArgumentException("a half gate should have two inputs and a truth table with an odd number of ones");
+		}
+		inputWireIndices = ungarbledGate.getInputWireIndices();
+		outputWireIndices = ungarbledGate.getOutputWireIndices();
+		gateNumber = ungarbledGate.getGateNumber();
+		truthTable = ungarbledGate.getTruthTable();
+		this.mes = mes;
+		this.garbledTablesHolder = garbledTablesHolder;
+		this.tableOffset = tableOffset;
+		
+		//The special row is the only row whose output is different than the others. 
+		//In this row (a XOR alpha) = (b XOR beta) = 1 and the output is the opposite of gamma.
+		int table = toInt(truthTable, 4);
+		gamma = (Integer.bitCount(table) == 1) ? 0 : 1;
+		int specialRow = Integer.numberOfTrailingZeros((gamma == 0) ? table : ~table);
+		alpha = 1 ^ (specialRow >> 1);
+		beta = 1 ^ (specialRow & 1);
+	}
+	
+	/**
+	 * Checks if the given gate can be garbled using the half gates technique, meaning that it has two inputs and a truth table 
+	 * with an odd number of ones.
+	 */
+	static boolean isHalfGate(Gate ungarbledGate){
+		return ungarbledGate.getInputWireIndices().length == 2 && (Integer.bitCount(toInt(ungarbledGate.getTruthTable(), 4)) & 1) == 1;
+	}
+	
+	/**
+	 * Returns the given truth table as an int whose bit number i is the output of row i.
+	 */
+	static int toInt(BitSet truthTable, int numberOfRows){
+		int table = 0;
+		for (int row = 0; row < numberOfRows; row++) {
+			if (truthTable.get(row)) {
+				table |= 1 << row;
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Creates the garbled table of this gate and both keys of its output wires.<p>
+	 * Unlike the standard gates, the output keys are not random but are determined by the input keys. 
+	 * Thus, the keys of the input wires should already be in the given store.
+	 * @param allWireValues A store that contains both keys for each wire.
+	 * @param globalKeyOffset The Free XOR delta, packed by the store.
+	 * @throws IllegalBlockSizeException
+	 */
+	void garble(WireLabelStore allWireValues, long[] globalKeyOffset) throws IllegalBlockSizeException {
+		long[] labels = allWireValues.getLabels();
+		int output = outputWireIndices[0];
+		
+		//The 0-keys of the inner AND gate are the keys of a = alpha and b = beta. Its output 0-key is the key of the output gamma.
+		mes.garbleHalfGates(labels, allWireValues.getLabelOffset(inputWireIndices[0], alpha), allWireValues.getLabelOffset(inputWireIndices[1], beta), 
+				globalKeyOffset, gateNumber, garbledTablesHolder.getGarbledTables(), tableOffset - garbledTablesHolder.getFirstTableOffset(), labels, allWireValues.getLabelOffset(output, gamma));
+		allWireValues.xorLabel(output, 1 - gamma, output, gamma, globalKeyOffset);
+		
+		//Copy the keys to the rest of the output wires, if there are any.
+		for (int i = 1; i < outputWireIndices.length; i++) {
+			allWireValues.copyLabel(output, 0, outputWireIndices[i], 0);
+			allWireValues.copyLabel(output, 1, outputWireIndices[i], 1);
+		}
+	}
+	
+	@Override
+	public void compute(Map<Integer, GarbledWire> computedWires) throws IllegalBlockSizeException {
+		//Pack the input keys as longs, compute the gate and unpack the output key.
+		ByteBuffer first = ByteBuffer.wrap(computedWires.get(inputWireIndices[0]).getValueAndSignalBit().getEncoded());
+		ByteBuffer second = ByteBuffer.wrap(computedWires.get(inputWireIndices[1]).getValueAndSignalBit().getEncoded());
+		long[] labels = new long[] {first.getLong(0), first.getLong(8), second.getLong(0), second.getLong(8)};
+		
+		mes.computeHalfGates(labels, 0, 2, gateNumber, garbledTablesHolder.getGarbledTables(), tableOffset - garbledTablesHolder.getFirstTableOffset(), labels, 0);
+		
+		byte[] outputValue = new byte[16];
+		ByteBuffer.wrap(outputValue).putLong(labels[0]).putLong(labels[1]);
+		GarbledWire outputWire = new GarbledWire(new SecretKeySpec(outputValue, ""));
+		for (int w : outputWireIndices) {
+			computedWires.put(w, outputWire);
+		}
+	}
+	
+	@Override
+	public void compute(WireLabelStore computedWires) throws IllegalBlockSizeException {
+		long[] labels = computedWires.getLabels();
+		int output = outputWireIndices[0];
+		
+		mes.computeHalfGates(labels, computedWires.getLabelOffset(inputWireIndices[0], 0), computedWires.getLabelOffset(inputWireIndices[1], 0), 
+				gateNumber, garbledTablesHolder.getGarbledTables(), tableOffset - garbledTablesHolder.getFirstTableOffset(), labels, computedWires.getLabelOffset(output, 0));
+		
+		//Copy the result to the rest of the output wires, if there are any.
+		for (int i = 1; i < outputWireIndices.length; i++) {
+			computedWires.copyLabel(output, 0, outputWireIndices[i], 0);
+		}
+	}
+	
+	/**
+	 * Since the garbling of a half gate is deterministic given the input keys, the gate is verified by garbling it again and comparing 
+	 * the result to the garbled table.
+	 */
+	@Override
+	public boolean verify(Gate g, Map<Integer, SecretKey[]> allWireValues) throws IllegalBlockSizeException {
+		
+		//Verify that the gate number, input/output indices and truth table are the same as the given ungarbled gate.
+		if (gateNumber != g.getGateNumber() || !truthTable.equals(g.getTruthTable())) {
+			return false;
+		}
+		if (!Arrays.equals(inputWireIndices, g.getInputWireIndices()) || !Arrays.equals(outputWireIndices, g.getOutputWireIndices())) {
+			return false;
+		}
+		
+		//Pack both keys of both inputs.
+		long[] labels = new long[8];
+		for (int i = 0; i < 2; i++) {
+			SecretKey[] keys = allWireValues.get(inputWireIndices[i]);
+			for (int value = 0; value < 2; value++) {
+				ByteBuffer key = ByteBuffer.wrap(keys[value].getEncoded());
+				labels[4 * i + 2 * value] = key.getLong(0);
+				labels[4 * i + 2 * value + 1] = key.getLong(8);
+			}
+		}
+		
+		//Both inputs should have the same delta.
+		long[] delta = new long[] {labels[0] ^ labels[2], labels[1] ^ labels[3]};
+		if ((labels[4] ^ labels[6]) != delta[0] || (labels[5] ^ labels[7]) != delta[1]) {
+			return false;
+		}
+		
+		//Garble the gate again and compare to the garbled table.
+		byte[] garbledTable = new byte[TABLE_SIZE];
+		long[] outputLabel = new long[2];
+		mes.garbleHalfGates(labels, 2 * alpha, 4 + 2 * beta, delta, gateNumber, garbledTable, 0, outputLabel, 0);
+		byte[] tables = garbledTablesHolder.getGarbledTables();
+		int offset = tableOffset - garbledTablesHolder.getFirstTableOffset();
+		for (int i = 0; i < TABLE_SIZE; i++) {
+			if (garbledTable[i] != tables[offset + i]) {
+				return false;
+			}
+		}
+		
+		//Add the values for the output wire(s) to the allWireValues map, to be used by the following gates.
+		byte[][] outputKeys = new byte[2][16];
+		ByteBuffer.wrap(outputKeys[gamma]).putLong(outputLabel[0]).putLong(outputLabel[1]);
+		ByteBuffer.wrap(outputKeys[1 - gamma]).putLong(outputLabel[0] ^ delta[0]).putLong(outputLabel[1] ^ delta[1]);
+		for (int w : outputWireIndices) {
+			allWireValues.put(w, new SecretKey[] { new SecretKeySpec(outputKeys[0], ""), new SecretKeySpec(outputKeys[1], "") });
+		}
+		return true;
+	}
+	
+	@Override
+	public int[] getInputWireIndices() {
+		return inputWireIndices;
+	}
+	
+	@Override
+	public int[] getOutputWireIndices() {
+		return outputWireIndices;
+	}
+}
@@ -196,8 +196,29 @@ public class IdentityGate implements GarbledGate{
 		
 		//Get the input garlbed value.
 		GarbledWire wire = computedWires.get(inputWireIndex);
-		SecretKey keyToDecryptOn = wire.getValueAndSignalBit();
-		  
+		byte[] wireValue = decryptOutputKey(wire.getValueAndSignalBit());
+		
+		SecretKey outputValue = new SecretKeySpec(wireValue, "");
+		// Create the output wire with the decrypted value.
+		computedWires.put(outputWireIndex, new GarbledWire(outputValue));	
+	}
+	
+	@Override
+	public void compute(WireLabelStore computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+		//Decrypt the output key using the input label and put it in the store. See compute(Map) for the details of the algorithm.
+		byte[] wireValue = decryptOutputKey(computedWires.getKey(inputWireIndex, 0));
+		computedWires.setLabel(outputWireIndex, 0, wireValue, 0);
+	}
+	
+	/**
+	 * Finds the row of the garbled table that matches the given input key and decrypts the output key from it.
+	 * @param keyToDecryptOn The garbled value of the input wire.
+	 * @return the garbled value of the output wire.
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 * @throws CiphertextTooLongException
+	 */
+	private byte[] decryptOutputKey(SecretKey keyToDecryptOn) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
 		//Set the key and tweak to the encryption scheme.
 		mes.setKey(mes.generateMultiKey(keyToDecryptOn));
 		ByteBuffer tweak = ByteBuffer.allocate(16);
@@ -235,10 +256,7 @@ public class IdentityGate implements GarbledGate{
 		} catch (TweakNotSetException e) {
 			// Should not occur since the tweak was set.
 		}
-		
-		SecretKey outputValue = new SecretKeySpec(wireValue, "");
-		// Create the output wire with the decrypted value.
-		computedWires.put(outputWireIndex, new GarbledWire(outputValue));	
+		return wireValue;
 	}
 
 	/**
@@ -0,0 +1,213 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import edu.biu.scapi.circuits.circuit.Gate;
+
+/**
+ * Runs a task on the gates of a circuit using multiple threads. <p>
+ * 
+ * The circuit is levelized once, in the construction time: the level of a gate is one more than the highest level of the gates 
+ * that compute its inputs, where the input wires of the circuit are in level zero. If the circuit reuses wires, a gate that writes 
+ * a wire is also placed after the gates that read or write the previous value of that wire. 
+ * The gates of each level do not depend on each other, so each level is split between the workers and run on a {@link ForkJoinPool}. 
+ * A level is done before the next one begins.<p>
+ * 
+ * The encryption schemes that the gates use are not thread safe. Thus, each worker has its own copy of the gates, 
+ * which should be created with a different encryption scheme object. 
+ * All copies should share the same garbled tables holder.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class LevelParallelGateRunner {
+	
+	/**
+	 * A task that is run on one gate of the circuit.
+	 */
+	interface GateTask {
+		
+		/**
+		 * Runs the task on the given gate.
+		 * @param gate The copy of the gate that belongs to the running worker.
+		 * @param gateIndex The index of the gate in the circuit.
+		 */
+		void run(GarbledGate gate, int gateIndex);
+	}
+	
+	private ForkJoinPool pool;
+	private int parallelismThreshold;	//The minimal number of gates a worker gets. Smaller levels are run on the calling thread.
+	private GarbledGate[][] workersGates;	//Each worker's copy of the gates, indexed by the gate index.
+	private int[][] levels;					//The indices of the gates in each level.
+	private int[] allGates;					//The indices of all gates, for tasks that do not depend on the gates' order.
+	
+	/**
+	 * Levelizes the given circuit and sets the parameters of the execution.
+	 * @param ungarbledGates The gates of the circuit.
+	 * @param numberOfWires One more than the biggest wire index of the circuit.
+	 * @param workersGates Each worker's copy of the gates. The number of workers is the number of copies.
+	 * @param pool The pool to run the workers on.
+	 * @param parallelismThreshold The minimal number of gates a worker gets. Smaller levels are run on the calling thread.
+	 */
+	LevelParallelGateRunner(Gate[] ungarbledGates, int numberOfWires, GarbledGate[][] workersGates, ForkJoinPool pool, int parallelismThreshold) {
+		if (parallelismThreshold < 1){
+			throw new IllegalArgumentException("the parallelism threshold should be positive");
+		}
+		this.workersGates = workersGates;
+		this.pool = pool;
+		this.parallelismThreshold = parallelismThreshold;
+		levels = levelize(ungarbledGates, numberOfWires);
+		allGates = new int[ungarbledGates.length];
+		for (int i = 0; i < allGates.length; i++) {
+			allGates[i] = i;
+		}
+	}
+	
+	/**
+	 * Returns the indices of the gates of each level. A gate is placed in the first level that comes after the levels of 
+	 * the gates that compute its inputs and, if it writes a wire that was already used, after the levels of the gates that 
+	 * read or wrote the previous value of that wire. Thus, two gates in the same level never use the same wire if one of them writes it.
+	 * @param ungarbledGates The gates of the circuit, in a topological order.
+	 * @param numberOfWires One more than the biggest wire index of the circuit.
+	 */
+	static int[][] levelize(Gate[] ungarbledGates, int numberOfWires) {
+		//The first level that can read each wire, which is one more than the level of the gate that computes it. 
+		//The circuit's input wires can be read in level zero.
+		int[] wireLevels = new int[numberOfWires];
+		//The level of the last gate that wrote each wire and the highest level of the gates that read its current value, or -1 if there are none.
+		int[] lastWriteLevels = new int[numberOfWires];
+		int[] lastReadLevels = new int[numberOfWires];
+		for (int w = 0; w < numberOfWires; w++) {
+			lastWriteLevels[w] = -1;
+			lastReadLevels[w] = -1;
+		}
+		int[] gateLevels = new int[ungarbledGates.length];
+		int numberOfLevels = 0;
+		for (int gate = 0; gate < ungarbledGates.length; gate++) {
+			int level = 0;
+			//Read after write: the inputs should be computed first.
+			for (int w : ungarbledGates[gate].getInputWireIndices()) {
+				level = Math.max(level, wireLevels[w]);
+			}
+			//Write after read and write after write: the previous value of each output should not be in use.
+			for (int w : ungarbledGates[gate].getOutputWireIndices()) {
+				level = Math.max(level, Math.max(lastReadLevels[w], lastWriteLevels[w]) + 1);
+			}
+			gateLevels[gate] = level;
+			for (int w : ungarbledGates[gate].getInputWireIndices()) {
+				lastReadLevels[w] = Math.max(lastReadLevels[w], level);
+			}
+			for (int w : ungarbledGates[gate].getOutputWireIndices()) {
+				wireLevels[w] = level + 1;
+				lastWriteLevels[w] = level;
+				lastReadLevels[w] = -1;
+			}
+			numberOfLevels = Math.max(numberOfLevels, level + 1);
+		}
+		
+		//Group the gates by their levels, keeping their original order in each level.
+		int[] levelSizes = new int[numberOfLevels];
+		for (int level : gateLevels) {
+			levelSizes[level]++;
+		}
+		int[][] levels = new int[numberOfLevels][];
+		for (int level = 0; level < numberOfLevels; level++) {
+			levels[level] = new int[levelSizes[level]];
+			levelSizes[level] = 0;
+		}
+		for (int gate = 0; gate < gateLevels.length; gate++) {
+			int level = gateLevels[gate];
+			levels[level][levelSizes[level]++] = gate;
+		}
+		return levels;
+	}
+	
+	/**
+	 * Runs the given task on all gates, level after level. 
+	 * Should be used by tasks that read the output of previous gates, such as computing the circuit.
+	 */
+	void runByLevels(GateTask task) {
+		for (int[] level : levels) {
+			run(level, task);
+		}
+	}
+	
+	/**
+	 * Runs the given task on all gates, with no dependency between them. 
+	 * Should be used by tasks that do not depend on other gates, such as creating garbled tables after all keys were sampled.
+	 */
+	void runAll(GateTask task) {
+		run(allGates, task);
+	}
+	
+	/**
+	 * Splits the given gates between the workers, such that each worker gets at least parallelismThreshold gates, and runs the task.
+	 */
+	private void run(final int[] gates, final GateTask task) {
+		final int numberOfTasks = Math.min(workersGates.length, gates.length / parallelismThreshold);
+		
+		//Not enough gates to split. Run them on the calling thread.
+		if (numberOfTasks <= 1) {
+			runRange(gates, 0, gates.length, workersGates[0], task);
+			return;
+		}
+		
+		final RecursiveAction[] workers = new RecursiveAction[numberOfTasks];
+		for (int i = 0; i < numberOfTasks; i++) {
+			final int from = (int) ((long) gates.length * i / numberOfTasks);
+			final int to = (int) ((long) gates.length * (i + 1) / numberOfTasks);
+			final GarbledGate[] workerGates = workersGates[i];
+			workers[i] = new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					runRange(gates, from, to, workerGates, task);
+				}
+			};
+		}
+		
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(workers);
+			}
+		});
+	}
+	
+	/**
+	 * Runs the given task on the gates in the given range, using the given copy of the gates.
+	 */
+	private static void runRange(int[] gates, int from, int to, GarbledGate[] workerGates, GateTask task) {
+		for (int i = from; i < to; i++) {
+			task.run(workerGates[gates[i]], gates[i]);
+		}
+	}
+}
@@ -26,10 +26,8 @@ package edu.biu.scapi.circuits.garbledCircuit;
 
 import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
-import java.util.Map;
 
 import javax.crypto.IllegalBlockSizeException;
-import javax.crypto.SecretKey;
 
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
@@ -62,7 +60,7 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	}	
    
 	@Override
-	void createGarbledTable(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException {
+	void createGarbledTable(Gate ungarbledGate, WireLabelStore allWireValues) throws InvalidKeyException, IllegalBlockSizeException {
 		
 		//The number of rows truth table is 2^(number of inputs).
 		int numberOfInputs = inputWireIndices.length;
@@ -111,8 +109,7 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	    		 * The signal bits tell us the position on the garbled truth table for the given row of an ungarbled truth table. 
 	    		 * See Fairplay - A Secure Two-Party Computation System by Dahlia Malkhi, Noam Nisan1, Benny Pinkas, and Yaron Sella for more on signal bits.
 	    		 */
-	    		byte[] k0 = allWireValues.get(inputWireIndices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
+	    		byte signalBit = allWireValues.getSignalBit(inputWireIndices[i], 0);
 
 	    		// Update the permuted position. For a better understanding on how this works, see the getIndexToDecrypt method in this class.
 		        permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
@@ -132,7 +129,7 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	    	valuesToEncryptOn[permutedPosition] = temp;
 	    	tweaksToEncrypt[permutedPosition] = tweak.array();
 	    	int value = (ungarbledGate.getTruthTable().get(rowOfTruthTable) == true) ? 1 : 0;
-	    	outputValuesToEncrypt[permutedPosition] = allWireValues.get(outputWireIndices[0])[value].getEncoded();
+	    	outputValuesToEncrypt[permutedPosition] = allWireValues.getLabel(outputWireIndices[0], value);
 	    }
 	    
 	    /*
@@ -140,7 +137,7 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	     * Set AES to each value and then look for all rows that need to be encrypted on this value before we reset the key.
 	     */
 	    for (int i = 0; i < numberOfInputs; i++) {
-	    	aes.setKey(allWireValues.get(inputWireIndices[i])[0]);
+	    	aes.setKey(allWireValues.getKey(inputWireIndices[i], 0));
 	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
 	    		if (valuesToEncryptOn[rowNumber][i] == 0) {
 	    			byte[] tempo = new byte[aes.getBlockSize()];
@@ -152,7 +149,7 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 
 	    	}
 
-	    	aes.setKey(allWireValues.get(inputWireIndices[i])[1]);
+	    	aes.setKey(allWireValues.getKey(inputWireIndices[i], 1));
 	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
 	    		if (valuesToEncryptOn[rowNumber][i] == 1) {
 	    			byte[] tempo = new byte[aes.getBlockSize()];
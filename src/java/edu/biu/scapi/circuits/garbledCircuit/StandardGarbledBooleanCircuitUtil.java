@@ -54,6 +54,10 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	protected MultiKeyEncryptionScheme mes;
 	
 	protected SecureRandom random;
+	private LevelParallelGateRunner gateRunner;	//Creates the garbled tables in parallel. Null in case of sequential garbling.
+	private boolean isDeferred;					//Indicates whether the garble functions should create the garbled tables.
+	private Gate[] deferredGates;				//The gates and keys of the last deferred garble call.
+	private WireLabelStore deferredWireValues;
 	
 	/**
 	 * Sets the given MultiKeyEncryptionScheme and random.
@@ -72,6 +76,57 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		this(new AESFixedKeyMultiKeyEncryption(), new SecureRandom());
 	}
 	
+	@Override
+	public void setGateRunner(LevelParallelGateRunner gateRunner){
+		this.gateRunner = gateRunner;
+	}
+	
+	@Override
+	public void setDeferredGarbling(boolean isDeferred){
+		this.isDeferred = isDeferred;
+	}
+	
+	@Override
+	public GarbledTablesChunk garbleGates(GarbledGate[] gates, GarbledTablesHolder garbledTablesHolder, int from, int to){
+		if (deferredWireValues == null){
+			throw new IllegalStateException("garbleGates should be called after a deferred garble call");
+		}
+		for (int gate = from; gate < to; gate++) {
+			try {
+				((StandardGarbledGate) gates[gate]).createGarbledTable(deferredGates[gate], deferredWireValues);
+			} catch (InvalidKeyException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			} catch (IllegalBlockSizeException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			} catch (PlaintextTooLongException e) {
+				// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+			}
+		}
+		
+		//The keys are not needed after the last gate was garbled.
+		if (to == gates.length){
+			deferredGates = null;
+			deferredWireValues = null;
+		}
+		return ((BasicGarbledTablesHolder) garbledTablesHolder).removeChunk(from, to - from);
+	}
+	
+	@Override
+	public void putGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		((BasicGarbledTablesHolder) garbledTablesHolder).putChunk(chunk);
+	}
+	
+	@Override
+	public void removeGarbledTablesChunk(GarbledTablesHolder garbledTablesHolder, GarbledTablesChunk chunk){
+		((BasicGarbledTablesHolder) garbledTablesHolder).removeChunk(chunk.getFirstGate(), chunk.getNumberOfGates());
+	}
+	
+	@Override
+	public GarbledTablesHolder createGarbledTablesHolder(Gate[] ungarbledGates){
+		//Each gate has its own garbled table.
+		return new BasicGarbledTablesHolder(new byte[ungarbledGates.length][]);
+	}
+	
 	/**
 	 * Creates the gates that matches StandardGarbledBooleanCircuit.
 	 */
@@ -103,8 +158,8 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
 			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
 		}
-		//Prepare the maps that will be used during keys generation.
-		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		//Prepare the maps that will be used during keys generation. Both keys of all wires are kept in one array, indexed by the wire number.
+		WireLabelStore allWireValues = new WireLabelStore(WireLabelStore.countWires(ungarbledCircuit), 2, mes.getCipherSize());
 		Map<Integer, SecretKey[]> allInputWireValues = null;
 		Map<Integer, SecretKey[]> allOutputWireValues = null;
 		HashMap<Integer, Byte> translationTable = new HashMap<Integer, Byte>();
@@ -120,10 +175,10 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 				// Should not occur since the number is a valid party number
 			}
 			for (int w : inputWireIndices) {
-				sampleStandardKeys(allInputWireValues, w);
+				sampleStandardKeys(allWireValues, w);
+				allInputWireValues.put(w, allWireValues.getKeys(w));
 			}
 		}
-		allWireValues.putAll(allInputWireValues);
 	
 		
 		//for each gate fill the keys and signal bits for output wires if they are not filled yet.
@@ -153,9 +208,9 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	 * Samples the keys for the output wires of the given gate.
 	 * @param allOutputWireValues Both keys of all output wires.
 	 * @param ungarbledGate The gate we should sample keys for its output wires.
-	 * @param allWireValues A map to fill with the wires' keys.
+	 * @param allWireValues A store to fill with the wires' keys.
 	 */
-	protected void generateOutputKeys(Map<Integer, SecretKey[]> allOutputWireValues, Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) {
+	protected void generateOutputKeys(Map<Integer, SecretKey[]> allOutputWireValues, Gate ungarbledGate, WireLabelStore allWireValues) {
 		//Create all output keys.
 		int len = ungarbledGate.getOutputWireIndices().length;
 		int wireIndex;
@@ -171,12 +226,39 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	 * @param gates An array of gates to fill.
 	 * @param garbledTablesHolder holds the garbled tables.
 	 * @param ungarbledGates The gates that need to be garbled.
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 * @throws InvalidKeyException
 	 * @throws IllegalBlockSizeException
 	 * @throws PlaintextTooLongException
 	 */
-	private void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, Gate[] ungarbledGates, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+	private void createGarbledTables(GarbledGate[] gates, BasicGarbledTablesHolder garbledTablesHolder, final Gate[] ungarbledGates, final WireLabelStore allWireValues) throws InvalidKeyException, IllegalBlockSizeException, PlaintextTooLongException {
+		//In deferred garbling, keep the keys. The tables are created later by garbleGates.
+		if (isDeferred){
+			deferredGates = ungarbledGates;
+			deferredWireValues = allWireValues;
+			return;
+		}
+		
+		//Create the tables in parallel, in case there is a gate runner.
+		if (gateRunner != null){
+			gateRunner.runAll(new LevelParallelGateRunner.GateTask() {
+				
+				@Override
+				public void run(GarbledGate gate, int gateIndex) {
+					try {
+						((StandardGarbledGate) gate).createGarbledTable(ungarbledGates[gateIndex], allWireValues);
+					} catch (InvalidKeyException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					} catch (IllegalBlockSizeException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					} catch (PlaintextTooLongException e) {
+						// Should not occur since the keys were generated through the encryption scheme that generates keys that match it.
+					}
+				}
+			});
+			return;
+		}
+		
 		int length = ungarbledGates.length;
 		//After we have all keys, create the garbledTables according to them.
 		for (int gate = 0; gate < length; gate++) {
@@ -188,10 +270,10 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	 * Fills the maps containing the keys for the output wires and the translation table.
 	 * @param outputWireIndices Indices of the output wires.
 	 * @param allOutputWireValues A map to fill with the output wires' keys.
-	 * @param allWireValues A map to take the output wires' keys from.
+	 * @param allWireValues A store to take the output wires' keys from.
 	 * @param translationTable A map to fill with the output wires' signal bits.
 	 */
-	private void fillOutputWiresValues(int[] outputWireIndices, Map<Integer, SecretKey[]> allOutputWireValues, Map<Integer, SecretKey[]> allWireValues,
+	private void fillOutputWiresValues(int[] outputWireIndices, Map<Integer, SecretKey[]> allOutputWireValues, WireLabelStore allWireValues,
 			Map<Integer, Byte> translationTable) {
 		/*
 		 * Add the output wire indices' signal bits to the translation table. For a full understanding on why we chose to 
@@ -200,20 +282,19 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		 */
 		for (int n : outputWireIndices) {
 			//Signal bit is the last bit of k0.
-			byte[] k0 = allWireValues.get(n)[0].getEncoded();
-			translationTable.put(n, (byte) (k0[k0.length-1] & 1));	
+			translationTable.put(n, allWireValues.getSignalBit(n, 0));	
 			
 			//Add both values of output wire to the allOutputWireValues Map that was passed as a parameter.
-			allOutputWireValues.put(n, allWireValues.get(n));
+			allOutputWireValues.put(n, allWireValues.getKeys(n));
 		}
 	}
 
 	/**
 	 * Samples both keys of the given wire's index.
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 * @param wireIndex The index of the wire we want to sample keys for.
 	 */
-	private void sampleStandardKeys(Map<Integer, SecretKey[]> allWireValues, int wireIndex) {
+	private void sampleStandardKeys(WireLabelStore allWireValues, int wireIndex) {
 		
 		//Sample a 0-encoded value and a 1-encoded value for each GarbledWire.
 		SecretKey zeroValue = mes.generateKey();
@@ -223,9 +304,8 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		
 	}
 
-	private void adjustKeysToSignalBit(Map<Integer, SecretKey[]> allWireValues,	int wireIndex, byte[] zeroBytes, byte[] oneBytes) {
+	private void adjustKeysToSignalBit(WireLabelStore allWireValues, int wireIndex, byte[] zeroBytes, byte[] oneBytes) {
 		
-		SecretKey zero = null, one = null;
 		if ((zeroBytes[zeroBytes.length - 1] & 1) == 0) {
 			// Set the 1-value signal bit. This is the last bit of the wire's 1 value(key).
 			oneBytes[oneBytes.length - 1] |= 1;
@@ -233,12 +313,10 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 			// Set the 1-value signal bit. This is the last bit of the wire's 1 value(key).
 			oneBytes[oneBytes.length - 1] &= 254;
 		}
-		zero = new SecretKeySpec(zeroBytes, "");
-		one = new SecretKeySpec(oneBytes, "");
 		
-		// Put the 0-value and the 1-value on the allWireValuesMap.
-		SecretKey[] keys = new SecretKey[] {zero, one};
-		allWireValues.put(wireIndex, keys);
+		// Put the 0-value and the 1-value in the store.
+		allWireValues.setLabel(wireIndex, 0, zeroBytes, 0);
+		allWireValues.setLabel(wireIndex, 1, oneBytes, 0);
 	}
 	
 	@Override
@@ -247,7 +325,7 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 		if (!(garbledTablesHolder instanceof BasicGarbledTablesHolder)){
 			throw new IllegalArgumentException("the given garbledTablesHolder should be an instance of BasicGarbledTablesHolder");
 		}
-		Map<Integer, SecretKey[]> allWireValues = new HashMap<Integer, SecretKey[]>();
+		WireLabelStore allWireValues = new WireLabelStore(WireLabelStore.countWires(ungarbledCircuit), 2, mes.getCipherSize());
 		Gate[] ungarbledGates = ungarbledCircuit.getGates();
 		
 		//Call the function that sample the keys.
@@ -270,12 +348,12 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	 * @param prg Used to sample values.
 	 * @param seed Used to initialize the prg.
 	 * @param ungarbledCircuit The circuit that this garbled circuit should be the garbling of.
-	 * @param allWireValues a map that contains both keys for each wire.
+	 * @param allWireValues a store that contains both keys for each wire.
 	 * @return the values sampled by the function
 	 * @throws InvalidKeyException
 	 */
 	private CircuitCreationValues sampleSeedKeys(PseudorandomGenerator prg, byte[] seed, BooleanCircuit ungarbledCircuit, 
-			Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException{
+			WireLabelStore allWireValues) throws InvalidKeyException{
 		Map<Integer, SecretKey[]> allInputWireValues = new HashMap<Integer, SecretKey[]>();
 		Map<Integer, SecretKey[]> outputGarbledValues = new HashMap<Integer, SecretKey[]>();
 		
@@ -293,13 +371,11 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 				// should not occur since the number is a valid party number
 			}
 			for (int w : inputWireIndices) {
-				sampleKeysFromSeed(allInputWireValues, w, prg);
+				sampleKeysFromSeed(allWireValues, w, prg);
+				allInputWireValues.put(w, allWireValues.getKeys(w));
 			}
 		}
 		
-		//Set the keys of the input wires. 
-		allWireValues.putAll(allInputWireValues);
-		
 		Gate[] ungarbledGates = ungarbledCircuit.getGates();
 		
 		//for each gate fill the keys and signal bits for output wires.
@@ -315,10 +391,10 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	/**
 	 * Samples the output keys by the prg and seed.
 	 * @param prg 
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 * @param ungarbledGate The gate we want to sample keys for its output wires.
 	 */
-	protected void generateOutputKeysFromSeed(PseudorandomGenerator prg,Map<Integer, SecretKey[]> allWireValues, Gate ungarbledGate) {
+	protected void generateOutputKeysFromSeed(PseudorandomGenerator prg, WireLabelStore allWireValues, Gate ungarbledGate) {
 		//Get the indices of the output wires.
 		int[] indices = ungarbledGate.getOutputWireIndices();
 		int len = indices.length;
@@ -330,11 +406,11 @@ class StandardGarbledBooleanCircuitUtil implements CircuitTypeUtil{
 	
 	/**
 	 * Samples both keys of the given wire's index using the PRG.
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 * @param wireIndex The index of the wire we need to sample keys for.
 	 * @param prg 
 	 */
-	private void sampleKeysFromSeed(Map<Integer, SecretKey[]> allWireValues, int wireIndex,	PseudorandomGenerator prg) {
+	private void sampleKeysFromSeed(WireLabelStore allWireValues, int wireIndex,	PseudorandomGenerator prg) {
 		
 		//Assign a 0-encoded value and a 1-encoded value for each GarbledWire.
 		int keySize = mes.getCipherSize();
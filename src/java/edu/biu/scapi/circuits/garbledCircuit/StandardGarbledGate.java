@@ -35,6 +35,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
 import edu.biu.scapi.exceptions.CiphertextTooLongException;
 import edu.biu.scapi.exceptions.KeyNotSetException;
@@ -54,6 +55,9 @@ class StandardGarbledGate implements GarbledGate {
 
 	protected MultiKeyEncryptionScheme mes; 					// The {@code MultiKeyEncryptionScheme} that will be used to garbled and compute this Gate.
 	
+	//In case the encryption scheme is AESFixedKeyMultiKeyEncryption, two-input gates are garbled and computed using its batched API.
+	private AESFixedKeyMultiKeyEncryption fixedKeyAES;
+	
 	protected BasicGarbledTablesHolder garbledTablesHolder; 	// Holds the garbled tables.
 	
 	/* An array containing the indices of the input wires of this gate. 
@@ -89,6 +93,18 @@ class StandardGarbledGate implements GarbledGate {
 	    outputWireIndices = ungarbledGate.getOutputWireIndices();
 	    gateNumber = ungarbledGate.getGateNumber();
 	    this.garbledTablesHolder = garbledTablesHolder;
+	    if (mes instanceof AESFixedKeyMultiKeyEncryption){
+	    	fixedKeyAES = (AESFixedKeyMultiKeyEncryption) mes;
+	    }
+	}
+	
+	/**
+	 * Returns true if this gate can be garbled and computed using the batched API of {@link AESFixedKeyMultiKeyEncryption}.<p>
+	 * This is the case when the gate has two inputs and the labels are 128 bits long.
+	 * @param labels The store that holds the gate's labels.
+	 */
+	private boolean useBatchedAES(WireLabelStore labels){
+		return fixedKeyAES != null && inputWireIndices.length == 2 && labels.getLabelSize() == 16;
 	}
   
 	/**
@@ -99,7 +115,7 @@ class StandardGarbledGate implements GarbledGate {
 	 * @throws IllegalBlockSizeException
 	 * @throws PlaintextTooLongException
 	 */
-	void createGarbledTable(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) throws  IllegalBlockSizeException, PlaintextTooLongException, InvalidKeyException{
+	void createGarbledTable(Gate ungarbledGate, WireLabelStore allWireValues) throws  IllegalBlockSizeException, PlaintextTooLongException, InvalidKeyException{
 	  
 		//The number of rows truth table is 2^(number of inputs).
 		int numberOfInputs = inputWireIndices.length;
@@ -109,6 +125,21 @@ class StandardGarbledGate implements GarbledGate {
 		byte[] garbledTable = new byte[numberOfRows * mes.getCipherSize()];
 		garbledTablesHolder.toDoubleByteArray()[gateNumber] = garbledTable;
 		
+		//In case of a two-input gate using fixed key AES, calculate all rows at once without creating keys and tweaks.
+		if (useBatchedAES(allWireValues)){
+			BitSet ungarbledTruthTable = ungarbledGate.getTruthTable();
+			int truthTable = 0;
+			for (int row = 0; row < numberOfRows; row++){
+				if (ungarbledTruthTable.get(row)){
+					truthTable |= 1 << row;
+				}
+			}
+			fixedKeyAES.garbleGate(allWireValues.getLabels(), allWireValues.getLabelOffset(inputWireIndices[0], 0), 
+					allWireValues.getLabelOffset(inputWireIndices[1], 0), allWireValues.getLabelOffset(outputWireIndices[0], 0), 
+					truthTable, gateNumber, garbledTable, 0);
+			return;
+		}
+		
 		//Calculate the garbled table row by row.
 		for (int rowOfTruthTable = 0; rowOfTruthTable < numberOfRows; rowOfTruthTable++) {
 			// tweak - what is to be encrypted.
@@ -137,14 +168,13 @@ class StandardGarbledGate implements GarbledGate {
 	    		 * The signal bit of wire i is the last bit of wire i's k0. 
 	    		 * See Fairplay - A Secure Two-Party Computation System by Dahlia Malkhi, Noam Nisan1, Benny Pinkas, and Yaron Sella for more on signal bits.
 	    		 */
-		  		byte[] k0 = allWireValues.get(inputWireIndices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
+		  		byte signalBit = allWireValues.getSignalBit(inputWireIndices[i], 0);
 		  		
 		  		// Update the permuted position. For a better understanding on how this works, see the getIndexToDecrypt method in this class.
 			    permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
 		  		
 		  		// Add the current Wire value to the list of keys to encrypt on. These keys will then be used to construct a multikey.
-		  		keysToEncryptOn[i] = allWireValues.get(inputWireIndices[i])[input];
+		  		keysToEncryptOn[i] = allWireValues.getKey(inputWireIndices[i], input);
 		  		
 		  		/*
 		  		 * We add the signalBit that is placed on the end of the wire's value which is given by input XOR signalBit (i.e. the random bit for the
@@ -165,7 +195,7 @@ class StandardGarbledGate implements GarbledGate {
       
 		  	// Encrypt the output key and put the ciphertext in the garbled table.
 		  	try {
-				System.arraycopy(mes.encrypt(allWireValues.get(outputWireIndices[0])[value].getEncoded()) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
+				System.arraycopy(mes.encrypt(allWireValues.getLabel(outputWireIndices[0], value)) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
 			} catch (KeyNotSetException e) {
 				// Should not occur since the encryption has a key.
 			} catch (TweakNotSetException e) {
@@ -192,6 +222,95 @@ class StandardGarbledGate implements GarbledGate {
 		}
 	}
 
+	@Override
+	public void compute(WireLabelStore computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+		
+		//Calculate the row in the garbled table we need to decrypt.
+		int garbledTableIndex = getIndexToDecrypt(computedWires);
+		
+		//Decrypt the output value and put it in the store.
+		decryptIntoStore(computedWires, garbledTableIndex);
+	}
+	
+	/**
+	 * Decrypts the given row of the garbled table and puts the result as the label of each output wire.
+	 * @param computedWires A store containing the labels of the wires that have already been computed.
+	 * @param garbledTableIndex The index of the row that should be decrypted.
+	 * @throws CiphertextTooLongException
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	protected void decryptIntoStore(WireLabelStore computedWires, int garbledTableIndex) 
+			throws CiphertextTooLongException, InvalidKeyException, IllegalBlockSizeException {
+		
+		//In case of a two-input gate using fixed key AES, decrypt the row directly into the store. 
+		//The row is chosen by the signal bits, which are the bits that garbledTableIndex was calculated from.
+		if (useBatchedAES(computedWires)){
+			long[] labels = computedWires.getLabels();
+			fixedKeyAES.computeGate(labels, computedWires.getLabelOffset(inputWireIndices[0], 0), computedWires.getLabelOffset(inputWireIndices[1], 0), 
+					gateNumber, garbledTablesHolder.toDoubleByteArray()[gateNumber], 0, labels, computedWires.getLabelOffset(outputWireIndices[0], 0));
+			for (int i = 1; i < outputWireIndices.length; i++) {
+				computedWires.copyLabel(outputWireIndices[0], 0, outputWireIndices[i], 0);
+			}
+		} else{
+			setOutputLabels(computedWires, computeGarbledTable(computedWires, garbledTableIndex));
+		}
+	}
+	
+	/**
+	 * Puts the given output key as the label of each output wire.
+	 * @param computedWires The store to put the output key in.
+	 * @param wireValue The computed output key.
+	 */
+	protected void setOutputLabels(WireLabelStore computedWires, byte[] wireValue) {
+		int numberOfOutputs = outputWireIndices.length;
+		for (int i = 0; i < numberOfOutputs; i++) {
+			computedWires.setLabel(outputWireIndices[i], 0, wireValue, 0);
+		}
+	}
+	
+	/**
+	 * Computes the garbled table of this gate using the input labels in the given store.
+	 * @param computedWires A store containing the labels of the wires that have already been computed.
+	 * @param garbledTableIndex The index of the row that should be decrypted.
+	 * @return the output key.
+	 * @throws CiphertextTooLongException
+	 * @throws InvalidKeyException
+	 * @throws IllegalBlockSizeException
+	 */
+	protected byte[] computeGarbledTable(WireLabelStore computedWires, int garbledTableIndex) 
+			throws CiphertextTooLongException, InvalidKeyException, IllegalBlockSizeException {
+		
+		int numberOfInputs = inputWireIndices.length;
+		
+		SecretKey[] keysToDecryptOn = new SecretKey[numberOfInputs];
+		ByteBuffer tweak = ByteBuffer.allocate(16);
+		// Put the gate number in the tweak.
+		tweak.putInt(gateNumber);
+		
+		for (int i = 0; i < numberOfInputs; i++) {
+			keysToDecryptOn[i] = computedWires.getKey(inputWireIndices[i], 0);
+		  
+			// Put the signal bits of the input wire values into the tweak.
+			tweak.putInt(computedWires.getSignalBit(inputWireIndices[i], 0));
+		}
+		
+		mes.setKey(mes.generateMultiKey(keysToDecryptOn));
+		mes.setTweak(tweak.array());
+	
+		// Decrypt the output value.
+		byte[] wireValue = null;
+		try {
+			wireValue = mes.decrypt(Arrays.copyOfRange(garbledTablesHolder.toDoubleByteArray()[gateNumber], 
+					garbledTableIndex * mes.getCipherSize(), (garbledTableIndex +1)*mes.getCipherSize()));
+		} catch (KeyNotSetException e) {
+			// Should not occur since the key was set.
+		} catch (TweakNotSetException e) {
+			// Should not occur since the tweak was set.
+		}
+		return wireValue;
+	}
+	
 	/**
 	 * Computes the garbled table of this gate.
 	 * @param computedWires A Map containing the GarbledWiress that have already been computed and had their values set.
@@ -250,6 +369,20 @@ class StandardGarbledGate implements GarbledGate {
 		return garbledTableIndex;
 	}
 
+	/**
+	 * Computes which index to decrypt based on the signal bits of the input labels in the given store.
+	 * @param computedWires A store containing the labels of the input wires.
+	 * @return the index of the garbled truth table that the input wires' signal bits signal to decrypt.
+	 */
+	protected int getIndexToDecrypt(WireLabelStore computedWires) {
+		int garbledTableIndex = 0;
+		int numberOfInputs = inputWireIndices.length;
+		for (int i = 0; i < numberOfInputs; i++) {
+			garbledTableIndex = (garbledTableIndex << 1) | computedWires.getSignalBit(inputWireIndices[i], 0);
+		}
+		return garbledTableIndex;
+	}
+
 	@Override
 	public boolean verify(Gate g, Map<Integer, SecretKey[]> allWireValues) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
 	
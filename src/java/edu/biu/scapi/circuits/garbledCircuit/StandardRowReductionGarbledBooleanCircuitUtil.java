@@ -29,7 +29,6 @@ import java.security.SecureRandom;
 import java.util.Map;
 
 import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
@@ -80,7 +79,7 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 	/**
 	 * Creates a RowReductionGarbledGate and fills its garbled table.
 	 */
-	protected void generateOutputKeys(Map<Integer, SecretKey[]> allOutputWireValues, Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) {
+	protected void generateOutputKeys(Map<Integer, SecretKey[]> allOutputWireValues, Gate ungarbledGate, WireLabelStore allWireValues) {
 		//Sample the value to the key that is not generated by the row reduction technique.
 		byte[] otherBytes = mes.generateKey().getEncoded();
 		
@@ -91,7 +90,7 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 	
 
 	@Override
-	protected void generateOutputKeysFromSeed(PseudorandomGenerator prg,Map<Integer, SecretKey[]> allWireValues, Gate ungarbledGate) {
+	protected void generateOutputKeysFromSeed(PseudorandomGenerator prg, WireLabelStore allWireValues, Gate ungarbledGate) {
 		//Sample the value to the key that is not generated by the row reduction technique.
 		byte[] otherBytes = new byte[mes.getCipherSize()];
 		prg.getPRGBytes(otherBytes, 0, mes.getCipherSize());
@@ -103,11 +102,11 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 
 	/**
 	 * Samples keys to the output wires with the row reduction technique.
-	 * @param allWireValues A map that contains both keys for each wire.
+	 * @param allWireValues A store that contains both keys for each wire.
 	 * @param ungarbledGate The gate we want to sample keys for its output wires.
 	 * @param otherBytes The value to the key that is not generated by the row reduction technique.
 	 */ 
-	private void generateRowReductionOutputKeys(Map<Integer, SecretKey[]> allWireValues, Gate ungarbledGate, byte[] otherBytes) {
+	private void generateRowReductionOutputKeys(WireLabelStore allWireValues, Gate ungarbledGate, byte[] otherBytes) {
 		int[] indices = ungarbledGate.getInputWireIndices();
 		int numberOfInputs = indices.length;
 		
@@ -115,7 +114,7 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 		int numberOfRows = (int) Math.pow(2, numberOfInputs)-1;
 		
 		//Find the line that we do not save in the table and we use the KDF to find the value of the output key.
-		for (int rowOfTruthTable = 0; (rowOfTruthTable <= numberOfRows) && !(allWireValues.containsKey(ungarbledGate.getOutputWireIndices()[0])); rowOfTruthTable++) {
+		for (int rowOfTruthTable = 0; rowOfTruthTable <= numberOfRows; rowOfTruthTable++) {
 		  	int permutedPosition = 0;
 		  	for (int i = 0, j = (int) Math.pow(2, numberOfInputs - 1), reverseIndex = numberOfInputs - 1; i < numberOfInputs; i++, j /= 2, reverseIndex--) {
 		  	
@@ -129,8 +128,7 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 		  		int input = (((rowOfTruthTable & j) == 0) ? 0 : 1);
 		  		
 		  		//signal bit is the last bit of k0.
-		  		byte[] k0 = allWireValues.get(indices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
+		  		byte signalBit = allWireValues.getSignalBit(indices[i], 0);
 		  		
 		  		permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
 		  		
@@ -142,19 +140,18 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 		  		ByteBuffer kdfBytes = ByteBuffer.allocate(mes.getCipherSize()*numberOfInputs +16);
 		  		
 		  		//The input for the kdf should be the concatenation of input keys, gate number and input keys' signal bits.
-		  		SecretKey[] keys = new SecretKey[numberOfInputs];
+		  		int[] wireKeyIndices = new int[numberOfInputs];
 		  		for (int i=0; i<numberOfInputs; i++){
 		  			//Get the index of the input key.
-		  			int wireKeyIndex = ((rowOfTruthTable & (numberOfInputs - i)) == 0) ? 0 : 1;
+		  			wireKeyIndices[i] = ((rowOfTruthTable & (numberOfInputs - i)) == 0) ? 0 : 1;
 		  			//Put each input key in the kdf array.
-		  			keys[i] = allWireValues.get(indices[i])[wireKeyIndex];
-		  			kdfBytes.put(keys[i].getEncoded());
+		  			allWireValues.writeLabel(indices[i], wireKeyIndices[i], kdfBytes);
 		  		}
 		  		//Put gate number in the kdf array.
 				kdfBytes.putInt(ungarbledGate.getGateNumber());
 				//Put each signal bit in the kdf array.
 				for (int i=0; i<numberOfInputs; i++){
-					kdfBytes.putInt((keys[i].getEncoded()[keys[i].getEncoded().length - 1] & 1) == 0 ? 0 : 1);
+					kdfBytes.putInt(allWireValues.getSignalBit(indices[i], wireKeyIndices[i]));
 				}
 				
 				//Compute the KDF.
@@ -163,27 +160,29 @@ class StandardRowReductionGarbledBooleanCircuitUtil extends StandardGarbledBoole
 				//Now we have both values, calculate the signal bit.
 				boolean output = ungarbledGate.getTruthTable().get(rowOfTruthTable);
 				byte signalBit = 0;
-				SecretKey zeroKey, oneKey;
+				int outputIndex = ungarbledGate.getOutputWireIndices()[0];
 				if (output == false){
-					zeroKey = wireValue;
 					signalBit = (byte) (wireValue.getEncoded()[wireValue.getEncoded().length - 1] & 1);
 					if (signalBit == 0){
 						otherBytes[otherBytes.length-1] |= 1;	
 					} else{
 						otherBytes[otherBytes.length-1] &= 254;
 					}
-					oneKey = new SecretKeySpec(otherBytes, "");
+					allWireValues.setLabel(outputIndex, 0, wireValue);
+					allWireValues.setLabel(outputIndex, 1, otherBytes, 0);
 				} else {
-					oneKey = wireValue;
 					signalBit = (byte) (1 - (wireValue.getEncoded()[wireValue.getEncoded().length - 1] & 1));
 					if (signalBit == 0){
 						otherBytes[otherBytes.length-1] &= 254;
 					} else{
 						otherBytes[otherBytes.length-1] |= 1;	
 					}
-					zeroKey = new SecretKeySpec(otherBytes, "");
+					allWireValues.setLabel(outputIndex, 1, wireValue);
+					allWireValues.setLabel(outputIndex, 0, otherBytes, 0);
 				}
-				allWireValues.put(ungarbledGate.getOutputWireIndices()[0], new SecretKey[] {zeroKey, oneKey});
+				
+				//The keys of the output wire are set, no need to check the other rows.
+				break;
 					
 		  	}
 		}
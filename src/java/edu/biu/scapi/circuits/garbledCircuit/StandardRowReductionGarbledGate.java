@@ -72,7 +72,7 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 	 * Meaning that the last row is not saved and will be calculated when the compute function will be called by the kdf.
 	 */
 	@Override
-	void createGarbledTable(Gate ungarbledGate, Map<Integer, SecretKey[]> allWireValues) throws  IllegalBlockSizeException, PlaintextTooLongException, InvalidKeyException{
+	void createGarbledTable(Gate ungarbledGate, WireLabelStore allWireValues) throws  IllegalBlockSizeException, PlaintextTooLongException, InvalidKeyException{
 		//The number of rows is 2^numberOfInputs - 1. The last row will be calculated by the row reduction technique.
 		int numberOfInputs = inputWireIndices.length;
 		int numberOfRows = (int) Math.pow(2, numberOfInputs)-1;
@@ -104,15 +104,13 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 		  		int input = (((rowOfTruthTable & j) == 0) ? 0 : 1);
 		  		
 		  		//signal bit is the last bit of k0.
-		  		byte[] k0 = allWireValues.get(inputWireIndices[i])[0].getEncoded();
-		  		byte signalBit =  (byte) (k0[k0.length-1] & 1);
-		  		
+		  		byte signalBit = allWireValues.getSignalBit(inputWireIndices[i], 0);
 		  		
 		  		// Update the permuted position. For a better understanding on how this works, see the getIndexToDecrypt method in this class.
 		  		permutedPosition += (input ^ signalBit) * (Math.pow(2, reverseIndex));
 		  		
 		  		// Add the current Wire value to the list of keys to encrypt on. These keys will then be used to construct a multikey.
-		  		keysToEncryptOn[i] = allWireValues.get(inputWireIndices[i])[input];
+		  		keysToEncryptOn[i] = allWireValues.getKey(inputWireIndices[i], input);
 		  		
 		  		/*
 		  		 * We add the signalBit that is placed on the end of the wire's value which is given by input XOR signalBit (i.e. the random bit for the
@@ -135,7 +133,7 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 	      
 			  	// Encrypt the output key and put the ciphertext in the garbled table.
 			  	try {
-					System.arraycopy(mes.encrypt(allWireValues.get(outputWireIndices[0])[value].getEncoded()) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
+					System.arraycopy(mes.encrypt(allWireValues.getLabel(outputWireIndices[0], value)) , 0, garbledTable, permutedPosition*mes.getCipherSize(), mes.getCipherSize());
 				} catch (KeyNotSetException e) {
 					// Should not occur since the encryption has a key.
 				} catch (TweakNotSetException e) {
@@ -180,6 +178,35 @@ class StandardRowReductionGarbledGate extends StandardGarbledGate{
 		}
 	}
 
+	@Override
+	public void compute(WireLabelStore computedWires) throws InvalidKeyException, IllegalBlockSizeException, CiphertextTooLongException {
+		//Calculate the row in the garbled table we need to decrypt.
+		int garbledTableIndex = getIndexToDecrypt(computedWires);
+		int numberOfInputs = inputWireIndices.length;
+		
+		//In case of the last row, calculate the output key by the KDF.
+		//The number of rows is 2^numberOfInputs - 1. The last row will be calculated by the row reduction technique.
+		int numberOfRows = (1 << numberOfInputs) - 1;
+		if (garbledTableIndex == numberOfRows){
+			
+			ByteBuffer kdfBytes = ByteBuffer.allocate(mes.getCipherSize()*numberOfInputs +16);
+			for (int i = 0; i < numberOfInputs; i++) {
+				computedWires.writeLabel(inputWireIndices[i], 0, kdfBytes);
+			}
+			kdfBytes.putInt(gateNumber);
+			for (int i = 0; i < numberOfInputs; i++) {
+				kdfBytes.putInt(computedWires.getSignalBit(inputWireIndices[i], 0));
+			}
+			byte[] wireValue = kdf.deriveKey(kdfBytes.array(), 0, mes.getCipherSize()*numberOfInputs +16, mes.getCipherSize()).getEncoded();
+			setOutputLabels(computedWires, wireValue);
+			
+		}else {
+		
+			// Decrypt the row and put the output key in the store.
+			decryptIntoStore(computedWires, garbledTableIndex);
+		}
+	}
+
 	@Override
 	protected boolean verifyGarbledTable(Gate g, Map<Integer, SecretKey[]> allWireValues)
 			throws CiphertextTooLongException, InvalidKeyException,	IllegalBlockSizeException {
@@ -0,0 +1,276 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.circuits.garbledCircuit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.circuit.Gate;
+import edu.biu.scapi.exceptions.NoSuchPartyException;
+
+/**
+ * Holds the garbled values (labels) of all the wires of a circuit in one contiguous {@code long} array, indexed by the wire number. <p>
+ * 
+ * Garbling and computing a circuit using a {@code Map<Integer, SecretKey[]>} or a {@code Map<Integer, GarbledWire>} creates a boxed 
+ * Integer, a map entry, a {@link SecretKey} and a byte array for every wire of the circuit. This class replaces all of them by a single array 
+ * that is allocated once. The garbler uses two labels per wire (the 0-key and the 1-key) and the evaluator uses one label per wire 
+ * (the computed key). <p>
+ * 
+ * Each label is stored as big endian longs, aligned to the right. Thus, the last bit of the last long of a label is the last bit of the 
+ * key, which is the signal bit. Labels whose size is not a multiple of 8 bytes are padded with zeros on the left.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class WireLabelStore {
+	
+	private final long[] labels;		//Holds the labels of all wires.
+	private final int numberOfWires;
+	private final int labelsPerWire;	//2 for the garbler (k0, k1) and 1 for the evaluator.
+	private final int labelSize;		//Size of each label in bytes.
+	private final int longsPerLabel;
+	private final int padding;			//Number of zero bytes on the left of each label.
+	
+	/**
+	 * Allocates the store.
+	 * @param numberOfWires The number of wires in the circuit. Wire indices should be between 0 and numberOfWires-1.
+	 * @param labelsPerWire The number of labels to keep for each wire; 2 in case of garbling and 1 in case of computing.
+	 * @param labelSize The size of each label in bytes.
+	 */
+	public WireLabelStore(int numberOfWires, int labelsPerWire, int labelSize){
+		if (numberOfWires < 0 || labelsPerWire <= 0 || labelSize <= 0){
+			throw new IllegalArgumentException("the number of wires, labels per wire and label size should be positive");
+		}
+		this.numberOfWires = numberOfWires;
+		this.labelsPerWire = labelsPerWire;
+		this.labelSize = labelSize;
+		longsPerLabel = (labelSize + 7) / 8;
+		padding = longsPerLabel * 8 - labelSize;
+		labels = new long[numberOfWires * labelsPerWire * longsPerLabel];
+	}
+	
+	/**
+	 * Returns the number of wires of the given circuit. This is one more than the biggest wire index that appears in the circuit.
+	 * @param bc The circuit to count the wires of.
+	 * @return the size of the store needed to hold all wires of the given circuit.
+	 */
+	public static int countWires(BooleanCircuit bc){
+		int maxWire = -1;
+		for (Gate gate : bc.getGates()){
+			for (int w : gate.getInputWireIndices()){
+				maxWire = Math.max(maxWire, w);
+			}
+			for (int w : gate.getOutputWireIndices()){
+				maxWire = Math.max(maxWire, w);
+			}
+		}
+		for (int w : bc.getOutputWireIndices()){
+			maxWire = Math.max(maxWire, w);
+		}
+		for (int i = 1; i <= bc.getNumberOfParties(); i++){
+			ArrayList<Integer> inputWires = null;
+			try {
+				inputWires = bc.getInputWireIndices(i);
+			} catch (NoSuchPartyException e) {
+				// Should not occur since the party number is valid.
+			}
+			for (int w : inputWires){
+				maxWire = Math.max(maxWire, w);
+			}
+		}
+		return maxWire + 1;
+	}
+	
+	public int getNumberOfWires(){
+		return numberOfWires;
+	}
+	
+	public int getLabelsPerWire(){
+		return labelsPerWire;
+	}
+	
+	/**
+	 * @return the size of each label in bytes.
+	 */
+	public int getLabelSize(){
+		return labelSize;
+	}
+	
+	/**
+	 * Returns the index in the labels array where the label of the given wire starts.
+	 */
+	private int offset(int wire, int value){
+		return (wire * labelsPerWire + value) * longsPerLabel;
+	}
+	
+	/**
+	 * Returns the array that holds the labels. Used by the gates to pass labels to the encryption scheme without copying them.
+	 */
+	long[] getLabels(){
+		return labels;
+	}
+	
+	/**
+	 * Returns the index in the labels array where the given label starts. The labels of each wire are consecutive.
+	 * @param wire The wire index.
+	 * @param value The label index (0 or 1 in case of garbling, 0 in case of computing).
+	 */
+	int getLabelOffset(int wire, int value){
+		return offset(wire, value);
+	}
+	
+	/**
+	 * Returns the signal bit of the given label, which is its last bit.
+	 * @param wire The wire index.
+	 * @param value The label index (0 or 1 in case of garbling, 0 in case of computing).
+	 */
+	public byte getSignalBit(int wire, int value){
+		return (byte) (labels[offset(wire, value) + longsPerLabel - 1] & 1);
+	}
+	
+	/**
+	 * Sets the label of the given wire to the bytes of the given array.
+	 * @param wire The wire index.
+	 * @param value The label index (0 or 1 in case of garbling, 0 in case of computing).
+	 * @param src Contains the label.
+	 * @param srcOffset The index in src where the label starts.
+	 */
+	public void setLabel(int wire, int value, byte[] src, int srcOffset){
+		int base = offset(wire, value);
+		for (int i = 0; i < longsPerLabel; i++){
+			labels[base + i] = 0;
+		}
+		for (int k = 0; k < labelSize; k++){
+			int position = padding + k;
+			labels[base + (position >>> 3)] |= (src[srcOffset + k] & 0xFFL) << ((7 - (position & 7)) << 3);
+		}
+	}
+	
+	/**
+	 * Sets the label of the given wire to the given key.
+	 */
+	public void setLabel(int wire, int value, SecretKey key){
+		setLabel(wire, value, key.getEncoded(), 0);
+	}
+	
+	/**
+	 * Copies the label of the given wire into the given array.
+	 * @param wire The wire index.
+	 * @param value The label index (0 or 1 in case of garbling, 0 in case of computing).
+	 * @param dest The array to copy the label to.
+	 * @param destOffset The index in dest where the label should be written.
+	 */
+	public void getLabel(int wire, int value, byte[] dest, int destOffset){
+		int base = offset(wire, value);
+		for (int k = 0; k < labelSize; k++){
+			int position = padding + k;
+			dest[destOffset + k] = (byte) (labels[base + (position >>> 3)] >>> ((7 - (position & 7)) << 3));
+		}
+	}
+	
+	/**
+	 * @return a new byte array containing the label of the given wire.
+	 */
+	public byte[] getLabel(int wire, int value){
+		byte[] label = new byte[labelSize];
+		getLabel(wire, value, label, 0);
+		return label;
+	}
+	
+	/**
+	 * Puts the label of the given wire in the given buffer, at its current position.
+	 */
+	public void writeLabel(int wire, int value, ByteBuffer dest){
+		int base = offset(wire, value);
+		for (int k = 0; k < labelSize; k++){
+			int position = padding + k;
+			dest.put((byte) (labels[base + (position >>> 3)] >>> ((7 - (position & 7)) << 3)));
+		}
+	}
+	
+	/**
+	 * @return a new SecretKey containing the label of the given wire.
+	 */
+	public SecretKey getKey(int wire, int value){
+		return new SecretKeySpec(getLabel(wire, value), "");
+	}
+	
+	/**
+	 * @return both keys of the given wire. Should be called only on a garbler's store.
+	 */
+	public SecretKey[] getKeys(int wire){
+		return new SecretKey[] {getKey(wire, 0), getKey(wire, 1)};
+	}
+	
+	/**
+	 * Copies a label from one wire to another.
+	 */
+	public void copyLabel(int fromWire, int fromValue, int toWire, int toValue){
+		System.arraycopy(labels, offset(fromWire, fromValue), labels, offset(toWire, toValue), longsPerLabel);
+	}
+	
+	/**
+	 * Sets the label (outWire, outValue) to be the XOR of the labels (firstWire, firstValue) and (secondWire, secondValue).
+	 */
+	public void xorLabels(int outWire, int outValue, int firstWire, int firstValue, int secondWire, int secondValue){
+		int out = offset(outWire, outValue);
+		int first = offset(firstWire, firstValue);
+		int second = offset(secondWire, secondValue);
+		for (int i = 0; i < longsPerLabel; i++){
+			labels[out + i] = labels[first + i] ^ labels[second + i];
+		}
+	}
+	
+	/**
+	 * Sets the label (outWire, outValue) to be the XOR of the label (inWire, inValue) and the given packed label.<p>
+	 * This is used by the Free XOR technique to calculate one key from the other using the global key offset.
+	 * @param packedOffset A label that was packed using {@link #packLabel(byte[])}.
+	 */
+	public void xorLabel(int outWire, int outValue, int inWire, int inValue, long[] packedOffset){
+		int out = offset(outWire, outValue);
+		int in = offset(inWire, inValue);
+		for (int i = 0; i < longsPerLabel; i++){
+			labels[out + i] = labels[in + i] ^ packedOffset[i];
+		}
+	}
+	
+	/**
+	 * Packs the given label into longs, in the same layout used by this store.
+	 * @param label The label to pack. Its size should be the label size of this store.
+	 * @return the packed label.
+	 */
+	public long[] packLabel(byte[] label){
+		long[] packed = new long[longsPerLabel];
+		for (int k = 0; k < labelSize; k++){
+			int position = padding + k;
+			packed[position >>> 3] |= (label[k] & 0xFFL) << ((7 - (position & 7)) << 3);
+		}
+		return packed;
+	}
+}
@@ -0,0 +1,70 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A channel that can move raw bytes between the parties without going through Java serialization.<p>
+ * Each call to {@link #sendBytes(ByteBuffer)} is delivered to the other party as exactly one frame, and each call to 
+ * {@link #receiveInto(ByteBuffer)} consumes exactly one frame. This makes the interface suitable for big binary payloads
+ * such as garbled tables, where serializing the data into a {@link java.io.Serializable} object would cost more than 
+ * sending it.<p>
+ * A BinaryChannel is also a regular {@link Channel}, so protocols that do not care about the raw API can keep using 
+ * send and receive.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public interface BinaryChannel extends Channel {
+
+	/**
+	 * Sends the remaining bytes of the given buffer (from its position to its limit) as one frame.<p>
+	 * The position of the buffer is advanced to its limit. Direct buffers are written to the socket without any 
+	 * intermediate copy.
+	 * @param data the bytes to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void sendBytes(ByteBuffer data) throws IOException;
+	
+	/**
+	 * Receives the next frame into the given buffer, starting at its current position.<p>
+	 * The position of the buffer is advanced by the number of received bytes. If the remaining space in the buffer is 
+	 * smaller than the frame, an IOException is thrown and the frame is kept pending; calling this function again 
+	 * with a large enough buffer receives it.
+	 * @param buffer the buffer to fill.
+	 * @return the number of bytes in the received frame.
+	 * @throws IOException Any of the usual Input/Output related exceptions, or if the frame does not fit in the buffer.
+	 */
+	public int receiveInto(ByteBuffer buffer) throws IOException;
+	
+	/**
+	 * Receives the next frame into a new byte array of the exact frame size.
+	 * @return the bytes of the received frame.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public byte[] receiveBytes() throws IOException;
+}
@@ -0,0 +1,101 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.codec;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+import edu.biu.scapi.comm.BinaryChannel;
+import edu.biu.scapi.comm.Channel;
+
+/**
+ * A channel that encodes the sent messages using a {@link CodecRegistry} instead of Java serialization.<p>
+ * This class wraps another channel. Each sent object is encoded by the registry to a byte array; if the wrapped channel is 
+ * a {@link BinaryChannel} the bytes are sent as a raw frame, otherwise they are sent as a byte array object. 
+ * The receive function decodes the received bytes back to the object, so protocols that use this channel do not need any change.<p>
+ * 
+ * Both parties should wrap their channels with a CodecChannel that uses an equivalent registry.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CodecChannel implements Channel {
+
+	private Channel channel;			//The underlying channel.
+	private CodecRegistry registry;		//Used to encode and decode the messages.
+	
+	/**
+	 * Wraps the given channel.
+	 * @param channel the channel to send the encoded messages on.
+	 * @param registry used to encode and decode the messages.
+	 */
+	public CodecChannel(Channel channel, CodecRegistry registry){
+		this.channel = channel;
+		this.registry = registry;
+	}
+	
+	/**
+	 * Encodes the given object using the registry and sends the encoding.
+	 */
+	@Override
+	public void send(Serializable data) throws IOException {
+		byte[] encoded = registry.toByteArray(data);
+		if (channel instanceof BinaryChannel){
+			((BinaryChannel) channel).sendBytes(ByteBuffer.wrap(encoded));
+		} else {
+			channel.send(encoded);
+		}
+	}
+
+	/**
+	 * Receives an encoded object and decodes it using the registry.
+	 */
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		byte[] encoded;
+		if (channel instanceof BinaryChannel){
+			encoded = ((BinaryChannel) channel).receiveBytes();
+		} else {
+			Serializable msg = channel.receive();
+			if (!(msg instanceof byte[])){
+				throw new IOException("the received message should be an encoded byte array");
+			}
+			encoded = (byte[]) msg;
+		}
+		return registry.fromByteArray(encoded);
+	}
+
+	@Override
+	public void close() {
+		channel.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return channel.isClosed();
+	}
+}
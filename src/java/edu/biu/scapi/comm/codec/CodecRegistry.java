@@ -0,0 +1,512 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnGroupElementSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementPairBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementQuadBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchCodecs;
+import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByteArraySenderMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnGroupElementSenderMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaBIMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaGroupElementMsg;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnByteArrayCiphertext.ElGamalOnByteArraySendableData;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnGroupElementCiphertext.ElGamalOnGrElSendableData;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+
+/**
+ * A registry of compact binary codecs for the messages that are sent between the parties.<p>
+ * Each codec is registered with the exact class of the objects it encodes and a one byte tag that is written before the 
+ * encoded object. Objects whose class has no registered codec are written with tag zero followed by their Java serialization,
+ * so any Serializable object can be encoded by the registry.<p>
+ * 
+ * The registry is created for a specific Dlog group, and the default codecs write the group elements using a 
+ * {@link GroupElementCodec} of that group. The default codecs cover the group elements sendable data, BigIntegers, the 
+ * ElGamal ciphertexts, the sigma protocols' group element and BigInteger messages, the messages of the semi honest DDH OTs 
+ * (single and batch) and the messages of the batch DDH OTs that are secure against malicious adversaries. Other types can be added using the register function, with tags that are not used by the defaults 
+ * (any tag bigger than {@link #FIRST_USER_TAG}).<p>
+ * 
+ * Both parties should use registries created with the same group and the same registered codecs. 
+ * In order to use the registry when sending messages, wrap a channel with a {@link CodecChannel}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CodecRegistry {
+	
+	/**
+	 * The tag of objects that are written using Java serialization.
+	 */
+	public static final int SERIALIZED_TAG = 0;
+	
+	/**
+	 * The first tag that is not used by the default codecs.
+	 */
+	public static final int FIRST_USER_TAG = 64;
+	
+	//Tags of the default codecs. The otBatch.semiHonest package registers its messages with tags 13-15.
+	private static final int BIG_INTEGER_TAG = 1;
+	private static final int GROUP_ELEMENT_TAG = 2;
+	private static final int BYTE_ARRAY_TAG = 3;
+	private static final int OT_R_PAIR_TAG = 10;
+	private static final int OT_S_GROUP_ELEMENT_TAG = 11;
+	private static final int OT_S_BYTE_ARRAY_TAG = 12;
+	private static final int OT_R_PAIR_BATCH_TAG = 16;
+	private static final int OT_R_QUAD_BATCH_TAG = 17;
+	private static final int OT_S_GROUP_ELEMENT_BATCH_TAG = 18;
+	private static final int OT_S_BYTE_ARRAY_BATCH_TAG = 19;
+	private static final int SIGMA_GROUP_ELEMENT_TAG = 20;
+	private static final int SIGMA_BI_TAG = 21;
+	private static final int ELGAMAL_ON_GROUP_ELEMENT_TAG = 30;
+	private static final int ELGAMAL_ON_BYTE_ARRAY_TAG = 31;
+	
+	//The size of the first chunk that readArray allocates. The buffer is doubled for each following chunk.
+	private static final int READ_CHUNK_SIZE = 1 << 16;
+	
+	/**
+	 * Holds a codec and its tag.
+	 */
+	private static class Entry {
+		int tag;
+		WireCodec<Object> codec;
+		
+		Entry(int tag, WireCodec<Object> codec){
+			this.tag = tag;
+			this.codec = codec;
+		}
+	}
+	
+	private Map<Class<?>, Entry> codecsByClass = new HashMap<Class<?>, Entry>();
+	private Entry[] codecsByTag = new Entry[256];
+	private GroupElementCodec groupElementCodec;
+	
+	/**
+	 * Creates a registry with the default codecs, where the group elements are members of the given group.
+	 * @param dlog the group of the elements in the encoded messages.
+	 */
+	public CodecRegistry(DlogGroup dlog){
+		groupElementCodec = new GroupElementCodec(dlog);
+		registerDefaultCodecs();
+	}
+	
+	/**
+	 * Registers a codec for the given class.
+	 * @param tag the tag that identifies the codec. Should be between 1 and 255 and not used by other codec.
+	 * @param type the exact class of the encoded objects. Objects of subclasses are not encoded by this codec.
+	 * @param codec the codec to register.
+	 * @throws IllegalArgumentException if the tag is not valid or already used, or if the class already has a codec.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T> void register(int tag, Class<T> type, WireCodec<? super T> codec){
+		if (tag <= SERIALIZED_TAG || tag >= codecsByTag.length){
+			throw new IllegalArgumentException("tag should be between 1 and " + (codecsByTag.length - 1));
+		}
+		if (codecsByTag[tag] != null){
+			throw new IllegalArgumentException("tag " + tag + " is already used");
+		}
+		if (codecsByClass.containsKey(type)){
+			throw new IllegalArgumentException("there is already a codec for " + type.getName());
+		}
+		Entry entry = new Entry(tag, (WireCodec<Object>) codec);
+		codecsByTag[tag] = entry;
+		codecsByClass.put(type, entry);
+	}
+	
+	/**
+	 * Returns the codec used to write the group elements.
+	 */
+	public GroupElementCodec getGroupElementCodec(){
+		return groupElementCodec;
+	}
+	
+	/**
+	 * Writes the tag of the given object followed by its encoding.
+	 * @param value the object to encode. 
+	 * @param out the output to write to.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void encode(Serializable value, DataOutput out) throws IOException {
+		Entry entry = (value == null) ? null : codecsByClass.get(value.getClass());
+		if (entry == null){
+			//There is no codec for this class, use Java serialization.
+			out.writeByte(SERIALIZED_TAG);
+			ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+			ObjectOutputStream oOut = new ObjectOutputStream(bOut);
+			oOut.writeObject(value);
+			oOut.close();
+			writeBytes(bOut.toByteArray(), out);
+		} else {
+			out.writeByte(entry.tag);
+			entry.codec.encode(value, out, this);
+		}
+	}
+	
+	/**
+	 * Reads an object that was written by the encode function.
+	 * @param in the input to read from.
+	 * @return the decoded object.
+	 * @throws IOException Any of the usual Input/Output related exceptions, or if the tag is unknown.
+	 * @throws ClassNotFoundException if the object was serialized and its class cannot be found.
+	 */
+	public Serializable decode(DataInput in) throws IOException, ClassNotFoundException {
+		int tag = in.readUnsignedByte();
+		if (tag == SERIALIZED_TAG){
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(readBytes(in)));
+			return (Serializable) ois.readObject();
+		}
+		
+		Entry entry = codecsByTag[tag];
+		if (entry == null){
+			throw new StreamCorruptedException("there is no codec with tag " + tag);
+		}
+		return (Serializable) entry.codec.decode(in, this);
+	}
+	
+	/**
+	 * Encodes the given object to a new byte array.
+	 */
+	public byte[] toByteArray(Serializable value) throws IOException {
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bOut);
+		encode(value, out);
+		out.flush();
+		return bOut.toByteArray();
+	}
+	
+	/**
+	 * Decodes an object from the given byte array.
+	 */
+	public Serializable fromByteArray(byte[] data) throws IOException, ClassNotFoundException {
+		return decode(new DataInputStream(new ByteArrayInputStream(data)));
+	}
+	
+	/**
+	 * Writes the given array with its length.
+	 */
+	public static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	/**
+	 * Reads an array that was written by writeBytes.
+	 */
+	public static byte[] readBytes(DataInput in) throws IOException {
+		return readArray(in.readInt(), in);
+	}
+	
+	/**
+	 * Reads an array of the given length.<p>
+	 * The length is usually sent by the other party, so the array is not allocated by it in advance. 
+	 * Longer arrays are read in chunks into a growing buffer, and a wrong length fails when the frame ends
+	 * instead of allocating memory that the frame does not contain.
+	 * @param length the number of bytes to read.
+	 * @param in the input to read from.
+	 * @throws StreamCorruptedException if the length is negative.
+	 */
+	public static byte[] readArray(int length, DataInput in) throws IOException {
+		if (length < 0){
+			throw new StreamCorruptedException("negative array length");
+		}
+		byte[] bytes = new byte[Math.min(length, READ_CHUNK_SIZE)];
+		in.readFully(bytes);
+		while (bytes.length < length){
+			int read = bytes.length;
+			bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+			in.readFully(bytes, read, bytes.length - read);
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Writes the given integer using its two's complement representation and its length.
+	 */
+	public static void writeBigInteger(BigInteger value, DataOutput out) throws IOException {
+		writeBytes(value.toByteArray(), out);
+	}
+	
+	/**
+	 * Reads an integer that was written by writeBigInteger.
+	 */
+	public static BigInteger readBigInteger(DataInput in) throws IOException {
+		byte[] bytes = readBytes(in);
+		if (bytes.length == 0){
+			throw new StreamCorruptedException("empty integer");
+		}
+		return new BigInteger(bytes);
+	}
+	
+	/**
+	 * Reads the number of tuples of a batch message.<p>
+	 * The number is sent by the other party, so the decoders do not allocate by it in advance; a wrong number fails when the frame ends.
+	 * @throws StreamCorruptedException if the number is negative.
+	 */
+	public static int readSize(DataInput in) throws IOException {
+		int size = in.readInt();
+		if (size < 0){
+			throw new StreamCorruptedException("negative number of tuples");
+		}
+		return size;
+	}
+	
+	/**
+	 * Writes the given pairs of group elements with their number.<p>
+	 * The batch OT protocols send their receiver's pairs this way, whatever message class wraps them.
+	 */
+	public static void writeGroupElementPairs(ArrayList<OTRGroupElementPairMsg> tuples, DataOutput out, CodecRegistry registry) throws IOException {
+		GroupElementCodec codec = registry.getGroupElementCodec();
+		out.writeInt(tuples.size());
+		for (int i = 0; i < tuples.size(); i++){
+			codec.encode(tuples.get(i).getFirstGE(), out, registry);
+			codec.encode(tuples.get(i).getSecondGE(), out, registry);
+		}
+	}
+	
+	/**
+	 * Reads pairs of group elements that were written by writeGroupElementPairs.
+	 */
+	public static ArrayList<OTRGroupElementPairMsg> readGroupElementPairs(DataInput in, CodecRegistry registry) throws IOException {
+		GroupElementCodec codec = registry.getGroupElementCodec();
+		int size = readSize(in);
+		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>();
+		for (int i = 0; i < size; i++){
+			GroupElementSendableData first = codec.decode(in, registry);
+			tuples.add(new OTRGroupElementPairMsg(first, codec.decode(in, registry)));
+		}
+		return tuples;
+	}
+	
+	/**
+	 * Registers the codecs of the common SCAPI messages.
+	 */
+	private void registerDefaultCodecs(){
+		
+		register(BIG_INTEGER_TAG, BigInteger.class, new WireCodec<BigInteger>() {
+			public void encode(BigInteger value, DataOutput out, CodecRegistry registry) throws IOException {
+				writeBigInteger(value, out);
+			}
+			public BigInteger decode(DataInput in, CodecRegistry registry) throws IOException {
+				return readBigInteger(in);
+			}
+		});
+		
+		register(GROUP_ELEMENT_TAG, groupElementCodec.getSendableDataClass(), groupElementCodec);
+		
+		register(BYTE_ARRAY_TAG, byte[].class, new WireCodec<byte[]>() {
+			public void encode(byte[] value, DataOutput out, CodecRegistry registry) throws IOException {
+				writeBytes(value, out);
+			}
+			public byte[] decode(DataInput in, CodecRegistry registry) throws IOException {
+				return readBytes(in);
+			}
+		});
+		
+		register(OT_R_PAIR_TAG, OTRGroupElementPairMsg.class, new WireCodec<OTRGroupElementPairMsg>() {
+			public void encode(OTRGroupElementPairMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getFirstGE(), out, registry);
+				groupElementCodec.encode(value.getSecondGE(), out, registry);
+			}
+			public OTRGroupElementPairMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData h0 = groupElementCodec.decode(in, registry);
+				return new OTRGroupElementPairMsg(h0, groupElementCodec.decode(in, registry));
+			}
+		});
+		
+		register(OT_S_GROUP_ELEMENT_TAG, OTSemiHonestDDHOnGroupElementSenderMsg.class, new WireCodec<OTSemiHonestDDHOnGroupElementSenderMsg>() {
+			public void encode(OTSemiHonestDDHOnGroupElementSenderMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getU(), out, registry);
+				groupElementCodec.encode(value.getV0(), out, registry);
+				groupElementCodec.encode(value.getV1(), out, registry);
+			}
+			public OTSemiHonestDDHOnGroupElementSenderMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData u = groupElementCodec.decode(in, registry);
+				GroupElementSendableData v0 = groupElementCodec.decode(in, registry);
+				return new OTSemiHonestDDHOnGroupElementSenderMsg(u, v0, groupElementCodec.decode(in, registry));
+			}
+		});
+		
+		register(OT_S_BYTE_ARRAY_TAG, OTSemiHonestDDHOnByteArraySenderMsg.class, new WireCodec<OTSemiHonestDDHOnByteArraySenderMsg>() {
+			public void encode(OTSemiHonestDDHOnByteArraySenderMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getU(), out, registry);
+				writeBytes(value.getV0(), out);
+				writeBytes(value.getV1(), out);
+			}
+			public OTSemiHonestDDHOnByteArraySenderMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData u = groupElementCodec.decode(in, registry);
+				byte[] v0 = readBytes(in);
+				return new OTSemiHonestDDHOnByteArraySenderMsg(u, v0, readBytes(in));
+			}
+		});
+		
+		register(SIGMA_GROUP_ELEMENT_TAG, SigmaGroupElementMsg.class, new WireCodec<SigmaGroupElementMsg>() {
+			public void encode(SigmaGroupElementMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getElement(), out, registry);
+			}
+			public SigmaGroupElementMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				return new SigmaGroupElementMsg(groupElementCodec.decode(in, registry));
+			}
+		});
+		
+		register(SIGMA_BI_TAG, SigmaBIMsg.class, new WireCodec<SigmaBIMsg>() {
+			public void encode(SigmaBIMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				writeBigInteger(value.getMsg(), out);
+			}
+			public SigmaBIMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				return new SigmaBIMsg(readBigInteger(in));
+			}
+		});
+		
+		register(ELGAMAL_ON_GROUP_ELEMENT_TAG, ElGamalOnGrElSendableData.class, new WireCodec<ElGamalOnGrElSendableData>() {
+			public void encode(ElGamalOnGrElSendableData value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getCipher1(), out, registry);
+				groupElementCodec.encode(value.getCipher2(), out, registry);
+			}
+			public ElGamalOnGrElSendableData decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData c1 = groupElementCodec.decode(in, registry);
+				return new ElGamalOnGrElSendableData(c1, groupElementCodec.decode(in, registry));
+			}
+		});
+		
+		register(ELGAMAL_ON_BYTE_ARRAY_TAG, ElGamalOnByteArraySendableData.class, new WireCodec<ElGamalOnByteArraySendableData>() {
+			public void encode(ElGamalOnByteArraySendableData value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getCipher1(), out, registry);
+				writeBytes(value.getCipher2(), out);
+			}
+			public ElGamalOnByteArraySendableData decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData c1 = groupElementCodec.decode(in, registry);
+				return new ElGamalOnByteArraySendableData(c1, readBytes(in));
+			}
+		});
+		
+		register(OT_R_PAIR_BATCH_TAG, OTRGroupElementPairBatchMsg.class, new WireCodec<OTRGroupElementPairBatchMsg>() {
+			public void encode(OTRGroupElementPairBatchMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				writeGroupElementPairs(value.getTuples(), out, registry);
+			}
+			public OTRGroupElementPairBatchMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				return new OTRGroupElementPairBatchMsg(readGroupElementPairs(in, registry));
+			}
+		});
+		
+		register(OT_R_QUAD_BATCH_TAG, OTRGroupElementQuadBatchMsg.class, new WireCodec<OTRGroupElementQuadBatchMsg>() {
+			public void encode(OTRGroupElementQuadBatchMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				groupElementCodec.encode(value.getX(), out, registry);
+				int size = value.getYArr().size();
+				out.writeInt(size);
+				for (int i = 0; i < size; i++){
+					groupElementCodec.encode(value.getYArr().get(i), out, registry);
+					groupElementCodec.encode(value.getZ0Arr().get(i), out, registry);
+					groupElementCodec.encode(value.getZ1Arr().get(i), out, registry);
+				}
+			}
+			public OTRGroupElementQuadBatchMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementSendableData x = groupElementCodec.decode(in, registry);
+				int size = readSize(in);
+				ArrayList<GroupElementSendableData> yArr = new ArrayList<GroupElementSendableData>();
+				ArrayList<GroupElementSendableData> z0Arr = new ArrayList<GroupElementSendableData>();
+				ArrayList<GroupElementSendableData> z1Arr = new ArrayList<GroupElementSendableData>();
+				for (int i = 0; i < size; i++){
+					yArr.add(groupElementCodec.decode(in, registry));
+					z0Arr.add(groupElementCodec.decode(in, registry));
+					z1Arr.add(groupElementCodec.decode(in, registry));
+				}
+				return new OTRGroupElementQuadBatchMsg(x, yArr, z0Arr, z1Arr);
+			}
+		});
+		
+		register(OT_S_GROUP_ELEMENT_BATCH_TAG, OTBatchOnGroupElementSMsg.class, new WireCodec<OTBatchOnGroupElementSMsg>() {
+			public void encode(OTBatchOnGroupElementSMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				ArrayList<OTOnGroupElementSMsg> tuples = value.getTuples();
+				out.writeInt(tuples.size());
+				for (int i = 0; i < tuples.size(); i++){
+					groupElementCodec.encode(tuples.get(i).getW0(), out, registry);
+					groupElementCodec.encode(tuples.get(i).getC0(), out, registry);
+					groupElementCodec.encode(tuples.get(i).getW1(), out, registry);
+					groupElementCodec.encode(tuples.get(i).getC1(), out, registry);
+				}
+			}
+			public OTBatchOnGroupElementSMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				int size = readSize(in);
+				ArrayList<OTOnGroupElementSMsg> tuples = new ArrayList<OTOnGroupElementSMsg>();
+				for (int i = 0; i < size; i++){
+					GroupElementSendableData w0 = groupElementCodec.decode(in, registry);
+					GroupElementSendableData c0 = groupElementCodec.decode(in, registry);
+					GroupElementSendableData w1 = groupElementCodec.decode(in, registry);
+					tuples.add(new OTOnGroupElementSMsg(w0, c0, w1, groupElementCodec.decode(in, registry)));
+				}
+				return new OTBatchOnGroupElementSMsg(tuples);
+			}
+		});
+		
+		register(OT_S_BYTE_ARRAY_BATCH_TAG, OTBatchOnByteArraySMsg.class, new WireCodec<OTBatchOnByteArraySMsg>() {
+			public void encode(OTBatchOnByteArraySMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				ArrayList<OTOnByteArraySMsg> tuples = value.getTuples();
+				out.writeInt(tuples.size());
+				for (int i = 0; i < tuples.size(); i++){
+					groupElementCodec.encode(tuples.get(i).getW0(), out, registry);
+					writeBytes(tuples.get(i).getC0(), out);
+					groupElementCodec.encode(tuples.get(i).getW1(), out, registry);
+					writeBytes(tuples.get(i).getC1(), out);
+				}
+			}
+			public OTBatchOnByteArraySMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				int size = readSize(in);
+				ArrayList<OTOnByteArraySMsg> tuples = new ArrayList<OTOnByteArraySMsg>();
+				for (int i = 0; i < size; i++){
+					GroupElementSendableData w0 = groupElementCodec.decode(in, registry);
+					byte[] c0 = readBytes(in);
+					GroupElementSendableData w1 = groupElementCodec.decode(in, registry);
+					tuples.add(new OTOnByteArraySMsg(w0, c0, w1, readBytes(in)));
+				}
+				return new OTBatchOnByteArraySMsg(tuples);
+			}
+		});
+		
+		//The batch messages are not visible outside their package, so their codecs are registered there.
+		OTSemiHonestDDHBatchCodecs.register(this);
+	}
+}
@@ -0,0 +1,207 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.StreamCorruptedException;
+import java.math.BigInteger;
+
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.ECElementSendableData;
+import edu.biu.scapi.primitives.dlog.ECFpUtility;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
+import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
+import edu.biu.scapi.primitives.dlog.groupParams.ZpGroupParams;
+
+/**
+ * Encodes the sendable data of the elements of a specific Dlog group.<p>
+ * The encoding depends on the type of the group:
+ * <ul>
+ * <li>Zp groups - the element is written as an unsigned integer with the fixed byte length of p.</li>
+ * <li>Elliptic curves over Fp - the point is compressed, i.e. one prefix byte that holds the parity of y followed by x with the 
+ * fixed byte length of p. The infinity point is written as one zero byte.</li>
+ * <li>Elliptic curves over F2m - one prefix byte followed by x and y with the fixed byte length of the field elements. 
+ * The infinity point is written as one zero byte.</li>
+ * </ul>
+ * The decoded data is not checked for membership; this is done as usual by the reconstructElement function of the Dlog group, 
+ * or once for a whole batch by its reconstructElements function.<p>
+ * Decoding a compressed Fp point computes a modular square root, which is a full exponentiation for each point. 
+ * Unlike inversions, square roots of different values cannot share their work by Montgomery's trick, so the points are decompressed one by one.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class GroupElementCodec implements WireCodec<GroupElementSendableData> {
+
+	private static final int INFINITY = 0;		//Prefix of the infinity point.
+	private static final int EVEN_Y = 2;		//Prefix of a compressed point with even y.
+	private static final int ODD_Y = 3;			//Prefix of a compressed point with odd y.
+	private static final int UNCOMPRESSED = 4;	//Prefix of a point with both coordinates.
+	
+	private GroupParams params;					//The parameters of the group.
+	private int width;							//The fixed byte length of each coordinate.
+	private ECFpUtility fpUtil;					//Used to decompress Fp points.
+	
+	/**
+	 * Creates a codec for the elements of the given group.
+	 * @param dlog the group whose elements should be encoded.
+	 * @throws IllegalArgumentException if the group is not a Zp, ECFp or ECF2m group.
+	 */
+	public GroupElementCodec(DlogGroup dlog){
+		params = dlog.getGroupParams();
+		if (params instanceof ZpGroupParams){
+			width = byteLength(((ZpGroupParams) params).getP().bitLength());
+		} else if (params instanceof ECFpGroupParams){
+			width = byteLength(((ECFpGroupParams) params).getP().bitLength());
+			fpUtil = new ECFpUtility();
+		} else if (params instanceof ECF2mGroupParams){
+			width = byteLength(((ECF2mGroupParams) params).getM());
+		} else {
+			throw new IllegalArgumentException("unsupported group parameters " + params.getClass().getName());
+		}
+	}
+	
+	/**
+	 * Returns the number of bytes that the encoding of a non-infinity element takes.
+	 */
+	public int getEncodedLength(){
+		if (params instanceof ZpGroupParams){
+			return width;
+		} else if (params instanceof ECFpGroupParams){
+			return 1 + width;
+		} else {
+			return 1 + 2 * width;
+		}
+	}
+	
+	/**
+	 * Returns the class of the sendable data of the elements of this group.
+	 */
+	public Class<? extends GroupElementSendableData> getSendableDataClass(){
+		if (params instanceof ZpGroupParams){
+			return ZpElementSendableData.class;
+		}
+		return ECElementSendableData.class;
+	}
+	
+	@Override
+	public void encode(GroupElementSendableData value, DataOutput out, CodecRegistry registry) throws IOException {
+		if (params instanceof ZpGroupParams){
+			if (!(value instanceof ZpElementSendableData)){
+				throw new IllegalArgumentException("the given data should be an instance of ZpElementSendableData");
+			}
+			writeFixed(((ZpElementSendableData) value).getX(), width, out);
+			return;
+		}
+		
+		if (!(value instanceof ECElementSendableData)){
+			throw new IllegalArgumentException("the given data should be an instance of ECElementSendableData");
+		}
+		ECElementSendableData point = (ECElementSendableData) value;
+		//The sendable data of the infinity point has no coordinates.
+		if (point.getX() == null){
+			out.writeByte(INFINITY);
+		} else if (fpUtil != null){
+			out.writeByte(point.getY().testBit(0) ? ODD_Y : EVEN_Y);
+			writeFixed(point.getX(), width, out);
+		} else {
+			out.writeByte(UNCOMPRESSED);
+			writeFixed(point.getX(), width, out);
+			writeFixed(point.getY(), width, out);
+		}
+	}
+
+	@Override
+	public GroupElementSendableData decode(DataInput in, CodecRegistry registry) throws IOException {
+		if (params instanceof ZpGroupParams){
+			return new ZpElementSendableData(readFixed(width, in));
+		}
+		
+		int prefix = in.readUnsignedByte();
+		if (prefix == INFINITY){
+			return new ECElementSendableData(null, null);
+		}
+		if (prefix == UNCOMPRESSED && fpUtil == null){
+			BigInteger x = readFixed(width, in);
+			return new ECElementSendableData(x, readFixed(width, in));
+		}
+		if ((prefix == EVEN_Y || prefix == ODD_Y) && fpUtil != null){
+			BigInteger x = readFixed(width, in);
+			return new ECElementSendableData(x, decompress((ECFpGroupParams) params, x, prefix == ODD_Y));
+		}
+		throw new StreamCorruptedException("invalid point prefix " + prefix);
+	}
+	
+	/**
+	 * Finds the y coordinate of the point with the given x and y parity. 
+	 * The square root exists only if x is on the curve, so a point that was decompressed always satisfies the curve equation.
+	 */
+	private BigInteger decompress(ECFpGroupParams fpParams, BigInteger x, boolean oddY) throws IOException {
+		BigInteger y = fpUtil.findYInCurveEquationForX(fpParams, x);
+		if (y == null){
+			throw new StreamCorruptedException("the given x is not a coordinate of a point on the curve");
+		}
+		//The square root can be any of y and p-y. Take the one with the requested parity.
+		if (y.testBit(0) != oddY){
+			y = fpParams.getP().subtract(y);
+		}
+		return y;
+	}
+	
+	/**
+	 * Writes the given non negative integer as a big-endian unsigned number of exactly the given length.
+	 * @throws IllegalArgumentException if the number does not fit in the given length.
+	 */
+	public static void writeFixed(BigInteger value, int length, DataOutput out) throws IOException {
+		byte[] bytes = value.toByteArray();
+		//toByteArray can add a leading zero byte for the sign.
+		int offset = (bytes.length > length && bytes[0] == 0) ? 1 : 0;
+		int size = bytes.length - offset;
+		if (value.signum() < 0 || size > length){
+			throw new IllegalArgumentException("the given number does not fit in " + length + " bytes");
+		}
+		for (int i = size; i < length; i++){
+			out.writeByte(0);
+		}
+		out.write(bytes, offset, size);
+	}
+	
+	/**
+	 * Reads an unsigned number of the given length that was written by writeFixed.
+	 */
+	public static BigInteger readFixed(int length, DataInput in) throws IOException {
+		return new BigInteger(1, CodecRegistry.readArray(length, in));
+	}
+	
+	private static int byteLength(int bits){
+		return (bits + 7) / 8;
+	}
+}
@@ -0,0 +1,61 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.codec;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * General interface for a compact binary encoding of one type of message.<p>
+ * A codec writes only the content of the object; the type tag that identifies the codec is written by the 
+ * {@link CodecRegistry}. Codecs of messages that contain group elements should write them using the group element codec 
+ * of the given registry, so that they are encoded with fixed width and, if possible, compressed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ * @param <T> the type of the encoded objects.
+ */
+public interface WireCodec<T> {
+
+	/**
+	 * Writes the given object to the given output.
+	 * @param value the object to encode.
+	 * @param out the output to write to.
+	 * @param registry the registry that called this codec. Can be used to encode inner objects.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	public void encode(T value, DataOutput out, CodecRegistry registry) throws IOException;
+	
+	/**
+	 * Reads an object that was written by the encode function.
+	 * @param in the input to read from.
+	 * @param registry the registry that called this codec. Can be used to decode inner objects.
+	 * @return the decoded object.
+	 * @throws IOException Any of the usual Input/Output related exceptions, or if the input is not a valid encoding.
+	 */
+	public T decode(DataInput in, CodecRegistry registry) throws IOException;
+}
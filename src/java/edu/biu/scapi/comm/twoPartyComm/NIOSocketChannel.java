@@ -0,0 +1,328 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+
+import edu.biu.scapi.comm.BinaryChannel;
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class represents a concrete channel that sends length-prefixed frames over NIO {@link SocketChannel}s.<p>
+ * Like the {@link PlainTCPSocketChannel} it holds two sockets, one used to send messages and one to receive them. 
+ * The difference is the format on the wire: every message is a 4 bytes big-endian length followed by the message bytes. 
+ * There are no ObjectOutputStream/ObjectInputStream objects wrapping the sockets, so the raw bytes API 
+ * ({@link #sendBytes(ByteBuffer)} and {@link #receiveInto(ByteBuffer)}) does not serialize anything.
+ * Serializable objects are still supported; they are serialized once into a reusable buffer and sent as one frame, 
+ * instead of being serialized twice as done in the PlainTCPSocketChannel.<p>
+ * 
+ * The length of a received frame is sent by the other party, so it is checked against a maximal frame size before any buffer is allocated for it. 
+ * The maximum is {@link #DEFAULT_MAX_FRAME_SIZE} unless another value is given to the constructor.<p>
+ * 
+ * Both parties must use this type of channel, since the frames are not compatible with the object streams used by the 
+ * other socket channels. The channels are created by the {@link NIOSocketCommunicationSetup}.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class NIOSocketChannel extends PlainTCPSocketChannel implements BinaryChannel{
+	
+	private static final int HEADER_SIZE = 4;			//Size of the length prefix of each frame.
+	
+	/**
+	 * The default maximal size of a received frame, in bytes.
+	 */
+	public static final int DEFAULT_MAX_FRAME_SIZE = 1 << 28;
+	
+	private int maxFrameSize;							//The maximal size of a received frame.
+	
+	private SocketChannel sendChannel;					//Used to send the frames.
+	private SocketChannel receiveChannel;				//Used to receive the frames.
+	
+	private ByteBuffer sendHeader = ByteBuffer.allocateDirect(HEADER_SIZE);		//Holds the length of the sent frame.
+	private ByteBuffer receiveHeader = ByteBuffer.allocateDirect(HEADER_SIZE);	//Holds the length of the received frame.
+	private ByteBuffer[] sendFrame = new ByteBuffer[2];							//The header and the payload of the sent frame.
+	private int pendingFrameLength = -1;				//Length of a frame whose header was read but its payload was not.
+	
+	private ExposedByteArrayOutputStream serializeBuffer = new ExposedByteArrayOutputStream();	//Reused by each send of Serializable object.
+	private ByteBuffer receiveBuffer = ByteBuffer.allocate(1024);	//Reused by each receive of Serializable object. Grows when needed.
+	
+	/**
+	 * A constructor that create the socket address according to the given ip and port and set the state of this channel to not ready.
+	 * @param ipAddress other party's IP address.
+	 * @param port other party's port.
+	 */
+	NIOSocketChannel(InetAddress ipAddress, int port, boolean checkIdentity, SocketPartyData me) {
+		
+		this(new InetSocketAddress(ipAddress, port), checkIdentity, me);
+	}
+	
+	/**
+	 * A constructor that set the given socket address and set the state of this channel to not ready. 
+	 * Received frames are limited to {@link #DEFAULT_MAX_FRAME_SIZE} bytes.
+	 * @param socketAddress other end's InetSocketAddress
+	 */
+	NIOSocketChannel(InetSocketAddress socketAddress, boolean checkIdentity, SocketPartyData me) {
+		
+		this(socketAddress, checkIdentity, me, DEFAULT_MAX_FRAME_SIZE);
+	}
+	
+	/**
+	 * A constructor that set the given socket address and the maximal size of a received frame, and set the state of this channel to not ready.
+	 * @param socketAddress other end's InetSocketAddress
+	 * @param maxFrameSize The maximal size of a received frame, in bytes. A frame header with a bigger length is considered as corrupted.
+	 */
+	NIOSocketChannel(InetSocketAddress socketAddress, boolean checkIdentity, SocketPartyData me, int maxFrameSize) {
+		
+		super(socketAddress, checkIdentity, me);
+		if (maxFrameSize <= 0){
+			throw new IllegalArgumentException("the maximal frame size should be positive");
+		}
+		this.maxFrameSize = maxFrameSize;
+		sendFrame[0] = sendHeader;
+	}
+	
+	/** 
+	 * Serializes the given object and sends it as one frame.
+	 *  
+	 * @param msg the object to send.
+	 * @throws IOException Any of the usual Input/Output related exceptions.  
+	 */
+	@Override
+	public void send(Serializable msg) throws IOException {
+		
+		//Serialize the object directly into the reused buffer.
+		serializeBuffer.reset();
+		ObjectOutputStream oOut = new ObjectOutputStream(serializeBuffer);
+		oOut.writeObject(msg);  
+		oOut.close();
+		
+		sendBytes(ByteBuffer.wrap(serializeBuffer.getBuffer(), 0, serializeBuffer.size()));
+	}
+
+	/** 
+	 * Receives a frame and deserializes the object in it. 
+	 * 
+	 * @throws ClassNotFoundException  The Class of the serialized object cannot be found.
+	 * @throws IOException Any of the usual Input/Output related exceptions.
+	 */
+	@Override
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		
+		int length = readFrameLength();
+		//Grow the reused buffer if the frame is bigger than it.
+		if (length > receiveBuffer.capacity()){
+			receiveBuffer = ByteBuffer.allocate(Math.max(length, 2 * receiveBuffer.capacity()));
+		}
+		receiveBuffer.clear();
+		receiveBuffer.limit(length);
+		readPayload(receiveBuffer);
+		
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(receiveBuffer.array(), 0, length));
+		return (Serializable) ois.readObject();
+	}
+	
+	@Override
+	public void sendBytes(ByteBuffer data) throws IOException {
+		
+		sendHeader.clear();
+		sendHeader.putInt(data.remaining());
+		sendHeader.flip();
+		
+		//Write the header and the payload in one gathering write. 
+		sendFrame[1] = data;
+		while (data.hasRemaining() || sendHeader.hasRemaining()){
+			sendChannel.write(sendFrame);
+		}
+		sendFrame[1] = null;
+	}
+
+	@Override
+	public int receiveInto(ByteBuffer buffer) throws IOException {
+		
+		int length = readFrameLength();
+		if (length > buffer.remaining()){
+			throw new IOException("a frame of " + length + " bytes does not fit in a buffer with " + buffer.remaining() + " remaining bytes");
+		}
+		
+		//Read exactly the frame bytes, even if the buffer has more space.
+		int oldLimit = buffer.limit();
+		buffer.limit(buffer.position() + length);
+		readPayload(buffer);
+		buffer.limit(oldLimit);
+		
+		return length;
+	}
+	
+	@Override
+	public byte[] receiveBytes() throws IOException {
+		
+		byte[] frame = new byte[readFrameLength()];
+		readPayload(ByteBuffer.wrap(frame));
+		return frame;
+	}
+	
+	/**
+	 * Reads the length of the next frame. If there is a pending frame (its header was read but the payload was not), 
+	 * returns its length without reading anything.
+	 * @throws StreamCorruptedException if the length is negative or bigger than the maximal frame size.
+	 */
+	private int readFrameLength() throws IOException {
+		
+		if (pendingFrameLength < 0){
+			receiveHeader.clear();
+			readFully(receiveHeader);
+			receiveHeader.flip();
+			int length = receiveHeader.getInt();
+			//The length is sent by the other party. Check it before it is used to allocate or limit a buffer.
+			if (length < 0 || length > maxFrameSize){
+				throw new StreamCorruptedException("invalid frame length " + length + ", the maximal frame size is " + maxFrameSize);
+			}
+			pendingFrameLength = length;
+		}
+		return pendingFrameLength;
+	}
+	
+	/**
+	 * Reads the payload of the pending frame into the given buffer, which should have exactly the frame size remaining.
+	 */
+	private void readPayload(ByteBuffer buffer) throws IOException {
+		
+		pendingFrameLength = -1;
+		readFully(buffer);
+	}
+	
+	/**
+	 * Reads from the receive channel until the given buffer is full.
+	 */
+	private void readFully(ByteBuffer buffer) throws IOException {
+		
+		while (buffer.hasRemaining()){
+			if (receiveChannel.read(buffer) < 0){
+				throw new EOFException("the other party closed the channel");
+			}
+		}
+	}
+
+	/**
+	 * Closes the socket channels.
+	 */
+	@Override
+	public void close() {
+		
+		try {
+			if(sendChannel != null){
+				sendChannel.close();
+			}
+			if(receiveChannel != null){
+				receiveChannel.close();
+			}
+		} catch (IOException e) {
+			
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+	}
+	
+	/** 
+	 * Connects the send socket channel to the InetSocketAddress of this object. 
+	 * This is done by the {@link NIOSocketCommunicationSetup} which keeps calling this function until it succeeds or a timeout has 
+	 * been reached.<p>		
+	 */
+	@Override
+	void connect()  {
+		
+		//try to connect
+		Logging.getLogger().log(Level.INFO, "Trying to connect to " + socketAddress.getAddress() + " on port " + socketAddress.getPort());
+		try {
+			//Open a blocking socket channel, which is connected when this call returns.
+			sendChannel = SocketChannel.open(socketAddress);
+			sendSocket = sendChannel.socket();
+			
+			if (checkIdentity){
+				sendIdentity();
+			}
+			
+			Logging.getLogger().log(Level.INFO, "Socket connected");
+			
+			//After the send socket is connected, need to check if the receive socket is also connected.
+			//If so, set the channel state to READY.
+			setReady();
+				
+		} catch (IOException e) {
+			
+			Logging.getLogger().log(Level.FINEST, e.toString());
+		}
+	}
+	
+	/**
+	 * Sets the receive socket. The socket should be created by a {@link java.nio.channels.ServerSocketChannel}, 
+	 * since the frames are read using its channel.
+	 * @param socket the receive socket to set.
+	 */
+	@Override
+	public void setReceiveSocket(Socket socket) {
+		
+		receiveChannel = socket.getChannel();
+		if (receiveChannel == null){
+			throw new IllegalArgumentException("the given socket should be created by a ServerSocketChannel");
+		}
+		try {
+			//The accepted socket can be non blocking in case the server socket is non blocking.
+			receiveChannel.configureBlocking(true);
+		} catch (IOException e) {
+			
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+		this.receiveSocket = socket;
+		
+		//After the receive socket is connected, need to check if the send socket is also connected.
+		//If so, set the channel state to READY.
+		setReady();
+	}
+	
+	/**
+	 * A ByteArrayOutputStream that gives access to its internal buffer, so the serialized bytes can be sent without copying them.
+	 */
+	private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream{
+		
+		byte[] getBuffer(){
+			return buf;
+		}
+	}
+}
@@ -0,0 +1,69 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import edu.biu.scapi.exceptions.DuplicatePartyException;
+
+/**
+ * This class implements a communication between two parties using NIO socket channels that send length-prefixed frames.<p>
+ * It derives the SocketCommunicationSetup class since the implementation is equal except the channel type.
+ * This class creates an {@link NIOSocketChannel} while the SocketCommunicationSetup creates a {@link PlainTCPSocketChannel}.<p>
+ * 
+ * The returned channels implement {@link edu.biu.scapi.comm.BinaryChannel}, so protocols that send big binary data can cast them and 
+ * use the raw bytes functions instead of sending Serializable objects. Both parties should use this communication setup.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class NIOSocketCommunicationSetup extends SocketCommunicationSetup{
+	
+	/**
+	 * A constructor that set the given parties.
+	 * @param me The data of the current application.
+	 * @param party The data of the other application to communicate with.
+	 * @throws DuplicatePartyException In case both parties are the same.
+	 */
+	public NIOSocketCommunicationSetup(PartyData me, PartyData party) throws DuplicatePartyException{
+		this(me, party, NIOSocketChannel.DEFAULT_MAX_FRAME_SIZE);
+	}
+	
+	/**
+	 * A constructor that set the given parties and the maximal size of a frame that the channels receive.
+	 * @param me The data of the current application.
+	 * @param party The data of the other application to communicate with.
+	 * @param maxFrameSize The maximal size of a received frame, in bytes. A frame with a bigger length is considered as corrupted.
+	 * @throws DuplicatePartyException In case both parties are the same.
+	 */
+	public NIOSocketCommunicationSetup(PartyData me, PartyData party, int maxFrameSize) throws DuplicatePartyException{
+		super(me, party);
+		if (maxFrameSize <= 0){
+			throw new IllegalArgumentException("the maximal frame size should be positive");
+		}
+		
+		//Create the connector object that creates and connects NIO channels.
+		connector = new TwoPartySocketConnector(me, other, maxFrameSize);
+	}
+}
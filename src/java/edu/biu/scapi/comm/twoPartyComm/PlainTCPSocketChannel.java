@@ -93,7 +93,7 @@ public class PlainTCPSocketChannel implements Channel{
 	
 	private State state;						// The state of the channel.
 	protected Socket sendSocket;				//A socket used to send messages.
-	private Socket receiveSocket;				//A socket used to receive messages.
+	protected Socket receiveSocket;			//A socket used to receive messages.
 	protected ObjectOutputStream outStream;		//Used to send a message
 	private ObjectInputStream inStream;			//Used to receive a message.
 	protected InetSocketAddress socketAddress;	//The address of the other party.
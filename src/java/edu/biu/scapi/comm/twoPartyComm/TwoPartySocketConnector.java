@@ -28,6 +28,8 @@ public class TwoPartySocketConnector {
 	private SocketPartyData other;					//The data of the other application to communicate with.
 	private boolean bStopped = false;				//A flag that indicates if to keep on listening or stop.
 	private boolean isSecure;						// A flag that indicates to use SSL or not.
+	private boolean isNIO;							// A flag that indicates to use frames over NIO socket channels or not.
+	private int maxFrameSize = NIOSocketChannel.DEFAULT_MAX_FRAME_SIZE;	// The maximal size of a frame that an NIO channel receives.
 	private SSLSocketFactory factory;				//In case of SSL communication, the sockets are created via this factory.
 	private Map<String, Channel> connectionsMap;
 	
@@ -59,6 +61,31 @@ public class TwoPartySocketConnector {
 		this.factory = factory;
 	}
 	
+	/**
+	 * A constructor that set the parties and the type of the plain channels.<p>
+	 * In case useNIO is true, the created channels will be {@link NIOSocketChannel}s. Otherwise, they will be {@link PlainTCPSocketChannel}s.
+	 * 
+	 * @param me The data of the current application
+	 * @param party The data of the other application to communicate with.
+	 * @param useNIO indicates whether to create NIO channels or not.
+	 */
+	public TwoPartySocketConnector(PartyData me, PartyData party, boolean useNIO){
+		this (me, party);
+		this.isNIO = useNIO;
+	}
+	
+	/**
+	 * A constructor that set the parties and creates {@link NIOSocketChannel}s that receive frames of at most the given size.
+	 * 
+	 * @param me The data of the current application
+	 * @param party The data of the other application to communicate with.
+	 * @param maxFrameSize The maximal size of a received frame, in bytes.
+	 */
+	public TwoPartySocketConnector(PartyData me, PartyData party, int maxFrameSize){
+		this (me, party, true);
+		this.maxFrameSize = maxFrameSize;
+	}
+	
 	/**
 	 * Creates the channels and give them the names in connectionsIds array.
 	 * @param connectionsIds Array of channels names.
@@ -81,6 +108,8 @@ public class TwoPartySocketConnector {
 			//Create a channel.
 			if (isSecure){ //In case of secure channel, create an SSLSocketChannel.
 				channels[i] = new SSLSocketChannel(inetSocketAdd, factory, checkIdentity, me);
+			} else if (isNIO){ //In case of NIO channel, create an NIOSocketChannel.
+				channels[i] = new NIOSocketChannel(inetSocketAdd, checkIdentity, me, maxFrameSize);
 			} else { //In case of plain channel, create an PlainTCPSocketChannel.
 				channels[i] = new PlainTCPSocketChannel(inetSocketAdd, checkIdentity, me);
 			}
@@ -47,6 +47,7 @@ import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -79,6 +80,7 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 	protected DlogGroup dlog;
 	protected SecureRandom random;
 	private BigInteger qMinusOne;
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 	
 	//The key to the map is an ID and the value is a structure that has the Committer's private input x in Zq,the random value
 	//used to commit x and the actual commitment.
@@ -160,6 +162,19 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 				throw new CheatAttemptException("h element is not a member of the current DlogGroup");
 	}
 
+	/**
+	 * Sets a pool of precomputed values g^r, which the commitment uses instead of sampling r and computing g^r. 
+	 * Then, the only exponentiation of a commitment is h^x.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
+	
 	/**
 	 * Runs the following lines of the commitment scheme: <P>
 	 * "SAMPLE a random value r <- Zq<P>
@@ -176,11 +191,20 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 			throw new IllegalArgumentException("The input must be in Zq");
 		}
 		
-		//Sample a random value r <- Zq
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
+		BigInteger r;
+		GroupElement gToR;
+		if (exponentiationPool != null){
+			//Take r and g^r from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			r = entry.getR();
+			gToR = entry.getPower(0);
+		} else {
+			//Sample a random value r <- Zq
+			r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
+			gToR = dlog.exponentiate(dlog.getGenerator(), r);
+		}
 		
 		//Compute  c = g^r * h^x
-		GroupElement gToR = dlog.exponentiate(dlog.getGenerator(), r);
 		GroupElement hToX = dlog.exponentiate(h, x);
 		GroupElement c = dlog.multiplyGroupElements(gToR, hToX);
 		
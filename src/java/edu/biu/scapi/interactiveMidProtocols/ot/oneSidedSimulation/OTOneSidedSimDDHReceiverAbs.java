@@ -48,6 +48,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenProver;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -100,6 +101,7 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 	private SecureRandom random;
 	private ZKPOKFromSigmaCmtPedersenProver zkProver;
 	private BigInteger qMinusOne; 
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 	
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -167,6 +169,18 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 		// This protocol has no pre process stage.
 	}
 	
+	/**
+	 * Sets a pool of precomputed values g^r, which the transfer uses for alpha, beta, gamma and their powers of g instead of sampling and exponentiating.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
+	
 	/**
 	 * Runs the transfer phase of the OT protocol.<p>
 	 * This is the part of the protocol where the receiver input is necessary.<p>
@@ -230,16 +244,31 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 
 		*/
 		
-		//Sample random values alpha, beta in [0, . . . , q-1]
-		BigInteger alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		BigInteger beta = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-				
-		//Compute g^alpha
-		GroupElement g = dlog.getGenerator();
-		GroupElement gAlpha = dlog.exponentiate(g, alpha);
+		BigInteger alpha;
+		BigInteger beta;
+		GroupElement gAlpha;
+		GroupElement gBeta;
+		if (exponentiationPool != null){
+			//Take alpha, g^alpha and beta, g^beta from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			alpha = entry.getR();
+			gAlpha = entry.getPower(0);
+			entry = exponentiationPool.take();
+			beta = entry.getR();
+			gBeta = entry.getPower(0);
+		} else {
+			//Sample random values alpha, beta in [0, . . . , q-1]
+			alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			beta = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+					
+			//Compute g^alpha, g^beta
+			GroupElement g = dlog.getGenerator();
+			gAlpha = dlog.exponentiate(g, alpha);
+			gBeta = dlog.exponentiate(g, beta);
+		}
 		
 		//complete calculations for tuple and create tuple for sender.
-		OTRGroupElementQuadMsg a = computeTuple(sigma, alpha, beta, gAlpha);
+		OTRGroupElementQuadMsg a = computeTuple(sigma, alpha, beta, gAlpha, gBeta);
 		
 		//Send tuple to sender.
 		sendTupleToSender(channel, a);
@@ -263,16 +292,22 @@ abstract class OTOneSidedSimDDHReceiverAbs implements OTReceiver{
 	 * @param alpha random value sampled in the protocol
 	 * @param beta random value sampled in the protocol
 	 * @param gAlpha g^alpha
+	 * @param gBeta g^beta
 	 * @return OTRPrivacyOnlyMessage contains the tuple (x, y, z0, z1).
 	 */
-	private OTRGroupElementQuadMsg computeTuple(byte sigma, BigInteger alpha, BigInteger beta, GroupElement gAlpha) {
-		//Sample random value gamma in [0, . . . , q-1]
-		BigInteger gamma = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		
-		//Calculates g^beta, g^(alpha*beta), g^gamma.
+	private OTRGroupElementQuadMsg computeTuple(byte sigma, BigInteger alpha, BigInteger beta, GroupElement gAlpha, GroupElement gBeta) {
 		GroupElement g = dlog.getGenerator();
-		GroupElement gBeta = dlog.exponentiate(g, beta);
-		GroupElement gGamma = dlog.exponentiate(g, gamma);
+		GroupElement gGamma;
+		if (exponentiationPool != null){
+			//Take g^gamma from the pool.
+			gGamma = exponentiationPool.take().getPower(0);
+		} else {
+			//Sample random value gamma in [0, . . . , q-1] and calculate g^gamma.
+			BigInteger gamma = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			gGamma = dlog.exponentiate(g, gamma);
+		}
+		
+		//Calculates g^(alpha*beta).
 		GroupElement gAlphaBeta = dlog.exponentiate(g, alpha.multiply(beta));
 		
 		//Create the tuple.
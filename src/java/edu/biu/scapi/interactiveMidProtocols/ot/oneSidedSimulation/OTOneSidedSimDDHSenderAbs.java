@@ -48,6 +48,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTSender;
 import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenVerifier;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -97,6 +98,7 @@ abstract class OTOneSidedSimDDHSenderAbs implements OTSender{
 	private SecureRandom random;
 	private ZKPOKFromSigmaCmtPedersenVerifier zkVerifier;
 	private BigInteger qMinusOne;
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 	
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -160,6 +162,18 @@ abstract class OTOneSidedSimDDHSenderAbs implements OTSender{
 		// This protocol has no pre process stage.
 		
 	}
+	
+	/**
+	 * Sets a pool of precomputed values g^r, which the transfer uses for v0, g^v0, v1 and g^v1 instead of sampling and exponentiating.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
 
 	/**
 	 * Runs the transfer phase of the protocol. <p>
@@ -228,19 +242,33 @@ abstract class OTOneSidedSimDDHSenderAbs implements OTSender{
 		//Sample random values u0,u1,v0,v1 in  {0, . . . , q-1}
 		BigInteger u0 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		BigInteger u1 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		BigInteger v0 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		BigInteger v1 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		BigInteger v0;
+		BigInteger v1;
+		GroupElement gV0;
+		GroupElement gV1;
+		if (exponentiationPool != null){
+			//Take v0, g^v0 and v1, g^v1 from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			v0 = entry.getR();
+			gV0 = entry.getPower(0);
+			entry = exponentiationPool.take();
+			v1 = entry.getR();
+			gV1 = entry.getPower(0);
+		} else {
+			v0 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			v1 = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			gV0 = dlog.exponentiate(dlog.getGenerator(), v0);
+			gV1 = dlog.exponentiate(dlog.getGenerator(), v1);
+		}
 		
 		//Compute values w0, k0, w1, k1
-		GroupElement g = dlog.getGenerator(); //Get the group generator.
-		
 		//Calculates w0 = x^u0 � g^v0
-		GroupElement w0 = dlog.multiplyGroupElements(dlog.exponentiate(x, u0), dlog.exponentiate(g, v0));
+		GroupElement w0 = dlog.multiplyGroupElements(dlog.exponentiate(x, u0), gV0);
 		//Calculates k0 = (z0)^u0 � y^v0
 		GroupElement k0 = dlog.multiplyGroupElements(dlog.exponentiate(z0, u0), dlog.exponentiate(y, v0));
 		
 		//Calculates w1 = x^u1 � g^v1
-		GroupElement w1 = dlog.multiplyGroupElements(dlog.exponentiate(x, u1), dlog.exponentiate(g, v1));
+		GroupElement w1 = dlog.multiplyGroupElements(dlog.exponentiate(x, u1), gV1);
 		//Calculates k1 = (z1)^u1 � y^v1
 		GroupElement k1 = dlog.multiplyGroupElements(dlog.exponentiate(z1, u1), dlog.exponentiate(y, v1));
 		
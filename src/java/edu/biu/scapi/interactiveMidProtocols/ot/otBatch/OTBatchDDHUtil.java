@@ -0,0 +1,411 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnGroupElementSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+
+/**
+ * Utility functions that are common to the batch OT protocols based on the DDH assumption that are secure against malicious 
+ * adversaries (privacy only, one sided simulation, full simulation and UC).<p>
+ * All these protocols end the same way: the sender computes a pair (w, k) for each of its inputs, sends w together with its input 
+ * masked by k, and the receiver recovers the mask of the input it chose as w raised to a secret exponent. 
+ * This class implements this part for the whole batch, in both the byteArray and the GroupElement modes.<p>
+ * The exponentiations of the fixed bases of the protocols use {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, BigInteger)}, 
+ * so the precomputed tables are built once and shared by all the OTs of all the batches.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class OTBatchDDHUtil {
+	
+	private OTBatchDDHUtil(){}
+	
+	/**
+	 * Checks that the given input is an OTBatchRBasicInput that contains only zeros and ones.
+	 * @param input the receiver's input.
+	 * @return the sigma array of the input.
+	 */
+	public static ArrayList<Byte> getSigmaArr(OTBatchRInput input){
+		//If input is not instance of OTBatchRBasicInput, throw Exception.
+		if (!(input instanceof OTBatchRBasicInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchRBasicInput");
+		}
+		
+		ArrayList<Byte> sigmaArr = ((OTBatchRBasicInput) input).getSigmaArr();
+		
+		//Each sigma should be 0 or 1.
+		for (int i = 0; i < sigmaArr.size(); i++){
+			byte sigma = sigmaArr.get(i);
+			if ((sigma != 0) && (sigma != 1)){
+				throw new IllegalArgumentException("Sigma should be 0 or 1");
+			}
+		}
+		return sigmaArr;
+	}
+	
+	/**
+	 * Returns the number of OTs in the given sender's input.
+	 * @param input MUST be an instance of OTBatchOnByteArraySInput or OTBatchOnGroupElementSInput.
+	 * @return the number of input pairs.
+	 */
+	public static int getNumOfInputs(OTBatchSInput input){
+		if (input instanceof OTBatchOnByteArraySInput){
+			return ((OTBatchOnByteArraySInput) input).getX0Arr().size();
+		}
+		if (input instanceof OTBatchOnGroupElementSInput){
+			return ((OTBatchOnGroupElementSInput) input).getX0Arr().size();
+		}
+		throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput or OTBatchOnGroupElementSInput");
+	}
+	
+	/**
+	 * Reconstructs the given group elements and checks that they are members of the group.
+	 * @param dlog
+	 * @param data the data of the elements.
+	 * @param name the name of the elements in the protocol, used in the message of the exception.
+	 * @return the reconstructed elements.
+	 * @throws CheatAttemptException if one of the elements is not a member of the group.
+	 */
+	public static GroupElement[] reconstructElements(DlogGroup dlog, ArrayList<GroupElementSendableData> data, String name) throws CheatAttemptException{
+		try {
+			return dlog.reconstructElements(true, data.toArray(new GroupElementSendableData[data.size()]));
+		} catch (IllegalArgumentException e) {
+			throw new CheatAttemptException(name + " element is not a member in the current DlogGroup");
+		}
+	}
+	
+	/**
+	 * Raises the given fixed base to each of the given exponents, using the precomputed values of the base.
+	 * @param dlog
+	 * @param base a base that is used by many OTs, such as the generator of the group.
+	 * @param exponents
+	 * @return an array that holds base^exponents[i] in its i-th cell.
+	 */
+	public static GroupElement[] exponentiateFixedBase(DlogGroup dlog, GroupElement base, BigInteger[] exponents){
+		GroupElement[] results = new GroupElement[exponents.length];
+		for (int i = 0; i < exponents.length; i++){
+			results[i] = dlog.exponentiateWithPreComputedValues(base, exponents[i]);
+		}
+		return results;
+	}
+	
+	/**
+	 * Samples the given number of random values in [0, . . . , q-1].
+	 */
+	public static BigInteger[] sampleExponents(DlogGroup dlog, int size, SecureRandom random){
+		BigInteger qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		BigInteger[] exponents = new BigInteger[size];
+		for (int i = 0; i < size; i++){
+			exponents[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		return exponents;
+	}
+	
+	/**
+	 * Computes the receiver's message of the batch privacy only and one sided simulation protocols, given x = g^alpha:<p>
+	 * "SAMPLE random values betai, gammai in {0, . . . , q-1} <p>
+	 *	COMPUTE ai as follows:<p>
+	 *	1.	If sigmai = 0 then ai = (x, g^betai, x^betai, g^gammai)<p>
+	 *	2.	If sigmai = 1 then ai = (x, g^betai, g^gammai, x^betai)"<p>
+	 * Note that x^betai = g^(alpha*betai).
+	 * @param dlog
+	 * @param sigmaArr the receiver's input.
+	 * @param x g^alpha
+	 * @param betaArr the sampled betai values.
+	 * @param random
+	 * @return the message that contains x and the tuples (yi, zi0, zi1).
+	 */
+	public static OTRGroupElementQuadBatchMsg computeQuadBatch(DlogGroup dlog, ArrayList<Byte> sigmaArr, GroupElement x, BigInteger[] betaArr, SecureRandom random){
+		int size = sigmaArr.size();
+		GroupElement g = dlog.getGenerator();
+		BigInteger[] gammaArr = sampleExponents(dlog, size, random);
+		
+		//g is fixed and x is shared by the whole batch, so both are exponentiated with precomputed values.
+		GroupElement[] gBeta = exponentiateFixedBase(dlog, g, betaArr);
+		GroupElement[] gGamma = exponentiateFixedBase(dlog, g, gammaArr);
+		GroupElement[] gAlphaBeta = dlog.exponentiateBatch(x, betaArr);
+		
+		ArrayList<GroupElementSendableData> yArr = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> z0Arr = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> z1Arr = new ArrayList<GroupElementSendableData>(size);
+		for (int i = 0; i < size; i++){
+			yArr.add(gBeta[i].generateSendableData());
+			if (sigmaArr.get(i) == 0){
+				z0Arr.add(gAlphaBeta[i].generateSendableData());
+				z1Arr.add(gGamma[i].generateSendableData());
+			} else {
+				z0Arr.add(gGamma[i].generateSendableData());
+				z1Arr.add(gAlphaBeta[i].generateSendableData());
+			}
+		}
+		return new OTRGroupElementQuadBatchMsg(x.generateSendableData(), yArr, z0Arr, z1Arr);
+	}
+	
+	/**
+	 * Computes the values of the sender of the batch privacy only and one sided simulation protocols:<p>
+	 * "IF NOT zi0 != zi1 REPORT ERROR (cheat attempt)<p>
+	 *	SAMPLE random values ui0,ui1,vi0,vi1 in {0, . . . , q-1} <p>
+	 *	COMPUTE:<p>
+	 *	*	wi0 = x^ui0 * g^vi0<p>
+	 *	*	ki0 = (zi0)^ui0 * yi^vi0<p>
+	 *	*	wi1 = x^ui1 * g^vi1<p>
+	 *	*	ki1 = (zi1)^ui1 * yi^vi1"<p>
+	 * @param dlog
+	 * @param x the element that is shared by all the tuples.
+	 * @param y
+	 * @param z0
+	 * @param z1
+	 * @param random
+	 * @return the arrays w0, w1, k0, k1, in this order.
+	 * @throws CheatAttemptException if zi0 = zi1 for some i.
+	 */
+	public static GroupElement[][] computeWK(DlogGroup dlog, GroupElement x, GroupElement[] y, GroupElement[] z0, GroupElement[] z1, SecureRandom random) throws CheatAttemptException{
+		int size = y.length;
+		for (int i = 0; i < size; i++){
+			if (z0[i].equals(z1[i])){
+				throw new CheatAttemptException("z0 and z1 are equal");
+			}
+		}
+		
+		//The first half of the exponents are the values of the first inputs and the second half are of the second inputs.
+		BigInteger[] u = sampleExponents(dlog, 2 * size, random);
+		BigInteger[] v = sampleExponents(dlog, 2 * size, random);
+		GroupElement[] xU = dlog.exponentiateBatch(x, u);
+		GroupElement[] gV = exponentiateFixedBase(dlog, dlog.getGenerator(), v);
+		
+		GroupElement[][] result = new GroupElement[4][size];
+		for (int i = 0; i < size; i++){
+			result[0][i] = dlog.multiplyGroupElements(xU[i], gV[i]);
+			result[1][i] = dlog.multiplyGroupElements(xU[size + i], gV[size + i]);
+			result[2][i] = dlog.simultaneousMultipleExponentiations(new GroupElement[]{z0[i], y[i]}, new BigInteger[]{u[i], v[i]});
+			result[3][i] = dlog.simultaneousMultipleExponentiations(new GroupElement[]{z1[i], y[i]}, new BigInteger[]{u[size + i], v[size + i]});
+		}
+		return result;
+	}
+	
+	/**
+	 * Runs the following lines from the protocols, for each OT in the batch:
+	 * "COMPUTE:
+	 *	*	ci0 = xi0 XOR KDF(|xi0|,ki0)
+	 *	*	ci1 = xi1 XOR KDF(|xi1|,ki1)"
+	 * @param dlog
+	 * @param kdf
+	 * @param input MUST be an instance of OTBatchOnByteArraySInput.
+	 * @param w0
+	 * @param w1
+	 * @param k0
+	 * @param k1
+	 * @return the tuples (wi0, ci0, wi1, ci1) to send to the receiver.
+	 */
+	public static OTSMsg computeByteArrayMsg(DlogGroup dlog, KeyDerivationFunction kdf, OTBatchSInput input, GroupElement[] w0, GroupElement[] w1, GroupElement[] k0, GroupElement[] k1){
+		//If input is not instance of OTBatchOnByteArraySInput, throw Exception.
+		if (!(input instanceof OTBatchOnByteArraySInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput");
+		}
+		
+		ArrayList<byte[]> x0Arr = ((OTBatchOnByteArraySInput) input).getX0Arr();
+		ArrayList<byte[]> x1Arr = ((OTBatchOnByteArraySInput) input).getX1Arr();
+		int size = x0Arr.size();
+		
+		ArrayList<OTOnByteArraySMsg> tuples = new ArrayList<OTOnByteArraySMsg>(size);
+		for (int i = 0; i < size; i++){
+			//If x0, x1 are not of the same length, throw Exception.
+			if (x0Arr.get(i).length != x1Arr.get(i).length){
+				throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+			}
+			
+			byte[] c0 = mask(dlog, kdf, k0[i], x0Arr.get(i));
+			byte[] c1 = mask(dlog, kdf, k1[i], x1Arr.get(i));
+			tuples.add(new OTOnByteArraySMsg(w0[i].generateSendableData(), c0, w1[i].generateSendableData(), c1));
+		}
+		return new OTBatchOnByteArraySMsg(tuples);
+	}
+	
+	/**
+	 * Runs the following lines from the protocols, for each OT in the batch:
+	 * "COMPUTE:
+	 *	*	ci0 = xi0 * ki0
+	 *	*	ci1 = xi1 * ki1"
+	 * @param dlog
+	 * @param input MUST be an instance of OTBatchOnGroupElementSInput.
+	 * @param w0
+	 * @param w1
+	 * @param k0
+	 * @param k1
+	 * @return the tuples (wi0, ci0, wi1, ci1) to send to the receiver.
+	 */
+	public static OTSMsg computeGroupElementMsg(DlogGroup dlog, OTBatchSInput input, GroupElement[] w0, GroupElement[] w1, GroupElement[] k0, GroupElement[] k1){
+		//If input is not instance of OTBatchOnGroupElementSInput, throw Exception.
+		if (!(input instanceof OTBatchOnGroupElementSInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnGroupElementSInput");
+		}
+		
+		ArrayList<GroupElement> x0Arr = ((OTBatchOnGroupElementSInput) input).getX0Arr();
+		ArrayList<GroupElement> x1Arr = ((OTBatchOnGroupElementSInput) input).getX1Arr();
+		int size = x0Arr.size();
+		
+		ArrayList<OTOnGroupElementSMsg> tuples = new ArrayList<OTOnGroupElementSMsg>(size);
+		for (int i = 0; i < size; i++){
+			GroupElement c0 = dlog.multiplyGroupElements(x0Arr.get(i), k0[i]);
+			GroupElement c1 = dlog.multiplyGroupElements(x1Arr.get(i), k1[i]);
+			tuples.add(new OTOnGroupElementSMsg(w0[i].generateSendableData(), c0.generateSendableData(), 
+												w1[i].generateSendableData(), c1.generateSendableData()));
+		}
+		return new OTBatchOnGroupElementSMsg(tuples);
+	}
+	
+	/**
+	 * Runs the following lines from the protocols, for each OT in the batch:
+	 * "IF  NOT 
+	 *		1. wi0, wi1 in the DlogGroup, AND
+	 *		2. ci0, ci1 are binary strings of the same length
+	 *	   REPORT ERROR
+	 *	COMPUTE kiSigma = (wiSigma)^ei
+	 *	OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,kiSigma)"
+	 * @param dlog
+	 * @param kdf
+	 * @param sigmaArr the receiver's input.
+	 * @param exponents the secret exponent ei of each OT.
+	 * @param message received from the sender.
+	 * @return OTBatchOnByteArrayROutput contains the xiSigma values.
+	 * @throws CheatAttemptException if there was a cheat attempt during the execution of the protocol.
+	 */
+	public static OTBatchROutput computeByteArrayOutput(DlogGroup dlog, KeyDerivationFunction kdf, ArrayList<Byte> sigmaArr, BigInteger[] exponents, OTSMsg message) throws CheatAttemptException{
+		//If message is not instance of OTBatchOnByteArraySMsg, throw Exception.
+		if (!(message instanceof OTBatchOnByteArraySMsg)){
+			throw new IllegalArgumentException("message should be instance of OTBatchOnByteArraySMsg");
+		}
+		
+		ArrayList<OTOnByteArraySMsg> tuples = ((OTBatchOnByteArraySMsg) message).getTuples();
+		int size = sigmaArr.size();
+		if (tuples.size() != size){
+			throw new CheatAttemptException("the number of tuples should be equal to the number of OTs");
+		}
+		
+		ArrayList<GroupElementSendableData> w0Data = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> w1Data = new ArrayList<GroupElementSendableData>(size);
+		for (int i = 0; i < size; i++){
+			OTOnByteArraySMsg tuple = tuples.get(i);
+			w0Data.add(tuple.getW0());
+			w1Data.add(tuple.getW1());
+			if (tuple.getC0().length != tuple.getC1().length){
+				throw new CheatAttemptException("c0 and c1 is not in the same length");
+			}
+		}
+		GroupElement[] w0 = reconstructElements(dlog, w0Data, "w0");
+		GroupElement[] w1 = reconstructElements(dlog, w1Data, "w1");
+		
+		ArrayList<byte[]> xSigmaArr = new ArrayList<byte[]>(size);
+		for (int i = 0; i < size; i++){
+			OTOnByteArraySMsg tuple = tuples.get(i);
+			if (sigmaArr.get(i) == 0){
+				xSigmaArr.add(mask(dlog, kdf, dlog.exponentiate(w0[i], exponents[i]), tuple.getC0()));
+			} else {
+				xSigmaArr.add(mask(dlog, kdf, dlog.exponentiate(w1[i], exponents[i]), tuple.getC1()));
+			}
+		}
+		return new OTBatchOnByteArrayROutput(xSigmaArr);
+	}
+	
+	/**
+	 * Runs the following lines from the protocols, for each OT in the batch:
+	 * "IF  NOT 
+	 *		1. wi0, wi1, ci0, ci1 in the DlogGroup
+	 *	   REPORT ERROR
+	 *	COMPUTE (kiSigma)^(-1) = (wiSigma)^(-ei)
+	 *	OUTPUT  xiSigma = ciSigma * (kiSigma)^(-1)"
+	 * @param dlog
+	 * @param sigmaArr the receiver's input.
+	 * @param exponents the secret exponent ei of each OT.
+	 * @param message received from the sender.
+	 * @return OTBatchOnGroupElementROutput contains the xiSigma values.
+	 * @throws CheatAttemptException if there was a cheat attempt during the execution of the protocol.
+	 */
+	public static OTBatchROutput computeGroupElementOutput(DlogGroup dlog, ArrayList<Byte> sigmaArr, BigInteger[] exponents, OTSMsg message) throws CheatAttemptException{
+		//If message is not instance of OTBatchOnGroupElementSMsg, throw Exception.
+		if (!(message instanceof OTBatchOnGroupElementSMsg)){
+			throw new IllegalArgumentException("message should be instance of OTBatchOnGroupElementSMsg");
+		}
+		
+		ArrayList<OTOnGroupElementSMsg> tuples = ((OTBatchOnGroupElementSMsg) message).getTuples();
+		int size = sigmaArr.size();
+		if (tuples.size() != size){
+			throw new CheatAttemptException("the number of tuples should be equal to the number of OTs");
+		}
+		
+		ArrayList<GroupElementSendableData> w0Data = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> w1Data = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> c0Data = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> c1Data = new ArrayList<GroupElementSendableData>(size);
+		for (int i = 0; i < size; i++){
+			OTOnGroupElementSMsg tuple = tuples.get(i);
+			w0Data.add(tuple.getW0());
+			w1Data.add(tuple.getW1());
+			c0Data.add(tuple.getC0());
+			c1Data.add(tuple.getC1());
+		}
+		GroupElement[] w0 = reconstructElements(dlog, w0Data, "w0");
+		GroupElement[] w1 = reconstructElements(dlog, w1Data, "w1");
+		GroupElement[] c0 = reconstructElements(dlog, c0Data, "c0");
+		GroupElement[] c1 = reconstructElements(dlog, c1Data, "c1");
+		
+		BigInteger q = dlog.getOrder();
+		ArrayList<GroupElement> xSigmaArr = new ArrayList<GroupElement>(size);
+		for (int i = 0; i < size; i++){
+			BigInteger minusE = q.subtract(exponents[i]);
+			if (sigmaArr.get(i) == 0){
+				xSigmaArr.add(dlog.multiplyGroupElements(c0[i], dlog.exponentiate(w0[i], minusE)));
+			} else {
+				xSigmaArr.add(dlog.multiplyGroupElements(c1[i], dlog.exponentiate(w1[i], minusE)));
+			}
+		}
+		return new OTBatchOnGroupElementROutput(xSigmaArr);
+	}
+	
+	/*
+	 * Returns x XOR KDF(|x|,k).
+	 */
+	private static byte[] mask(DlogGroup dlog, KeyDerivationFunction kdf, GroupElement k, byte[] x){
+		byte[] kBytes = dlog.mapAnyGroupElementToByteArray(k);
+		byte[] c = kdf.deriveKey(kBytes, 0, kBytes.length, x.length).getEncoded();
+		for (int j = 0; j < x.length; j++){
+			c[j] = (byte) (c[j] ^ x[j]);
+		}
+		return c;
+	}
+}
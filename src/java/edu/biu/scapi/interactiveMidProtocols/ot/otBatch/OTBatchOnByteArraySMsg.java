@@ -0,0 +1,60 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
+
+import java.util.ArrayList;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArraySMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+
+/**
+ * Concrete implementation of batch OT sender (on byteArray) message, used by the batch privacy only, one sided simulation, 
+ * full simulation and UC OT senders.<p>
+ * The message contains the tuple (w0, c0, w1, c1) of each OT in the batch, where c0 and c1 are binary strings.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTBatchOnByteArraySMsg implements OTSMsg{
+	
+	private static final long serialVersionUID = 1634380276870164921L;
+	private ArrayList<OTOnByteArraySMsg> tuples;
+	
+	/**
+	 * Sets the array contains messages of the underlying OT.
+	 * @param tuples contains messages of the underlying OT.
+	 */
+	public OTBatchOnByteArraySMsg(ArrayList<OTOnByteArraySMsg> tuples){
+		this.tuples = tuples;
+	}
+	
+	/**
+	 * Returns the array contains messages of the underlying OT.
+	 * @return array contains messages of the underlying OT.
+	 */
+	public ArrayList<OTOnByteArraySMsg> getTuples(){
+		return tuples;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+
+/**
+ * Concrete implementation of OT receiver message used by the batch privacy only and one sided simulation OT receivers. <p>
+ * This implementation is common for OT on byteArray and on GroupElement.<p>
+ * The message contains the tuples (x, yi, zi0, zi1) of all the OTs in the batch. All the tuples share the same x = g^alpha,
+ * so it is sent once.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTRGroupElementQuadBatchMsg implements Serializable{
+
+	private static final long serialVersionUID = 5102393574381749620L;
+	
+	private GroupElementSendableData x;
+	private ArrayList<GroupElementSendableData> yArr;
+	private ArrayList<GroupElementSendableData> z0Arr;
+	private ArrayList<GroupElementSendableData> z1Arr;
+	
+	public OTRGroupElementQuadBatchMsg(GroupElementSendableData x, ArrayList<GroupElementSendableData> yArr, 
+							 ArrayList<GroupElementSendableData> z0Arr, ArrayList<GroupElementSendableData> z1Arr){
+		this.x = x;
+		this.yArr = yArr;
+		this.z0Arr = z0Arr;
+		this.z1Arr = z1Arr;
+	}
+	
+	public GroupElementSendableData getX(){
+		return x;
+	}
+	
+	public ArrayList<GroupElementSendableData> getYArr(){
+		return yArr;
+	}
+	
+	public ArrayList<GroupElementSendableData> getZ0Arr(){
+		return z0Arr;
+	}
+	
+	public ArrayList<GroupElementSendableData> getZ1Arr(){
+		return z1Arr;
+	}
+}
@@ -0,0 +1,111 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.Malicious;
+import edu.biu.scapi.securityLevel.StandAlone;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * Concrete class for the receiver side of batch OT based on the DDH assumption that achieves full simulation.<p>
+ * This class derived from OTFullSimDDHBatchReceiverAbs and implements the functionality 
+ * related to the byte array outputs.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTFullSimDDHBatchOnByteArrayReceiver extends OTFullSimDDHBatchReceiverAbs implements Malicious, StandAlone{
+	
+	private KeyDerivationFunction kdf; //Used in the calculation.
+	
+	/**
+	 * Constructor that gets the channel and chooses default values of DlogGroup, KDF, ZKPOK and SecureRandom.
+	 * The preprocess phase is executed over the given channel.
+	 * @param channel
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnByteArrayReceiver(Channel channel) throws ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+		super(channel);
+		try {
+			this.kdf = KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))");
+		} catch (FactoriesException e) {
+			// will not occur since the given KDF name is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given channel, dlogGroup, kdf and random and executes the preprocess phase over the channel.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param kdf
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	public OTFullSimDDHBatchOnByteArrayReceiver(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+		super(channel, dlog, random);
+		this.kdf = kdf;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "IF  NOT 
+	 *		1. ui0, ui1 in the DlogGroup, AND
+	 *		2. ci0, ci1 are binary strings of the same length
+	 *	   REPORT ERROR
+	 *  OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)"
+	 * @param sigmaArr input of the protocol
+	 * @param rArr random values sampled in the protocol
+	 * @param message received from the sender
+	 * @return OTBatchOnByteArrayROutput contains the xiSigma values.
+	 * @throws CheatAttemptException if there was a cheat attempt during the execution of the protocol.
+	 */
+	protected OTBatchROutput checkMessgeAndComputeX(ArrayList<Byte> sigmaArr, BigInteger[] rArr, OTSMsg message) throws CheatAttemptException {
+		return OTBatchDDHUtil.computeByteArrayOutput(dlog, kdf, sigmaArr, rArr, message);
+	}
+}
@@ -0,0 +1,316 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimReceiverPreprocessUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementPairBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenProver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Abstract class for the receiver side of batch oblivious transfer based on the DDH assumption that achieves full simulation.<p>
+ * The preprocess phase is executed once, at construction time, and its output (g0,g1,h0,h1) is used by all the OTs of all the 
+ * batches. Each call to transfer computes a whole batch with one message from the receiver and one message from the sender.
+ * Since g0, g1, h0, h1 are fixed, their exponentiations use precomputed values that are shared by all the OTs.<p>
+ * This class is also the base of the batch UC OT receiver, whose (g0,g1,h0,h1) is the common reference string 
+ * instead of the output of the preprocess phase.<p>
+ * Batch OT with full simulation has two modes: one is on ByteArray and the second is on GroupElement.
+ * The difference is in the input and output types and the way to process them. 
+ * In spite that, there is a common behavior for both modes which this class implements.<p>
+ * 
+ * For more information see Protocol 7.5.1 page 201 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell; 
+ * this is the protocol of [PVW] adapted to the stand-alone setting <P>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.4 of pseudo codes document at {@link http://crypto.biu.ac.il/scapi/SDK_Pseudocode_SCAPI_V2.0.0.pdf}.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class OTFullSimDDHBatchReceiverAbs implements OTBatchReceiver{
+
+	/*	
+	  This class runs the following protocol in the transfer phase:
+			For every i=1,...,m:
+			SAMPLE a random value ri <- {0, . . . , q-1} 
+			COMPUTE
+			4.	gi = (gSigmai)^ri
+			5.	hi = (hSigmai)^ri
+			SEND (gi,hi) for i=1,...,m to S in one message
+			WAIT for messages (ui0,ci0) and (ui1,ci1) for i=1,...,m from S
+			In ByteArray scenario:
+				IF  NOT
+					ui0, ui1 in G, AND
+					ci0, ci1 are binary strings of the same length
+					   REPORT ERROR
+				OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)
+			In GroupElement scenario:
+				IF  NOT
+					ui0, ui1, ci0, ci1 in G
+					   REPORT ERROR
+				OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)
+	 */
+
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	private OTFullSimPreprocessPhaseValues preprocessOutput; //Values calculated by the preprocess phase.
+	
+	/**
+	 * Constructor that gets the channel and chooses default values of DlogGroup and SecureRandom.
+	 * @param channel used to run the preprocess phase.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	protected OTFullSimDDHBatchReceiverAbs(Channel channel) throws IOException, CheatAttemptException, ClassNotFoundException, CommitValueException{
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		
+		try {
+			doConstruct(channel, dlog, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given channel, dlogGroup and random and runs the preprocess phase.
+	 * @param channel used to run the preprocess phase.
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the receiver suspects that the sender is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	protected OTFullSimDDHBatchReceiverAbs(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, CheatAttemptException, ClassNotFoundException, CommitValueException{
+		
+		doConstruct(channel, dlog, random);
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup, random and the values (g0,g1,h0,h1), which are used instead of the output 
+	 * of the preprocess phase. This is used by the batch UC OT, where (g0,g1,h0,h1) is the common reference string.
+	 * @param dlog must be DDH secure.
+	 * @param values (g0,g1,h0,h1).
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 */
+	protected OTFullSimDDHBatchReceiverAbs(DlogGroup dlog, OTFullSimPreprocessPhaseValues values, SecureRandom random) throws SecurityLevelException{
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		
+		this.dlog = dlog;
+		this.random = random;
+		preprocessOutput = values;
+	}
+	
+	/**
+	 * Sets the given members and runs the preprocess phase.
+	 * Runs the following line from the protocol:
+	 * "IF NOT VALID_PARAMS(G,q,g)
+	 *   		REPORT ERROR and HALT".
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws ClassNotFoundException 
+	 * @throws CheatAttemptException 
+	 * @throws IOException 
+	 * @throws CommitValueException 
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, CheatAttemptException, ClassNotFoundException, CommitValueException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		//Check that the given dlog is valid.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+		
+		this.dlog = dlog;
+		this.random = random;
+
+		//read the default statistical parameter used in sigma protocols from a configuration file.
+		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
+		int t = Integer.parseInt(statisticalParameter);	
+		//Creates the underlying ZKPOK. 
+		ZKPOKFromSigmaCmtPedersenProver zkProver = new ZKPOKFromSigmaCmtPedersenProver(channel, new SigmaDHProverComputation(dlog, t, random));
+		
+		//The preprocess phase is executed once, and its output is used by all the batches.
+		preprocessOutput = OTFullSimReceiverPreprocessUtil.preProcess(dlog, zkProver, channel, random);
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol for all the OTs of the batch.<p>
+	 *	"For every i=1,...,m:<p>
+	 *	SAMPLE a random value ri <- {0, . . . , q-1} <p>
+	 *	COMPUTE<p>
+	 *	4.	gi = (gSigmai)^ri<p>
+	 *	5.	hi = (hSigmai)^ri<p>
+	 *	SEND (gi,hi) for i=1,...,m to S in one message<p>
+	 *	WAIT for messages (ui0,ci0) and (ui1,ci1) for i=1,...,m from S<p>
+	 *	In ByteArray scenario:<p>
+	 *		IF  NOT<p>
+	 *			ui0, ui1 in G, AND<p>
+	 *			ci0, ci1 are binary strings of the same length<p>
+	 *			   REPORT ERROR<p>
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)<p>
+	 *	In GroupElement scenario:<p>
+	 *		IF  NOT<p>
+	 *			ui0, ui1, ci0, ci1 in G<p>
+	 *			   REPORT ERROR<p>
+	 *		OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)"<p>
+	 * @param input MUST be an instance of OTBatchRBasicInput.
+	 * @return OTBatchROutput, the output of the protocol.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		ArrayList<Byte> sigmaArr = OTBatchDDHUtil.getSigmaArr(input);
+		int size = sigmaArr.size();
+		
+		//Sample random values ri in [0, . . . , q-1]
+		BigInteger[] rArr = OTBatchDDHUtil.sampleExponents(dlog, size, random);
+		
+		//Compute gi = (gSigmai)^ri, hi = (hSigmai)^ri. 
+		//The bases are the output of the preprocess phase, so they are exponentiated with precomputed values.
+		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>(size);
+		for (int i = 0; i < size; i++){
+			GroupElement gSigma, hSigma;
+			if (sigmaArr.get(i) == 0){
+				gSigma = preprocessOutput.getG0();
+				hSigma = preprocessOutput.getH0();
+			} else {
+				gSigma = preprocessOutput.getG1();
+				hSigma = preprocessOutput.getH1();
+			}
+			GroupElement g = dlog.exponentiateWithPreComputedValues(gSigma, rArr[i]);
+			GroupElement h = dlog.exponentiateWithPreComputedValues(hSigma, rArr[i]);
+			tuples.add(new OTRGroupElementPairMsg(g.generateSendableData(), h.generateSendableData()));
+		}
+		
+		//Send the tuples to the sender.
+		sendTupleToSender(channel, new OTRGroupElementPairBatchMsg(tuples));
+		
+		//Wait for message from sender.
+		OTSMsg message = waitForMessageFromSender(channel);
+		
+		//Compute the final calculations to get xiSigma.
+		return checkMessgeAndComputeX(sigmaArr, rArr, message);
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "SEND (gi,hi) for i=1,...,m to S in one message"
+	 * @param channel
+	 * @param a the tuples to send to the sender.
+	 * @throws IOException 
+	 */
+	private void sendTupleToSender(Channel channel, OTRGroupElementPairBatchMsg a) throws IOException {
+		try {
+			channel.send(a);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for messages (ui0,ci0) and (ui1,ci1) for i=1,...,m from S"
+	 * @param channel
+	 * @return OTSMsg contains the tuples (ui0, ci0, ui1, ci1)
+	 * @throws IOException if failed to receive.
+	 * @throws ClassNotFoundException
+	 */
+	private OTSMsg waitForMessageFromSender(Channel channel) throws IOException, ClassNotFoundException {
+		Serializable message = null;
+		try {
+			message =  channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTSMsg)){
+			throw new IllegalArgumentException("the given message should be an instance of OTSMsg");
+		}
+		return (OTSMsg) message;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "In ByteArray scenario:
+	 *		IF  NOT 
+	 *			1. ui0, ui1 in the DlogGroup, AND
+	 *			2. ci0, ci1 are binary strings of the same length
+	 *		   REPORT ERROR
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,(uiSigma)^ri)
+	 *	In GroupElement scenario:
+	 *		IF  NOT 
+	 *			1. ui0, ui1, ci0, ci1 in the DlogGroup
+	 *		   REPORT ERROR
+	 *		OUTPUT  xiSigma = ciSigma * (uiSigma)^(-ri)"
+	 * @param sigmaArr input of the protocol
+	 * @param rArr random values sampled in the protocol
+	 * @param message received from the sender
+	 * @return OTBatchROutput contains the xiSigma values.
+	 * @throws CheatAttemptException 
+	 */
+	protected abstract OTBatchROutput checkMessgeAndComputeX(ArrayList<Byte> sigmaArr, BigInteger[] rArr, OTSMsg message) throws CheatAttemptException;
+}
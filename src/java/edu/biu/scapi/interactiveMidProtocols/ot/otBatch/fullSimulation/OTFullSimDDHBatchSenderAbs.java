@@ -0,0 +1,320 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.fullSimulation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimPreprocessPhaseValues;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimSenderPreprocessUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementPairBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenVerifier;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Abstract class for the sender side of batch oblivious transfer based on the DDH assumption that achieves full simulation.<p>
+ * The preprocess phase is executed once, at construction time, and its output (g0,g1,h0,h1) is used by all the OTs of all the 
+ * batches. Each call to transfer computes a whole batch with one message from the receiver and one message from the sender.
+ * Since g0, g1, h0, h1 are fixed, their exponentiations use precomputed values that are shared by all the OTs.<p>
+ * This class is also the base of the batch UC OT sender, whose (g0,g1,h0,h1) is the common reference string 
+ * instead of the output of the preprocess phase.<p>
+ * Batch OT with full simulation has two modes: one is on ByteArray and the second is on GroupElement.
+ * The difference is in the input and output types and the way to process them. 
+ * In spite that, there is a common behavior for both modes which this class implements.<p>
+ * 
+ * For more information see Protocol 7.5.1 page 201 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell; 
+ * this is the protocol of [PVW] adapted to the stand-alone setting <P>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.4 of pseudo codes document at {@link http://crypto.biu.ac.il/scapi/SDK_Pseudocode_SCAPI_V2.0.0.pdf}.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class OTFullSimDDHBatchSenderAbs implements OTBatchSender{
+
+	/*	
+	  This class runs the following protocol in the transfer phase:
+			WAIT for message (gi,hi) for i=1,...,m from R
+			For every i=1,...,m:
+			COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)
+			COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)
+			In the byte array scenario:
+				COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)
+				COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)
+			In the GroupElement scenario:
+				COMPUTE ci0 = xi0 * vi0
+				COMPUTE ci1 = xi1 * vi1
+			SEND (ui0,ci0) and (ui1,ci1) for i=1,...,m to R in one message
+			OUTPUT nothing
+	 */
+
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	private OTFullSimPreprocessPhaseValues preprocessOutput; //Values calculated by the preprocess phase.
+	
+	/**
+	 * Constructor that gets the channel and chooses default values of DlogGroup, ZKPOK and SecureRandom.
+	 * @param channel used to run the preprocess phase.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the sender suspects that the receiver is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	protected OTFullSimDDHBatchSenderAbs(Channel channel) throws ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		
+		try {
+			doConstruct(channel, dlog, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given channel, dlogGroup and random and runs the preprocess phase.
+	 * @param channel used to run the preprocess phase.
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism in the preprocess phase.
+	 * @throws CheatAttemptException if the sender suspects that the receiver is trying to cheat in the preprocess phase.
+	 * @throws IOException if there was a problem during the communication in the preprocess phase.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme.
+	 */
+	protected OTFullSimDDHBatchSenderAbs(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException, CommitValueException{
+		
+		doConstruct(channel, dlog, random);
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup, random and the values (g0,g1,h0,h1), which are used instead of the output 
+	 * of the preprocess phase. This is used by the batch UC OT, where (g0,g1,h0,h1) is the common reference string.
+	 * @param dlog must be DDH secure.
+	 * @param values (g0,g1,h0,h1).
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 */
+	protected OTFullSimDDHBatchSenderAbs(DlogGroup dlog, OTFullSimPreprocessPhaseValues values, SecureRandom random) throws SecurityLevelException{
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		
+		this.dlog = dlog;
+		this.random = random;
+		preprocessOutput = values;
+	}
+	
+	/**
+	 * Sets the given members and runs the preprocess phase.
+	 * @param channel
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 * @throws InvalidDlogGroupException 
+	 * @throws CheatAttemptException 
+	 * @throws IOException if failed to receive a message during pre process.
+	 * @throws ClassNotFoundException 
+	 * @throws CommitValueException 
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException, CommitValueException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		// Runs the following part of the protocol:
+		//	IF NOT VALID_PARAMS(G,q,g0)
+	    //    REPORT ERROR and HALT.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+
+		this.dlog = dlog;
+		this.random = random;
+		
+		//read the default statistical parameter used in sigma protocols from a configuration file.
+		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
+		int t = Integer.parseInt(statisticalParameter);
+		
+		//Create the underlying ZKPOK
+		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), random);
+		
+		//The preprocess phase is executed once, and its output is used by all the batches.
+		preprocessOutput = OTFullSimSenderPreprocessUtil.preProcess(channel, dlog, zkVerifier);
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol for all the OTs of the batch.<p>
+	 *	"WAIT for message (gi,hi) for i=1,...,m from R<p>
+	 *	For every i=1,...,m:<p>
+	 *	COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)<p>
+	 *	COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)<p>
+	 *	In the byte array scenario:<p>
+	 *		COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)<p>
+	 *		COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)<p>
+	 *	In the GroupElement scenario:<p>
+	 *		COMPUTE ci0 = xi0 * vi0<p>
+	 *		COMPUTE ci1 = xi1 * vi1<p>
+	 *	SEND (ui0,ci0) and (ui1,ci1) for i=1,...,m to R in one message<p>
+	 *	OUTPUT nothing"<p>
+	 * @return null, this protocol has no output.
+	 * @throws CheatAttemptException if the receiver's message is not valid.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		int size = OTBatchDDHUtil.getNumOfInputs(input);
+		
+		//Wait for message from R
+		ArrayList<OTRGroupElementPairMsg> tuples = waitForMessageFromReceiver(channel).getTuples();
+		if (tuples.size() != size){
+			throw new CheatAttemptException("the number of tuples should be equal to the number of inputs");
+		}
+		
+		ArrayList<GroupElementSendableData> gData = new ArrayList<GroupElementSendableData>(size);
+		ArrayList<GroupElementSendableData> hData = new ArrayList<GroupElementSendableData>(size);
+		for (int i = 0; i < size; i++){
+			gData.add(tuples.get(i).getFirstGE());
+			hData.add(tuples.get(i).getSecondGE());
+		}
+		GroupElement[] g = OTBatchDDHUtil.reconstructElements(dlog, gData, "g");
+		GroupElement[] h = OTBatchDDHUtil.reconstructElements(dlog, hData, "h");
+		
+		//COMPUTE (ui0,vi0) = RAND(g0,gi,h0,hi)
+		//COMPUTE (ui1,vi1) = RAND(g1,gi,h1,hi)
+		//RAND(w,x,y,z) samples s,t and outputs u = w^s * y^t, v = x^s * z^t. 
+		//w and y are fixed, so u is computed with precomputed values.
+		BigInteger[] s0 = OTBatchDDHUtil.sampleExponents(dlog, size, random);
+		BigInteger[] t0 = OTBatchDDHUtil.sampleExponents(dlog, size, random);
+		BigInteger[] s1 = OTBatchDDHUtil.sampleExponents(dlog, size, random);
+		BigInteger[] t1 = OTBatchDDHUtil.sampleExponents(dlog, size, random);
+		GroupElement[] g0S0 = OTBatchDDHUtil.exponentiateFixedBase(dlog, preprocessOutput.getG0(), s0);
+		GroupElement[] h0T0 = OTBatchDDHUtil.exponentiateFixedBase(dlog, preprocessOutput.getH0(), t0);
+		GroupElement[] g1S1 = OTBatchDDHUtil.exponentiateFixedBase(dlog, preprocessOutput.getG1(), s1);
+		GroupElement[] h1T1 = OTBatchDDHUtil.exponentiateFixedBase(dlog, preprocessOutput.getH1(), t1);
+		
+		GroupElement[] u0 = new GroupElement[size];
+		GroupElement[] u1 = new GroupElement[size];
+		GroupElement[] v0 = new GroupElement[size];
+		GroupElement[] v1 = new GroupElement[size];
+		for (int i = 0; i < size; i++){
+			GroupElement[] bases = new GroupElement[]{g[i], h[i]};
+			u0[i] = dlog.multiplyGroupElements(g0S0[i], h0T0[i]);
+			u1[i] = dlog.multiplyGroupElements(g1S1[i], h1T1[i]);
+			v0[i] = dlog.simultaneousMultipleExponentiations(bases, new BigInteger[]{s0[i], t0[i]});
+			v1[i] = dlog.simultaneousMultipleExponentiations(bases, new BigInteger[]{s1[i], t1[i]});
+		}
+		
+		//Compute ci0, ci1.
+		OTSMsg messageToSend = computeMsg(input, u0, u1, v0, v1);
+		
+		//Send the tuples to the receiver.
+		sendTupleToReceiver(channel, messageToSend);
+		
+		return null;//should not return any data
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for message (gi,hi) for i=1,...,m from R"
+	 * @param channel
+	 * @return the received message.
+	 * @throws ClassNotFoundException 
+	 * @throws IOException if failed to receive a message.
+	 */
+	private OTRGroupElementPairBatchMsg waitForMessageFromReceiver(Channel channel) throws ClassNotFoundException, IOException{
+		Serializable message = null;
+		try {
+			message = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTRGroupElementPairBatchMsg)){
+			throw new IllegalArgumentException("The received message should be an instance of OTRGroupElementPairBatchMsg");
+		}
+		return (OTRGroupElementPairBatchMsg) message;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "In the byte array scenario:
+	 *		COMPUTE ci0 = xi0 XOR KDF(|xi0|,vi0)
+	 *		COMPUTE ci1 = xi1 XOR KDF(|xi1|,vi1)
+	 *	In the GroupElement scenario:
+	 *		COMPUTE ci0 = xi0 * vi0
+	 *		COMPUTE ci1 = xi1 * vi1"
+	 * @param input
+	 * @param u0
+	 * @param u1
+	 * @param v0
+	 * @param v1
+	 * @return the tuples (ui0, ci0, ui1, ci1) to send to the receiver.
+	 */
+	protected abstract OTSMsg computeMsg(OTBatchSInput input, GroupElement[] u0, GroupElement[] u1, GroupElement[] v0, GroupElement[] v1);
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "SEND (ui0,ci0) and (ui1,ci1) for i=1,...,m to R in one message"
+	 * @param channel
+	 * @param message to send to the receiver
+	 * @throws IOException if failed to send the message.
+	 */
+	private void sendTupleToReceiver(Channel channel, OTSMsg message) throws IOException {
+		try {
+			//Send the message by the channel.
+			channel.send(message);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}	
+	}
+}
@@ -0,0 +1,93 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.oneSidedSimulation;
+
+import java.security.SecureRandom;
+
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.OneSidedSimulation;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * Concrete class for batch OT with one sided simulation sender ON BYTE ARRAY.<p>
+ * This class derived from OTOneSidedSimDDHBatchSenderAbs and implements the functionality 
+ * related to the byte array inputs.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTOneSidedSimDDHBatchOnByteArraySender extends OTOneSidedSimDDHBatchSenderAbs implements OneSidedSimulation{
+	private KeyDerivationFunction kdf; //Used in the calculation.
+	
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom.
+	 */
+	public OTOneSidedSimDDHBatchOnByteArraySender(){
+		super();
+		try {
+			this.kdf = KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))");
+		} catch (FactoriesException e) {
+			// will not occur since the given KDF name is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup, kdf and random.
+	 * @param dlog must be DDH secure.
+	 * @param kdf
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is invalid.
+	 */
+	public OTOneSidedSimDDHBatchOnByteArraySender(DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException{
+		
+		super(dlog, random);
+		this.kdf = kdf;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "COMPUTE:
+	 *	*	ci0 = xi0 XOR KDF(|xi0|,ki0)
+	 *	*	ci1 = xi1 XOR KDF(|xi1|,ki1)"
+	 * @param input MUST be an instance of OTBatchOnByteArraySInput.
+	 * @param w0
+	 * @param w1
+	 * @param k0
+	 * @param k1
+	 * @return the tuples (wi0, ci0, wi1, ci1) to send to the receiver.
+	 */
+	protected OTSMsg computeMsg(OTBatchSInput input, GroupElement[] w0, GroupElement[] w1, GroupElement[] k0, GroupElement[] k1) {
+		return OTBatchDDHUtil.computeByteArrayMsg(dlog, kdf, input, w0, w1, k0, k1);
+	}
+}
@@ -0,0 +1,85 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.oneSidedSimulation;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.securityLevel.OneSidedSimulation;
+
+/**
+ * Concrete class for batch OT with one sided simulation receiver ON GROUP ELEMENT.<p>
+ * This class derived from OTOneSidedSimDDHBatchReceiverAbs and implements the functionality 
+ * related to the GroupElement outputs.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTOneSidedSimDDHBatchOnGroupElementReceiver extends OTOneSidedSimDDHBatchReceiverAbs implements OneSidedSimulation{
+	
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom.
+	 */
+	public OTOneSidedSimDDHBatchOnGroupElementReceiver(){
+		super();
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup and random.
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is invalid.
+	 */
+	public OTOneSidedSimDDHBatchOnGroupElementReceiver(DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException{
+		
+		super(dlog, random);
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "IF  NOT 
+	 *		1. wi0, wi1, ci0, ci1 in the DlogGroup
+	 *	   REPORT ERROR
+	 * COMPUTE (kiSigma)^(-1) = (wiSigma)^(-betai)
+	 * OUTPUT  xiSigma = ciSigma * (kiSigma)^(-1)"
+	 * @param sigmaArr input of the protocol
+	 * @param betaArr random values sampled in the protocol
+	 * @param message received from the sender
+	 * @return OTBatchOnGroupElementROutput contains the xiSigma values.
+	 * @throws CheatAttemptException if there was a cheat attempt during the execution of the protocol.
+	 */
+	protected OTBatchROutput checkMessgeAndComputeX(ArrayList<Byte> sigmaArr, BigInteger[] betaArr, OTSMsg message) throws CheatAttemptException {
+		return OTBatchDDHUtil.computeGroupElementOutput(dlog, sigmaArr, betaArr, message);
+	}
+}
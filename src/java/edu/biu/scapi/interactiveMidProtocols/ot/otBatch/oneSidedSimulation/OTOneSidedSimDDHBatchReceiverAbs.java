@@ -0,0 +1,297 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.oneSidedSimulation;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementQuadBatchMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverInput;
+import edu.biu.scapi.interactiveMidProtocols.zeroKnowledge.ZKPOKFromSigmaCmtPedersenProver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Abstract class for batch OT with one sided simulation receiver.<p>
+ * This is the batch version of the protocol of OTOneSidedSimDDHReceiverAbs: all the OTs of the batch are computed with one message 
+ * from the receiver, one proof of knowledge and one message from the sender. The tuples of the receiver share the same x = g^alpha, 
+ * so the receiver proves the knowledge of alpha once for the whole batch and computes the values g^(alpha*betai) as x^betai 
+ * with one precomputed table of x.<p>
+ * Batch OT with one sided simulation has two modes: one is on ByteArray and the second is on GroupElement.
+ * The difference is in the input and output types and the way to process them. 
+ * In spite that, there is a common behavior for both modes which this class implements.<p>
+ * 
+ * For more information see Protocol 7.3 page 185 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell.<p>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.3 of pseudo codes document at {@link http://crypto.biu.ac.il/scapi/SDK_Pseudocode_SCAPI_V2.0.0.pdf}.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTOneSidedSimDDHBatchReceiverAbs implements OTBatchReceiver{
+
+	/*	
+	 	This class runs the following protocol:
+		 	IF NOT VALID_PARAMS(G,q,g)
+	    		REPORT ERROR and HALT
+			SAMPLE a random value alpha in {0, . . . , q-1} and COMPUTE x = g^alpha
+			For every i=1,...,m:
+			SAMPLE random values betai, gammai in {0, . . . , q-1} 
+			COMPUTE ai as follows:
+			1.	If sigmai = 0 then ai = (x, g^betai, g^(alpha*betai), g^gammai)
+			2.	If sigmai = 1 then ai = (x, g^betai, g^gammai, g^(alpha*betai))
+			SEND x and the tuples ai for i=1,...,m to S in one message
+			Run the prover in ZKPOK_FROM_SIGMA with Sigma protocol SIGMA_DLOG. Use common input x and private input alpha.
+			WAIT for message pairs (wi0, ci0) and (wi1, ci1) for i=1,...,m from S
+			In ByteArray scenario:
+				IF  NOT 
+					1. wi0, wi1 in the DlogGroup, AND
+					2. ci0, ci1 are binary strings of the same length
+				   REPORT ERROR
+				COMPUTE kiSigma = (wiSigma)^betai
+				OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,kiSigma)
+			In GroupElement scenario:
+				IF  NOT 
+					1. wi0, wi1, ci0, ci1 in the DlogGroup
+				   REPORT ERROR
+				COMPUTE (kiSigma)^(-1) = (wiSigma)^(-betai)
+				OUTPUT  xiSigma = ciSigma * (kiSigma)^(-1)
+	*/	
+	
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	private BigInteger qMinusOne; 
+	
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom.
+	 */
+	OTOneSidedSimDDHBatchReceiverAbs() {
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		
+		try {
+			doConstruct(dlog, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup and random.
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 */
+	OTOneSidedSimDDHBatchReceiverAbs(DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException{
+		
+		doConstruct(dlog, random);
+	}
+	
+	/**
+	 * Sets the given members.
+	 * Runs the following line from the protocol:
+	 * "IF NOT VALID_PARAMS(G,q,g)
+	 *   		REPORT ERROR and HALT".
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 */
+	private void doConstruct(DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		//Check that the given dlog is valid.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+		
+		this.dlog = dlog;
+		this.random = random;
+		qMinusOne =  dlog.getOrder().subtract(BigInteger.ONE);
+		
+		// This protocol has no pre process stage.
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol for all the OTs of the batch.<p>
+	 *	"SAMPLE a random value alpha in {0, . . . , q-1} and COMPUTE x = g^alpha<p>
+	 *	For every i=1,...,m:<p>
+	 *	SAMPLE random values betai, gammai in {0, . . . , q-1} <p>
+	 *	COMPUTE ai as follows:<p>
+	 *	1.	If sigmai = 0 then ai = (x, g^betai, g^(alpha*betai), g^gammai)<p>
+	 *	2.	If sigmai = 1 then ai = (x, g^betai, g^gammai, g^(alpha*betai))<p>
+	 *	SEND x and the tuples ai for i=1,...,m to S in one message<p>
+	 *	Run the prover in ZKPOK_FROM_SIGMA with Sigma protocol SIGMA_DLOG. Use common input x and private input alpha.<p>
+	 *	WAIT for message pairs (wi0, ci0) and (wi1, ci1) for i=1,...,m from S<p>
+	 *	In ByteArray scenario:<p>
+	 *		IF  NOT <p>
+	 *			1. wi0, wi1 in the DlogGroup, AND<p>
+	 *			2. ci0, ci1 are binary strings of the same length<p>
+	 *			  REPORT ERROR<p>
+	 *		COMPUTE kiSigma = (wiSigma)^betai<p>
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,kiSigma)<p>
+	 *	In GroupElement scenario:<p>
+	 *		IF  NOT <p>
+	 *			1. wi0, wi1, ci0, ci1 in the DlogGroup<p>
+	 *			  REPORT ERROR<p>
+	 *		COMPUTE (kiSigma)^(-1) = (wiSigma)^(-betai)<p>
+	 *		OUTPUT  xiSigma = ciSigma * (kiSigma)^(-1)"<p>
+	 * @param input MUST be an instance of OTBatchRBasicInput.
+	 * @return OTBatchROutput, the output of the protocol.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException{
+		ArrayList<Byte> sigmaArr = OTBatchDDHUtil.getSigmaArr(input);
+		
+		//Sample a random value alpha in [0, . . . , q-1] and compute x = g^alpha.
+		BigInteger alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		GroupElement x = dlog.exponentiateWithPreComputedValues(dlog.getGenerator(), alpha);
+		
+		//Sample random values betai and compute the tuples for the sender.
+		BigInteger[] betaArr = OTBatchDDHUtil.sampleExponents(dlog, sigmaArr.size(), random);
+		OTRGroupElementQuadBatchMsg a = OTBatchDDHUtil.computeQuadBatch(dlog, sigmaArr, x, betaArr, random);
+		
+		//Send the tuples to the sender.
+		sendTupleToSender(channel, a);
+		
+		//Run the prover in ZKPOK_FROM_SIGMA with Sigma protocol SIGMA_DLOG, once for all the tuples.
+		runZKPOK(channel, x, alpha);
+		
+		//Wait for message from sender.
+		OTSMsg message = waitForMessageFromSender(channel);
+		
+		//Compute the final calculations to get xiSigma.
+		return checkMessgeAndComputeX(sigmaArr, betaArr, message);	
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "SEND x and the tuples ai for i=1,...,m to S in one message"
+	 * @param channel 
+	 * @param a the tuples to send to the sender.
+	 * @throws IOException 
+	 */
+	private void sendTupleToSender(Channel channel, OTRGroupElementQuadBatchMsg a) throws IOException {
+		try {
+			channel.send(a);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "Run the prover in ZKPOK_FROM_SIGMA with Sigma protocol SIGMA_DLOG. 
+	 * Use common input x and private input alpha."
+	 * @param channel
+	 * @param x g^alpha
+	 * @param alpha
+	 * @throws IOException
+	 * @throws CheatAttemptException
+	 * @throws ClassNotFoundException
+	 */
+	private void runZKPOK(Channel channel, GroupElement x, BigInteger alpha) throws IOException, CheatAttemptException, ClassNotFoundException {
+		//read the default statistical parameter used in sigma protocols from a configuration file.
+		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
+		int t = Integer.parseInt(statisticalParameter);
+				
+		//Creates the underlying ZKPOK
+		ZKPOKFromSigmaCmtPedersenProver zkProver = new ZKPOKFromSigmaCmtPedersenProver(channel, new SigmaDlogProverComputation(dlog, t, random));
+		
+		zkProver.prove(new SigmaDlogProverInput(x, alpha));
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for message pairs (wi0, ci0) and (wi1, ci1) for i=1,...,m from S"
+	 * @param channel 
+	 * @return OTSMsg contains the tuples (wi0, ci0, wi1, ci1)
+	 * @throws IOException if failed to receive.
+	 * @throws ClassNotFoundException
+	 */
+	private OTSMsg waitForMessageFromSender(Channel channel) throws IOException, ClassNotFoundException {
+		Serializable message = null;
+		try {
+			message =  channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTSMsg)){
+			throw new IllegalArgumentException("the given message should be an instance of OTSMsg");
+		}
+		return (OTSMsg) message;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "In ByteArray scenario:
+	 *		IF  NOT 
+	 *			1. wi0, wi1 in the DlogGroup, AND
+	 *			2. ci0, ci1 are binary strings of the same length
+	 *		   REPORT ERROR
+	 *		COMPUTE kiSigma = (wiSigma)^betai
+	 *		OUTPUT  xiSigma = ciSigma XOR KDF(|ciSigma|,kiSigma)
+	 *	In GroupElement scenario:
+	 *		IF  NOT 
+	 *			1. wi0, wi1, ci0, ci1 in the DlogGroup
+	 *		   REPORT ERROR
+	 *		COMPUTE (kiSigma)^(-1) = (wiSigma)^(-betai)
+	 *		OUTPUT  xiSigma = ciSigma * (kiSigma)^(-1)"
+	 * @param sigmaArr input of the protocol
+	 * @param betaArr random values sampled in the protocol
+	 * @param message received from the sender
+	 * @return OTBatchROutput contains the xiSigma values.
+	 * @throws CheatAttemptException 
+	 */
+	protected abstract OTBatchROutput checkMessgeAndComputeX(ArrayList<Byte> sigmaArr, BigInteger[] betaArr, OTSMsg message) throws CheatAttemptException;
+}
@@ -0,0 +1,188 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+
+/**
+ * Abstract class for the receiver of the pure java OT extensions. <p>
+ * 
+ * The receiver plays the sender in KAPPA base OTs with random seeds k_i^0, k_i^1. 
+ * In each transfer, it sends the columns u_i = G(k_i^0) XOR G(k_i^1) XOR r of the extension matrix, where r are its choice bits,
+ * and transposes the matrix t_i = G(k_i^0). The mask of the chosen input of the j-th OT is H(t_j).<p>
+ * 
+ * This class implements the protocol without a consistency check of the columns; the derived classes decide on the check.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTExtensionJavaReceiverAbs implements OTBatchReceiver{
+	
+	protected SecureRandom random;
+	private OTExtensionUtil.Prg[] prgs0;			//Expand the seeds k_i^0.
+	private OTExtensionUtil.Prg[] prgs1;			//Expand the seeds k_i^1.
+	private OTExtensionUtil.Hash hash;
+	private long numOfDoneOts;						//The number of OTs that were done so far, used as the tweak of the hash.
+	
+	/**
+	 * Runs the base OTs as the sender, with random seeds.
+	 * @param channel Used to communicate with the sender.
+	 * @param baseOT The sender of the base OTs. It should accept byte array inputs.
+	 * @param random
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws InvalidDlogGroupException if the base OT got an invalid DlogGroup.
+	 */
+	OTExtensionJavaReceiverAbs(Channel channel, OTSender baseOT, SecureRandom random) throws CheatAttemptException, IOException, ClassNotFoundException, InvalidDlogGroupException{
+		this.random = random;
+		prgs0 = new OTExtensionUtil.Prg[OTExtensionUtil.KAPPA];
+		prgs1 = new OTExtensionUtil.Prg[OTExtensionUtil.KAPPA];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			byte[] k0 = new byte[OTExtensionUtil.SEED_SIZE];
+			byte[] k1 = new byte[OTExtensionUtil.SEED_SIZE];
+			random.nextBytes(k0);
+			random.nextBytes(k1);
+			baseOT.transfer(channel, new OTOnByteArraySInput(k0, k1));
+			prgs0[i] = new OTExtensionUtil.Prg(k0, random);
+			prgs1[i] = new OTExtensionUtil.Prg(k1, random);
+		}
+		hash = new OTExtensionUtil.Hash(random);
+	}
+	
+	/**
+	 * @return the number of extra OTs that the consistency check uses.
+	 */
+	abstract int getNumOfCheckOts();
+	
+	/**
+	 * Proves to the sender that the same choice bits were used in all the columns of the extension matrix.
+	 * @param channel Used to communicate with the sender.
+	 * @param tRows The rows t_j of the matrix.
+	 * @param r The choice bits, including the random bits of the extra OTs.
+	 * @param numOfRows The number of rows of the matrix.
+	 */
+	abstract void proveConsistency(Channel channel, long[] tRows, long[] r, int numOfRows) throws IOException, ClassNotFoundException;
+	
+	/**
+	 * Runs the OT extension on the given input.<p>
+	 * The version of the OT extension is determined by the type of the input, in the same way of {@link OTSemiHonestExtensionReceiver}.
+	 * @param channel Used to communicate with the sender.
+	 * @param input An instance of OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput. 
+	 * The element size should be a multiple of 8.
+	 * @return OTOnByteArrayROutput that holds all the chosen elements serially.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException {
+		if (!(input instanceof OTExtensionGeneralRInput) && !(input instanceof OTExtensionCorrelatedRInput) && !(input instanceof OTExtensionRandomRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralRInput or OTExtensionCorrelatedRInput or OTExtensionRandomRInput.");
+		}
+		byte[] sigmaArr = ((OTExtensionRInput) input).getSigmaArr();
+		int bitLength = ((OTExtensionRInput) input).getElementSize();
+		if (bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the element size should be a positive multiple of 8");
+		}
+		int numOfOts = sigmaArr.length;
+		int elementSize = bitLength / 8;
+		int numOfRows = OTExtensionUtil.getNumOfRows(numOfOts + getNumOfCheckOts());
+		int numOfLongs = numOfRows / 64;
+		
+		//The choice bits of the extra rows are random.
+		long[] r = OTExtensionUtil.pack(sigmaArr, numOfLongs);
+		for (int j = numOfOts; j < numOfRows; j++){
+			r[j >>> 6] |= ((long) random.nextInt(2)) << (j & 63);
+		}
+		
+		//t_i = G(k_i^0), u_i = t_i XOR G(k_i^1) XOR r.
+		long[][] t = new long[OTExtensionUtil.KAPPA][numOfLongs];
+		long[] u = new long[OTExtensionUtil.KAPPA * numOfLongs];
+		long[] g = new long[numOfLongs];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			prgs0[i].next(t[i], 0, numOfLongs);
+			prgs1[i].next(g, 0, numOfLongs);
+			for (int w = 0; w < numOfLongs; w++){
+				u[i * numOfLongs + w] = t[i][w] ^ g[w] ^ r[w];
+			}
+		}
+		channel.send(u);
+		long[] rows = OTExtensionUtil.transpose(t, numOfRows);
+		proveConsistency(channel, rows, r, numOfRows);
+		
+		//The mask of the chosen element is H(t_j).
+		byte[] output = new byte[numOfOts * elementSize];
+		for (int j = 0; j < numOfOts; j++){
+			hash.hash(rows, j, null, numOfDoneOts + j, output, j * elementSize, elementSize);
+		}
+		
+		if (input instanceof OTExtensionGeneralRInput){
+			//x_(r_j) = y_(r_j) XOR H(t_j).
+			byte[] y0 = receiveElements(channel, output.length);
+			byte[] y1 = receiveElements(channel, output.length);
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -OTExtensionUtil.getBit(r, j);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					output[k] ^= (y0[k] & ~mask) | (y1[k] & mask);
+				}
+			}
+		} else if (input instanceof OTExtensionCorrelatedRInput){
+			//x_0 = H(t_j), x_1 = y XOR H(t_j).
+			byte[] y = receiveElements(channel, output.length);
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -OTExtensionUtil.getBit(r, j);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					output[k] ^= y[k] & mask;
+				}
+			}
+		}
+		numOfDoneOts += numOfOts;
+		
+		return new OTOnByteArrayROutput(output);
+	}
+	
+	/*
+	 * Receives the masked elements from the sender.
+	 */
+	private byte[] receiveElements(Channel channel, int length) throws IOException, ClassNotFoundException, CheatAttemptException{
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be an instance of byte[]");
+		}
+		if (((byte[]) message).length != length){
+			throw new CheatAttemptException("the sender should send " + length + " bytes");
+		}
+		return (byte[]) message;
+	}
+}
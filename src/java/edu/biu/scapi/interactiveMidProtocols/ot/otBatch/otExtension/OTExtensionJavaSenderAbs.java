@@ -0,0 +1,231 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+
+/**
+ * Abstract class for the sender of the pure java OT extensions. <p>
+ * 
+ * The sender plays the receiver in KAPPA base OTs with random choice bits s, and gets the seeds k_i^(s_i) of the receiver. 
+ * In each transfer, the receiver sends the columns u_i = G(k_i^0) XOR G(k_i^1) XOR r of the extension matrix, where r are its choice bits. 
+ * The sender computes q_i = G(k_i^(s_i)) XOR s_i*u_i and transposes the matrix, so that each row is q_j = t_j XOR r_j*s. 
+ * The masks of the inputs of the j-th OT are H(q_j) and H(q_j XOR s), where the receiver knows only H(t_j).<p>
+ * 
+ * This class implements the protocol without a consistency check of the columns; the derived classes decide on the check.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTExtensionJavaSenderAbs implements OTBatchSender{
+	
+	protected SecureRandom random;
+	private long[] s;								//The choice bits of the base OTs.
+	private OTExtensionUtil.Prg[] prgs;				//Expand the seeds that were received in the base OTs.
+	private OTExtensionUtil.Hash hash;
+	private long numOfDoneOts;						//The number of OTs that were done so far, used as the tweak of the hash.
+	
+	/**
+	 * Runs the base OTs as the receiver, with random choice bits.
+	 * @param channel Used to communicate with the receiver.
+	 * @param baseOT The receiver of the base OTs. Its messages should be byte arrays.
+	 * @param random
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 */
+	OTExtensionJavaSenderAbs(Channel channel, OTReceiver baseOT, SecureRandom random) throws CheatAttemptException, IOException, ClassNotFoundException{
+		this.random = random;
+		byte[] sBits = new byte[OTExtensionUtil.KAPPA];
+		prgs = new OTExtensionUtil.Prg[OTExtensionUtil.KAPPA];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			sBits[i] = (byte) random.nextInt(2);
+			OTOnByteArrayROutput output = (OTOnByteArrayROutput) baseOT.transfer(channel, new OTRBasicInput(sBits[i]));
+			if (output.getXSigma().length != OTExtensionUtil.SEED_SIZE){
+				throw new CheatAttemptException("the seeds of the base OTs should be " + OTExtensionUtil.SEED_SIZE + " bytes long");
+			}
+			prgs[i] = new OTExtensionUtil.Prg(output.getXSigma(), random);
+		}
+		s = OTExtensionUtil.pack(sBits, 2);
+		hash = new OTExtensionUtil.Hash(random);
+	}
+	
+	/**
+	 * @return the number of extra OTs that the consistency check uses.
+	 */
+	abstract int getNumOfCheckOts();
+	
+	/**
+	 * Checks that the receiver used the same choice bits in all the columns of the extension matrix.
+	 * @param channel Used to communicate with the receiver.
+	 * @param qRows The rows q_j of the matrix.
+	 * @param s The choice bits of the base OTs.
+	 * @param numOfRows The number of rows of the matrix.
+	 * @throws CheatAttemptException if the receiver did not use the same choice bits.
+	 */
+	abstract void checkConsistency(Channel channel, long[] qRows, long[] s, int numOfRows) throws CheatAttemptException, IOException, ClassNotFoundException;
+	
+	/**
+	 * Runs the OT extension on the given input.<p>
+	 * The version of the OT extension is determined by the type of the input, in the same way of {@link OTSemiHonestExtensionSender}. 
+	 * The general version has no output and returns null.
+	 * @param channel Used to communicate with the receiver.
+	 * @param input An instance of OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput. 
+	 * The elements should be a whole number of bytes.
+	 * @throws CheatAttemptException if the consistency check failed.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException, CheatAttemptException {
+		
+		// In case the given input is general input.
+		if (input instanceof OTExtensionGeneralSInput){
+			byte[] x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			byte[] x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			int numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			if (x0.length != x1.length){
+				throw new IllegalArgumentException("x0 and x1 should have the same length");
+			}
+			int elementSize = getElementSize(x0.length, numOfOts);
+			long[] rows = extend(channel, numOfOts);
+			
+			//Send y0 = x0 XOR H(q_j), y1 = x1 XOR H(q_j XOR s).
+			byte[] y0 = new byte[x0.length];
+			byte[] y1 = new byte[x1.length];
+			for (int j = 0; j < numOfOts; j++){
+				hash.hash(rows, j, null, numOfDoneOts + j, y0, j * elementSize, elementSize);
+				hash.hash(rows, j, s, numOfDoneOts + j, y1, j * elementSize, elementSize);
+			}
+			for (int k = 0; k < x0.length; k++){
+				y0[k] ^= x0[k];
+				y1[k] ^= x1[k];
+			}
+			channel.send(y0);
+			channel.send(y1);
+			numOfDoneOts += numOfOts;
+			
+			//This version has no output. Return null.
+			return null;
+		
+		//In case the given input is correlated input.
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			byte[] delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			int numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			int elementSize = getElementSize(delta.length, numOfOts);
+			long[] rows = extend(channel, numOfOts);
+			
+			//x0 = H(q_j), x1 = x0 XOR delta. Send y = x1 XOR H(q_j XOR s).
+			byte[] x0 = new byte[delta.length];
+			byte[] x1 = new byte[delta.length];
+			byte[] y = new byte[delta.length];
+			for (int j = 0; j < numOfOts; j++){
+				hash.hash(rows, j, null, numOfDoneOts + j, x0, j * elementSize, elementSize);
+				hash.hash(rows, j, s, numOfDoneOts + j, y, j * elementSize, elementSize);
+			}
+			for (int k = 0; k < delta.length; k++){
+				x1[k] = (byte) (x0[k] ^ delta[k]);
+				y[k] ^= x1[k];
+			}
+			channel.send(y);
+			numOfDoneOts += numOfOts;
+			
+			return new OTExtensionSOutput(x0, x1);
+		
+		//In case the given input is random input.
+		} else if (input instanceof OTExtensionRandomSInput){
+			int numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			int bitLength = ((OTExtensionRandomSInput) input).getBitLength();
+			if (bitLength <= 0 || bitLength % 8 != 0){
+				throw new IllegalArgumentException("the bit length should be a positive multiple of 8");
+			}
+			int elementSize = bitLength / 8;
+			long[] rows = extend(channel, numOfOts);
+			
+			//x0 = H(q_j), x1 = H(q_j XOR s). Nothing is sent.
+			byte[] x0 = new byte[numOfOts * elementSize];
+			byte[] x1 = new byte[numOfOts * elementSize];
+			for (int j = 0; j < numOfOts; j++){
+				hash.hash(rows, j, null, numOfDoneOts + j, x0, j * elementSize, elementSize);
+				hash.hash(rows, j, s, numOfDoneOts + j, x1, j * elementSize, elementSize);
+			}
+			numOfDoneOts += numOfOts;
+			
+			return new OTExtensionSOutput(x0, x1);
+		
+		//If input is not instance of the above inputs, throw Exception.
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+	}
+	
+	/*
+	 * Returns the size of each element in bytes.
+	 */
+	private int getElementSize(int length, int numOfOts){
+		if (numOfOts <= 0 || length == 0 || length % numOfOts != 0){
+			throw new IllegalArgumentException("the inputs should hold numOfOts elements of the same size");
+		}
+		return length / numOfOts;
+	}
+	
+	/*
+	 * Receives the columns u_i from the receiver, computes the matrix q and returns its rows.
+	 */
+	private long[] extend(Channel channel, int numOfOts) throws IOException, ClassNotFoundException, CheatAttemptException{
+		int numOfRows = OTExtensionUtil.getNumOfRows(numOfOts + getNumOfCheckOts());
+		int numOfLongs = numOfRows / 64;
+		
+		Serializable message = channel.receive();
+		if (!(message instanceof long[])){
+			throw new IllegalArgumentException("The received message should be an instance of long[]");
+		}
+		long[] u = (long[]) message;
+		if (u.length != OTExtensionUtil.KAPPA * numOfLongs){
+			throw new CheatAttemptException("the receiver should send " + OTExtensionUtil.KAPPA + " columns of " + numOfRows + " bits");
+		}
+		
+		//q_i = G(k_i^(s_i)) XOR s_i*u_i.
+		long[][] q = new long[OTExtensionUtil.KAPPA][numOfLongs];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			prgs[i].next(q[i], 0, numOfLongs);
+			long mask = -OTExtensionUtil.getBit(s, i);
+			for (int w = 0; w < numOfLongs; w++){
+				q[i][w] ^= u[i * numOfLongs + w] & mask;
+			}
+		}
+		long[] rows = OTExtensionUtil.transpose(q, numOfRows);
+		checkConsistency(channel, rows, s, numOfRows);
+		return rows;
+	}
+}
@@ -0,0 +1,214 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+
+/**
+ * A concrete class for an OT extension receiver that uses random OTs that were computed ahead of time. <P>
+ * 
+ * The random OTs are computed by a given OT extension receiver on OTExtensionRandomRInput with random choice bits c, and kept in a bounded store. 
+ * In the online transfer, the receiver sends e = sigma XOR c and outputs y_sigma XOR r_c. See {@link OTExtensionPreprocessedSender} for more details.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionPreprocessedReceiver implements OTBatchReceiver{
+	
+	private OTBatchReceiver randomOT;	//Computes the random OTs.
+	private int elementSize;			//The size of each element, in bytes.
+	private SecureRandom random;		//Chooses the choice bits of the random OTs.
+	private RandomOTStore store;		//Holds c and r_c of each stored OT.
+	
+	/**
+	 * Constructor that sets the underlying OT extension and the size of the store.
+	 * @param randomOT An OT extension receiver that accepts OTExtensionRandomRInput, for example {@link OTIKNPExtensionReceiver}.
+	 * @param bitLength The size of each element, in bits. It should be a multiple of 8.
+	 * @param capacity The maximal number of stored OTs.
+	 * @param random Chooses the choice bits of the random OTs.
+	 */
+	public OTExtensionPreprocessedReceiver(OTBatchReceiver randomOT, int bitLength, int capacity, SecureRandom random){
+		if (bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the bit length should be a positive multiple of 8");
+		}
+		this.randomOT = randomOT;
+		this.random = random;
+		elementSize = bitLength / 8;
+		store = new RandomOTStore(capacity, 1, elementSize);
+	}
+	
+	/**
+	 * Constructor that sets the underlying OT extension and the size of the store, and uses a default SecureRandom.
+	 * @param randomOT An OT extension receiver that accepts OTExtensionRandomRInput, for example {@link OTIKNPExtensionReceiver}.
+	 * @param bitLength The size of each element, in bits. It should be a multiple of 8.
+	 * @param capacity The maximal number of stored OTs.
+	 */
+	public OTExtensionPreprocessedReceiver(OTBatchReceiver randomOT, int bitLength, int capacity){
+		this(randomOT, bitLength, capacity, new SecureRandom());
+	}
+	
+	/**
+	 * Computes random OTs by the underlying OT extension and adds them to the store.<p>
+	 * The sender should call {@link OTExtensionPreprocessedSender#preprocess(Channel, int)} with the same number of OTs.
+	 * @param channel Used to communicate with the sender.
+	 * @param numOfOts The number of OTs to compute.
+	 * @throws IllegalStateException if the store cannot hold numOfOts more OTs.
+	 */
+	public void preprocess(Channel channel, int numOfOts) throws CheatAttemptException, IOException, ClassNotFoundException{
+		if (numOfOts > store.getCapacity() - store.size()){
+			throw new IllegalStateException("the store can hold " + (store.getCapacity() - store.size()) + " more OTs");
+		}
+		if (numOfOts <= 0){
+			return;
+		}
+		byte[][] ots = computeOts(channel, numOfOts);
+		store.add(numOfOts, ots[0], ots[1]);
+	}
+	
+	/**
+	 * Fills the store up to its capacity.
+	 * @param channel Used to communicate with the sender.
+	 */
+	public void fill(Channel channel) throws CheatAttemptException, IOException, ClassNotFoundException{
+		preprocess(channel, store.getCapacity() - store.size());
+	}
+	
+	/**
+	 * @return the number of stored OTs.
+	 */
+	public int getNumOfStoredOts(){
+		return store.size();
+	}
+	
+	/**
+	 * Runs the OT extension on the given input by stored OTs.<p>
+	 * If the store holds fewer OTs than needed, the missing OTs are computed first by the underlying OT extension, over the given channel.
+	 * @param channel Used to communicate with the sender.
+	 * @param input An instance of OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput, 
+	 * with the element size that was given in the constructor. 
+	 * @return OTOnByteArrayROutput that holds all the chosen elements serially.
+	 * @throws CheatAttemptException if the message of the sender is not of the expected length.
+	 */
+	public OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException {
+		if (!(input instanceof OTExtensionGeneralRInput) && !(input instanceof OTExtensionCorrelatedRInput) && !(input instanceof OTExtensionRandomRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralRInput or OTExtensionCorrelatedRInput or OTExtensionRandomRInput.");
+		}
+		if (((OTExtensionRInput) input).getElementSize() != elementSize * 8){
+			throw new IllegalArgumentException("the element size should be " + elementSize * 8);
+		}
+		byte[] sigmaArr = ((OTExtensionRInput) input).getSigmaArr();
+		int numOfOts = sigmaArr.length;
+		
+		//Take the OTs, after the missing OTs are computed.
+		byte[][] ots;
+		int missing = numOfOts - store.size();
+		if (missing > 0){
+			byte[][] computed = computeOts(channel, missing);
+			byte[][] taken = store.take(store.size());
+			ots = new byte[][]{concat(taken[0], computed[0]), concat(taken[1], computed[1])};
+		} else {
+			ots = store.take(numOfOts);
+		}
+		byte[] c = ots[0];
+		byte[] output = ots[1];
+		
+		//Send the packed bits e = sigma XOR c.
+		byte[] e = new byte[(numOfOts + 7) / 8];
+		for (int j = 0; j < numOfOts; j++){
+			e[j >>> 3] |= ((sigmaArr[j] ^ c[j]) & 1) << (j & 7);
+		}
+		channel.send(e);
+		
+		if (input instanceof OTExtensionRandomRInput){
+			//The sender swaps r_0 and r_1 where e is 1, so x_sigma = r_c.
+			return new OTOnByteArrayROutput(output);
+		
+		} else if (input instanceof OTExtensionGeneralRInput){
+			//x_sigma = y_sigma XOR r_c.
+			byte[] y0 = receiveElements(channel, output.length);
+			byte[] y1 = receiveElements(channel, output.length);
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -(sigmaArr[j] & 1);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					output[k] ^= (y0[k] & ~mask) | (y1[k] & mask);
+				}
+			}
+		} else {
+			//x_0 = r_c, x_1 = y XOR r_c.
+			byte[] y = receiveElements(channel, output.length);
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -(sigmaArr[j] & 1);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					output[k] ^= y[k] & mask;
+				}
+			}
+		}
+		
+		return new OTOnByteArrayROutput(output);
+	}
+	
+	/*
+	 * Computes random OTs with random choice bits by the underlying OT extension.
+	 * Returns the choice bits and the chosen elements.
+	 */
+	private byte[][] computeOts(Channel channel, int numOfOts) throws CheatAttemptException, IOException, ClassNotFoundException{
+		byte[] c = new byte[numOfOts];
+		for (int j = 0; j < numOfOts; j++){
+			c[j] = (byte) random.nextInt(2);
+		}
+		OTOnByteArrayROutput output = (OTOnByteArrayROutput) randomOT.transfer(channel, new OTExtensionRandomRInput(c, elementSize * 8));
+		return new byte[][]{c, output.getXSigma()};
+	}
+	
+	private static byte[] concat(byte[] a, byte[] b){
+		byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+	
+	/*
+	 * Receives the masked elements from the sender.
+	 */
+	private byte[] receiveElements(Channel channel, int length) throws IOException, ClassNotFoundException, CheatAttemptException{
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be an instance of byte[]");
+		}
+		if (((byte[]) message).length != length){
+			throw new CheatAttemptException("the sender should send " + length + " bytes");
+		}
+		return (byte[]) message;
+	}
+}
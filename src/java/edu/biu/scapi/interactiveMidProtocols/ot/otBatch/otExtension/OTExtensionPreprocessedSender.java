@@ -0,0 +1,240 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+
+/**
+ * A concrete class for an OT extension sender that uses random OTs that were computed ahead of time. <P>
+ * 
+ * The random OTs are computed by a given OT extension sender on OTExtensionRandomSInput, and kept in a bounded store. 
+ * In the online transfer, stored random OTs (r0, r1) are turned into OTs on the chosen inputs by the technique of 
+ * "D. Beaver. Precomputing Oblivious Transfer. CRYPTO 1995": <p>
+ * The receiver, that holds (c, r_c), sends e = sigma XOR c, and the sender sends y0 = x0 XOR r_e, y1 = x1 XOR r_(1-e). 
+ * Thus, the online work is a message of one bit for each OT from the receiver, one message from the sender and XOR operations. <p>
+ * 
+ * The three versions of OT extension are chosen by the type of the input, as in {@link OTSemiHonestExtensionSender}. 
+ * The random version only orders each stored OT by the bit of the receiver, and sends nothing. 
+ * The receiver should be an {@link OTExtensionPreprocessedReceiver} with an underlying receiver that matches the underlying sender, 
+ * and both parties should make the same calls in the same order. The security level is the security level of the underlying OT.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionPreprocessedSender implements OTBatchSender{
+	
+	private OTBatchSender randomOT;		//Computes the random OTs.
+	private int elementSize;			//The size of each element, in bytes.
+	private RandomOTStore store;		//Holds r0 and r1 of each stored OT.
+	
+	/**
+	 * Constructor that sets the underlying OT extension and the size of the store.
+	 * @param randomOT An OT extension sender that accepts OTExtensionRandomSInput, for example {@link OTIKNPExtensionSender}.
+	 * @param bitLength The size of each element, in bits. It should be a multiple of 8.
+	 * @param capacity The maximal number of stored OTs.
+	 */
+	public OTExtensionPreprocessedSender(OTBatchSender randomOT, int bitLength, int capacity){
+		if (bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the bit length should be a positive multiple of 8");
+		}
+		this.randomOT = randomOT;
+		elementSize = bitLength / 8;
+		store = new RandomOTStore(capacity, elementSize, elementSize);
+	}
+	
+	/**
+	 * Computes random OTs by the underlying OT extension and adds them to the store.<p>
+	 * The receiver should call {@link OTExtensionPreprocessedReceiver#preprocess(Channel, int)} with the same number of OTs.
+	 * @param channel Used to communicate with the receiver.
+	 * @param numOfOts The number of OTs to compute.
+	 * @throws IllegalStateException if the store cannot hold numOfOts more OTs.
+	 */
+	public void preprocess(Channel channel, int numOfOts) throws ClassNotFoundException, IOException, CheatAttemptException, InvalidDlogGroupException{
+		if (numOfOts > store.getCapacity() - store.size()){
+			throw new IllegalStateException("the store can hold " + (store.getCapacity() - store.size()) + " more OTs");
+		}
+		if (numOfOts <= 0){
+			return;
+		}
+		OTExtensionSOutput output = (OTExtensionSOutput) randomOT.transfer(channel, new OTExtensionRandomSInput(numOfOts, elementSize * 8));
+		store.add(numOfOts, output.getX0Arr(), output.getX1Arr());
+	}
+	
+	/**
+	 * Fills the store up to its capacity.
+	 * @param channel Used to communicate with the receiver.
+	 */
+	public void fill(Channel channel) throws ClassNotFoundException, IOException, CheatAttemptException, InvalidDlogGroupException{
+		preprocess(channel, store.getCapacity() - store.size());
+	}
+	
+	/**
+	 * @return the number of stored OTs.
+	 */
+	public int getNumOfStoredOts(){
+		return store.size();
+	}
+	
+	/**
+	 * Runs the OT extension on the given input by stored OTs.<p>
+	 * If the store holds fewer OTs than needed, the missing OTs are computed first by the underlying OT extension, over the given channel.
+	 * The general version has no output and returns null.
+	 * @param channel Used to communicate with the receiver.
+	 * @param input An instance of OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput, 
+	 * with elements of the size that was given in the constructor.
+	 * @throws CheatAttemptException if the message of the receiver is not of the expected length.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws ClassNotFoundException, IOException, CheatAttemptException, InvalidDlogGroupException {
+		
+		// In case the given input is general input.
+		if (input instanceof OTExtensionGeneralSInput){
+			byte[] x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			byte[] x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			int numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			checkLength(x0.length, numOfOts);
+			checkLength(x1.length, numOfOts);
+			
+			byte[][] r = takeOts(channel, numOfOts);
+			byte[] e = receiveBits(channel, numOfOts);
+			
+			//y0 = x0 XOR r_e, y1 = x1 XOR r_(1-e).
+			byte[] y0 = new byte[x0.length];
+			byte[] y1 = new byte[x1.length];
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -((e[j >>> 3] >>> (j & 7)) & 1);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					y0[k] = (byte) (x0[k] ^ (r[0][k] & ~mask) ^ (r[1][k] & mask));
+					y1[k] = (byte) (x1[k] ^ (r[1][k] & ~mask) ^ (r[0][k] & mask));
+				}
+			}
+			channel.send(y0);
+			channel.send(y1);
+			
+			//This version has no output. Return null.
+			return null;
+		
+		//In case the given input is correlated input.
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			byte[] delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			int numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			checkLength(delta.length, numOfOts);
+			
+			byte[][] r = takeOts(channel, numOfOts);
+			byte[] e = receiveBits(channel, numOfOts);
+			
+			//x0 = r_e, x1 = x0 XOR delta. Send y = x1 XOR r_(1-e).
+			byte[] x0 = new byte[delta.length];
+			byte[] x1 = new byte[delta.length];
+			byte[] y = new byte[delta.length];
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -((e[j >>> 3] >>> (j & 7)) & 1);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					x0[k] = (byte) ((r[0][k] & ~mask) | (r[1][k] & mask));
+					x1[k] = (byte) (x0[k] ^ delta[k]);
+					y[k] = (byte) (x1[k] ^ (r[1][k] & ~mask) ^ (r[0][k] & mask));
+				}
+			}
+			channel.send(y);
+			
+			return new OTExtensionSOutput(x0, x1);
+		
+		//In case the given input is random input.
+		} else if (input instanceof OTExtensionRandomSInput){
+			int numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			if (((OTExtensionRandomSInput) input).getBitLength() != elementSize * 8){
+				throw new IllegalArgumentException("the bit length should be " + elementSize * 8);
+			}
+			
+			byte[][] r = takeOts(channel, numOfOts);
+			byte[] e = receiveBits(channel, numOfOts);
+			
+			//The stored OTs are already random. x0 = r_e, x1 = r_(1-e), and nothing is sent.
+			for (int j = 0; j < numOfOts; j++){
+				byte mask = (byte) -((e[j >>> 3] >>> (j & 7)) & 1);
+				for (int k = j * elementSize; k < (j + 1) * elementSize; k++){
+					byte t = (byte) ((r[0][k] ^ r[1][k]) & mask);
+					r[0][k] ^= t;
+					r[1][k] ^= t;
+				}
+			}
+			return new OTExtensionSOutput(r[0], r[1]);
+		
+		//If input is not instance of the above inputs, throw Exception.
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+	}
+	
+	/*
+	 * Checks that the inputs hold numOfOts elements of the size of the store.
+	 */
+	private void checkLength(int length, int numOfOts){
+		if (numOfOts <= 0 || length != numOfOts * elementSize){
+			throw new IllegalArgumentException("the inputs should hold numOfOts elements of " + elementSize + " bytes");
+		}
+	}
+	
+	/*
+	 * Takes numOfOts OTs from the store, after it computes the missing OTs.
+	 */
+	private byte[][] takeOts(Channel channel, int numOfOts) throws ClassNotFoundException, IOException, CheatAttemptException, InvalidDlogGroupException{
+		int missing = numOfOts - store.size();
+		if (missing > 0){
+			OTExtensionSOutput output = (OTExtensionSOutput) randomOT.transfer(channel, new OTExtensionRandomSInput(missing, elementSize * 8));
+			byte[][] taken = store.take(store.size());
+			return new byte[][]{concat(taken[0], output.getX0Arr()), concat(taken[1], output.getX1Arr())};
+		}
+		return store.take(numOfOts);
+	}
+	
+	private static byte[] concat(byte[] a, byte[] b){
+		byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+	
+	/*
+	 * Receives the packed bits e = sigma XOR c from the receiver.
+	 */
+	private byte[] receiveBits(Channel channel, int numOfOts) throws ClassNotFoundException, IOException, CheatAttemptException{
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be an instance of byte[]");
+		}
+		if (((byte[]) message).length != (numOfOts + 7) / 8){
+			throw new CheatAttemptException("the receiver should send one bit for each OT");
+		}
+		return (byte[]) message;
+	}
+}
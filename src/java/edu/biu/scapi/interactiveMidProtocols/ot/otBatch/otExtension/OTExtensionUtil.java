@@ -0,0 +1,269 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.security.InvalidKeyException;
+import java.security.SecureRandom;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.tools.BitMatrix;
+
+/**
+ * Utility functions of the pure java OT extensions: the PRG that expands the base OT seeds, the transpose of the bit matrix, 
+ * the correlation robust hash and the carry-less multiplication of the consistency check.<p>
+ * 
+ * The bits of a vector are held in a long array, the least significant bit of the first long first.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class OTExtensionUtil {
+	
+	static final int KAPPA = 128;			//The computational security parameter, which is the number of base OTs.
+	static final int SEED_SIZE = KAPPA / 8;	//The size of a seed, in bytes.
+	
+	//The key of the fixed key AES that the hash uses. Any public key will do.
+	private static final byte[] FIXED_KEY = {0x61, 0x7e, (byte) 0x8d, 0x2b, 0x4a, 0x1c, 0x3f, 0x59, 0x06, (byte) 0xe2, 0x7c, (byte) 0x95, 0x12, (byte) 0xb0, 0x44, (byte) 0xd3};
+	
+	private OTExtensionUtil(){}
+	
+	/**
+	 * @return the number of rows of an extension matrix that holds the given number of OTs. 
+	 * It is rounded up to a multiple of 128, so that each column is a whole number of AES blocks.
+	 */
+	static int getNumOfRows(int numOfOts){
+		return (numOfOts + 127) / 128 * 128;
+	}
+	
+	/**
+	 * A pseudo random generator that expands a seed by AES in counter mode.<p>
+	 * The counter is kept between calls, so that the two parties that hold the same seed get the same bits as long as they ask for the same amounts.
+	 */
+	static class Prg {
+		private BcAES aes;
+		private long counter;
+		private byte[] in = new byte[16];
+		private byte[] out = new byte[16];
+		
+		Prg(byte[] seed, SecureRandom random){
+			aes = new BcAES(random);
+			try {
+				aes.setKey(new SecretKeySpec(seed, "AES"));
+			} catch (InvalidKeyException e) {
+				// Should not occur since the seed is an AES key.
+				throw new IllegalArgumentException(e.getMessage());
+			}
+		}
+		
+		/**
+		 * Fills the given range of the array with pseudo random longs.
+		 * @param numOfLongs must be even.
+		 */
+		void next(long[] arr, int offset, int numOfLongs){
+			for (int i = 0; i < numOfLongs; i += 2){
+				putLong(counter++, in, 0);
+				aes.computeBlock(in, 0, out, 0);
+				arr[offset + i] = getLong(out, 0);
+				arr[offset + i + 1] = getLong(out, 8);
+			}
+		}
+	}
+	
+	/**
+	 * A tweakable correlation robust hash H(i, x) = AES(AES(x) XOR i) XOR AES(x), where AES uses a fixed public key.
+	 * See "C. Guo, J. Katz, X. Wang and Y. Yu. Efficient and Secure Multiparty Computation from Fixed-Key Block Ciphers. S&P 2020".<p>
+	 * Outputs longer than a block use a different tweak for each block.
+	 */
+	static class Hash {
+		private BcAES aes;
+		private byte[] x = new byte[16];
+		private byte[] pi = new byte[16];
+		private byte[] block = new byte[16];
+		
+		Hash(SecureRandom random){
+			aes = new BcAES(random);
+			try {
+				aes.setKey(new SecretKeySpec(FIXED_KEY, "AES"));
+			} catch (InvalidKeyException e) {
+				// Should not occur since the fixed key is an AES key.
+				throw new IllegalArgumentException(e.getMessage());
+			}
+		}
+		
+		/**
+		 * Hashes the row in the given index of the given matrix rows.
+		 * @param rows The rows, two longs each.
+		 * @param row The index of the row to hash.
+		 * @param mask Two longs that are XORed with the row before it is hashed, or null.
+		 * @param tweak The index of the OT, which should not be used twice with the same base OTs.
+		 * @param out The array to write the hash to.
+		 * @param outOffset The place in the array of the hash.
+		 * @param outLen The length of the hash, in bytes.
+		 */
+		void hash(long[] rows, int row, long[] mask, long tweak, byte[] out, int outOffset, int outLen){
+			long lo = rows[2 * row];
+			long hi = rows[2 * row + 1];
+			if (mask != null){
+				lo ^= mask[0];
+				hi ^= mask[1];
+			}
+			putLong(lo, x, 0);
+			putLong(hi, x, 8);
+			aes.computeBlock(x, 0, pi, 0);
+			
+			for (int c = 0; c * 16 < outLen; c++){
+				//The tweak is the pair (index of the OT, index of the block).
+				System.arraycopy(pi, 0, x, 0, 16);
+				xorLong(tweak, x, 0);
+				xorLong(c, x, 8);
+				aes.computeBlock(x, 0, block, 0);
+				int len = Math.min(16, outLen - c * 16);
+				for (int k = 0; k < len; k++){
+					out[outOffset + c * 16 + k] = (byte) (block[k] ^ pi[k]);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Transposes the matrix that its columns are given. 
+	 * @param columns KAPPA columns, each of numOfRows bits.
+	 * @param numOfRows must be a multiple of 64.
+	 * @return the rows of the matrix, two longs each. Bit i of row j is bit i%64 of the long 2j + i/64.
+	 */
+	static long[] transpose(long[][] columns, int numOfRows){
+		return BitMatrix.fromRows(columns, numOfRows).transpose().getData();
+	}
+	
+	/**
+	 * Computes the carry-less product of the given 128 bit values and XORs the 256 bit result into acc.
+	 * @param a Two longs.
+	 * @param aOffset The place of a in its array.
+	 * @param b Two longs.
+	 * @param bOffset The place of b in its array.
+	 * @param acc Four longs.
+	 * @param product Scratch array of two longs.
+	 */
+	static void multiplyAdd(long[] a, int aOffset, long[] b, int bOffset, long[] acc, long[] product){
+		for (int i = 0; i < 2; i++){
+			for (int j = 0; j < 2; j++){
+				clmul(a[aOffset + i], b[bOffset + j], product);
+				acc[i + j] ^= product[0];
+				acc[i + j + 1] ^= product[1];
+			}
+		}
+	}
+	
+	/**
+	 * Computes the 128 bit carry-less product of a and b into out, the low long first. 
+	 * The flow does not depend on the values.
+	 */
+	static void clmul(long a, long b, long[] out){
+		long lo = a & -(b & 1);
+		long hi = 0;
+		for (int i = 1; i < 64; i++){
+			long mask = -((b >>> i) & 1);
+			lo ^= (a << i) & mask;
+			hi ^= (a >>> (64 - i)) & mask;
+		}
+		out[0] = lo;
+		out[1] = hi;
+	}
+	
+	/**
+	 * Reduces the given 256 bit carry-less product modulo x^128 + x^7 + x^2 + x + 1, which gives the product in GF(2^128).
+	 * @param acc Four longs.
+	 * @return two longs.
+	 */
+	static long[] reduce(long[] acc){
+		long h0 = acc[2];
+		long h1 = acc[3];
+		//x^128 = x^7 + x^2 + x + 1, so the high half is multiplied by it and added to the low half.
+		long lo = acc[0] ^ h0 ^ (h0 << 1) ^ (h0 << 2) ^ (h0 << 7);
+		long hi = acc[1] ^ h1 ^ (h1 << 1) ^ (h0 >>> 63) ^ (h1 << 2) ^ (h0 >>> 62) ^ (h1 << 7) ^ (h0 >>> 57);
+		//The bits that the shifts pushed above x^127 are folded once more.
+		long overflow = (h1 >>> 63) ^ (h1 >>> 62) ^ (h1 >>> 57);
+		lo ^= overflow ^ (overflow << 1) ^ (overflow << 2) ^ (overflow << 7);
+		return new long[]{lo, hi};
+	}
+	
+	/**
+	 * Packs the given array of bits, one bit in each byte, into longs.
+	 * @param bits The bits, each is 0 or 1.
+	 * @param numOfLongs The length of the output, which should hold at least bits.length bits.
+	 */
+	static long[] pack(byte[] bits, int numOfLongs){
+		long[] packed = new long[numOfLongs];
+		for (int j = 0; j < bits.length; j++){
+			packed[j >>> 6] |= ((long) (bits[j] & 1)) << (j & 63);
+		}
+		return packed;
+	}
+	
+	/**
+	 * @return the bit in the given index of the given packed vector.
+	 */
+	static int getBit(long[] packed, int index){
+		return (int) (packed[index >>> 6] >>> (index & 63)) & 1;
+	}
+	
+	/**
+	 * Writes the given long to the array, least significant byte first.
+	 */
+	static void putLong(long value, byte[] arr, int offset){
+		for (int k = 0; k < 8; k++){
+			arr[offset + k] = (byte) (value >>> (8 * k));
+		}
+	}
+	
+	/**
+	 * XORs the given long into the array, least significant byte first.
+	 */
+	static void xorLong(long value, byte[] arr, int offset){
+		for (int k = 0; k < 8; k++){
+			arr[offset + k] ^= (byte) (value >>> (8 * k));
+		}
+	}
+	
+	/**
+	 * Reads a long from the array, least significant byte first.
+	 */
+	static long getLong(byte[] arr, int offset){
+		long value = 0;
+		for (int k = 0; k < 8; k++){
+			value |= ((long) (arr[offset + k] & 0xFF)) << (8 * k);
+		}
+		return value;
+	}
+	
+	/**
+	 * Converts the given seed to two longs.
+	 */
+	static long[] toLongs(byte[] seed){
+		return new long[]{getLong(seed, 0), getLong(seed, 8)};
+	}
+}
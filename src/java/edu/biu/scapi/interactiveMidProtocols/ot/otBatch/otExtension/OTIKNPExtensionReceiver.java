@@ -0,0 +1,89 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByteArraySender;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A concrete class for a pure java Semi-Honest OT extension receiver. <P>
+ * 
+ * The OT extension is the protocol from the paper: <p>
+ * "Y. Ishai, J. Kilian, K. Nissim and E. Petrank. Extending Oblivious Transfers Efficiently. CRYPTO 2003." <p>
+ * See {@link OTIKNPExtensionSender} for more details. <p>
+ * 
+ * Unlike {@link OTSemiHonestExtensionReceiver}, this class does not need a native library and runs over the channel that is given to the transfer function.
+ * The base OT is done once in the construction time, over the given channel.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTIKNPExtensionReceiver extends OTExtensionJavaReceiverAbs implements SemiHonest{
+	
+	/**
+	 * Constructor that runs the base OTs by the semi honest DDH OT with the default parameters.
+	 * @param channel Used to communicate with the sender.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws InvalidDlogGroupException if the base OT got an invalid DlogGroup.
+	 */
+	public OTIKNPExtensionReceiver(Channel channel) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException{
+		this(channel, new OTSemiHonestDDHOnByteArraySender(), new SecureRandom());
+	}
+	
+	/**
+	 * Constructor that runs the base OTs by the given OT sender.
+	 * @param channel Used to communicate with the sender.
+	 * @param baseOT The sender of the base OTs. It should accept byte array inputs.
+	 * @param random
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws InvalidDlogGroupException if the base OT got an invalid DlogGroup.
+	 */
+	public OTIKNPExtensionReceiver(Channel channel, OTSender baseOT, SecureRandom random) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException{
+		super(channel, baseOT, random);
+	}
+	
+	/**
+	 * The semi honest protocol does not prove the consistency of the receiver.
+	 */
+	int getNumOfCheckOts(){
+		return 0;
+	}
+	
+	/**
+	 * The semi honest protocol does not prove the consistency of the receiver.
+	 */
+	void proveConsistency(Channel channel, long[] tRows, long[] r, int numOfRows){}
+}
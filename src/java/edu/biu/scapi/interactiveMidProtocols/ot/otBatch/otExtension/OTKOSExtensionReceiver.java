@@ -0,0 +1,124 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimDDHOnByteArraySender;
+import edu.biu.scapi.securityLevel.Malicious;
+
+/**
+ * A concrete class for a pure java Malicious OT extension receiver. <P>
+ * 
+ * The OT extension is the protocol from the paper: <p>
+ * "M. Keller, E. Orsini and P. Scholl. Actively Secure OT Extension with Optimal Overhead. CRYPTO 2015." <p>
+ * See {@link OTKOSExtensionSender} for more details. <p>
+ * 
+ * The base OT is done once in the construction time, over the given channel, and should be secure in the presence of malicious adversaries.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTKOSExtensionReceiver extends OTExtensionJavaReceiverAbs implements Malicious{
+	
+	/**
+	 * Constructor that runs the base OTs by the fully simulatable DDH OT with the default parameters.
+	 * @param channel Used to communicate with the sender.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws InvalidDlogGroupException if the base OT got an invalid DlogGroup.
+	 * @throws CommitValueException can occur in the preprocess phase of the base OT.
+	 */
+	public OTKOSExtensionReceiver(Channel channel) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException, CommitValueException{
+		super(channel, new OTFullSimDDHOnByteArraySender(channel), new SecureRandom());
+	}
+	
+	/**
+	 * Constructor that runs the base OTs by the given OT sender.
+	 * @param channel Used to communicate with the sender.
+	 * @param baseOT The sender of the base OTs. It should accept byte array inputs.
+	 * @param random
+	 * @throws SecurityLevelException if the base OT is not Malicious.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws InvalidDlogGroupException if the base OT got an invalid DlogGroup.
+	 */
+	public OTKOSExtensionReceiver(Channel channel, OTSender baseOT, SecureRandom random) throws SecurityLevelException, IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException{
+		super(channel, checkBaseOT(baseOT), random);
+	}
+	
+	/*
+	 * Checks that the base OT is secure in the presence of malicious adversaries, before it is used by the constructor.
+	 */
+	private static OTSender checkBaseOT(OTSender baseOT) throws SecurityLevelException{
+		if (!(baseOT instanceof Malicious)){
+			throw new SecurityLevelException("the base OT should be secure in the presence of malicious adversaries");
+		}
+		return baseOT;
+	}
+	
+	int getNumOfCheckOts(){
+		return OTExtensionUtil.KAPPA + OTKOSExtensionSender.STATISTICAL;
+	}
+	
+	/**
+	 * Runs the following lines of the consistency check: <p>
+	 * "WAIT for a seed from S<p>
+	 *	Compute chi_j = PRG(seed)<p>
+	 *	SEND x = sum(r_j*chi_j) and t = sum(chi_j*t_j) to S"
+	 */
+	void proveConsistency(Channel channel, long[] tRows, long[] r, int numOfRows) throws IOException, ClassNotFoundException{
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[]) || ((byte[]) message).length != OTExtensionUtil.SEED_SIZE){
+			throw new IllegalArgumentException("The received message should be a seed of " + OTExtensionUtil.SEED_SIZE + " bytes");
+		}
+		long[] chi = new long[2 * numOfRows];
+		new OTExtensionUtil.Prg((byte[]) message, random).next(chi, 0, chi.length);
+		
+		//The products are reduced once, after they are summed.
+		long[] product = new long[2];
+		long[] t = new long[4];
+		long x0 = 0;
+		long x1 = 0;
+		for (int j = 0; j < numOfRows; j++){
+			long mask = -OTExtensionUtil.getBit(r, j);
+			x0 ^= chi[2 * j] & mask;
+			x1 ^= chi[2 * j + 1] & mask;
+			OTExtensionUtil.multiplyAdd(chi, 2 * j, tRows, 2 * j, t, product);
+		}
+		t = OTExtensionUtil.reduce(t);
+		channel.send(new long[]{x0, x1, t[0], t[1]});
+	}
+}
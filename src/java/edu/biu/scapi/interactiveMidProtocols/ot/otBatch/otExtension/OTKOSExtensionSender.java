@@ -0,0 +1,140 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimDDHOnByteArrayReceiver;
+import edu.biu.scapi.securityLevel.Malicious;
+
+/**
+ * A concrete class for a pure java Malicious OT extension sender. <P>
+ * 
+ * The OT extension is the protocol from the paper: <p>
+ * "M. Keller, E. Orsini and P. Scholl. Actively Secure OT Extension with Optimal Overhead. CRYPTO 2015." <p>
+ * See http://eprint.iacr.org/2015/546.pdf for more information. <p>
+ * 
+ * The protocol is the protocol of {@link OTIKNPExtensionSender} with KAPPA + STATISTICAL extra random OTs and a consistency check of the receiver:
+ * The sender chooses random chi_j in GF(2^128) after the receiver sent the matrix. The receiver sends x = sum(r_j*chi_j) and t = sum(chi_j*t_j), 
+ * and the sender checks that sum(chi_j*q_j) = t + x*s.<p>
+ * 
+ * The base OT is done once in the construction time, over the given channel, and should be secure in the presence of malicious adversaries.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTKOSExtensionSender extends OTExtensionJavaSenderAbs implements Malicious{
+	
+	static final int STATISTICAL = 64;	//The statistical security parameter of the consistency check.
+	
+	/**
+	 * Constructor that runs the base OTs by the fully simulatable DDH OT with the default parameters.
+	 * @param channel Used to communicate with the receiver.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 * @throws CommitValueException can occur in the preprocess phase of the base OT.
+	 */
+	public OTKOSExtensionSender(Channel channel) throws IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		super(channel, new OTFullSimDDHOnByteArrayReceiver(channel), new SecureRandom());
+	}
+	
+	/**
+	 * Constructor that runs the base OTs by the given OT receiver.
+	 * @param channel Used to communicate with the receiver.
+	 * @param baseOT The receiver of the base OTs. Its messages should be byte arrays.
+	 * @param random
+	 * @throws SecurityLevelException if the base OT is not Malicious.
+	 * @throws IOException if there was a problem in the communication.
+	 * @throws ClassNotFoundException if there was a problem in the serialization of a message.
+	 * @throws CheatAttemptException if the base OT detected cheating.
+	 */
+	public OTKOSExtensionSender(Channel channel, OTReceiver baseOT, SecureRandom random) throws SecurityLevelException, IOException, ClassNotFoundException, CheatAttemptException{
+		super(channel, checkBaseOT(baseOT), random);
+	}
+	
+	/*
+	 * Checks that the base OT is secure in the presence of malicious adversaries, before it is used by the constructor.
+	 */
+	private static OTReceiver checkBaseOT(OTReceiver baseOT) throws SecurityLevelException{
+		if (!(baseOT instanceof Malicious)){
+			throw new SecurityLevelException("the base OT should be secure in the presence of malicious adversaries");
+		}
+		return baseOT;
+	}
+	
+	int getNumOfCheckOts(){
+		return OTExtensionUtil.KAPPA + STATISTICAL;
+	}
+	
+	/**
+	 * Runs the following lines of the consistency check: <p>
+	 * "SAMPLE a random seed and SEND it to R. <p>
+	 *	Compute chi_j = PRG(seed)<p>
+	 *	WAIT for (x, t) from R<p>
+	 *	IF sum(chi_j*q_j) != t + x*s<p>
+	 *		ABORT"
+	 */
+	void checkConsistency(Channel channel, long[] qRows, long[] s, int numOfRows) throws CheatAttemptException, IOException, ClassNotFoundException{
+		byte[] seed = new byte[OTExtensionUtil.SEED_SIZE];
+		random.nextBytes(seed);
+		channel.send(seed);
+		long[] chi = new long[2 * numOfRows];
+		new OTExtensionUtil.Prg(seed, random).next(chi, 0, chi.length);
+		
+		Serializable message = channel.receive();
+		if (!(message instanceof long[])){
+			throw new IllegalArgumentException("The received message should be an instance of long[]");
+		}
+		long[] xt = (long[]) message;
+		if (xt.length != 4){
+			throw new CheatAttemptException("the receiver should send x and t of 128 bits each");
+		}
+		
+		//The products are reduced once, after they are summed.
+		long[] product = new long[2];
+		long[] q = new long[4];
+		for (int j = 0; j < numOfRows; j++){
+			OTExtensionUtil.multiplyAdd(chi, 2 * j, qRows, 2 * j, q, product);
+		}
+		long[] xs = new long[4];
+		OTExtensionUtil.multiplyAdd(xt, 0, s, 0, xs, product);
+		long[] expected = OTExtensionUtil.reduce(xs);
+		expected[0] ^= xt[2];
+		expected[1] ^= xt[3];
+		
+		if (!Arrays.equals(OTExtensionUtil.reduce(q), expected)){
+			throw new CheatAttemptException("the receiver did not use the same choice bits in all the base OTs");
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.util.ArrayDeque;
+
+/**
+ * A bounded first-in first-out store of random OTs that were computed ahead of time.<p>
+ * Each OT is held as a fixed number of byte fields, for example x0 and x1 of the sender, or the choice bit and the chosen element of the receiver. 
+ * The fields of a batch of OTs are kept in flat arrays, one after the other, in the same way of the OT extension inputs and outputs.<p>
+ * The sender and the receiver take the OTs in the same order that they were added, so that both parties use the same OTs as long as they 
+ * make the same calls.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class RandomOTStore {
+	
+	private int[] fieldSizes;					//The size of each field of an OT, in bytes.
+	private int capacity;						//The maximal number of stored OTs.
+	private ArrayDeque<byte[][]> batches;		//The stored batches, each holds a flat array for each field.
+	private int firstOffset;					//The number of OTs that were already taken from the first batch.
+	private int size;							//The number of stored OTs.
+	
+	/**
+	 * @param capacity The maximal number of stored OTs.
+	 * @param fieldSizes The size of each field of an OT, in bytes.
+	 */
+	RandomOTStore(int capacity, int... fieldSizes){
+		if (capacity <= 0){
+			throw new IllegalArgumentException("capacity should be positive");
+		}
+		this.capacity = capacity;
+		this.fieldSizes = fieldSizes;
+		batches = new ArrayDeque<byte[][]>();
+	}
+	
+	/**
+	 * @return the number of stored OTs.
+	 */
+	int size(){
+		return size;
+	}
+	
+	/**
+	 * @return the maximal number of stored OTs.
+	 */
+	int getCapacity(){
+		return capacity;
+	}
+	
+	/**
+	 * Adds a batch of OTs to the end of the store.
+	 * @param numOfOts The number of OTs in the batch.
+	 * @param fields A flat array for each field of the OTs.
+	 */
+	void add(int numOfOts, byte[]... fields){
+		if (size + numOfOts > capacity){
+			throw new IllegalStateException("the store can hold " + (capacity - size) + " more OTs");
+		}
+		batches.addLast(fields);
+		size += numOfOts;
+	}
+	
+	/**
+	 * Removes OTs from the beginning of the store. 
+	 * @param numOfOts The number of OTs to take. It should not be greater than the size of the store.
+	 * @return a flat array for each field of the taken OTs.
+	 */
+	byte[][] take(int numOfOts){
+		if (numOfOts > size){
+			throw new IllegalStateException("the store holds only " + size + " OTs");
+		}
+		byte[][] taken = new byte[fieldSizes.length][];
+		for (int f = 0; f < fieldSizes.length; f++){
+			taken[f] = new byte[numOfOts * fieldSizes[f]];
+		}
+		
+		int done = 0;
+		while (done < numOfOts){
+			byte[][] batch = batches.peekFirst();
+			int batchSize = batch[0].length / fieldSizes[0];
+			int count = Math.min(numOfOts - done, batchSize - firstOffset);
+			for (int f = 0; f < fieldSizes.length; f++){
+				System.arraycopy(batch[f], firstOffset * fieldSizes[f], taken[f], done * fieldSizes[f], count * fieldSizes[f]);
+			}
+			done += count;
+			firstOffset += count;
+			if (firstOffset == batchSize){
+				batches.removeFirst();
+				firstOffset = 0;
+			}
+		}
+		size -= numOfOts;
+		return taken;
+	}
+}
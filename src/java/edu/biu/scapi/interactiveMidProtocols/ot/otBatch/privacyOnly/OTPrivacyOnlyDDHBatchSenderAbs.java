@@ -0,0 +1,262 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.privacyOnly;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchDDHUtil;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTRGroupElementQuadBatchMsg;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Abstract class for batch OT Privacy assuming DDH sender.<p>
+ * This is the batch version of the protocol of OTPrivacyOnlyDDHSenderAbs: all the OTs of the batch are computed with one message 
+ * from the receiver and one message from the sender. The tuples of the receiver share the same x = g^alpha.<p>
+ * Batch privacy only OT has two modes: one is on ByteArray and the second is on GroupElement.
+ * The difference is in the input and output types and the way to process them. 
+ * In spite that, there is a common behavior for both modes which this class implements.<p>
+ * 
+ * For more information see Protocol 7.2.1 page 179 of <i>Efficient Secure Two-Party Protocols</i> by Hazay-Lindell.<p>
+ * The pseudo code of the single OT protocol can be found in Protocol 4.2 of pseudo codes document at {@link http://crypto.biu.ac.il/scapi/SDK_Pseudocode_SCAPI_V2.0.0.pdf}.<p>
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTPrivacyOnlyDDHBatchSenderAbs implements OTBatchSender{
+
+	/*	
+	  This class runs the following protocol:
+		 	IF NOT VALID_PARAMS(G,q,g)
+	    		REPORT ERROR and HALT
+			WAIT for message (x, yi, zi0, zi1) for i=1,...,m from R
+			IF NOT
+			*	zi0 != zi1 for every i
+			*	x, yi, zi0, zi1 in G
+			REPORT ERROR (cheat attempt)
+			For every i=1,...,m:
+			SAMPLE random values ui0,ui1,vi0,vi1 <-  {0, . . . , q-1} 
+			COMPUTE:
+			*	wi0 = x^ui0 * g^vi0
+			*	ki0 = (zi0)^ui0 * yi^vi0
+			*	wi1 = x^ui1 * g^vi1
+			*	ki1 = (zi1)^ui1 * yi^vi1 
+			COMPUTE: in byteArray scenario:
+				*	ci0 = xi0 XOR KDF(|xi0|,ki0)
+				*	ci1 = xi1 XOR KDF(|xi1|,ki1) 
+				OR in GroupElement scenario:
+				*	ci0 = xi0 * ki0
+				*	ci1 = xi1 * ki1
+			SEND (wi0, ci0) and (wi1, ci1) for i=1,...,m to R in one message
+			OUTPUT nothing
+	*/	 
+
+	protected DlogGroup dlog;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that chooses default values of DlogGroup and SecureRandom.
+	 */
+	OTPrivacyOnlyDDHBatchSenderAbs() {
+		//Read the default DlogGroup name from a configuration file.
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		DlogGroup dlog = null;
+		try {
+			//Create the default DlogGroup by the factory.
+			dlog = DlogGroupFactory.getInstance().getObject(dlogName);
+		} catch (FactoriesException e1) {
+			// Should not occur since the dlog name in the configuration file is valid.
+		}
+		
+		try {
+			doConstruct(dlog, new SecureRandom());
+		} catch (SecurityLevelException e1) {
+			// Should not occur since the dlog in the configuration file is as secure as needed.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the dlog in the configuration file is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that sets the given dlogGroup and random.
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 */
+	OTPrivacyOnlyDDHBatchSenderAbs(DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException{
+		
+		doConstruct(dlog, random);
+	}
+	
+	/**
+	 * Sets the given members.
+	 * Runs the following line from the protocol:
+	 * "IF NOT VALID_PARAMS(G,q,g)
+	 *   		REPORT ERROR and HALT".
+	 * @param dlog must be DDH secure.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 */
+	private void doConstruct(DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException {
+		//The underlying dlog group must be DDH secure.
+		if (!(dlog instanceof DDH)){
+			throw new SecurityLevelException("DlogGroup should have DDH security level");
+		}
+		//Check that the given dlog is valid.
+		if(!dlog.validateGroup())
+			throw new InvalidDlogGroupException();
+		
+		this.dlog = dlog;
+		this.random = random;
+		
+		// This protocol has no pre process stage.
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol for all the OTs of the batch.<p>
+	 * "WAIT for message (x, yi, zi0, zi1) for i=1,...,m from R<p>
+	 *	IF NOT<p>
+	 *	*	zi0 != zi1 for every i<p>
+	 *	*	x, yi, zi0, zi1 in G<p>
+	 *	REPORT ERROR (cheat attempt)<p>
+	 *	For every i=1,...,m:<p>
+	 *	SAMPLE random values ui0,ui1,vi0,vi1 <-  {0, . . . , q-1} <p>
+	 *	COMPUTE:<p>
+	 *	*	wi0 = x^ui0 * g^vi0<p>
+	 *	*	ki0 = (zi0)^ui0 * yi^vi0<p>
+	 *	*	wi1 = x^ui1 * g^vi1<p>
+	 *	*	ki1 = (zi1)^ui1 * yi^vi1 <p>
+	 *	COMPUTE: in byteArray scenario:<p>
+	 *		*	ci0 = xi0 XOR KDF(|xi0|,ki0)<p>
+	 *		*	ci1 = xi1 XOR KDF(|xi1|,ki1) <p>
+	 *		OR in GroupElement scenario:<p>
+	 *		*	ci0 = xi0 * ki0<p>
+	 *		*	ci1 = xi1 * ki1<p>
+	 *	SEND (wi0, ci0) and (wi1, ci1) for i=1,...,m to R in one message<p>
+	 *	OUTPUT nothing"<p>
+	 * @return null, this protocol has no output.
+	 * @throws CheatAttemptException if the receiver's message is not valid.
+	 */
+	public OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException, CheatAttemptException{
+		int size = OTBatchDDHUtil.getNumOfInputs(input);
+		
+		//Wait for message from R
+		OTRGroupElementQuadBatchMsg message = waitForMessageFromReceiver(channel);
+		if (message.getYArr().size() != size || message.getZ0Arr().size() != size || message.getZ1Arr().size() != size){
+			throw new CheatAttemptException("the number of tuples should be equal to the number of inputs");
+		}
+		
+		//Reconstruct the group elements from the given message and check that they are members of the group.
+		GroupElement x;
+		try {
+			x = dlog.reconstructElement(true, message.getX());
+		} catch (IllegalArgumentException e) {
+			throw new CheatAttemptException("x element is not a member in the current DlogGroup");
+		}
+		GroupElement[] y = OTBatchDDHUtil.reconstructElements(dlog, message.getYArr(), "y");
+		GroupElement[] z0 = OTBatchDDHUtil.reconstructElements(dlog, message.getZ0Arr(), "z0");
+		GroupElement[] z1 = OTBatchDDHUtil.reconstructElements(dlog, message.getZ1Arr(), "z1");
+		
+		//Check that zi0 != zi1 and compute the values wi0, ki0, wi1, ki1.
+		GroupElement[][] wk = OTBatchDDHUtil.computeWK(dlog, x, y, z0, z1, random);
+		
+		//Compute ci0, ci1.
+		OTSMsg messageToSend = computeMsg(input, wk[0], wk[1], wk[2], wk[3]);
+		
+		sendTupleToReceiver(channel, messageToSend);
+		
+		return null;//should not return any data
+	}
+	
+	/**
+	 * Runs the following line from the protocol:
+	 * "WAIT for message (x, yi, zi0, zi1) for i=1,...,m from R"
+	 * @param channel 
+	 * @return the received message.
+	 * @throws IOException if failed to receive a message.
+	 * @throws ClassNotFoundException 
+	 */
+	private OTRGroupElementQuadBatchMsg waitForMessageFromReceiver(Channel channel) throws IOException, ClassNotFoundException{
+		Serializable message = null;
+		try {
+			message = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("failed to receive message. The thrown message is: " + e.getMessage());
+		}
+		if (!(message instanceof OTRGroupElementQuadBatchMsg)){
+			throw new IllegalArgumentException("The received message should be an instance of OTRGroupElementQuadBatchMsg");
+		}
+		return (OTRGroupElementQuadBatchMsg) message;
+	}
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "COMPUTE: in byteArray scenario:
+	 *	*	ci0 = xi0 XOR KDF(|xi0|,ki0)
+	 *	*	ci1 = xi1 XOR KDF(|xi1|,ki1) 
+	 *	OR in GroupElement scenario:
+	 *	*	ci0 = xi0 * ki0
+	 *	*	ci1 = xi1 * ki1"
+	 * @param input
+	 * @param w0
+	 * @param w1
+	 * @param k0
+	 * @param k1
+	 * @return the tuples (wi0, ci0, wi1, ci1) to send to the receiver.
+	 */
+	protected abstract OTSMsg computeMsg(OTBatchSInput input, GroupElement[] w0, GroupElement[] w1, GroupElement[] k0, GroupElement[] k1);
+	
+	/**
+	 * Runs the following lines from the protocol:
+	 * "SEND (wi0, ci0) and (wi1, ci1) for i=1,...,m to R in one message"
+	 * @param channel 
+	 * @param message to send to the receiver
+	 * @throws IOException if failed to send the message.
+	 */
+	private void sendTupleToReceiver(Channel channel, OTSMsg message) throws IOException {
+		try {
+			//Send the message by the channel.
+			channel.send(message);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}	
+	}
+}
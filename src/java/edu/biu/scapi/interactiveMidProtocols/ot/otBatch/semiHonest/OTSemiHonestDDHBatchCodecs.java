@@ -0,0 +1,118 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.codec.CodecRegistry;
+import edu.biu.scapi.comm.codec.GroupElementCodec;
+import edu.biu.scapi.comm.codec.WireCodec;
+import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByteArraySenderMsg;
+import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnGroupElementSenderMsg;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+
+/**
+ * Registers the binary codecs of the semi honest batch OT messages in a {@link CodecRegistry}.<p>
+ * The messages are written as the number of tuples followed by the tuples' group elements, without any per tuple header.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class OTSemiHonestDDHBatchCodecs {
+	
+	private static final int RECEIVER_MSG_TAG = 13;
+	private static final int GROUP_ELEMENT_SENDER_MSG_TAG = 14;
+	private static final int BYTE_ARRAY_SENDER_MSG_TAG = 15;
+
+	private OTSemiHonestDDHBatchCodecs(){}
+	
+	/**
+	 * Registers the codecs of the batch messages in the given registry.
+	 * @param registry the registry to add the codecs to.
+	 */
+	public static void register(CodecRegistry registry){
+		
+		registry.register(RECEIVER_MSG_TAG, OTRGroupElementBatchMsg.class, new WireCodec<OTRGroupElementBatchMsg>() {
+			public void encode(OTRGroupElementBatchMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				CodecRegistry.writeGroupElementPairs(value.getTuples(), out, registry);
+			}
+			public OTRGroupElementBatchMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				return new OTRGroupElementBatchMsg(CodecRegistry.readGroupElementPairs(in, registry));
+			}
+		});
+		
+		registry.register(GROUP_ELEMENT_SENDER_MSG_TAG, OTSemiHonestDDHBatchOnGroupElementSenderMsg.class, new WireCodec<OTSemiHonestDDHBatchOnGroupElementSenderMsg>() {
+			public void encode(OTSemiHonestDDHBatchOnGroupElementSenderMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				GroupElementCodec codec = registry.getGroupElementCodec();
+				ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> tuples = value.getTuples();
+				out.writeInt(tuples.size());
+				for (int i = 0; i < tuples.size(); i++){
+					codec.encode(tuples.get(i).getU(), out, registry);
+					codec.encode(tuples.get(i).getV0(), out, registry);
+					codec.encode(tuples.get(i).getV1(), out, registry);
+				}
+			}
+			public OTSemiHonestDDHBatchOnGroupElementSenderMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementCodec codec = registry.getGroupElementCodec();
+				int size = CodecRegistry.readSize(in);
+				ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg> tuples = new ArrayList<OTSemiHonestDDHOnGroupElementSenderMsg>();
+				for (int i = 0; i < size; i++){
+					GroupElementSendableData u = codec.decode(in, registry);
+					GroupElementSendableData v0 = codec.decode(in, registry);
+					tuples.add(new OTSemiHonestDDHOnGroupElementSenderMsg(u, v0, codec.decode(in, registry)));
+				}
+				return new OTSemiHonestDDHBatchOnGroupElementSenderMsg(tuples);
+			}
+		});
+		
+		registry.register(BYTE_ARRAY_SENDER_MSG_TAG, OTSemiHonestDDHBatchOnByteArraySenderMsg.class, new WireCodec<OTSemiHonestDDHBatchOnByteArraySenderMsg>() {
+			public void encode(OTSemiHonestDDHBatchOnByteArraySenderMsg value, DataOutput out, CodecRegistry registry) throws IOException {
+				GroupElementCodec codec = registry.getGroupElementCodec();
+				ArrayList<OTSemiHonestDDHOnByteArraySenderMsg> tuples = value.getTuples();
+				out.writeInt(tuples.size());
+				for (int i = 0; i < tuples.size(); i++){
+					codec.encode(tuples.get(i).getU(), out, registry);
+					CodecRegistry.writeBytes(tuples.get(i).getV0(), out);
+					CodecRegistry.writeBytes(tuples.get(i).getV1(), out);
+				}
+			}
+			public OTSemiHonestDDHBatchOnByteArraySenderMsg decode(DataInput in, CodecRegistry registry) throws IOException {
+				GroupElementCodec codec = registry.getGroupElementCodec();
+				int size = CodecRegistry.readSize(in);
+				ArrayList<OTSemiHonestDDHOnByteArraySenderMsg> tuples = new ArrayList<OTSemiHonestDDHOnByteArraySenderMsg>();
+				for (int i = 0; i < size; i++){
+					GroupElementSendableData u = codec.decode(in, registry);
+					byte[] v0 = CodecRegistry.readBytes(in);
+					tuples.add(new OTSemiHonestDDHOnByteArraySenderMsg(u, v0, CodecRegistry.readBytes(in)));
+				}
+				return new OTSemiHonestDDHBatchOnByteArraySenderMsg(tuples);
+			}
+		});
+	}
+}
@@ -0,0 +1,175 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A driver that runs a batch Semi-Honest OT assuming DDH, as the receiver, over several channels in parallel.<p>
+ * 
+ * The batch is split to contiguous slices, one for each channel, and each slice is transferred by a worker thread that uses its own receiver and channel. 
+ * Each worker streams its slice in chunks: it sends the tuples of a chunk before it waits for the answer on the previous chunk, 
+ * so that the computation of both parties overlaps the communication. At most two chunks of a worker are in flight at any time. <p>
+ * 
+ * After a failed transfer the channels should be closed and not used again, as described in {@link OTSemiHonestDDHBatchParallelSender}. 
+ * See there for more details.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTSemiHonestDDHBatchParallelReceiver implements SemiHonest, AutoCloseable{
+	
+	private static final int CHUNKS_IN_FLIGHT = 2;	//The number of chunks that were sent and not answered yet.
+	
+	private OTBatchReceiver[] receivers;	//A receiver for each worker.
+	private int chunkSize;					//The number of OTs in a message.
+	private ExecutorService executor;		//Runs the workers.
+	
+	/**
+	 * Constructor that sets the receivers of the workers and uses the default chunk size.
+	 * @param receivers An instance of OTSemiHonestDDHBatchOnByteArrayReceiver or OTSemiHonestDDHBatchOnGroupElementReceiver for each channel. 
+	 * The receivers are used concurrently, so they should not share a DlogGroup or a KDF that is not thread safe.
+	 */
+	public OTSemiHonestDDHBatchParallelReceiver(OTBatchReceiver[] receivers){
+		this(receivers, OTSemiHonestDDHBatchParallelUtil.DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Constructor that sets the receivers of the workers and the chunk size.
+	 * @param receivers An instance of OTSemiHonestDDHBatchOnByteArrayReceiver or OTSemiHonestDDHBatchOnGroupElementReceiver for each channel. 
+	 * The receivers are used concurrently, so they should not share a DlogGroup or a KDF that is not thread safe.
+	 * @param chunkSize The number of OTs in a message. It should be the chunk size of the sender.
+	 */
+	public OTSemiHonestDDHBatchParallelReceiver(OTBatchReceiver[] receivers, int chunkSize){
+		if (receivers.length == 0){
+			throw new IllegalArgumentException("there should be at least one receiver");
+		}
+		for (int i = 0; i < receivers.length; i++){
+			if (!(receivers[i] instanceof OTSemiHonestDDHBatchReceiverAbs)){
+				throw new IllegalArgumentException("the receivers should be batch Semi-Honest OT receivers assuming DDH");
+			}
+		}
+		if (chunkSize <= 0){
+			throw new IllegalArgumentException("chunkSize should be positive");
+		}
+		this.receivers = receivers.clone();
+		this.chunkSize = chunkSize;
+		executor = OTSemiHonestDDHBatchParallelUtil.createExecutor(receivers.length, "OTSemiHonestDDHBatchParallelReceiver");
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol on the given batch, split over the given channels.
+	 * @param channels A channel for each receiver, in the same order as the channels of the sender.
+	 * @param input An instance of OTBatchRBasicInput.
+	 * @return OTBatchOnByteArrayROutput or OTBatchOnGroupElementROutput, according to the type of the receivers, with the outputs of the whole batch in order.
+	 * @throws IOException if the communication failed on one of the channels. The channels should be closed in this case.
+	 * @throws ClassNotFoundException if a received message could not be deserialized.
+	 */
+	public OTBatchROutput transfer(Channel[] channels, OTBatchRInput input) throws IOException, ClassNotFoundException{
+		if (channels.length != receivers.length){
+			throw new IllegalArgumentException("there should be a channel for each receiver");
+		}
+		if (!(input instanceof OTBatchRBasicInput)){
+			throw new IllegalArgumentException("input should be an instance of OTBatchRBasicInput");
+		}
+		final ArrayList<Byte> sigmaArr = ((OTBatchRBasicInput) input).getSigmaArr();
+		for (int i = 0; i < sigmaArr.size(); i++){
+			//The given sigmaI should be 0 or 1.
+			if ((sigmaArr.get(i) != 0) && (sigmaArr.get(i) != 1)){
+				throw new IllegalArgumentException("Sigma should be 0 or 1");
+			}
+		}
+		
+		int[] bounds = OTSemiHonestDDHBatchParallelUtil.split(sigmaArr.size(), receivers.length);
+		List<Callable<List<OTBatchROutput>>> workers = new ArrayList<Callable<List<OTBatchROutput>>>();
+		for (int w = 0; w < receivers.length; w++){
+			final OTSemiHonestDDHBatchReceiverAbs receiver = (OTSemiHonestDDHBatchReceiverAbs) receivers[w];
+			final Channel channel = channels[w];
+			final int from = bounds[w];
+			final int to = bounds[w + 1];
+			workers.add(new Callable<List<OTBatchROutput>>() {
+				public List<OTBatchROutput> call() throws Exception {
+					List<OTBatchROutput> outputs = new ArrayList<OTBatchROutput>();
+					//The sigmas and alphas of the chunks that were sent and not answered yet.
+					ArrayDeque<ArrayList<Byte>> sentSigmas = new ArrayDeque<ArrayList<Byte>>();
+					ArrayDeque<ArrayList<BigInteger>> sentAlphas = new ArrayDeque<ArrayList<BigInteger>>();
+					for (int start = from; start < to; start += chunkSize){
+						ArrayList<Byte> chunk = new ArrayList<Byte>(sigmaArr.subList(start, Math.min(start + chunkSize, to)));
+						sentAlphas.addLast(receiver.sendTuples(channel, chunk));
+						sentSigmas.addLast(chunk);
+						if (sentSigmas.size() == CHUNKS_IN_FLIGHT){
+							outputs.add(receiver.receiveXSigma(channel, sentSigmas.removeFirst(), sentAlphas.removeFirst()));
+						}
+					}
+					while (!sentSigmas.isEmpty()){
+						outputs.add(receiver.receiveXSigma(channel, sentSigmas.removeFirst(), sentAlphas.removeFirst()));
+					}
+					return outputs;
+				}
+			});
+		}
+		
+		//Concatenate the outputs of the chunks, in the order of the batch.
+		ArrayList<byte[]> byteArrayOutputs = new ArrayList<byte[]>();
+		ArrayList<GroupElement> groupElementOutputs = new ArrayList<GroupElement>();
+		for (List<OTBatchROutput> outputs : OTSemiHonestDDHBatchParallelUtil.runAll(executor, workers)){
+			for (OTBatchROutput output : outputs){
+				if (output instanceof OTBatchOnByteArrayROutput){
+					byteArrayOutputs.addAll(((OTBatchOnByteArrayROutput) output).getXSigmaArr());
+				} else {
+					groupElementOutputs.addAll(((OTBatchOnGroupElementROutput) output).getXSigmaArr());
+				}
+			}
+		}
+		if (receivers[0] instanceof OTSemiHonestDDHBatchOnGroupElementReceiver){
+			return new OTBatchOnGroupElementROutput(groupElementOutputs);
+		}
+		return new OTBatchOnByteArrayROutput(byteArrayOutputs);
+	}
+	
+	/**
+	 * Stops the worker threads.
+	 */
+	@Override
+	public void close(){
+		executor.shutdownNow();
+	}
+}
@@ -0,0 +1,157 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A driver that runs a batch Semi-Honest OT assuming DDH, as the sender, over several channels in parallel.<p>
+ * 
+ * The batch is split to contiguous slices, one for each channel. Each slice is transferred by a worker thread that uses its own sender 
+ * and its own channel, so that both the exponentiations and the communication scale with the number of cores and connections. 
+ * The channels can be created by {@link edu.biu.scapi.comm.twoPartyComm.TwoPartyCommunicationSetup#prepareForCommunication(int, long)}. <p>
+ * 
+ * Each worker streams its slice in chunks: the receiver sends the tuples of the next chunk while the sender computes the answer on the current one. 
+ * A chunk is a regular transfer of the underlying sender, so every chunk uses a fresh random value r.<p>
+ * 
+ * The receiver should be an {@link OTSemiHonestDDHBatchParallelReceiver} with the same number of channels, in the same order, and the same chunk size.<p>
+ * 
+ * If a transfer fails on one channel, the workers of both parties that use the other channels may still be waiting for messages. 
+ * Thus, after a failed transfer the channels should be closed, which also releases the workers of the other party, and should not be used again.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTSemiHonestDDHBatchParallelSender implements SemiHonest, AutoCloseable{
+	
+	private OTBatchSender[] senders;		//A sender for each worker.
+	private int chunkSize;					//The number of OTs in a message.
+	private ExecutorService executor;		//Runs the workers.
+	
+	/**
+	 * Constructor that sets the senders of the workers and uses the default chunk size.
+	 * @param senders An instance of OTSemiHonestDDHBatchOnByteArraySender or OTSemiHonestDDHBatchOnGroupElementSender for each channel. 
+	 * The senders are used concurrently, so they should not share a DlogGroup or a KDF that is not thread safe.
+	 */
+	public OTSemiHonestDDHBatchParallelSender(OTBatchSender[] senders){
+		this(senders, OTSemiHonestDDHBatchParallelUtil.DEFAULT_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Constructor that sets the senders of the workers and the chunk size.
+	 * @param senders An instance of OTSemiHonestDDHBatchOnByteArraySender or OTSemiHonestDDHBatchOnGroupElementSender for each channel. 
+	 * The senders are used concurrently, so they should not share a DlogGroup or a KDF that is not thread safe.
+	 * @param chunkSize The number of OTs in a message. The messages of a chunk should fit in the buffers of the channel.
+	 */
+	public OTSemiHonestDDHBatchParallelSender(OTBatchSender[] senders, int chunkSize){
+		if (senders.length == 0){
+			throw new IllegalArgumentException("there should be at least one sender");
+		}
+		for (int i = 0; i < senders.length; i++){
+			if (!(senders[i] instanceof OTSemiHonestDDHBatchSenderAbs)){
+				throw new IllegalArgumentException("the senders should be batch Semi-Honest OT senders assuming DDH");
+			}
+		}
+		if (chunkSize <= 0){
+			throw new IllegalArgumentException("chunkSize should be positive");
+		}
+		this.senders = senders.clone();
+		this.chunkSize = chunkSize;
+		executor = OTSemiHonestDDHBatchParallelUtil.createExecutor(senders.length, "OTSemiHonestDDHBatchParallelSender");
+	}
+	
+	/**
+	 * Runs the transfer phase of the protocol on the given batch, split over the given channels.
+	 * @param channels A channel for each sender, in the same order as the channels of the receiver.
+	 * @param input An instance of OTBatchOnByteArraySInput or OTBatchOnGroupElementSInput, according to the type of the senders.
+	 * @throws IOException if the communication failed on one of the channels. The channels should be closed in this case.
+	 * @throws ClassNotFoundException if a received message could not be deserialized.
+	 */
+	public void transfer(Channel[] channels, OTBatchSInput input) throws IOException, ClassNotFoundException{
+		if (channels.length != senders.length){
+			throw new IllegalArgumentException("there should be a channel for each sender");
+		}
+		final int size;
+		if (input instanceof OTBatchOnByteArraySInput){
+			size = ((OTBatchOnByteArraySInput) input).getX0Arr().size();
+		} else if (input instanceof OTBatchOnGroupElementSInput){
+			size = ((OTBatchOnGroupElementSInput) input).getX0Arr().size();
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTBatchOnByteArraySInput or OTBatchOnGroupElementSInput");
+		}
+		
+		int[] bounds = OTSemiHonestDDHBatchParallelUtil.split(size, senders.length);
+		List<Callable<Void>> workers = new ArrayList<Callable<Void>>();
+		for (int w = 0; w < senders.length; w++){
+			final OTBatchSender sender = senders[w];
+			final Channel channel = channels[w];
+			final OTBatchSInput batch = input;
+			final int from = bounds[w];
+			final int to = bounds[w + 1];
+			workers.add(new Callable<Void>() {
+				public Void call() throws Exception {
+					//The sender answers each chunk when it arrives.
+					for (int start = from; start < to; start += chunkSize){
+						sender.transfer(channel, subInput(batch, start, Math.min(start + chunkSize, to)));
+					}
+					return null;
+				}
+			});
+		}
+		OTSemiHonestDDHBatchParallelUtil.runAll(executor, workers);
+	}
+	
+	/*
+	 * Returns the input of the OTs in the range [from, to) of the given input.
+	 */
+	private static OTBatchSInput subInput(OTBatchSInput input, int from, int to){
+		if (input instanceof OTBatchOnByteArraySInput){
+			OTBatchOnByteArraySInput in = (OTBatchOnByteArraySInput) input;
+			return new OTBatchOnByteArraySInput(new ArrayList<byte[]>(in.getX0Arr().subList(from, to)), new ArrayList<byte[]>(in.getX1Arr().subList(from, to)));
+		}
+		OTBatchOnGroupElementSInput in = (OTBatchOnGroupElementSInput) input;
+		return new OTBatchOnGroupElementSInput(new ArrayList<GroupElement>(in.getX0Arr().subList(from, to)), new ArrayList<GroupElement>(in.getX1Arr().subList(from, to)));
+	}
+	
+	/**
+	 * Stops the worker threads.
+	 */
+	@Override
+	public void close(){
+		executor.shutdownNow();
+	}
+}
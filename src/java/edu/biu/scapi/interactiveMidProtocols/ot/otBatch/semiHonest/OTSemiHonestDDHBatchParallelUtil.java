@@ -0,0 +1,119 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Common functions of the parallel drivers of the batch Semi-Honest OT: the split of a batch to slices and chunks, and the run of the workers.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class OTSemiHonestDDHBatchParallelUtil {
+	
+	static final int DEFAULT_CHUNK_SIZE = 256;	//The default number of OTs in a message.
+	
+	private OTSemiHonestDDHBatchParallelUtil(){}
+	
+	/**
+	 * Splits a batch to contiguous slices of almost the same size, one for each worker. 
+	 * Both parties get the same slices, since they depend only on the size of the batch and the number of workers.
+	 * @return numOfWorkers + 1 bounds; the slice of worker i is [bounds[i], bounds[i+1]).
+	 */
+	static int[] split(int size, int numOfWorkers){
+		int[] bounds = new int[numOfWorkers + 1];
+		for (int i = 0; i <= numOfWorkers; i++){
+			bounds[i] = (int) ((long) size * i / numOfWorkers);
+		}
+		return bounds;
+	}
+	
+	/**
+	 * Creates a pool of the given number of daemon threads.
+	 */
+	static ExecutorService createExecutor(int numOfThreads, final String name){
+		return Executors.newFixedThreadPool(numOfThreads, new ThreadFactory() {
+			private int count;
+			public synchronized Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, name + "-" + count++);
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+	
+	/**
+	 * Runs the given workers on the executor, waits for all of them and returns their results in the same order.<p>
+	 * If a worker fails, the matching worker of the other party may stay blocked in receive on its channel. 
+	 * Thus, after a failure the channels are not in a known state and the caller should close them.
+	 * @throws IOException if a worker threw IOException, or was interrupted.
+	 * @throws ClassNotFoundException if a worker threw ClassNotFoundException.
+	 */
+	static <T> List<T> runAll(ExecutorService executor, List<Callable<T>> workers) throws IOException, ClassNotFoundException{
+		List<Future<T>> futures = new ArrayList<Future<T>>();
+		for (Callable<T> worker : workers){
+			futures.add(executor.submit(worker));
+		}
+		
+		List<T> results = new ArrayList<T>();
+		Throwable failure = null;
+		//Wait for all the workers even if one failed, so that no worker uses its channel after the transfer returned.
+		for (Future<T> future : futures){
+			try {
+				results.add(future.get());
+			} catch (ExecutionException e) {
+				if (failure == null){
+					failure = e.getCause();
+				}
+				results.add(null);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("interrupted while waiting for the OT workers", e);
+			}
+		}
+		
+		if (failure instanceof IOException){
+			throw (IOException) failure;
+		} else if (failure instanceof ClassNotFoundException){
+			throw (ClassNotFoundException) failure;
+		} else if (failure instanceof RuntimeException){
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error){
+			throw (Error) failure;
+		} else if (failure != null){
+			throw new IOException(failure.getMessage(), failure);
+		}
+		return results;
+	}
+}
@@ -155,6 +155,22 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		}
 		
 		ArrayList<Byte> sigmaArr = ((OTBatchRBasicInput) input).getSigmaArr();
+		ArrayList<BigInteger> alphaArr = sendTuples(channel, sigmaArr);
+		return receiveXSigma(channel, sigmaArr, alphaArr);
+	}
+	
+	/**
+	 * Runs the first part of the transfer phase, until the tuples are sent:<p>
+	 * "For every i=1,...,m, SAMPLE random values alphaI <- Zq and hi <- G <p>
+	 *	For every i=1,...,m, COMPUTE hi0,hi1<p>
+	 *	For every i=1,...,m, SEND (hi0,hi1) to S"<p>
+	 * The parallel driver sends the tuples of the next part of a batch before it waits for the answer on the current part.
+	 * @param channel 
+	 * @param sigmaArr the input bits.
+	 * @return the random values alphaI, which {@link #receiveXSigma(Channel, ArrayList, ArrayList)} needs.
+	 * @throws IOException if failed to send the message.
+	 */
+	ArrayList<BigInteger> sendTuples(Channel channel, ArrayList<Byte> sigmaArr) throws IOException{
 		int size = sigmaArr.size();
 		for (int i=0; i<size; i++){
 			//The given sigmaI should be 0 or 1.
@@ -178,12 +194,26 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		//Send the tuple to sender
 		sendTupleToSender(channel, tuple);
 		
+		return alphaArr;
+	}
+	
+	/**
+	 * Runs the second part of the transfer phase, after the tuples were sent:<p>
+	 * "WAIT for the message (u, v0,v1) from S<p>
+	 *	For every i=1,...,m, OUTPUT  xISigma"
+	 * @param channel 
+	 * @param sigmaArr the input bits.
+	 * @param alphaArr the random values that {@link #sendTuples(Channel, ArrayList)} returned.
+	 * @return the output of the transfer.
+	 * @throws ClassNotFoundException
+	 * @throws IOException if failed to receive a message.
+	 */
+	OTBatchROutput receiveXSigma(Channel channel, ArrayList<Byte> sigmaArr, ArrayList<BigInteger> alphaArr) throws IOException, ClassNotFoundException{
 		//Wait for message from sender
 		OTSMsg message = waitForMessageFromSender(channel);
 		
 		//Compute xSigma
 		return computeFinalXSigma(sigmaArr, alphaArr, message);
-	
 	}
 	
 	/**
@@ -199,9 +229,11 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		int size = alphaArr.size();
 		GroupElement g = dlog.getGenerator();
 		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>();
+		
+		//Calculate g^alphaI for every i. The generator is raised to all the exponents in one batch.
+		GroupElement[] gAlphaArr = dlog.exponentiateBatch(g, alphaArr.toArray(new BigInteger[size]));
 		for (int i=0; i<size; i++){
-			//Calculate g^alphaI.
-			GroupElement gAlpha = dlog.exponentiate(g, alphaArr.get(i));
+			GroupElement gAlpha = gAlphaArr[i];
 					
 			GroupElement h0 = null;
 			GroupElement h1 = null;
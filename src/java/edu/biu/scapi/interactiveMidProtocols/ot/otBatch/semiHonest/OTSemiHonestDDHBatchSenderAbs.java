@@ -167,21 +167,24 @@ abstract class OTSemiHonestDDHBatchSenderAbs implements OTBatchSender{
 		int size = tuples.size();
 		ArrayList<GroupElement> k0Array = new ArrayList<GroupElement>();
 		ArrayList<GroupElement> k1Array = new ArrayList<GroupElement>();
-		GroupElement h0, h1;
+		GroupElement[] hArray = new GroupElement[2 * size];
 		OTRGroupElementPairMsg tuple;
 		
+		for (int i=0; i<size; i++){
+			tuple = tuples.get(i);
+			//Recreate h0 and h1 from the data in the received message.
+			hArray[2*i] = dlog.reconstructElement(true, tuple.getFirstGE());
+			hArray[2*i + 1] = dlog.reconstructElement(true, tuple.getSecondGE());
+		}
+		
 		//For every i=1,...,m, COMPUTE:
 		//	ki0 = (hi0)^r
 		//	ki1 = (hi1)^r
+		//All the elements are raised to the same r, so they are exponentiated in one batch.
+		GroupElement[] kArray = dlog.exponentiateBatch(hArray, r);
 		for (int i=0; i<size; i++){
-			tuple = tuples.get(i);
-			//Recreate h0 from the data in the received message.
-			h0 = dlog.reconstructElement(true, tuple.getFirstGE());
-			h1 = dlog.reconstructElement(true, tuple.getSecondGE());
-			
-			//Calculate k0 = h0^r.
-			k0Array.add(i, dlog.exponentiate(h0, r));
-			k1Array.add(i, dlog.exponentiate(h1, r));
+			k0Array.add(i, kArray[2*i]);
+			k1Array.add(i, kArray[2*i + 1]);
 		}
 		
 		OTSMsg messageToSend = computeMsg(input, u, k0Array, k1Array);
@@ -47,6 +47,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTReceiver;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -93,6 +94,7 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 	protected DlogGroup dlog;
 	private SecureRandom random;
 	private BigInteger qMinusOne; 
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 	
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -161,6 +163,18 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 		// This protocol has no pre process stage.
 	}
 	
+	/**
+	 * Sets a pool of precomputed values g^r, which the transfer uses for alpha, beta, gamma and their powers of g instead of sampling and exponentiating.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
+	
 	/**
 	 * Runs the transfer phase of the OT protocol. <P>
 	 * This is the part of the protocol where the receiver input is necessary.<P>
@@ -201,10 +215,20 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 		}
 		
 		//Values required for calculations:
-		BigInteger beta = sampleRandomBeta();
+		BigInteger beta;
+		GroupElement gBeta;
+		if (exponentiationPool != null){
+			//Take beta and g^beta from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			beta = entry.getR();
+			gBeta = entry.getPower(0);
+		} else {
+			beta = sampleRandomBeta();
+			gBeta = dlog.exponentiate(dlog.getGenerator(), beta);
+		}
 		
 		//Compute tuple for sender.
-		OTRGroupElementQuadMsg a = computeTuple(sigma, beta);
+		OTRGroupElementQuadMsg a = computeTuple(sigma, beta, gBeta);
 		
 		//Send tuple to sender.
 		sendTupleToSender(channel, a);
@@ -235,18 +259,29 @@ abstract class OTPrivacyOnlyDDHReceiverAbs implements OTReceiver{
 	 * @param beta random value sampled by the protocol
 	 * @return OTRSemiHonestMessage contains the tuple (h0, h1).
 	 */
-	private OTRGroupElementQuadMsg computeTuple(byte sigma, BigInteger beta) {
+	private OTRGroupElementQuadMsg computeTuple(byte sigma, BigInteger beta, GroupElement gBeta) {
 
-		//Sample random values.
-		BigInteger alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		BigInteger gamma = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		
-		//Calculates g^alpha, g^beta, g^(alpha*beta), g^gamma.
 		GroupElement g = dlog.getGenerator();
+		BigInteger alpha;
+		GroupElement gAlpha;
+		GroupElement gGamma;
+		if (exponentiationPool != null){
+			//Take alpha, g^alpha and g^gamma from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			alpha = entry.getR();
+			gAlpha = entry.getPower(0);
+			gGamma = exponentiationPool.take().getPower(0);
+		} else {
+			//Sample random values.
+			alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			BigInteger gamma = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			
+			//Calculates g^alpha, g^gamma.
+			gAlpha = dlog.exponentiate(g, alpha);
+			gGamma = dlog.exponentiate(g, gamma);
+		}
 		
-		GroupElement gAlpha = dlog.exponentiate(g, alpha);
-		GroupElement gBeta = dlog.exponentiate(g, beta);
-		GroupElement gGamma = dlog.exponentiate(g, gamma);
+		//Calculates g^(alpha*beta).
 		GroupElement gAlphaBeta = dlog.exponentiate(g, alpha.multiply(beta));
 		
 		if (sigma == 0){
@@ -43,6 +43,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTReceiver;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -75,6 +76,7 @@ abstract class OTSemiHonestDDHReceiverAbs implements OTReceiver{
 	protected DlogGroup dlog;
 	private SecureRandom random;
 	private BigInteger qMinusOne;
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 	
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -129,6 +131,18 @@ abstract class OTSemiHonestDDHReceiverAbs implements OTReceiver{
 		
 	}
 	
+	/**
+	 * Sets a pool of precomputed values g^r, which the transfer uses for alpha, g^alpha and the random element h instead of sampling and exponentiating.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
+	
 	/**
 	 * Run the transfer phase of the protocol.<p>
 	 * "SAMPLE random values alpha in Zq and h in the DlogGroup <p>
@@ -155,11 +169,24 @@ abstract class OTSemiHonestDDHReceiverAbs implements OTReceiver{
 			throw new IllegalArgumentException("Sigma should be 0 or 1");
 		}
 		
-		//Sample random alpha
-		BigInteger alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		BigInteger alpha;
+		GroupElement gAlpha;
+		GroupElement h;
+		if (exponentiationPool != null){
+			//Take alpha and g^alpha from the pool. A second power of the generator is a random element h.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			alpha = entry.getR();
+			gAlpha = entry.getPower(0);
+			h = exponentiationPool.take().getPower(0);
+		} else {
+			//Sample random alpha and h, and calculate g^alpha.
+			alpha = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			gAlpha = dlog.exponentiate(dlog.getGenerator(), alpha);
+			h = dlog.createRandomElement();
+		}
 		
 		//Compute h0, h1
-		OTRGroupElementPairMsg tuple = computeTuple(alpha, sigma);
+		OTRGroupElementPairMsg tuple = computeTuple(gAlpha, h, sigma);
 		
 		//Send the tuple to sender
 		sendTupleToSender(channel, tuple);
@@ -177,18 +204,12 @@ abstract class OTSemiHonestDDHReceiverAbs implements OTReceiver{
 	 *  COMPUTE h0,h1 as follows:
 	 *		1.	If sigma = 0 then h0 = g^alpha  and h1 = h
 	 *		2.	If sigma = 1 then h0 = h and h1 = g^alpha"
-	 * @param alpha random value sampled by the protocol
+	 * @param gAlpha g^alpha, where alpha is the random value sampled by the protocol
+	 * @param h random element sampled by the protocol
 	 * @param sigma input for the protocol
 	 * @return OTRSemiHonestMessage contains the tuple (h0, h1).
 	 */
-	private OTRGroupElementPairMsg computeTuple(BigInteger alpha, byte sigma) {
-		
-		//Sample random h.
-		GroupElement h = dlog.createRandomElement();
-		
-		//Calculate g^alpha.
-		GroupElement g = dlog.getGenerator();
-		GroupElement gAlpha = dlog.exponentiate(g, alpha);
+	private OTRGroupElementPairMsg computeTuple(GroupElement gAlpha, GroupElement h, byte sigma) {
 				
 		GroupElement h0 = null;
 		GroupElement h1 = null;
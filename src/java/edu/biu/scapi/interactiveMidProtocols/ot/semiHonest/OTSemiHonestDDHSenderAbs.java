@@ -43,6 +43,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSender;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -78,6 +79,7 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 	protected DlogGroup dlog;
 	private SecureRandom random;
 	private BigInteger qMinusOne;
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed values g^r, or null.
 
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -131,6 +133,18 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 		// This protocol has no pre process stage.
 	}
 
+	/**
+	 * Sets a pool of precomputed values g^r, which the transfer uses for r and u = g^r instead of sampling and exponentiating.
+	 * @param pool a pool whose only base is the generator of the group. null removes the current pool.
+	 * @throws IllegalArgumentException if the base of the pool is not the generator of the group.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator())){
+			throw new IllegalArgumentException("the base of the pool should be the generator of the group");
+		}
+		exponentiationPool = pool;
+	}
+
 	/**
 	 * Runs the transfer phase of the OT protocol.<p>
 	 * This is the phase where the input is necessary as follows:<p>
@@ -155,11 +169,20 @@ abstract class OTSemiHonestDDHSenderAbs implements OTSender{
 		//WAIT for message (h0,h1) from R
 		OTRGroupElementPairMsg message = waitForMessageFromReceiver(channel);
 		
-		//SAMPLE a random value r in  [0, . . . , q-1] 
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		BigInteger r;
+		GroupElement u;
+		if (exponentiationPool != null){
+			//Take r and u = g^r from the pool.
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			r = entry.getR();
+			u = entry.getPower(0);
+		} else {
+			//SAMPLE a random value r in  [0, . . . , q-1] 
+			r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			u = computeU(r);
+		}
 		
-		//Compute u, k0, k1
-		GroupElement u = computeU(r);
+		//Compute k0, k1
 		GroupElement k0 = computeK0(r, message);
 		GroupElement k1 = computeK1(r, message);
 		
@@ -194,7 +194,9 @@ public class SigmaDHExtendedVerifierComputation implements SigmaVerifierComputat
 		BigInteger eBI = new BigInteger(1, e);
 		GroupElement left, right;
 		GroupElement hToe;
-		GroupElement aElement;
+		
+		//Reconstruct all the ai elements at once, so that their membership is checked for the whole batch.
+		GroupElement[] aElements = dlog.reconstructElements(true, aArray.toArray(new GroupElementSendableData[aArray.size()]));
 		
 		for (int i=0; i<len; i++){
 			//Verify that gi^z = ai*hi^e:
@@ -206,8 +208,7 @@ public class SigmaDHExtendedVerifierComputation implements SigmaVerifierComputat
 			//Calculate hi^e.
 			hToe = dlog.exponentiate(hArray.get(i), eBI);
 			//Calculate a*hi^e.
-			aElement = dlog.reconstructElement(true, aArray.get(i));
-			right = dlog.multiplyGroupElements(aElement, hToe);
+			right = dlog.multiplyGroupElements(aElements[i], hToe);
 			
 			//If left and right sides of the equation are not equal, set verified to false.
 			verified = verified && left.equals(right);
@@ -52,6 +52,7 @@ import edu.biu.scapi.midLayer.ciphertext.CramerShoupCiphertext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.primitives.dlog.cryptopp.CryptoPpDlogZpSafePrime;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.hash.cryptopp.CryptoPpSHA1;
@@ -69,6 +70,7 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 	protected SecureRandom random;
 	protected BigInteger qMinusOne; 				// Saved to avoid many calculations.
 	private boolean isKeySet;
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed tuples (g1^r, g2^r, h^r, c^r), or null.
 	
 	/**
 	 * Default constructor. It uses a default Dlog group and CryptographicHash.
@@ -171,6 +173,8 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		}
 		//Sets the public key.
 		this.publicKey = (CramerShoupPublicKey) publicKey;
+		//The precomputed tuples belong to the previous key.
+		exponentiationPool = null;
 
 		//Private key should be Cramer Shoup private key.	
 		if(privateKey == null){
@@ -187,6 +191,24 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 	}
 	
 	protected abstract void initPrivateKey(PrivateKey privateKey);
+	
+	/**
+	 * Sets a pool of precomputed tuples (g1^r, g2^r, h^r, c^r), which {@link #encrypt(Plaintext)} uses instead of computing the exponentiations.
+	 * The only exponentiation that is left is d^(r*alpha), since alpha depends on the ciphertext.<p>
+	 * The pool is removed when a new key is set.
+	 * @param pool a pool whose bases are g1, g2, h and c of the public key, in this order. null removes the current pool.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the bases of the pool are not g1, g2, h and c of the public key.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to set an exponentiation pool this object must be initialized with public key");
+		}
+		if (pool != null && !pool.matches(dlogGroup, publicKey.getGenerator1(), publicKey.getGenerator2(), publicKey.getH(), publicKey.getC())){
+			throw new IllegalArgumentException("the bases of the pool should be g1, g2, h and c of the public key");
+		}
+		exponentiationPool = pool;
+	}
 
 	/**
 	 * This function sets only the Public key.
@@ -385,12 +407,31 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		 *	Create and return an CramerShoupCiphertext object with u1, u2, e and v.
 		 */
 		
+		//If there is a pool of precomputed tuples, takes the exponentiations by r from it.
+		if (exponentiationPool != null){
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			return completeEncryption(plaintext, entry.getR(), entry.getPower(0), entry.getPower(1), entry.getPower(2), entry.getPower(3));
+		}
+		
 		//Choose the random r.
 		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		return encrypt(plaintext, r);
 	}
 	
+	/**
+	 * Completes the encryption of the given plaintext, given the exponentiations of the fixed bases by the random value r.
+	 * @param plaintext message to encrypt.
+	 * @param r The random value of the encryption.
+	 * @param u1 g1^r.
+	 * @param u2 g2^r.
+	 * @param hExpR h^r.
+	 * @param cExpR c^r.
+	 * @return Ciphertext the encrypted plaintext.
+	 * @throws IllegalArgumentException if the given Plaintext does not match this CramerShoup type.
+	 */
+	protected abstract AsymmetricCiphertext completeEncryption(Plaintext plaintext, BigInteger r, GroupElement u1, GroupElement u2, GroupElement hExpR, GroupElement cExpR);
+	
 	/**
 	 * Calculates h^r
 	 * @param r a random value.
@@ -418,6 +459,15 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		return dlogGroup.exponentiate(publicKey.getGenerator1(), r);
 	}
 	
+	/**
+	 * Calculates c^r
+	 * @param r a random value.
+	 * @return the calculated value.
+	 */
+	protected GroupElement calcCExpR(BigInteger r) {
+		return dlogGroup.exponentiate(publicKey.getC(), r);
+	}
+	
 	/**
 	 * Recieves three byte arrays and calculates the hash function on their concatenation.
 	 * @param u1ToByteArray
@@ -453,7 +503,18 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 	 * @return the calculated value v.
 	 */
 	protected GroupElement calcV(BigInteger r, byte[] alpha) {
-		GroupElement cExpr = dlogGroup.exponentiate(publicKey.getC(), r);
+		return calcV(r, calcCExpR(r), alpha);
+	}
+	
+	/**
+	 * calculate the v value of the encryption, given c^r.
+	 * v = c^r * d^(r*alpha).
+	 * @param r a random value
+	 * @param cExpr c^r.
+	 * @param alpha the value returned from the hash calculation.
+	 * @return the calculated value v.
+	 */
+	protected GroupElement calcV(BigInteger r, GroupElement cExpr, byte[] alpha) {
 		BigInteger q = dlogGroup.getOrder();
 		BigInteger rAlphaModQ = (r.multiply(new BigInteger(alpha))).mod(q);
 		GroupElement dExpRAlpha = dlogGroup.exponentiate(publicKey.getD(), rAlphaModQ);
@@ -0,0 +1,211 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
+
+/**
+ * A bounded pool of precomputed random values r^N mod N' of the Damgard Jurik encryption scheme, 
+ * where N = n^s, N' = n^(s+1) and r is a random value in ZN'*.<p>
+ * The exponentiation r^N is the costly part of encryption, re-randomization, addition and multiplication by a constant, 
+ * and it does not depend on their inputs. {@link ScDamgardJurikEnc} takes the values from this pool instead of computing them 
+ * in the functions that choose their own randomness. See {@link ScDamgardJurikEnc#setRandomnessPool(DamgardJurikRandomnessPool)}.<p>
+ * The pool is filled by background threads of minimal priority, which wait while the pool is full. 
+ * If the pool is empty, {@link #take()} computes a value by itself instead of waiting. 
+ * Each value is handed out once. <p>
+ * This class is thread safe. The threads should be stopped by {@link #close()} when the pool is no longer needed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class DamgardJurikRandomnessPool implements AutoCloseable {
+	
+	private BigInteger n;						//The modulus of the public key.
+	private int s;								//The length parameter.
+	private BigInteger N;						//n^s.
+	private BigInteger Ntag;					//n^(s+1).
+	private SecureRandom random;				//Source of randomness of r.
+	private BlockingQueue<BigInteger> values;	//The precomputed values r^N mod N'.
+	private Thread[] workers;					//The threads that fill the pool.
+	private volatile boolean isClosed;
+	//Metrics of the pool usage.
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * Creates a pool that is filled by one background thread.
+	 * @param publicKey The public key of the encryption.
+	 * @param s The length parameter of the ciphertexts.
+	 * @param capacity The maximal number of values that are kept.
+	 */
+	public DamgardJurikRandomnessPool(DamgardJurikPublicKey publicKey, int s, int capacity){
+		this(publicKey, s, capacity, 1, new SecureRandom());
+	}
+	
+	/**
+	 * Creates a pool and starts the threads that fill it.
+	 * @param publicKey The public key of the encryption.
+	 * @param s The length parameter of the ciphertexts.
+	 * @param capacity The maximal number of values that are kept.
+	 * @param numThreads The number of background threads that fill the pool. 
+	 * If it is zero, the pool is filled only by calls to {@link #fill()}.
+	 * @param random The source of randomness.
+	 * @throws IllegalArgumentException if s or the capacity is not positive, or the number of threads is negative.
+	 */
+	public DamgardJurikRandomnessPool(DamgardJurikPublicKey publicKey, int s, int capacity, int numThreads, SecureRandom random){
+		if (s <= 0){
+			throw new IllegalArgumentException("s should be positive");
+		}
+		if (capacity <= 0){
+			throw new IllegalArgumentException("capacity should be positive");
+		}
+		if (numThreads < 0){
+			throw new IllegalArgumentException("numThreads should not be negative");
+		}
+		this.n = publicKey.getModulus();
+		this.s = s;
+		this.random = random;
+		N = n.pow(s);
+		Ntag = N.multiply(n);
+		values = new ArrayBlockingQueue<BigInteger>(capacity);
+		
+		workers = new Thread[numThreads];
+		for (int i = 0; i < numThreads; i++){
+			workers[i] = new Thread(new Worker(), "DamgardJurikRandomnessPool-" + i);
+			workers[i].setDaemon(true);
+			workers[i].setPriority(Thread.MIN_PRIORITY);
+			workers[i].start();
+		}
+	}
+	
+	/**
+	 * Fills the pool up to its capacity on the calling thread.
+	 */
+	public void fill(){
+		while (!isClosed && values.remainingCapacity() > 0){
+			if (!values.offer(computeValue())){
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Removes a value from the pool. If the pool is empty, computes a new value.
+	 * @return r^N mod N' for a random r that was not used before.
+	 */
+	public BigInteger take(){
+		BigInteger value = values.poll();
+		if (value == null){
+			misses.incrementAndGet();
+			return computeValue();
+		}
+		hits.incrementAndGet();
+		return value;
+	}
+	
+	/**
+	 * Checks if this pool computes values for the given public key.
+	 * @param publicKey The public key that the caller works with.
+	 * @return true if the modulus of the given key is the modulus of this pool; false, otherwise.
+	 */
+	public boolean matches(DamgardJurikPublicKey publicKey){
+		return n.equals(publicKey.getModulus());
+	}
+	
+	/**
+	 * @return the length parameter s of the values.
+	 */
+	public int getLengthParameter(){
+		return s;
+	}
+	
+	/**
+	 * @return the number of values that are currently in the pool.
+	 */
+	public int size(){
+		return values.size();
+	}
+	
+	/**
+	 * @return the number of values that were taken from the pool.
+	 */
+	public long getHits(){
+		return hits.get();
+	}
+	
+	/**
+	 * @return the number of values that were computed by {@link #take()} since the pool was empty.
+	 */
+	public long getMisses(){
+		return misses.get();
+	}
+	
+	/**
+	 * Stops the background threads and removes the values from the pool. Later calls to {@link #take()} compute their values.
+	 */
+	@Override
+	public void close(){
+		isClosed = true;
+		for (int i = 0; i < workers.length; i++){
+			workers[i].interrupt();
+		}
+		values.clear();
+	}
+	
+	/*
+	 * Chooses a random r in ZN'* and computes r^N mod N'.
+	 * Choosing a random value between 1 and N'-1 gives a value in ZN'* with overwhelming probability.
+	 */
+	private BigInteger computeValue(){
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, Ntag.subtract(BigInteger.ONE), random);
+		return r.modPow(N, Ntag);
+	}
+	
+	/*
+	 * Computes values and puts them in the pool, waiting while the pool is full, until the pool is closed.
+	 */
+	private class Worker implements Runnable {
+		@Override
+		public void run() {
+			try {
+				while (!isClosed){
+					values.put(computeValue());
+				}
+			} catch (InterruptedException e) {
+				//The pool was closed.
+			}
+			//A value that was put after close cleared the pool must not stay there.
+			values.clear();
+		}
+	}
+}
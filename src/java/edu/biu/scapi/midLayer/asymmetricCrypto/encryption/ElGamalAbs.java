@@ -51,6 +51,7 @@ import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.PrecomputedExponentiationPool;
 import edu.biu.scapi.primitives.dlog.cryptopp.CryptoPpDlogZpSafePrime;
 import edu.biu.scapi.primitives.dlog.miracl.MiraclDlogECFp;
 import edu.biu.scapi.securityLevel.DDH;
@@ -70,6 +71,7 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 	protected SecureRandom random;				//Source of randomness
 	private boolean isKeySet;
 	protected BigInteger qMinusOne;				//We keep this value to save unnecessary calculations.
+	private PrecomputedExponentiationPool exponentiationPool; //Precomputed pairs (g^y, h^y), or null.
 	
 	
 	/**
@@ -167,6 +169,8 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		
 		//Sets the keys.
 		this.publicKey = (ElGamalPublicKey) publicKey;
+		//The precomputed pairs belong to the previous key.
+		exponentiationPool = null;
 		
 		if (privateKey != null){
 			//Computes an optimization of the private key.
@@ -178,6 +182,23 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 	
 	protected abstract void initPrivateKey(PrivateKey privateKey);
 	
+	/**
+	 * Sets a pool of precomputed pairs (g^y, h^y), which {@link #encrypt(Plaintext)} uses instead of computing the exponentiations.<p>
+	 * The pool is removed when a new key is set.
+	 * @param pool a pool whose bases are the generator of the group and h of the public key, in this order. null removes the current pool.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the bases of the pool are not the generator and h of the public key.
+	 */
+	public void setExponentiationPool(PrecomputedExponentiationPool pool){
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to set an exponentiation pool this object must be initialized with public key");
+		}
+		if (pool != null && !pool.matches(dlog, dlog.getGenerator(), publicKey.getH())){
+			throw new IllegalArgumentException("the bases of the pool should be the generator and h of the public key");
+		}
+		exponentiationPool = pool;
+	}
+	
 	/**
 	 * Initializes this ElGamal encryption scheme with public key.
 	 * Setting only the public key the user can encrypt messages but can not decrypt messages.
@@ -287,6 +308,12 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		 *		Calculate c2 = h^y * plaintext.getElement() mod p // For ElGamal on a GroupElement.
 		 *					OR KDF(h^y) XOR plaintext.getBytes()  // For ElGamal on a ByteArray.
 		 */
+		//If there is a pool of precomputed pairs, takes g^y and h^y from it.
+		if (exponentiationPool != null){
+			PrecomputedExponentiationPool.Entry entry = exponentiationPool.take();
+			return completeEncryption(entry.getPower(0), entry.getPower(1), plaintext);
+		}
+		
 		//Chooses a random value y<-Zq.
 		BigInteger y = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
@@ -185,15 +185,26 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 		if (!(plaintext instanceof ByteArrayPlaintext)){
 			throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
 		}
-		byte[] msg = ((ByteArrayPlaintext) plaintext).getText();
 		
 		//Check that the random value passed to this function is in Zq.
 		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(qMinusOne)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
-		GroupElement u1 = calcU1(r);
-		GroupElement u2 = calcU2(r);
-		GroupElement hExpr = calcHExpR(r);
+		return completeEncryption(plaintext, r, calcU1(r), calcU2(r), calcHExpR(r), calcCExpR(r));
+	}
+	
+	/**
+	 * Completes the encryption of the given plaintext, given the exponentiations of the fixed bases by the random value r.
+	 * @param plaintext message to encrypt. MUST be an instance of ByteArrayPlaintext.
+	 * @throws IllegalArgumentException if the given Plaintext is not instance of ByteArrayPlaintext.
+	 */
+	@Override
+	protected AsymmetricCiphertext completeEncryption(Plaintext plaintext, BigInteger r, GroupElement u1, GroupElement u2, GroupElement hExpr, GroupElement cExpr){
+		if (!(plaintext instanceof ByteArrayPlaintext)){
+			throw new IllegalArgumentException("plaintext should be instance of ByteArrayPlaintext");
+		}
+		byte[] msg = ((ByteArrayPlaintext) plaintext).getText();
+		
 		byte[] hrBytes = dlogGroup.mapAnyGroupElementToByteArray(hExpr);
 		byte[] e = kdf.deriveKey(hrBytes, 0, hrBytes.length, msg.length).getEncoded();
 		
@@ -209,7 +220,7 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 		byte[] alpha = calcAlpha(u1ToByteArray, u2ToByteArray, e);
 		
 		//Calculates v = c^r * d^(r*alpha).
-		GroupElement v = calcV(r, alpha); 
+		GroupElement v = calcV(r, cExpr, alpha); 
 		
 		//Creates and return an CramerShoupCiphertext object with u1, u2, e and v.
 		return new CramerShoupOnByteArrayCiphertext(u1, u2, e, v);
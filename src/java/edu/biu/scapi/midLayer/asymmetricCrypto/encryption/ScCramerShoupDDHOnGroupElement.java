@@ -179,16 +179,27 @@ public class ScCramerShoupDDHOnGroupElement extends CramerShoupAbs {
 		if (!(plaintext instanceof GroupElementPlaintext)){
 			throw new IllegalArgumentException("plaintext should be instance of GroupElementPlaintext");
 		}
-		GroupElement msgElement = ((GroupElementPlaintext) plaintext).getElement();
 		
 		//Check that the random value passed to this function is in Zq.
 		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(qMinusOne)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
-		GroupElement u1 = calcU1(r);
-		GroupElement u2 = calcU2(r);
-		GroupElement hExpr = calcHExpR(r);
+		return completeEncryption(plaintext, r, calcU1(r), calcU2(r), calcHExpR(r), calcCExpR(r));
+	}
+	
+	/**
+	 * Completes the encryption of the given plaintext, given the exponentiations of the fixed bases by the random value r.
+	 * @param plaintext message to encrypt. MUST be an instance of GroupElementPlaintext.
+	 * @throws IllegalArgumentException if the given Plaintext is not instance of GroupElementPlaintext.
+	 */
+	@Override
+	protected AsymmetricCiphertext completeEncryption(Plaintext plaintext, BigInteger r, GroupElement u1, GroupElement u2, GroupElement hExpr, GroupElement cExpr){
+		if (!(plaintext instanceof GroupElementPlaintext)){
+			throw new IllegalArgumentException("plaintext should be instance of GroupElementPlaintext");
+		}
+		GroupElement msgElement = ((GroupElementPlaintext) plaintext).getElement();
+		
 		GroupElement e = dlogGroup.multiplyGroupElements(hExpr, msgElement);
 		
 		byte[] u1ToByteArray = dlogGroup.mapAnyGroupElementToByteArray(u1);
@@ -199,7 +210,7 @@ public class ScCramerShoupDDHOnGroupElement extends CramerShoupAbs {
 		byte[] alpha = calcAlpha(u1ToByteArray, u2ToByteArray, eToByteArray);
 		
 		//Calculates v = c^r * d^(r*alpha).
-		GroupElement v = calcV(r, alpha); 
+		GroupElement v = calcV(r, cExpr, alpha); 
 		
 		//Creates and return an CramerShoupCiphertext object with u1, u2, e and v.
 		CramerShoupOnGroupElementCiphertext cipher = new CramerShoupOnGroupElementCiphertext(u1, u2, e, v);
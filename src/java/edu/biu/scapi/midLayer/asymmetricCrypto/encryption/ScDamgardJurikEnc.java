@@ -37,6 +37,8 @@ import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -54,6 +56,7 @@ import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAModulus;
 import edu.biu.scapi.primitives.trapdoorPermutation.ScRSAPermutation;
 import edu.biu.scapi.tools.math.MathAlgorithms;
+import edu.biu.scapi.tools.math.MontgomeryModulus;
 
 /**
  * Damgard Jurik is an asymmetric encryption scheme based on the Paillier encryption scheme.
@@ -70,6 +73,33 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	private boolean isKeySet;
 	
 	private int consts = -1;
+	
+	private DamgardJurikRandomnessPool randomnessPool;	//Precomputed values r^N mod N', or null.
+	private volatile CrtParameters crtParameters;		//Pre-computed values of the CRT decryption for the last length parameter.
+	private volatile MontgomeryModulus batchModulus;	//Montgomery arithmetic modulo N' of the last batch operation.
+	private ForkJoinPool batchPool;						//Pool to run the batch operations on. Null in case of sequential execution.
+	private int batchParallelismThreshold;				//The minimal number of ciphertexts each task of a batch gets.
+	
+	/*
+	 * The values that the decryption by the Chinese Remainder Theorem needs for a length parameter s.
+	 */
+	private static class CrtParameters {
+		private int s;
+		private BigInteger pPow;			//p^(s+1).
+		private BigInteger qPow;			//q^(s+1).
+		private BigInteger dModP;			//d mod (p-1)*p^s, which is the order of ZpPow*.
+		private BigInteger dModQ;			//d mod (q-1)*q^s, which is the order of ZqPow*.
+		private BigInteger qPowInverse;		//(q^(s+1))^(-1) mod p^(s+1).
+		
+		private CrtParameters(BigInteger p, BigInteger q, int s, BigInteger d){
+			this.s = s;
+			pPow = p.pow(s + 1);
+			qPow = q.pow(s + 1);
+			dModP = d.mod(p.subtract(BigInteger.ONE).multiply(p.pow(s)));
+			dModQ = d.mod(q.subtract(BigInteger.ONE).multiply(q.pow(s)));
+			qPowInverse = qPow.modInverse(pPow);
+		}
+	}
 
 
 	/**
@@ -121,6 +151,10 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 			//Sets the private key
 			this.privateKey = (DamgardJurikPrivateKey) privateKey;
 		}
+		//The pool and the pre-computed decryption values belong to the previous key.
+		randomnessPool = null;
+		crtParameters = null;
+		batchModulus = null;
 		isKeySet = true;
 
 	}
@@ -227,6 +261,25 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		this.consts = s;
 	}
 	
+	/**
+	 * Sets a pool of precomputed values r^N mod N'.<p>
+	 * The functions that choose their own random value (encrypt, reRandomize, add and multByConst) take the value from the pool 
+	 * instead of computing it, when the length parameter of the pool is the length parameter of the operation. 
+	 * The functions that get the random value from the user are not affected.
+	 * @param pool a pool for the public key of this object. null removes the current pool.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the pool was created for a different public key.
+	 */
+	public void setRandomnessPool(DamgardJurikRandomnessPool pool){
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to set a randomness pool this object must be initialized with public key");
+		}
+		if (pool != null && !pool.matches(publicKey)){
+			throw new IllegalArgumentException("the pool should be created for the public key of this object");
+		}
+		randomnessPool = pool;
+	}
+	
 	/** 
 	 * This function performs the encryption of he given plain text
 	 * @param plainText MUST be an instance of BigIntegerPlainText.
@@ -244,23 +297,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 * 		CHOOSE a random r in ZN'*.	
 		 */
 		
-		if(!(plaintext instanceof BigIntegerPlainText)){
-			throw new IllegalArgumentException("The plaintext has to be of type BigIntegerPlainText");
-		}
-		
-		BigInteger x = ((BigIntegerPlainText)plaintext).getX();
-		
-		//Calculates the length parameter s.
-		int s = (consts!=-1)?consts:((x.bitLength()/(publicKey.getModulus().bitLength() - 1)) + 1);
-		
-		BigInteger Ntag = publicKey.getModulus().pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return encrypt(plaintext, r);
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeEncryption(plaintext, null);
 	}
 	
 	/**
@@ -290,6 +328,13 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 * 		2. If the BigInteger value in the given plaintext is not in ZN.
 	 */
 	public AsymmetricCiphertext encrypt(Plaintext plainText, BigInteger r) {
+		return computeEncryption(plainText, r);
+	}
+	
+	/*
+	 * Encrypts the given plaintext using the given random value. If r is null, uses a random value that is chosen by computeRandomPower.
+	 */
+	private AsymmetricCiphertext computeEncryption(Plaintext plainText, BigInteger r) {
 		/*
 		 * We use the notation N=n^s, and N' = n^(s+1).
 		 * Pseudo-Code:
@@ -324,13 +369,13 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the random value passed to this function is in Zq.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
 		//Computes c = ((1 + n) ^x) * r ^N mod N'.
-		BigInteger  mult1= (publicKey.getModulus().add(BigInteger.ONE)).modPow(x, Ntag);
-		BigInteger mult2 = r.modPow(N, Ntag);
+		BigInteger  mult1= computeOnePlusNPow(x, s);
+		BigInteger mult2 = computeRandomPower(r, s, N, Ntag);
 		BigInteger c = (mult1.multiply(mult2)).mod(Ntag);
 		
 		//Wraps the BigInteger c with BigIntegerCiphertext and returns it.
@@ -394,19 +439,15 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
 			throw new IllegalArgumentException("The cipher is not in ZN'");
 		
-		BigInteger d;
-		//Optimization for the calculation of d:
-		//If s == 1 used the pre-computed d which we have in the private key
-		//else, compute d using the Chinese Remainder Theorem, such that d = 1 mod N, and d = 0 mod t.
-		if(s==1){
-			d = privateKey.getDForS1();
-		}else{
-			d = generateD(N, privateKey.getT());
+		BigInteger a;
+		if (privateKey.getP() != null && privateKey.getQ() != null){
+			//Computes (cipher ^ d) mod N' by the Chinese Remainder Theorem, using exponentiations modulo p^(s+1) and q^(s+1).
+			a = computeCrtPower(djCipher.getCipher(), s);
+		} else {
+			//Computes (cipher ^ d) mod N'
+			a = djCipher.getCipher().modPow(computeD(s, N), Ntag);
 		}
 		
-		//Computes (cipher ^ d) mod N'
-		BigInteger a = djCipher.getCipher().modPow(d, Ntag);
-		
 		//Computes x as the discrete logarithm of c^d to the base (1+n) modulo N'. This is done by the algorithm shown above.
 		BigInteger x = BigInteger.ZERO;
 		BigInteger t1, t2;
@@ -419,7 +460,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 				x = x.subtract(BigInteger.ONE);
 				t2 = (t2.multiply(x)).mod(nPowJ);
 				factorialK = MathAlgorithms.factorialBI(k);
-				temp = (t2.multiply(n.pow(k-1))).divide(factorialK);
+				//The division by k! is a multiplication by its inverse modulo n^j, since t2 was reduced modulo n^j.
+				temp = (t2.multiply(n.pow(k-1))).multiply(factorialK.modInverse(nPowJ));
 				t1 = t1.subtract(temp).mod(nPowJ);
 			}
 			x = t1;
@@ -455,31 +497,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext reRandomize(AsymmetricCiphertext cipher) {
-		// If there is no public key can not operate the function, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to reRandomize a ciphertext this object must be initialized with public key");
-		}
-		
-		//Ciphertext should be Damgard-Jurik ciphertext.
-		if (!(cipher instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		
-		BigIntegerCiphertext djCipher = (BigIntegerCiphertext) cipher;
-		//n is the modulus in the public key.
-		//Calculates s = |cipher| / |n|.
-		int s = (consts!=-1)?consts:((djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength());
-
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return reRandomize(cipher, r);
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeReRandomization(cipher, null);
 	}
 	
 	/**
@@ -493,6 +512,13 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext reRandomize(AsymmetricCiphertext cipher, BigInteger r) {
+		return computeReRandomization(cipher, r);
+	}
+	
+	/*
+	 * Re-randomizes the given ciphertext using the given random value. If r is null, uses a random value that is chosen by computeRandomPower.
+	 */
+	private AsymmetricCiphertext computeReRandomization(AsymmetricCiphertext cipher, BigInteger r) {
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
 			throw new IllegalStateException("in order to reRandomize a ciphertext this object must be initialized with public key");
@@ -519,11 +545,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
-		BigInteger c = djCipher.getCipher().multiply(r.modPow(N, Ntag)).mod(Ntag);
+		BigInteger c = djCipher.getCipher().multiply(computeRandomPower(r, s, N, Ntag)).mod(Ntag);
 		
 		return new BigIntegerCiphertext(c);
 	}
@@ -539,33 +565,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext add(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2) {
-		// If there is no public key can not encrypt, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
-		}
-		
-		//Ciphertexts should be Damgard-Jurik ciphertexts.
-		if (!(cipher1 instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		BigIntegerCiphertext djCipher1 = (BigIntegerCiphertext) cipher1;
-		
-		BigInteger c = djCipher1.getCipher();
-		
-		//n is the modulus in the public key.
-		//Calculates s = |cipher|/ |n|.
-		int s = (consts!=-1)?consts:(c.bitLength() / publicKey.getModulus().bitLength());
-		
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return add(cipher1, cipher2, r);
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeAddition(cipher1, cipher2, null);
 	}
 	
 	/**
@@ -585,7 +586,13 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext add(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger r) {
-		
+		return computeAddition(cipher1, cipher2, r);
+	}
+	
+	/*
+	 * Adds the given ciphertexts using the given random value. If r is null, uses a random value that is chosen by computeRandomPower.
+	 */
+	private AsymmetricCiphertext computeAddition(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger r) {
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
 			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
@@ -616,7 +623,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
@@ -628,7 +635,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		
 		BigInteger c = c1.multiply(c2).mod(Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(computeRandomPower(r, s1, N, Ntag)).mod(Ntag);
 		
 		//Call the other function that computes the addition.
 		return new BigIntegerCiphertext(c);
@@ -647,32 +654,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext multByConst(AsymmetricCiphertext cipher, BigInteger constNumber) {
-		// If there is no public key can not operate the function, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to multiply a ciphertext this object must be initialized with public key");
-		}
-		
-		//Ciphertext should be Damgard-Jurik ciphertext.
-		if (!(cipher instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		
-		BigIntegerCiphertext djCipher = (BigIntegerCiphertext) cipher;
-		//n is the modulus in the public key.
-		//Calculates s = |cipher| / |n|.
-		int s = (consts!=-1)?consts:((djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength());
-				
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		//Call the other function that computes the multiplication.
-		return multByConst(cipher, constNumber, r);
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeMultByConst(cipher, constNumber, null);
 	}
 	
 	/**
@@ -696,6 +679,13 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext multByConst(AsymmetricCiphertext cipher, BigInteger constNumber, BigInteger r) {
+		return computeMultByConst(cipher, constNumber, r);
+	}
+	
+	/*
+	 * Multiplies the given ciphertext by a constant using the given random value. If r is null, uses a random value that is chosen by computeRandomPower.
+	 */
+	private AsymmetricCiphertext computeMultByConst(AsymmetricCiphertext cipher, BigInteger constNumber, BigInteger r) {
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
 			throw new IllegalStateException("in order to multiply a ciphertext this object must be initialized with public key");
@@ -718,7 +708,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
@@ -732,11 +722,300 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	
 		BigInteger c = djCipher.getCipher().modPow(constNumber, Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(computeRandomPower(r, s, N, Ntag)).mod(Ntag);
 		
 		return new BigIntegerCiphertext(c);
 	}
 	
+	/**
+	 * Sets the batch operations of this object ({@link #sum(AsymmetricCiphertext[])} and 
+	 * {@link #innerProduct(AsymmetricCiphertext[], BigInteger[])}) to run in parallel on the given pool.<p>
+	 * The batch is split between at most the pool's parallelism tasks, each with at least parallelismThreshold ciphertexts.
+	 * @param pool The pool to run the batches on. If null, the batches are computed on the calling thread.
+	 * @param parallelismThreshold The minimal number of ciphertexts each task gets.
+	 * @throws IllegalArgumentException if a pool is given and the threshold is not positive.
+	 */
+	public void setParallelBatchExecution(ForkJoinPool pool, int parallelismThreshold) {
+		if (pool != null && parallelismThreshold <= 0){
+			throw new IllegalArgumentException("parallelismThreshold should be positive");
+		}
+		batchPool = pool;
+		batchParallelismThreshold = parallelismThreshold;
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) this function returns Enc(p1 + ... + pk).<p>
+	 * The result is re-randomized once, instead of once for each addition as in a sequence of calls to 
+	 * {@link #add(AsymmetricCiphertext, AsymmetricCiphertext)}. The ciphertexts are multiplied by Montgomery products, 
+	 * in parallel in case a pool was set by {@link #setParallelBatchExecution(ForkJoinPool, int)}.<p>
+	 * All ciphertexts have to have been generated with the same public key as this encryption's public key.
+	 * @param ciphers the ciphertexts to add.
+	 * @return the encryption of the sum of the plaintexts.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts.
+	 * 		2. If one or more of the given ciphertexts is not an instance of BigIntegerCiphertext.
+	 * 		3. If the sizes of ciphertexts do not match.
+	 * 		4. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 */
+	public AsymmetricCiphertext sum(AsymmetricCiphertext[] ciphers) {
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeInnerProduct(ciphers, null, null);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) this function returns Enc(p1 + ... + pk), re-randomized by the given random value.<p>
+	 * See {@link #sum(AsymmetricCiphertext[])}.
+	 * @param ciphers the ciphertexts to add.
+	 * @param r The random value to use in the function.
+	 * @return the encryption of the sum of the plaintexts.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the cases listed in {@link #sum(AsymmetricCiphertext[])}.
+	 */
+	public AsymmetricCiphertext sum(AsymmetricCiphertext[] ciphers, BigInteger r) {
+		return computeInnerProduct(ciphers, null, r);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) and constants a1, ..., ak this function returns Enc(a1*p1 + ... + ak*pk).<p>
+	 * This is the product of ci^ai modulo N', re-randomized once. The exponentiations and the product run 
+	 * in parallel in case a pool was set by {@link #setParallelBatchExecution(ForkJoinPool, int)}.<p>
+	 * All ciphertexts have to have been generated with the same public key as this encryption's public key.
+	 * @param ciphers the ciphertexts.
+	 * @param constants the constant to multiply each ciphertext by.
+	 * @return the encryption of the inner product of the plaintexts and the constants.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If there are no ciphertexts, or the number of constants is not the number of ciphertexts.
+	 * 		2. If one or more of the given ciphertexts is not an instance of BigIntegerCiphertext.
+	 * 		3. If the sizes of ciphertexts do not match.
+	 * 		4. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 * 		5. If one or more of the constants is not in ZN.
+	 */
+	public AsymmetricCiphertext innerProduct(AsymmetricCiphertext[] ciphers, BigInteger[] constants) {
+		if (constants == null){
+			throw new IllegalArgumentException("constants should not be null");
+		}
+		//Uses a fresh random value, which computeRandomPower takes from the randomness pool if there is a suitable one.
+		return computeInnerProduct(ciphers, constants, null);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) and constants a1, ..., ak this function returns Enc(a1*p1 + ... + ak*pk), 
+	 * re-randomized by the given random value.<p>
+	 * See {@link #innerProduct(AsymmetricCiphertext[], BigInteger[])}.
+	 * @param ciphers the ciphertexts.
+	 * @param constants the constant to multiply each ciphertext by.
+	 * @param r The random value to use in the function.
+	 * @return the encryption of the inner product of the plaintexts and the constants.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the cases listed in {@link #innerProduct(AsymmetricCiphertext[], BigInteger[])}.
+	 */
+	public AsymmetricCiphertext innerProduct(AsymmetricCiphertext[] ciphers, BigInteger[] constants, BigInteger r) {
+		if (constants == null){
+			throw new IllegalArgumentException("constants should not be null");
+		}
+		return computeInnerProduct(ciphers, constants, r);
+	}
+	
+	/*
+	 * Computes the product of ciphers[i]^constants[i] mod N' (or of ciphers[i] if constants is null) and re-randomizes it 
+	 * with the given random value. If r is null, uses a random value that is chosen by computeRandomPower.
+	 */
+	private AsymmetricCiphertext computeInnerProduct(AsymmetricCiphertext[] ciphers, final BigInteger[] constants, BigInteger r) {
+		// If there is no public key can not operate the function, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
+		}
+		if (ciphers.length == 0){
+			throw new IllegalArgumentException("there should be at least one ciphertext");
+		}
+		if (constants != null && constants.length != ciphers.length){
+			throw new IllegalArgumentException("the number of constants should be the number of ciphertexts");
+		}
+		
+		//Ciphertexts should be Damgard-Jurik ciphertexts of the same length.
+		final BigInteger[] values = new BigInteger[ciphers.length];
+		int s = -1;
+		for (int i = 0; i < ciphers.length; i++){
+			if (!(ciphers[i] instanceof BigIntegerCiphertext)){
+				throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
+			}
+			values[i] = ((BigIntegerCiphertext) ciphers[i]).getCipher();
+			
+			//n is the modulus in the public key.
+			//Calculates s = |cipher|/ |n|.
+			int si = (consts!=-1)?consts:(values[i].bitLength() / publicKey.getModulus().bitLength());
+			if (s != -1 && si != s){
+				throw new IllegalArgumentException("Sizes of ciphertexts do not match");
+			}
+			s = si;
+		}
+		
+		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
+		BigInteger n = publicKey.getModulus();
+		BigInteger N = n.pow(s);
+		final BigInteger Ntag = n.pow(s+1);
+		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		
+		//Check that the r random value passed to this function is in ZN'.
+		if(r != null && (r.signum() < 0 || r.compareTo(NtagMinus1) > 0)) {
+			throw new IllegalArgumentException("r must be in ZN'");
+		}
+		
+		//Checks that the ciphers belong to ZN' and the constants belong to ZN.
+		for (int i = 0; i < values.length; i++){
+			if(values[i].compareTo(BigInteger.ZERO) < 0 || values[i].compareTo(Ntag) >= 0)
+				throw new IllegalArgumentException("cipher " + i + " is not in ZN'");
+			if(constants != null && (constants[i].compareTo(BigInteger.ZERO) < 0 || constants[i].compareTo(N) >= 0))
+				throw new IllegalArgumentException("constant " + i + " is not in ZN");
+		}
+		
+		MontgomeryModulus modulus = batchModulus;
+		if (modulus == null || !modulus.getModulus().equals(Ntag)){
+			modulus = new MontgomeryModulus(Ntag);
+			batchModulus = modulus;
+		}
+		
+		//Each task raises its ciphertexts to their constants and multiplies them. Then, the partial products are multiplied.
+		final MontgomeryModulus montgomery = modulus;
+		final BigInteger[] partialProducts = runBatch(values.length, new BatchTask() {
+			
+			@Override
+			public BigInteger run(int from, int to) {
+				BigInteger[] powers = new BigInteger[to - from];
+				for (int i = from; i < to; i++){
+					powers[i - from] = (constants == null) ? values[i] : values[i].modPow(constants[i], Ntag);
+				}
+				return montgomery.product(powers);
+			}
+		});
+		BigInteger c = montgomery.product(partialProducts);
+		
+		//Re-randomizes the result once.
+		c = c.multiply(computeRandomPower(r, s, N, Ntag)).mod(Ntag);
+		
+		return new BigIntegerCiphertext(c);
+	}
+	
+	/*
+	 * A computation of a range of a batch.
+	 */
+	private interface BatchTask {
+		BigInteger run(int from, int to);
+	}
+	
+	/*
+	 * Runs the given task on ranges that cover a batch of the given size, and returns the result of each range.
+	 * In case a pool was set, the ranges run in parallel. Otherwise, the whole batch is one range that runs on the calling thread.
+	 */
+	private BigInteger[] runBatch(int size, final BatchTask task) {
+		int numberOfTasks = (batchPool == null) ? 1 : Math.min(batchPool.getParallelism(), size / batchParallelismThreshold);
+		
+		//Not enough ciphertexts to split. Run them on the calling thread.
+		if (numberOfTasks <= 1) {
+			return new BigInteger[]{task.run(0, size)};
+		}
+		
+		final BigInteger[] results = new BigInteger[numberOfTasks];
+		final RecursiveAction[] workers = new RecursiveAction[numberOfTasks];
+		for (int i = 0; i < numberOfTasks; i++) {
+			final int index = i;
+			final int from = (int) ((long) size * i / numberOfTasks);
+			final int to = (int) ((long) size * (i + 1) / numberOfTasks);
+			workers[i] = new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					results[index] = task.run(from, to);
+				}
+			};
+		}
+		
+		batchPool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(workers);
+			}
+		});
+		return results;
+	}
+	
+	/*
+	 * Computes r^N mod N'. If r is null, the power is of a random r in ZN'*. In this case the power is taken from the 
+	 * randomness pool if the pool has the length parameter s, and otherwise r is chosen and raised to N.
+	 */
+	private BigInteger computeRandomPower(BigInteger r, int s, BigInteger N, BigInteger Ntag){
+		if (r == null){
+			if (randomnessPool != null && randomnessPool.getLengthParameter() == s){
+				return randomnessPool.take();
+			}
+			//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
+			//which is with overwhelming probability in Zntag*.
+			r = BigIntegers.createRandomInRange(BigInteger.ONE, Ntag.subtract(BigInteger.ONE), random);
+		}
+		return r.modPow(N, Ntag);
+	}
+	
+	/*
+	 * Computes (1+n)^x mod N' by the binomial expansion (1+n)^x = sum of (x choose k)*n^k for k = 0, ..., s, 
+	 * since the rest of the terms are divisible by N'. The term (x choose k)*n^k only depends on (x choose k) mod n^s, 
+	 * which is x(x-1)...(x-k+1) * (k!)^(-1) mod n^s. k! is invertible since the primes of n are larger than s.
+	 * This replaces an exponentiation by x with s multiplications.
+	 */
+	private BigInteger computeOnePlusNPow(BigInteger x, int s){
+		BigInteger n = publicKey.getModulus();
+		BigInteger N = n.pow(s);
+		BigInteger Ntag = N.multiply(n);
+		
+		BigInteger result = BigInteger.ONE;
+		BigInteger numerator = BigInteger.ONE;		//x(x-1)...(x-k+1) mod N.
+		BigInteger factorial = BigInteger.ONE;		//k!.
+		BigInteger nPowK = BigInteger.ONE;			//n^k.
+		for (int k = 1; k <= s; k++){
+			numerator = numerator.multiply(x.subtract(BigInteger.valueOf(k - 1))).mod(N);
+			factorial = factorial.multiply(BigInteger.valueOf(k));
+			nPowK = nPowK.multiply(n);
+			BigInteger binomial = numerator.multiply(factorial.modInverse(N)).mod(N);
+			result = result.add(binomial.multiply(nPowK));
+		}
+		return result.mod(Ntag);
+	}
+	
+	/*
+	 * Computes c^d mod N' by the Chinese Remainder Theorem. 
+	 * The exponentiations are done modulo p^(s+1) and q^(s+1), whose sizes are half the size of N', with the exponent reduced 
+	 * modulo the orders of the groups. The results are combined to the result modulo N' by Garner's formula.
+	 */
+	private BigInteger computeCrtPower(BigInteger c, int s){
+		CrtParameters params = crtParameters;
+		if (params == null || params.s != s){
+			params = new CrtParameters(privateKey.getP(), privateKey.getQ(), s, computeD(s, publicKey.getModulus().pow(s)));
+			crtParameters = params;
+		}
+		
+		BigInteger aP = c.mod(params.pPow).modPow(params.dModP, params.pPow);
+		BigInteger aQ = c.mod(params.qPow).modPow(params.dModQ, params.qPow);
+		
+		//a = aQ + q^(s+1) * ((aP - aQ) * (q^(s+1))^(-1) mod p^(s+1)).
+		BigInteger h = aP.subtract(aQ).multiply(params.qPowInverse).mod(params.pPow);
+		return aQ.add(h.multiply(params.qPow));
+	}
+	
+	/*
+	 * Returns d such that d = 1 mod N and d = 0 mod t.
+	 * Optimization for the calculation of d: If s == 1 uses the pre-computed d which we have in the private key.
+	 */
+	private BigInteger computeD(int s, BigInteger N){
+		if(s==1){
+			return privateKey.getDForS1();
+		}
+		return generateD(N, privateKey.getT());
+	}
+	
 	/**
 	 * This function generates a value d such that d = 1 mod N and d = 0 mod t, using the Chinese Remainder Theorem.
 	 */
@@ -196,6 +196,18 @@ public interface DlogGroup {
 	 */
 	public GroupElement reconstructElement(boolean bCheckMembership, GroupElementSendableData data);
 	
+	/**
+	 * Reconstructs several GroupElements given their GroupElementSendableData, which might have been received through a Channel.<p>
+	 * This is the same as calling {@link #reconstructElement(boolean, GroupElementSendableData)} for each data, but lets the group 
+	 * check the membership of the whole batch at once, which is considerably faster for big batches.
+	 * @param bCheckMembership whether to check that the data provided can actually reconstruct elements of this DlogGroup.
+	 * @param data the GroupElementSendableData from which we wish to "reconstruct" the elements of this DlogGroup 
+	 * @return an array that holds the element reconstructed from data[i] in its i-th cell.
+	 * @throws IllegalArgumentException if one of the data does not match the group type, or if bCheckMembership is true and 
+	 * one of the data is not an element of this group.
+	 */
+	public GroupElement[] reconstructElements(boolean bCheckMembership, GroupElementSendableData[] data) throws IllegalArgumentException;
+	
 	/**
 	 * Computes the product of several exponentiations with distinct bases 
 	 * and distinct exponents. 
@@ -228,6 +240,28 @@ public interface DlogGroup {
 	 */
 	public void endExponentiateWithPreComputedValues(GroupElement base);
 	
+	/**
+	 * Raises each of the given bases to the same exponent.<p>
+	 * This is the same as calling {@link #exponentiate(GroupElement, BigInteger)} for each base, but lets the group share the work 
+	 * that depends on the exponent only, and cross to the native code once for the whole batch.
+	 * @param bases The group elements to exponentiate.
+	 * @param exponent The exponent.
+	 * @return an array that holds bases[i]^exponent in its i-th cell.
+	 * @throws IllegalArgumentException if one of the bases does not match the group.
+	 */
+	public GroupElement[] exponentiateBatch(GroupElement[] bases, BigInteger exponent) throws IllegalArgumentException;
+	
+	/**
+	 * Raises the given base to each of the given exponents.<p>
+	 * This is the same as calling {@link #exponentiate(GroupElement, BigInteger)} for each exponent, but lets the group 
+	 * precompute values of the base once for the whole batch, and cross to the native code once.
+	 * @param base The group element to exponentiate.
+	 * @param exponents The exponents.
+	 * @return an array that holds base^exponents[i] in its i-th cell.
+	 * @throws IllegalArgumentException if the base does not match the group.
+	 */
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) throws IllegalArgumentException;
+	
 	/**
 	 * This function takes any string of length up to k bytes and encodes it to a Group Element. 
 	 * k can be obtained by calling getMaxLengthOfByteArrayForEncoding() and it is calculated upon construction of this group; it depends on the length in bits of p.<p>
@@ -28,8 +28,8 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.HashMap;
-import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -44,8 +44,17 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 
 	protected GroupParams groupParams;			//group parameters
 	protected GroupElement generator;			//generator of the group
-	//map for multExponentiationsWithSameBase calculations
-	private HashMap<GroupElement, GroupElementsExponentiations> exponentiationsMap = new HashMap<GroupElement, GroupElementsExponentiations>();
+	//Cache of fixed-base tables for exponentiateWithPreComputedValues calculations
+	private FixedBaseExponentiationCache exponentiationsCache = new FixedBaseExponentiationCache(this);
+	//The minimal number of exponents for which exponentiateBatch of a single base builds a fixed-base table
+	private static final int BATCH_PRECOMPUTATION_THRESHOLD = 4;
+	//The minimal number of bases for which computeMultiExponentiation uses the bucket method rather than the LL algorithm
+	protected static final int PIPPENGER_THRESHOLD = 32;
+	//The minimal number of bases for which the bucket method beats the naive algorithm in the native groups, 
+	//where each multiplication of the bucket method is a call to the JNI while each exponentiation of the naive algorithm is one call.
+	protected static final int NATIVE_PIPPENGER_THRESHOLD = 256;
+	private ForkJoinPool batchPool;				//Pool to run the batch exponentiations on. Null in case of sequential execution.
+	private int batchParallelismThreshold;		//The minimal number of exponentiations each task of a batch gets.
 	protected SecureRandom random;				//Source of randomness to use.
 	//k is the maximum length of a string to be converted to a Group Element of this group. If a string exceeds the k length it cannot be converted.
  	protected int k;
@@ -210,7 +219,7 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		//computes the third part of the algorithm
 		for (int j=t-2; j>=0; j--){
 			//Y = Y^2
-			result = exponentiate(result, new BigInteger("2"));
+			result = multiplyGroupElements(result, result);
 			
 			//computes the inner loop
 			result = computeLoop(exponentiations, w, h, preComp, result, j);
@@ -219,6 +228,128 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 		return result;
 	}
 	
+	/*
+	 * Computes the simultaneousMultiplyExponentiate by the algorithm that fits the number of bases.
+	 * The LL algorithm is used for a few bases. Its table grows as 2^w for each w bases, so for many bases the bucket 
+	 * method is used instead. The bucket method is also used when the LL algorithm can not handle the exponents, that is, 
+	 * when some exponent is negative or all of them are zero.
+	 */
+	protected GroupElement computeMultiExponentiation(GroupElement[] groupElements, BigInteger[] exponentiations){
+		boolean isLLApplicable = false;
+		for (int i = 0; i < exponentiations.length; i++){
+			if (exponentiations[i].signum() < 0){
+				isLLApplicable = false;
+				break;
+			}
+			if (exponentiations[i].signum() > 0){
+				isLLApplicable = true;
+			}
+		}
+		if (isLLApplicable && groupElements.length < PIPPENGER_THRESHOLD){
+			return computeLL(groupElements, exponentiations);
+		}
+		return computePippenger(groupElements, exponentiations);
+	}
+	
+	/*
+	 * Computes the simultaneousMultiplyExponentiate by the bucket method of Pippenger.
+	 * The exponents are split to windows of c bits. For each window, from the most significant one:
+	 * 		result = result^(2^c)
+	 * 		for i=1 to n, put the base gi in the bucket of the i-th exponent's c bits in the window, 
+	 * 		that is, bucket[d] is the product of all the bases whose exponents have the digit d in the window.
+	 * 		result = result * (product of bucket[d]^d), which is computed by running sums:
+	 * 			sum = 1, windowSum = 1
+	 * 			for d=2^c-1 down to 1: sum = sum * bucket[d], windowSum = windowSum * sum
+	 * This takes about (t/c)*(n + 2^(c+1)) multiplications and t squarings, where t is the length of the exponents, 
+	 * and no pre computation table.
+	 */
+	protected GroupElement computePippenger(GroupElement[] groupElements, BigInteger[] exponentiations){
+		int n = groupElements.length; //number of bases and exponents
+		
+		//A negative exponent of a base is the positive exponent of the base's inverse.
+		GroupElement[] bases = new GroupElement[n];
+		BigInteger[] exponents = new BigInteger[n];
+		int t = 0; //num bits of the biggest exponent.
+		for (int i = 0; i < n; i++){
+			if (exponentiations[i].signum() < 0){
+				bases[i] = getInverse(groupElements[i]);
+				exponents[i] = exponentiations[i].negate();
+			} else{
+				bases[i] = groupElements[i];
+				exponents[i] = exponentiations[i];
+			}
+			t = Math.max(t, exponents[i].bitLength());
+		}
+		if (t == 0){
+			return getIdentity();
+		}
+		
+		int c = getPippengerWindow(n, t);
+		int numWindows = (t + c - 1) / c;
+		GroupElement[] buckets = new GroupElement[1 << c];
+		
+		GroupElement result = null; //null stands for the identity, so that no multiplication by the identity is done.
+		for (int window = numWindows - 1; window >= 0; window--){
+			//result = result^(2^c)
+			if (result != null){
+				for (int j = 0; j < c; j++){
+					result = multiplyGroupElements(result, result);
+				}
+			}
+			
+			//Put each base in the bucket of its exponent's digit in this window.
+			for (int j = 1; j < buckets.length; j++){
+				buckets[j] = null;
+			}
+			int firstBit = window * c;
+			for (int i = 0; i < n; i++){
+				int digit = 0;
+				for (int j = c - 1; j >= 0; j--){
+					digit <<= 1;
+					if (exponents[i].testBit(firstBit + j)){
+						digit |= 1;
+					}
+				}
+				if (digit != 0){
+					buckets[digit] = (buckets[digit] == null) ? bases[i] : multiplyGroupElements(buckets[digit], bases[i]);
+				}
+			}
+			
+			//Compute the product of bucket[d]^d using running sums.
+			GroupElement sum = null;
+			GroupElement windowSum = null;
+			for (int d = buckets.length - 1; d >= 1; d--){
+				if (buckets[d] != null){
+					sum = (sum == null) ? buckets[d] : multiplyGroupElements(sum, buckets[d]);
+				}
+				if (sum != null){
+					windowSum = (windowSum == null) ? sum : multiplyGroupElements(windowSum, sum);
+				}
+			}
+			if (windowSum != null){
+				result = (result == null) ? windowSum : multiplyGroupElements(result, windowSum);
+			}
+		}
+		
+		return (result == null) ? getIdentity() : result;
+	}
+	
+	/*
+	 * Returns the window size c that minimizes the number of multiplications of the bucket method, (t/c)*(n + 2^(c+1)).
+	 */
+	private int getPippengerWindow(int n, int t){
+		int bestC = 1;
+		long bestCost = Long.MAX_VALUE;
+		for (int c = 1; c <= 16; c++){
+			long cost = (long) ((t + c - 1) / c) * (n + (2L << c));
+			if (cost < bestCost){
+				bestCost = cost;
+				bestC = c;
+			}
+		}
+		return bestC;
+	}
+	
 	/*
 	 * Computes the loop the repeats in the algorithm.
 	 * for k=0 to h-1
@@ -312,8 +443,9 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	/*
 	 * Computes the product of several exponentiations of the same base and
 	 * distinct exponents. An optimization is used to compute it more quickly by
-	 * keeping in memory the result of h1, h2, h4,h8,... and using it in the
-	 * calculation.<p> Note that if we want a one-time exponentiation of h it is
+	 * keeping in memory a Lim-Lee comb table of the base and using it in the
+	 * calculation. The tables are kept in a bounded cache, see {@link FixedBaseExponentiationCache}.<p> 
+	 * Note that if we want a one-time exponentiation of h it is
 	 * preferable to use the basic exponentiation function since there is no
 	 * point to keep anything in memory if we have no intention to use it.
 	 * 
@@ -322,16 +454,8 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	 * @return the exponentiation result
 	 */
 	public GroupElement exponentiateWithPreComputedValues(GroupElement groupElement, BigInteger exponent) {
-		//extracts from the map the GroupElementsExponentiations object corresponding to the accepted base
-		GroupElementsExponentiations exponentiations = exponentiationsMap.get(groupElement);
-	
-		// if there is no object that matches this base - create it and add it to the map
-		if (exponentiations == null) {
-			exponentiations = new GroupElementsExponentiations(groupElement);
-			exponentiationsMap.put(groupElement, exponentiations);
-		}
-		// calculates the required exponent
-		return exponentiations.getExponentiation(exponent);
+		//The cache builds the table of the given base in case it does not have it yet.
+		return exponentiationsCache.exponentiate(groupElement, exponent);
 		
 	}
 	
@@ -340,91 +464,155 @@ public abstract class DlogGroupAbs implements primeOrderSubGroup{
 	 */
 	@Override
 	public void endExponentiateWithPreComputedValues(GroupElement base) {
-		exponentiationsMap.remove(base);
+		exponentiationsCache.remove(base);
 	}
 	
 	/**
-	 * The class GroupElementExponentiations is a nested class of DlogGroupAbs.<p>
-	 * It performs the actual work of pre-computation of the exponentiations for one base.
-	 * It is composed of two main elements. The group element for which the optimized computations 
-	 * are built for, called the base and a vector of group elements that are the result of 
-	 * exponentiations of order 1,2,4,8,
+	 * Sets the batch exponentiations of this group to run in parallel on the given pool.<p>
+	 * The batch is split between at most the pool's parallelism tasks, each with at least parallelismThreshold exponentiations.
+	 * This should be used only with groups whose operations are thread safe. Groups that compute the whole batch in one native 
+	 * call do not use the pool.
+	 * @param pool The pool to run the batches on. If null, the batches are computed on the calling thread.
+	 * @param parallelismThreshold The minimal number of exponentiations each task gets.
 	 */
-	private class GroupElementsExponentiations {
-		private Vector<GroupElement> exponentiations; //vector of group elements that are the result of exponentiations
-		private GroupElement base;  //group element for which the optimized computations are built for
-		
-		/**
-		 * The constructor creates a map structure in memory. 
-		 * Then calculates the exponentiations of order 1,2,4,8 for the given base and save them in the map.
-		 * @param base
-		 * @throws IllegalArgumentException
-		 */
-		public GroupElementsExponentiations(GroupElement base) {
-			this.base = base;
-			// build new vector of exponentiations
-			exponentiations = new Vector<GroupElement>();
-			exponentiations.add(0, this.base); // add the base - base^1
+	public void setParallelBatchExecution(ForkJoinPool pool, int parallelismThreshold) {
+		if (pool != null && parallelismThreshold <= 0){
+			throw new IllegalArgumentException("parallelismThreshold should be positive");
+		}
+		batchPool = pool;
+		batchParallelismThreshold = parallelismThreshold;
+	}
+	
+	/**
+	 * Raises each of the given bases to the same exponent.<p>
+	 * This default implementation exponentiates each base, in parallel in case a pool was set. 
+	 * Groups that can share the work or call their native code once for the batch override it.
+	 * @param bases The group elements to exponentiate.
+	 * @param exponent The exponent.
+	 * @return an array that holds bases[i]^exponent in its i-th cell.
+	 */
+	public GroupElement[] exponentiateBatch(final GroupElement[] bases, final BigInteger exponent) {
+		final GroupElement[] results = new GroupElement[bases.length];
+		runBatch(bases.length, new BatchTask() {
 			
-			BigInteger two = new BigInteger("2");
-			for (int i=1; i<4; i++) {
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), two);
-					
-				exponentiations.add(i, multI);
+			@Override
+			public void run(int index) {
+				results[index] = exponentiate(bases[index], exponent);
+			}
+		});
+		return results;
+	}
+	
+	/**
+	 * Raises the given base to each of the given exponents.<p>
+	 * This default implementation builds a fixed-base comb table of the base once, then computes each exponentiation 
+	 * with the table (in parallel, in case a pool was set). Small batches are computed by a regular exponentiation, 
+	 * since the table is not worth building for a few exponents.
+	 * @param base The group element to exponentiate.
+	 * @param exponents The exponents.
+	 * @return an array that holds base^exponents[i] in its i-th cell.
+	 */
+	public GroupElement[] exponentiateBatch(final GroupElement base, final BigInteger[] exponents) {
+		final GroupElement[] results = new GroupElement[exponents.length];
+		if (exponents.length < BATCH_PRECOMPUTATION_THRESHOLD){
+			for (int i = 0; i < exponents.length; i++){
+				results[i] = exponentiate(base, exponents[i]);
 			}
+			return results;
 		}
 		
-		/**
-		 * Calculates the necessary additional exponentiations and fills the exponentiations vector with them.
-		 * @param size - the required exponent
-		 * @throws IllegalArgumentException
-		 */
-		private void prepareExponentiations(BigInteger size) {
-			//find log of the number - this is the index of the size-exponent in the exponentiation array 
-			int index = size.bitLength()-1; 
+		//The table covers exponents of the length of the group order. Other exponents are computed by a regular exponentiation.
+		final FixedBaseComb comb = new FixedBaseComb(this, base, getOrder().bitLength());
+		runBatch(exponents.length, new BatchTask() {
 			
-			/* calculates the necessary exponentiations and put them in the exponentiations vector */
-			for (int i=exponentiations.size(); i<=index; i++){
-				GroupElement multI;
-				multI = exponentiate(exponentiations.get(i-1), new BigInteger("2"));
-					
-				exponentiations.add(i, multI);	
+			@Override
+			public void run(int index) {
+				BigInteger exponent = exponents[index];
+				if (exponent.signum() < 0 || exponent.bitLength() > comb.getExponentLength()){
+					results[index] = exponentiate(base, exponent);
+				} else {
+					results[index] = comb.exponentiate(exponent);
+				}
 			}
+		});
+		return results;
+	}
+	
+	/**
+	 * Reconstructs several group elements.<p>
+	 * This default implementation reconstructs and checks each element separately, in parallel in case a pool was set. 
+	 * Groups that can check the membership of the whole batch at once override it.
+	 * @param bCheckMembership whether to check that the data provided can actually reconstruct elements of this group.
+	 * @param data the data to reconstruct the elements from.
+	 * @return an array that holds the element reconstructed from data[i] in its i-th cell.
+	 */
+	public GroupElement[] reconstructElements(final boolean bCheckMembership, final GroupElementSendableData[] data) {
+		final GroupElement[] elements = new GroupElement[data.length];
+		runBatch(data.length, new BatchTask() {
+			
+			@Override
+			public void run(int index) {
+				elements[index] = reconstructElement(bCheckMembership, data[index]);
+			}
+		});
+		return elements;
+	}
+	
+	/**
+	 * A computation of a single cell of a batch.
+	 */
+	private interface BatchTask {
+		void run(int index);
+	}
+	
+	/**
+	 * Runs the given task on each index of a batch of the given size.<p>
+	 * In case a pool was set, the batch is split to ranges that run in parallel. Otherwise, it runs on the calling thread.
+	 */
+	private void runBatch(int size, final BatchTask task) {
+		int numberOfTasks = (batchPool == null) ? 1 : Math.min(batchPool.getParallelism(), size / batchParallelismThreshold);
+		
+		//Not enough exponentiations to split. Run them on the calling thread.
+		if (numberOfTasks <= 1) {
+			for (int i = 0; i < size; i++) {
+				task.run(i);
+			}
+			return;
 		}
 		
+		final RecursiveAction[] workers = new RecursiveAction[numberOfTasks];
+		for (int i = 0; i < numberOfTasks; i++) {
+			final int from = (int) ((long) size * i / numberOfTasks);
+			final int to = (int) ((long) size * (i + 1) / numberOfTasks);
+			workers[i] = new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() {
+					for (int j = from; j < to; j++) {
+						task.run(j);
+					}
+				}
+			};
+		}
 		
-		/**
-		 * Checks if the exponentiations had already been calculated for the required size. 
-		 * If so, returns them, else it calls the private function prepareExponentiations with the given size.
-		 * @param size - the required exponent
-		 * @return groupElement - the exponentiate result
-		 */
-		public GroupElement getExponentiation(BigInteger size) {
-			/**
-			 * The exponents in the exponents vector are all power of 2.
-			 * In order to achieve the exponent size, we calculate its closest power 2 in the exponents vector 
-			 * and continue the calculations from there.
-			 */
-			// find the the closest power 2 exponent
-			int index = size.bitLength()-1;
-			
-			GroupElement exponent = null;
-			/* if the requested index out of the vector bounds, the exponents have not been calculated yet, so calculates them.*/
-			if (exponentiations.size() <= index)
-				prepareExponentiations(size);
-			
-			exponent = exponentiations.get(index); //get the closest exponent in the exponentiations vector
-			/* if size is not power 2, calculates the additional multiplications */
-			BigInteger lastExp = new BigInteger("2").pow(index);
-			BigInteger difference = size.subtract(lastExp);
-			if (difference.compareTo(BigInteger.ZERO) > 0) {
-				GroupElement diff = getExponentiation(size.subtract(lastExp));
-				exponent = multiplyGroupElements(diff, exponent);
+		batchPool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				invokeAll(workers);
 			}
-			
-			return exponent;
-		}
+		});
+	}
+	
+	/**
+	 * Returns the cache of the fixed-base tables used by {@link #exponentiateWithPreComputedValues(GroupElement, BigInteger)}.<p>
+	 * The cache can be used to change the maximal number of kept bases and to get the cache's hit and miss counts.
+	 * @return the cache of the fixed-base tables of this group.
+	 */
+	public FixedBaseExponentiationCache getPreComputedValuesCache() {
+		return exponentiationsCache;
 	}
 	
 	
@@ -28,9 +28,12 @@ package edu.biu.scapi.primitives.dlog;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.Properties;
 
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+
 
 /**
  * This class manages the creation of NIST recommended elliptic curves.
@@ -174,4 +177,43 @@ public abstract class DlogGroupEC extends DlogGroupAbs implements DlogEllipticCu
 			throw new IllegalArgumentException("data type doesn't match the group type");
 		return generateElement(bCheckMembership, ((ECElementSendableData)data).getX(), ((ECElementSendableData)data).getY());
 	}
+	
+	/**
+	 * Checks the membership of all the given points at once, and then reconstructs them without checking them again. 
+	 * See {@link ECFpUtility#checkMembership(DlogECFp, BigInteger[], BigInteger[])} and 
+	 * {@link ECF2mUtility#checkMembership(DlogECF2m, BigInteger[], BigInteger[])}.
+	 * @see edu.biu.scapi.primitives.dlog.DlogGroup#reconstructElements(boolean, edu.biu.scapi.primitives.dlog.GroupElementSendableData[])
+	 */
+	@Override
+	public GroupElement[] reconstructElements(boolean bCheckMembership, GroupElementSendableData[] data) {
+		BigInteger[] x = new BigInteger[data.length];
+		BigInteger[] y = new BigInteger[data.length];
+		for (int i = 0; i < data.length; i++){
+			if (!(data[i] instanceof ECElementSendableData)){
+				throw new IllegalArgumentException("data type doesn't match the group type");
+			}
+			x[i] = ((ECElementSendableData)data[i]).getX();
+			y[i] = ((ECElementSendableData)data[i]).getY();
+		}
+		
+		if (bCheckMembership){
+			boolean valid;
+			if (groupParams instanceof ECFpGroupParams){
+				valid = new ECFpUtility().checkMembership((DlogECFp) this, x, y);
+			} else {
+				valid = new ECF2mUtility().checkMembership((DlogECF2m) this, x, y);
+			}
+			
+			//If one of the points is not in the group, throw exception.
+			if (valid == false){
+				throw new IllegalArgumentException("Could not generate the elements. One of the given (x, y) is not a point in this Dlog group");
+			}
+		}
+		
+		GroupElement[] points = new GroupElement[data.length];
+		for (int i = 0; i < data.length; i++){
+			points[i] = generateElement(false, x[i], y[i]);
+		}
+		return points;
+	}
 }
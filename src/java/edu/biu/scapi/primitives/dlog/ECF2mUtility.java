@@ -29,6 +29,8 @@ package edu.biu.scapi.primitives.dlog;
 import java.math.BigInteger;
 import java.util.Properties;
 
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECFieldElement;
 import org.bouncycastle.util.encoders.Hex;
 
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
@@ -121,6 +123,152 @@ public class ECF2mUtility {
 		}
 	}
 	
+	/**
+	 * Checks if all the given (x, y) coordinates represent points in the given dlog group. 
+	 * This is the same as calling {@link #checkCurveMembership(ECF2mGroupParams, BigInteger, BigInteger)} and 
+	 * {@link #checkSubGroupMembership(DlogECF2m, ECF2mPoint)} for each point, but does not exponentiate each point separately:
+	 * <ul>
+	 * <li>If the cofactor is 4, the x coefficient of the double of (x, y) is x^2 + b/x^2, so the double has x = 0 if and only if x^4 = b. 
+	 * This is checked without computing the double.</li>
+	 * <li>If the cofactor is 3 or bigger than 4, all the points are exponentiated by a single batch exponentiation.</li>
+	 * </ul>
+	 * @param curve the dlog group.
+	 * @param x the x coefficients of the points. A null coefficient represents the infinity point.
+	 * @param y the y coefficients of the points.
+	 * @return true if all the given points are in the given dlog group.
+	 */
+	public boolean checkMembership(DlogECF2m curve, BigInteger[] x, BigInteger[] y){
+		ECF2mGroupParams params = (ECF2mGroupParams) curve.getGroupParams();
+		BigInteger h = params.getCofactor();
+		ECCurve.F2m bcCurve = createCurve(params);
+		
+		//Check that each point is on the curve. The infinity point is a valid member, so it is not checked further.
+		BigInteger[] xs = new BigInteger[x.length];
+		BigInteger[] ys = new BigInteger[x.length];
+		int count = 0;
+		for (int i = 0; i < x.length; i++){
+			if (x[i] == null){
+				continue;
+			}
+			if (!checkCurveMembership(bcCurve, x[i], y[i])){
+				return false;
+			}
+			xs[count] = x[i];
+			ys[count] = y[i];
+			count++;
+		}
+		
+		//If the cofactor is 1 the sub-group is same as the elliptic curve equation which the points are in.
+		if (h.equals(BigInteger.ONE)){
+			return true;
+		}
+		
+		//If the cofactor is 2 or 4 and the x coefficient is 0, the point has order 2 and is not in the group.
+		if (h.equals(new BigInteger("2")) || h.equals(new BigInteger("4"))){
+			ECFieldElement b = bcCurve.getB();
+			for (int i = 0; i < count; i++){
+				if (xs[i].signum() == 0){
+					return false;
+				}
+				//If the cofactor is 4, the point has order 4 if its double has x = 0, that is, if x^4 = b.
+				if (h.equals(new BigInteger("4")) && bcCurve.fromBigInteger(xs[i]).square().square().equals(b)){
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		GroupElement[] toExponentiate = new GroupElement[count];
+		for (int i = 0; i < count; i++){
+			toExponentiate[i] = curve.generateElement(false, xs[i], ys[i]);
+		}
+		
+		//If the cofactor is 3, the point has order 3 if its double is its inverse.
+		if (h.equals(new BigInteger("3"))){
+			GroupElement[] doubles = curve.exponentiateBatch(toExponentiate, new BigInteger("2"));
+			for (int i = 0; i < count; i++){
+				if (doubles[i].equals(curve.getInverse(toExponentiate[i]))){
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		//If the cofactor is bigger than 4, raise all the points to q at once. Each point is in the group if the result is the identity.
+		GroupElement[] powers = curve.exponentiateBatch(toExponentiate, params.getQ());
+		for (int i = 0; i < count; i++){
+			if (!powers[i].isIdentity()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Checks if the given x and y represent a valid point on the given curve, 
+	 * i.e. if the point (x, y) is a solution of the curves equation.
+	 * @param params elliptic curve over F2m parameters
+	 * @param x coefficient of the point
+	 * @param y coefficient of the point
+	 * @return true if the given x and y represented a valid point on the given curve
+	 */
+	public boolean checkCurveMembership(ECF2mGroupParams params, BigInteger x, BigInteger y){
+		return checkCurveMembership(createCurve(params), x, y);
+	}
+	
+	/*
+	 * Checks if the given x and y solve the equation of the given BC curve.
+	 */
+	private boolean checkCurveMembership(ECCurve.F2m bcCurve, BigInteger x, BigInteger y){
+		
+		// construct ECFieldElements from a,b,x,y. 
+		// Elements in the binary field are polynomials so we can't treat them as regular BigInteger. 
+		// We use BC library to create and deal with such field element.
+		ECFieldElement xElement = bcCurve.fromBigInteger(x);
+		ECFieldElement yElement = bcCurve.fromBigInteger(y);
+		ECFieldElement a = bcCurve.getA();
+		ECFieldElement b = bcCurve.getB();
+		
+		// Calculates the curve equation with the given x,y.
+		
+		// compute x^3
+		ECFieldElement xPow2 = xElement.square();
+		ECFieldElement xPow3 = xPow2.multiply(xElement);
+		// compute ax^2
+		ECFieldElement axPow2 = a.multiply(xPow2);
+		// compute x^3+ax^2+b
+		ECFieldElement rightSide = xPow3.add(axPow2).add(b);
+		
+		// compute y^2+xy
+		ECFieldElement leftSide = yElement.square().add(yElement.multiply(xElement));
+		
+		//if the the equation is solved - the point is in the elliptic curve and return true
+		return leftSide.equals(rightSide);
+	}
+	
+	/**
+	 * Creates the BC curve of the given parameters, in the same way as BcDlogECF2m does. 
+	 * The field elements are created by this curve, since BC deprecated creating them from the reduction polynomial.
+	 * @param params elliptic curve over F2m parameters
+	 * @return the curve with the parameters' field, coefficients, order and cofactor.
+	 */
+	private ECCurve.F2m createCurve(ECF2mGroupParams params){
+		//A Koblitz curve wraps a curve with a trinomial or pentanomial basis.
+		ECF2mGroupParams basis = params;
+		if (params instanceof ECF2mKoblitz) {
+			basis = ((ECF2mKoblitz) params).getCurve();
+		}
+		
+		if (basis instanceof ECF2mTrinomialBasis) {
+			ECF2mTrinomialBasis triParams = (ECF2mTrinomialBasis) basis;
+			return new ECCurve.F2m(triParams.getM(), triParams.getK1(), params.getA(), params.getB(), params.getQ(), params.getCofactor());
+		}
+		//we assume that if it's not trinomial then it's pentanomial. We do not check.
+		ECF2mPentanomialBasis pentaParams = (ECF2mPentanomialBasis) basis;
+		return new ECCurve.F2m(pentaParams.getM(), pentaParams.getK1(), pentaParams.getK2(), pentaParams.getK3(), 
+				params.getA(), params.getB(), params.getQ(), params.getCofactor());
+	}
+	
 	
 	public GroupParams checkAndCreateInitParams(Properties ecProperties, String curveName) {
 		// check that the given curve is in the field that matches the group
@@ -288,6 +288,145 @@ public class ECFpUtility {
 	}
 
 
+	/**
+	 * Checks if all the given (x, y) coordinates represent points in the given dlog group. 
+	 * This is the same as calling {@link #checkCurveMembership(ECFpGroupParams, BigInteger, BigInteger)} and 
+	 * {@link #checkSubGroupMembership(DlogECFp, ECFpPoint)} for each point, but shares the work among the points:
+	 * <ul>
+	 * <li>If the cofactor is 3 or 4, the check needs the double of each point. The doubles are computed in affine coordinates, 
+	 * and the inversions of all the points are replaced by a single inversion (Montgomery's trick).</li>
+	 * <li>If the cofactor is bigger than 4, all the points are raised to q by a single batch exponentiation.</li>
+	 * </ul>
+	 * @param curve the dlog group.
+	 * @param x the x coefficients of the points. A null coefficient represents the infinity point.
+	 * @param y the y coefficients of the points.
+	 * @return true if all the given points are in the given dlog group.
+	 */
+	public boolean checkMembership(DlogECFp curve, BigInteger[] x, BigInteger[] y){
+		ECFpGroupParams params = (ECFpGroupParams) curve.getGroupParams();
+		BigInteger p = params.getP();
+		BigInteger h = params.getCofactor();
+		
+		//Check that each point is on the curve. The infinity point is a valid member, so it is not checked further.
+		BigInteger[] xs = new BigInteger[x.length];
+		BigInteger[] ys = new BigInteger[x.length];
+		int count = 0;
+		for (int i = 0; i < x.length; i++){
+			if (x[i] == null){
+				continue;
+			}
+			if (!checkCurveMembership(params, x[i], y[i])){
+				return false;
+			}
+			xs[count] = x[i];
+			ys[count] = y[i];
+			count++;
+		}
+		
+		//If the cofactor is 1 the sub-group is same as the elliptic curve equation which the points are in.
+		if (h.equals(BigInteger.ONE)){
+			return true;
+		}
+		
+		//If the cofactor is 2 and the y coefficient is 0, the point has order 2 and is not in the group.
+		if (h.equals(new BigInteger("2"))){
+			for (int i = 0; i < count; i++){
+				if (ys[i].signum() == 0){
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		if (h.equals(new BigInteger("3")) || h.equals(new BigInteger("4"))){
+			//The double of a point with y = 0 is the infinity. 
+			//If the cofactor is 4, such a point has order 2 and is not in the group. If it is 3, the double is not the inverse of the point.
+			int numToDouble = 0;
+			for (int i = 0; i < count; i++){
+				if (ys[i].signum() == 0){
+					if (h.equals(new BigInteger("4"))){
+						return false;
+					}
+				} else {
+					xs[numToDouble] = xs[i];
+					ys[numToDouble] = ys[i];
+					numToDouble++;
+				}
+			}
+			
+			//Compute 1/(2y) of all the points at once.
+			BigInteger[] denominators = new BigInteger[numToDouble];
+			for (int i = 0; i < numToDouble; i++){
+				denominators[i] = ys[i].shiftLeft(1).mod(p);
+			}
+			BigInteger[] inverses = invertAll(denominators, p);
+			
+			BigInteger three = new BigInteger("3");
+			for (int i = 0; i < numToDouble; i++){
+				//The double of (x, y) is (x2, y2) where lambda = (3x^2 + a)/2y, x2 = lambda^2 - 2x and y2 = lambda(x - x2) - y.
+				BigInteger lambda = xs[i].multiply(xs[i]).multiply(three).add(params.getA()).multiply(inverses[i]).mod(p);
+				BigInteger x2 = lambda.multiply(lambda).subtract(xs[i].shiftLeft(1)).mod(p);
+				
+				if (h.equals(three)){
+					//The point has order 3 if its double is its inverse. Since y != 0, this happens if and only if x2 = x.
+					if (x2.equals(xs[i])){
+						return false;
+					}
+				} else {
+					//The point has order 4 if the y coefficient of its double is 0.
+					BigInteger y2 = lambda.multiply(xs[i].subtract(x2)).subtract(ys[i]).mod(p);
+					if (y2.signum() == 0){
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+		
+		//If the cofactor is bigger than 4, raise all the points to q at once. Each point is in the group if the result is the identity.
+		GroupElement[] toExponentiate = new GroupElement[count];
+		for (int i = 0; i < count; i++){
+			toExponentiate[i] = curve.generateElement(false, xs[i], ys[i]);
+		}
+		GroupElement[] powers = curve.exponentiateBatch(toExponentiate, params.getQ());
+		for (int i = 0; i < count; i++){
+			if (!powers[i].isIdentity()){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Inverts all the given non zero numbers modulo p with a single modular inversion, using Montgomery's trick.
+	 * @param values the numbers to invert, in the range [1, p).
+	 * @param p the prime modulus.
+	 * @return an array that holds the inverse of values[i] in its i-th cell.
+	 */
+	static BigInteger[] invertAll(BigInteger[] values, BigInteger p){
+		int n = values.length;
+		BigInteger[] inverses = new BigInteger[n];
+		if (n == 0){
+			return inverses;
+		}
+		
+		//Compute the prefix products values[0]*...*values[i], keeping them in the output array.
+		inverses[0] = values[0];
+		for (int i = 1; i < n; i++){
+			inverses[i] = inverses[i - 1].multiply(values[i]).mod(p);
+		}
+		
+		//Invert the product of all values, then peel the values off it one by one from the end.
+		BigInteger inverse = inverses[n - 1].modInverse(p);
+		for (int i = n - 1; i > 0; i--){
+			BigInteger current = inverse.multiply(inverses[i - 1]).mod(p);
+			inverse = inverse.multiply(values[i]).mod(p);
+			inverses[i] = current;
+		}
+		inverses[0] = inverse;
+		return inverses;
+	}
+	
 	/**
 	 * This function maps any group element to a byte array. This function does not have an inverse,<p>
 	 * that is, it is not possible to re-construct the original group element from the resulting byte array.
@@ -0,0 +1,152 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+
+/**
+ * A Lim-Lee comb table of a single base, used to compute many exponentiations of the same base.<p>
+ * An exponent of t bits is split to w rows of d = ceil(t/w) bits. The table holds, for each w bits number i, 
+ * the product of base^(2^(j*d)) over the set bits j of i. 
+ * The exponentiation then scans the d columns of the exponent from the most significant one, with a squaring and at most one 
+ * multiplication for each column.<p>
+ * The table is immutable once built, so it can be used by several threads.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class FixedBaseComb {
+	private DlogGroup dlog;
+	private int exponentLength;		//The maximal length of an exponent, t.
+	private int width;				//The number of rows, w.
+	private int columns;			//The number of bits in each row, d.
+	private GroupElement[] table;	//The table of 2^w elements. The first cell, which is the identity, is not used.
+	
+	/**
+	 * Builds the table of the given base.
+	 * @param dlog The group of the base.
+	 * @param base The base to build the table for.
+	 * @param exponentLength The maximal length of an exponent.
+	 */
+	FixedBaseComb(DlogGroup dlog, GroupElement base, int exponentLength){
+		this.dlog = dlog;
+		this.exponentLength = Math.max(exponentLength, 1);
+		width = getWidth(this.exponentLength);
+		columns = (this.exponentLength + width - 1) / width;
+		
+		//Compute base^(2^(j*d)) for each row j.
+		GroupElement[] rowBases = new GroupElement[width];
+		rowBases[0] = base;
+		for (int j = 1; j < width; j++){
+			GroupElement element = rowBases[j - 1];
+			for (int i = 0; i < columns; i++){
+				element = dlog.multiplyGroupElements(element, element);
+			}
+			rowBases[j] = element;
+		}
+		
+		//Each cell is the cell without its most significant bit, multiplied by the row base of that bit.
+		table = new GroupElement[1 << width];
+		for (int j = 0; j < width; j++){
+			int topBit = 1 << j;
+			table[topBit] = rowBases[j];
+			for (int i = 1; i < topBit; i++){
+				table[topBit | i] = dlog.multiplyGroupElements(table[i], rowBases[j]);
+			}
+		}
+		
+		//The table lives as long as the comb, so its elements must not be freed by an enclosing scope.
+		for (int i = 1; i < table.length; i++){
+			if (table[i] instanceof NativeGroupElement){
+				NativeElementScope.detach((NativeGroupElement) table[i]);
+			}
+		}
+	}
+	
+	/**
+	 * Chooses the number of rows according to the exponent's length. A wider comb needs fewer operations for each exponentiation, 
+	 * but its table is exponentially bigger.
+	 */
+	private static int getWidth(int exponentLength){
+		if (exponentLength <= 16) {
+			return 2;
+		} else if (exponentLength <= 64) {
+			return 4;
+		} else if (exponentLength <= 192) {
+			return 5;
+		} else if (exponentLength <= 512) {
+			return 6;
+		} else if (exponentLength <= 1024) {
+			return 7;
+		} else {
+			return 8;
+		}
+	}
+	
+	int getExponentLength(){
+		return exponentLength;
+	}
+	
+	/**
+	 * Raises the base to the given exponent.
+	 * @param exponent A non negative exponent of at most exponentLength bits.
+	 * @return base^exponent, as a new element that does not share the table's elements.
+	 */
+	GroupElement exponentiate(BigInteger exponent){
+		GroupElement result = null;
+		boolean isTableCell = false;	//Whether result is a cell of the table.
+		for (int k = columns - 1; k >= 0; k--){
+			if (result != null){
+				result = dlog.multiplyGroupElements(result, result);
+				isTableCell = false;
+			}
+			
+			//Collect the k-th bit of each row.
+			int index = 0;
+			for (int j = width - 1; j >= 0; j--){
+				index <<= 1;
+				if (exponent.testBit(j * columns + k)){
+					index |= 1;
+				}
+			}
+			if (index != 0){
+				isTableCell = (result == null);
+				result = isTableCell ? table[index] : dlog.multiplyGroupElements(result, table[index]);
+			}
+		}
+		
+		//A zero exponent gives the identity.
+		if (result == null){
+			return dlog.getIdentity();
+		}
+		//If only the last column selected a cell, the result is that cell itself. 
+		//The cells are shared and detached from the scopes, so the caller gets a copy that it may free. 
+		//The copy is not made by multiplying with the identity, since the native groups return the other operand of such a multiplication.
+		if (isTableCell){
+			return result.isIdentity() ? dlog.getIdentity() : dlog.reconstructElement(false, result.generateSendableData());
+		}
+		return result;
+	}
+}
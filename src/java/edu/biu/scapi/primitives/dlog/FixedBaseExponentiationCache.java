@@ -0,0 +1,213 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of fixed-base exponentiation tables, used by {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, BigInteger)}.<p>
+ * Each cached base has a Lim-Lee comb table, built once for exponents of the length of the group order. 
+ * Exponentiating a cached base with such an exponent takes about t/w squarings and t/w multiplications, 
+ * where t is the length of the group order and w is the comb width, instead of t squarings and t/2 multiplications. <p>
+ * The cache holds at most {@link #getMaximumSize()} bases. When a new base is added to a full cache, the least recently used base is evicted, 
+ * so callers that do not call {@link DlogGroup#endExponentiateWithPreComputedValues(GroupElement)} do not make the cache grow without a bound. <p>
+ * This class is thread safe. The tables are immutable once built and are built outside the cache's lock, 
+ * so threads that exponentiate different bases do not wait for each other.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class FixedBaseExponentiationCache {
+	
+	/**
+	 * The number of bases that are kept by default.
+	 */
+	public static final int DEFAULT_MAXIMUM_SIZE = 32;
+	
+	private DlogGroup dlog;									//The group of the cached bases.
+	private int maximumSize;								//The maximal number of cached bases.
+	private LinkedHashMap<GroupElement, FixedBaseComb> combs;	//The tables of the cached bases, by access order.
+	
+	//Metrics of the cache usage.
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	private AtomicLong evictions = new AtomicLong();
+	
+	/**
+	 * Creates an empty cache with the default maximum size.
+	 * @param dlog The group of the cached bases.
+	 */
+	public FixedBaseExponentiationCache(DlogGroup dlog){
+		this(dlog, DEFAULT_MAXIMUM_SIZE);
+	}
+	
+	/**
+	 * Creates an empty cache.
+	 * @param dlog The group of the cached bases.
+	 * @param maximumSize The maximal number of cached bases.
+	 */
+	public FixedBaseExponentiationCache(DlogGroup dlog, int maximumSize){
+		if (maximumSize <= 0){
+			throw new IllegalArgumentException("maximumSize should be positive");
+		}
+		this.dlog = dlog;
+		this.maximumSize = maximumSize;
+		
+		//An access ordered map that removes the least recently used base when it gets too big.
+		combs = new LinkedHashMap<GroupElement, FixedBaseComb>(16, 0.75f, true){
+			private static final long serialVersionUID = -1407353437404954235L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<GroupElement, FixedBaseComb> eldest) {
+				if (size() > FixedBaseExponentiationCache.this.maximumSize){
+					evictions.incrementAndGet();
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+	
+	/**
+	 * Raises the given base to the given exponent, using the cached table of the base. 
+	 * If the base is not cached, its table is built and cached.<p>
+	 * Exponents that are negative or longer than the group order are not covered by the table, so they are computed by a regular exponentiation.
+	 * @param base The base to exponentiate.
+	 * @param exponent The exponent.
+	 * @return base^exponent.
+	 */
+	public GroupElement exponentiate(GroupElement base, BigInteger exponent){
+		FixedBaseComb comb;
+		synchronized (combs){
+			comb = combs.get(base);
+		}
+		
+		if (comb == null){
+			misses.incrementAndGet();
+			
+			//Build the table outside the lock. If another thread built a table for this base meanwhile, use it instead.
+			FixedBaseComb newComb = new FixedBaseComb(dlog, base, dlog.getOrder().bitLength());
+			synchronized (combs){
+				comb = combs.get(base);
+				if (comb == null){
+					comb = newComb;
+					//The key is kept by the cache, so it must not be freed by an enclosing scope.
+					if (base instanceof NativeGroupElement){
+						NativeElementScope.detach((NativeGroupElement) base);
+					}
+					combs.put(base, comb);
+				}
+			}
+		} else {
+			hits.incrementAndGet();
+		}
+		
+		if (exponent.signum() < 0 || exponent.bitLength() > comb.getExponentLength()){
+			return dlog.exponentiate(base, exponent);
+		}
+		return comb.exponentiate(exponent);
+	}
+	
+	/**
+	 * Removes the table of the given base from the cache.
+	 * @param base The base to remove.
+	 */
+	public void remove(GroupElement base){
+		synchronized (combs){
+			combs.remove(base);
+		}
+	}
+	
+	/**
+	 * Removes all the tables from the cache.
+	 */
+	public void clear(){
+		synchronized (combs){
+			combs.clear();
+		}
+	}
+	
+	/**
+	 * Sets the maximal number of cached bases. If the cache holds more bases, the least recently used ones are evicted.
+	 * @param maximumSize The maximal number of cached bases.
+	 */
+	public void setMaximumSize(int maximumSize){
+		if (maximumSize <= 0){
+			throw new IllegalArgumentException("maximumSize should be positive");
+		}
+		synchronized (combs){
+			this.maximumSize = maximumSize;
+			
+			//Remove the least recently used bases, which are first in the iteration order.
+			while (combs.size() > maximumSize){
+				GroupElement eldest = combs.keySet().iterator().next();
+				combs.remove(eldest);
+				evictions.incrementAndGet();
+			}
+		}
+	}
+	
+	/**
+	 * @return the maximal number of cached bases.
+	 */
+	public int getMaximumSize(){
+		synchronized (combs){
+			return maximumSize;
+		}
+	}
+	
+	/**
+	 * @return the number of currently cached bases.
+	 */
+	public int size(){
+		synchronized (combs){
+			return combs.size();
+		}
+	}
+	
+	/**
+	 * @return the number of exponentiations that found the table of their base in the cache.
+	 */
+	public long getHitCount(){
+		return hits.get();
+	}
+	
+	/**
+	 * @return the number of exponentiations that had to build the table of their base.
+	 */
+	public long getMissCount(){
+		return misses.get();
+	}
+	
+	/**
+	 * @return the number of tables that were removed since the cache was full.
+	 */
+	public long getEvictionCount(){
+		return evictions.get();
+	}
+}
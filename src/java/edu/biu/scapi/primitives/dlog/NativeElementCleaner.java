@@ -0,0 +1,129 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Frees native objects once the Java objects that own them become unreachable.<p>
+ * This replaces the finalize() functions of the native groups and elements. An object with a finalize() function can only be 
+ * collected after the finalizer thread ran it, so a large number of short lived elements piles up in the finalizer queue and 
+ * keeps their native memory. Here, each owner is tracked by a phantom reference that does not delay its collection, and a daemon 
+ * thread frees the native object when the reference is enqueued.<p>
+ * The native object can also be freed earlier by {@link Cleanable#clean()}, in which case the daemon thread does nothing. 
+ * The deallocator must not refer to the owner, otherwise the owner never becomes unreachable.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class NativeElementCleaner {
+	
+	private static final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+	//The handles that were not cleaned yet. The set keeps the phantom references themselves reachable.
+	private static final Set<Cleanable> handles = Collections.newSetFromMap(new ConcurrentHashMap<Cleanable, Boolean>());
+	
+	static {
+		Thread cleanerThread = new Thread(new Runnable() {
+			
+			@Override
+			public void run() {
+				while (true){
+					try {
+						((Cleanable) queue.remove()).clean();
+					} catch (InterruptedException e) {
+						// Should not occur since no one interrupts this thread.
+					} catch (RuntimeException e) {
+						// A failure of one deallocator should not stop the thread from freeing the others.
+					}
+				}
+			}
+		}, "SCAPI native cleaner");
+		cleanerThread.setDaemon(true);
+		cleanerThread.start();
+	}
+	
+	private NativeElementCleaner(){}
+	
+	/**
+	 * Registers an owner of a native object, such as a native group.
+	 * @param owner the Java object that owns the native object.
+	 * @param deallocator frees the native object. It must not refer to the owner.
+	 * @return the handle that frees the native object.
+	 */
+	public static Cleanable register(Object owner, Runnable deallocator){
+		Cleanable cleanable = new Cleanable(owner, deallocator);
+		handles.add(cleanable);
+		return cleanable;
+	}
+	
+	/**
+	 * Registers an element that owns a native object. 
+	 * In addition to the registration of {@link #register(Object, Runnable)}, the element is freed by the innermost open 
+	 * {@link NativeElementScope} of the current thread, if there is one.
+	 * @param element the element that owns the native object.
+	 * @param deallocator frees the native object. It must not refer to the element.
+	 * @return the handle that frees the native object.
+	 */
+	public static Cleanable registerElement(NativeGroupElement element, Runnable deallocator){
+		Cleanable cleanable = register(element, deallocator);
+		NativeElementScope.track(cleanable);
+		return cleanable;
+	}
+	
+	/**
+	 * A handle that frees a single native object, at most once.
+	 */
+	public static final class Cleanable extends PhantomReference<Object> {
+		private final Runnable deallocator;
+		private final AtomicBoolean cleaned = new AtomicBoolean(false);
+		
+		private Cleanable(Object owner, Runnable deallocator){
+			super(owner, queue);
+			this.deallocator = deallocator;
+		}
+		
+		/**
+		 * Frees the native object, if it was not freed yet.
+		 */
+		public void clean(){
+			if (cleaned.compareAndSet(false, true)){
+				handles.remove(this);
+				deallocator.run();
+			}
+		}
+		
+		/**
+		 * @return true if the native object was freed; false, otherwise.
+		 */
+		public boolean isCleaned(){
+			return cleaned.get();
+		}
+	}
+}
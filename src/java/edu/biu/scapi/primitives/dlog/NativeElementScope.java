@@ -0,0 +1,138 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.util.LinkedHashSet;
+
+/**
+ * A scope that frees at once all the native elements created inside it.<p>
+ * A protocol step that computes many temporary elements can open a scope, and every {@link NativeGroupElement} that the current 
+ * thread creates until the scope is closed is freed when it is closed:
+ * <pre>
+ * NativeElementScope scope = NativeElementScope.open();
+ * try {
+ * 	...
+ * 	result = scope.keep(element);
+ * } finally {
+ * 	scope.close();
+ * }
+ * </pre>
+ * Elements that should outlive the scope, such as the output of the step, are passed to {@link #keep(NativeGroupElement)}.<p>
+ * Scopes can be nested. They belong to the thread that opened them and must be closed by it, in the reverse order of their opening. 
+ * Elements created by other threads, for example by a parallel batch operation, are not tracked by the scope.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class NativeElementScope implements AutoCloseable {
+	
+	private static final ThreadLocal<NativeElementScope> currentScope = new ThreadLocal<NativeElementScope>();
+	
+	private NativeElementScope parent;
+	private LinkedHashSet<NativeElementCleaner.Cleanable> cleanables = new LinkedHashSet<NativeElementCleaner.Cleanable>();
+	private boolean closed = false;
+	
+	private NativeElementScope(NativeElementScope parent){
+		this.parent = parent;
+	}
+	
+	/**
+	 * Opens a new scope in the current thread, inside the current scope if there is one.
+	 * @return the new scope.
+	 */
+	public static NativeElementScope open(){
+		NativeElementScope scope = new NativeElementScope(currentScope.get());
+		currentScope.set(scope);
+		return scope;
+	}
+	
+	/**
+	 * Adds the given handle to the innermost scope of the current thread, if there is one.
+	 */
+	static void track(NativeElementCleaner.Cleanable cleanable){
+		NativeElementScope scope = currentScope.get();
+		if (scope != null){
+			scope.cleanables.add(cleanable);
+		}
+	}
+	
+	/**
+	 * Removes the given element from all the open scopes of the current thread, so that it lives until it is closed or becomes unreachable.<p>
+	 * The groups call this function for the elements they keep, such as the generator and pre computed values.
+	 * @param element the element to remove.
+	 */
+	public static void detach(NativeGroupElement element){
+		NativeElementCleaner.Cleanable cleanable = element.getCleanable();
+		for (NativeElementScope scope = currentScope.get(); scope != null; scope = scope.parent){
+			scope.cleanables.remove(cleanable);
+		}
+	}
+	
+	/**
+	 * Moves the given element from this scope to the enclosing scope, or out of the scopes if this is the outermost one. 
+	 * The element is not freed when this scope is closed.
+	 * @param element the element to keep.
+	 * @return the given element.
+	 */
+	public <T extends NativeGroupElement> T keep(T element){
+		NativeElementCleaner.Cleanable cleanable = element.getCleanable();
+		if (cleanables.remove(cleanable) && parent != null){
+			parent.cleanables.add(cleanable);
+		}
+		return element;
+	}
+	
+	/**
+	 * @return the number of elements that this scope frees when it is closed.
+	 */
+	public int size(){
+		return cleanables.size();
+	}
+	
+	/**
+	 * Frees all the elements created inside this scope, except for the kept ones, and makes the enclosing scope the current one.
+	 * Calling this function more than once has no effect.
+	 * @throws IllegalStateException if this is not the innermost open scope of the current thread.
+	 */
+	@Override
+	public void close(){
+		if (closed){
+			return;
+		}
+		if (currentScope.get() != this){
+			throw new IllegalStateException("a scope must be closed by the thread that opened it, after its inner scopes");
+		}
+		closed = true;
+		if (parent == null){
+			currentScope.remove();
+		} else{
+			currentScope.set(parent);
+		}
+		for (NativeElementCleaner.Cleanable cleanable : cleanables){
+			cleanable.clean();
+		}
+		cleanables.clear();
+	}
+}
@@ -0,0 +1,270 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.bouncycastle.util.BigIntegers;
+
+/**
+ * A bounded pool of precomputed exponentiations of a fixed set of bases by a common random exponent, that is, 
+ * tuples (r, g1^r, ..., gn^r) for a random r in Zq.<p>
+ * Many schemes choose a fresh random r and exponentiate fixed bases by it before they use their inputs, 
+ * for example ElGamal encryption computes g^r and h^r. Such a scheme can take a tuple from this pool instead, so that 
+ * its online work is only the part that depends on the inputs. <p>
+ * The pool is filled by calls to {@link #fill()}, for example between protocol executions, or by background threads of minimal priority, 
+ * which run on otherwise idle cores and wait while the pool is full. 
+ * The exponentiations use {@link DlogGroup#exponentiateWithPreComputedValues(GroupElement, BigInteger)}, since the bases are fixed. 
+ * If the pool is empty, {@link #take()} computes a tuple by itself instead of waiting. <p>
+ * Each tuple is handed out once, since reusing the randomness of a scheme breaks its security. <p>
+ * The background threads exponentiate in the given group while the caller keeps using the same group object, so they should be used 
+ * only with groups whose operations are thread safe, such as the pure java groups. The native groups keep shared native state 
+ * (the OpenSSL groups share one BN_CTX and the Miracl groups share one mip), and must be used with no background threads. <p>
+ * The methods of this class may be called from multiple threads. The threads should be stopped by {@link #close()} when the pool is no longer needed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class PrecomputedExponentiationPool implements AutoCloseable {
+	
+	private DlogGroup dlog;						//The group of the bases.
+	private GroupElement[] bases;				//The bases to exponentiate.
+	private BigInteger qMinusOne;				//The largest exponent.
+	private SecureRandom random;				//Source of randomness of the exponents.
+	private BlockingQueue<Entry> entries;		//The precomputed tuples.
+	private Thread[] workers;					//The threads that fill the pool.
+	private volatile boolean isClosed;
+	private volatile RuntimeException failure;	//The exception that stopped a background thread, or null.
+	//Metrics of the pool usage.
+	private AtomicLong hits = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * A random exponent r and the powers of the bases of the pool by r.
+	 */
+	public static class Entry {
+		private BigInteger r;
+		private GroupElement[] powers;
+		
+		Entry(BigInteger r, GroupElement[] powers){
+			this.r = r;
+			this.powers = powers;
+		}
+		
+		/**
+		 * @return the random exponent r.
+		 */
+		public BigInteger getR(){
+			return r;
+		}
+		
+		/**
+		 * @param index the index of a base of the pool.
+		 * @return the base in the given index raised to r.
+		 */
+		public GroupElement getPower(int index){
+			return powers[index];
+		}
+	}
+	
+	/**
+	 * Creates a pool that has no background threads, so it is filled only by calls to {@link #fill()}.
+	 * @param dlog The group of the bases.
+	 * @param bases The bases to exponentiate.
+	 * @param capacity The maximal number of tuples that are kept.
+	 */
+	public PrecomputedExponentiationPool(DlogGroup dlog, GroupElement[] bases, int capacity){
+		this(dlog, bases, capacity, 0, new SecureRandom());
+	}
+	
+	/**
+	 * Creates a pool and starts the threads that fill it.
+	 * @param dlog The group of the bases.
+	 * @param bases The bases to exponentiate.
+	 * @param capacity The maximal number of tuples that are kept.
+	 * @param numThreads The number of background threads that fill the pool. 
+	 * If it is zero, the pool is filled only by calls to {@link #fill()}. 
+	 * Background threads should be used only if the operations of the group are thread safe.
+	 * @param random The source of randomness of the exponents.
+	 * @throws IllegalArgumentException if the capacity is not positive, the number of threads is negative or there are no bases.
+	 */
+	public PrecomputedExponentiationPool(DlogGroup dlog, GroupElement[] bases, int capacity, int numThreads, SecureRandom random){
+		if (capacity <= 0){
+			throw new IllegalArgumentException("capacity should be positive");
+		}
+		if (numThreads < 0){
+			throw new IllegalArgumentException("numThreads should not be negative");
+		}
+		if (bases.length == 0){
+			throw new IllegalArgumentException("there should be at least one base");
+		}
+		this.dlog = dlog;
+		this.bases = bases.clone();
+		this.random = random;
+		qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		entries = new ArrayBlockingQueue<Entry>(capacity);
+		
+		workers = new Thread[numThreads];
+		for (int i = 0; i < numThreads; i++){
+			workers[i] = new Thread(new Worker(), "PrecomputedExponentiationPool-" + i);
+			workers[i].setDaemon(true);
+			workers[i].setPriority(Thread.MIN_PRIORITY);
+			workers[i].start();
+		}
+	}
+	
+	/**
+	 * Fills the pool up to its capacity on the calling thread.
+	 */
+	public void fill(){
+		while (!isClosed && entries.remainingCapacity() > 0){
+			if (!entries.offer(computeEntry())){
+				break;
+			}
+		}
+	}
+	
+	/**
+	 * Removes a tuple from the pool. If the pool is empty, computes a new tuple.
+	 * @return a tuple that was not handed out before.
+	 */
+	public Entry take(){
+		Entry entry = entries.poll();
+		if (entry == null){
+			misses.incrementAndGet();
+			return computeEntry();
+		}
+		hits.incrementAndGet();
+		return entry;
+	}
+	
+	/**
+	 * Checks if this pool exponentiates the given bases of the given group, in the given order.
+	 * @param dlog The group that the caller works in.
+	 * @param bases The bases that the caller exponentiates.
+	 * @return true if the pool matches the given group and bases; false, otherwise.
+	 */
+	public boolean matches(DlogGroup dlog, GroupElement... bases){
+		if (this.dlog != dlog || this.bases.length != bases.length){
+			return false;
+		}
+		for (int i = 0; i < bases.length; i++){
+			if (!this.bases[i].equals(bases[i])){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * @return the group of the bases.
+	 */
+	public DlogGroup getDlogGroup(){
+		return dlog;
+	}
+	
+	/**
+	 * @return the number of tuples that are currently in the pool.
+	 */
+	public int size(){
+		return entries.size();
+	}
+	
+	/**
+	 * @return the number of tuples that were taken from the pool.
+	 */
+	public long getHits(){
+		return hits.get();
+	}
+	
+	/**
+	 * @return the number of tuples that were computed by {@link #take()} since the pool was empty.
+	 */
+	public long getMisses(){
+		return misses.get();
+	}
+	
+	/**
+	 * Returns the exception that stopped a background thread. The pool keeps working after such a failure, 
+	 * but the stopped thread does not fill it anymore.
+	 * @return the exception, or null if no background thread failed.
+	 */
+	public RuntimeException getFailure(){
+		return failure;
+	}
+	
+	/**
+	 * Stops the background threads and removes the tuples from the pool. Later calls to {@link #take()} compute their tuples.
+	 */
+	@Override
+	public void close(){
+		isClosed = true;
+		for (int i = 0; i < workers.length; i++){
+			workers[i].interrupt();
+		}
+		entries.clear();
+	}
+	
+	/*
+	 * Chooses a random r in Zq and raises each base to r.
+	 */
+	private Entry computeEntry(){
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		GroupElement[] powers = new GroupElement[bases.length];
+		for (int i = 0; i < bases.length; i++){
+			powers[i] = dlog.exponentiateWithPreComputedValues(bases[i], r);
+			//A tuple may stay in the pool after the scope of the thread that computed it is closed, so its elements must not be freed by that scope.
+			if (powers[i] instanceof NativeGroupElement){
+				NativeElementScope.detach((NativeGroupElement) powers[i]);
+			}
+		}
+		return new Entry(r, powers);
+	}
+	
+	/*
+	 * Computes tuples and puts them in the pool, waiting while the pool is full, until the pool is closed.
+	 */
+	private class Worker implements Runnable {
+		@Override
+		public void run() {
+			try {
+				while (!isClosed){
+					entries.put(computeEntry());
+				}
+			} catch (InterruptedException e) {
+				//The pool was closed.
+			} catch (RuntimeException e) {
+				//Keep the exception so that the owner of the pool can see why the pool is not filled.
+				failure = e;
+			}
+			//A tuple that was put after close cleared the pool must not stay there.
+			entries.clear();
+		}
+	}
+}
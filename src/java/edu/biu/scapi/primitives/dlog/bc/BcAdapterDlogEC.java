@@ -197,8 +197,9 @@ public abstract class BcAdapterDlogEC extends DlogGroupEC
 				throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
 			}
 		}
-		//Our test results show that for BC elliptic curve the LL algorithm always gives the best performances
-		return computeLL(groupElements, exponentiations);
+		//Our test results show that for BC elliptic curve the LL algorithm gives the best performances for a few bases.
+		//For many bases the bucket method is used.
+		return computeMultiExponentiation(groupElements, exponentiations);
 	}
 	
 	/*
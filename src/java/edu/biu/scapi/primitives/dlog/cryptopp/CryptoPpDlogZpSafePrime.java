@@ -354,7 +354,10 @@ public class CryptoPpDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafeP
 			}
 		}
 		//currently, in cryptoPpDlogZpSafePrime the native algorithm is faster than the optimized one due to many calls to the JNI.
-		//Thus, we operate the native algorithm. In the future we may change this.
+		//Thus, we operate the native algorithm, unless there are enough bases for the bucket method to save the JNI calls.
+		if (groupElements.length >= NATIVE_PIPPENGER_THRESHOLD){
+			return computePippenger(groupElements, exponentiations);
+		}
 		return computeNaive(groupElements, exponentiations);
 
 	}
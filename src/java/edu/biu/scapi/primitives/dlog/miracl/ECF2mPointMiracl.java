@@ -32,20 +32,23 @@ import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECF2mPoint;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 /**
  * This class is an adapter for F2m points of miracl
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
+public class ECF2mPointMiracl implements ECElement, ECF2mPoint, NativeGroupElement{
 
 	private native long createF2mPoint(long mip, byte[] x, byte[] y);
 	private native boolean checkInfinityF2m(long point);
 	private native byte[] getXValueF2mPoint(long mip, long point);
 	private native byte[] getYValueF2mPoint(long mip, long point);
-	private native void deletePointF2m(long p);
+	private static native void deletePointF2m(long p);
 	
 	private long point = 0;
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native point.
 	//For performance reasons we decided to keep redundant information about the point. Once we have the member long point which is a pointer
 	//to the actual point generated in the native code we do not really have a need to keep the BigIntegers x and y, since this data can be retrieved from the point.
 	//However, to retrieve these values we need to perform an extra JNI call for each one plus we need to create a new BigInteger each time. It follows that each time
@@ -83,6 +86,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 		//indicating that this is not a valid point
 		if (point == 0)
 			throw new IllegalArgumentException("x, y values are not a point on this curve");
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		this.x = x;
 		this.y = y;
 	
@@ -97,6 +101,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	 */
 	ECF2mPointMiracl(long ptr, MiraclDlogECF2m curve){
 		this.point = ptr;
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		mip = curve.getMip();
 		curveName = curve.getCurveName();
 		fileName = curve.getFileName();
@@ -117,6 +122,9 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	 * @return the pointer to the point
 	 */
 	long getPoint(){
+		if (cleanable.isCleaned()){
+			throw new IllegalStateException("the element was closed");
+		}
 		return point;
 	}
 	
@@ -125,7 +133,7 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 	}
 	
 	public boolean isInfinity(){
-		return checkInfinityF2m(point);
+		return checkInfinityF2m(getPoint());
 	}
 	
 	public BigInteger getX(){
@@ -173,12 +181,37 @@ public class ECF2mPointMiracl implements ECElement, ECF2mPoint{
 		return "ECF2mPointMiracl [point= " + getX() + "; " + getY() + "]";
 	}
 	/**
-	 * delete the related point
+	 * Frees the native point now, instead of waiting for this element to become unreachable.
+	 */
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return cleanable.isCleaned();
+	}
+	
+	@Override
+	public NativeElementCleaner.Cleanable getCleanable() {
+		return cleanable;
+	}
+	
+	/*
+	 * Deletes the native point. It does not refer to the element, so that the element can become unreachable.
 	 */
-	protected void finalize() throws Throwable{
+	private static class Deallocator implements Runnable {
+		private long pointer;
 		
-		//delete from the dll the dynamic allocation of the point.
-		deletePointF2m(point);
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deletePointF2m(pointer);
+		}
 	}
 	
 	static {
@@ -32,21 +32,24 @@ import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECFpPoint;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 
 /**
  * This class is an adapter for Fp points of miracl
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class ECFpPointMiracl implements ECElement, ECFpPoint{
+public class ECFpPointMiracl implements ECElement, ECFpPoint, NativeGroupElement{
 
 	private native long createFpPoint(long mip, byte[] x, byte[] y);
 	private native boolean checkInfinityFp(long point);
-	private native void deletePointFp(long p);
+	private static native void deletePointFp(long p);
 	private native byte[] getXValueFpPoint(long mip, long point);
 	private native byte[] getYValueFpPoint(long mip, long point);
 	
 	private long point;
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native point.
 	//For performance reasons we decided to keep redundant information about the point. Once we have the member long point which is a pointer
 	//to the actual point generated in the native code we do not really have a need to keep the BigIntegers x and y, since this data can be retrieved from the point.
 	//However, to retrieve these values we need to perform an extra JNI call for each one plus we need to create a new BigInteger each time. It follows that each time
@@ -80,6 +83,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 		//indicating that this is not a valid point
 		if (point == 0)
 			throw new IllegalArgumentException("x, y values are not a point on this curve");
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		//Keep the coordinates for performance reasons. See long comment above next to declaration.
 		this.x = x;
 		this.y = y;
@@ -93,6 +97,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	 */
 	ECFpPointMiracl(long ptr, MiraclDlogECFp curve){
 		this.point = ptr;
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		mip = curve.getMip();
 		//Set X and Y coordinates:
 		//in case of infinity, there are no coordinates and we set them to null
@@ -111,7 +116,7 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	}
 	
 	public boolean isInfinity(){
-		return checkInfinityFp(point);
+		return checkInfinityFp(getPoint());
 	}
 	
 	/**
@@ -119,6 +124,9 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	 * @return the pointer to the point
 	 */
 	long getPoint(){
+		if (cleanable.isCleaned()){
+			throw new IllegalStateException("the element was closed");
+		}
 		return point;
 	}
 	
@@ -171,11 +179,37 @@ public class ECFpPointMiracl implements ECElement, ECFpPoint{
 	}
 	
 	/**
-	 * delete the related point in Miracl's native code.
+	 * Frees the native point now, instead of waiting for this element to become unreachable.
 	 */
-	protected void finalize() throws Throwable{
-		//delete from the dll the dynamic allocation of the point.
-		deletePointFp(point);
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return cleanable.isCleaned();
+	}
+	
+	@Override
+	public NativeElementCleaner.Cleanable getCleanable() {
+		return cleanable;
+	}
+	
+	/*
+	 * Deletes the native point. It does not refer to the element, so that the element can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deletePointFp(pointer);
+		}
 	}
 	
 	
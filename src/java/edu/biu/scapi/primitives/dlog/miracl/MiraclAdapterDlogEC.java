@@ -35,9 +35,12 @@ import java.util.HashMap;
 import edu.biu.scapi.primitives.dlog.DlogEllipticCurve;
 import edu.biu.scapi.primitives.dlog.DlogGroupEC;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 
 public abstract class MiraclAdapterDlogEC extends DlogGroupEC 
-										  implements DlogEllipticCurve{
+										  implements DlogEllipticCurve, AutoCloseable{
 	
 	// upload MIRACL library
 	static {
@@ -47,11 +50,12 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	
 	//Native code functions:
 	private native long createMip();
-	private native void deleteMip(long mip);
+	private static native void deleteMip(long mip);
 	
 	//Class members:
 	protected int window = 0;
 	protected long mip; ///MIRACL pointer
+	private NativeElementCleaner.Cleanable cleanable; //Frees the MIRACL pointer.
 	protected HashMap <GroupElement, Long> exponentiationsMap; // Map that holds a pointer to the precomputed values of exponentiating a given group element (the base) 
 																//calculated in Miracl's native code
 	
@@ -81,8 +85,10 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	 * @return mip - miracl pointer
 	 */
 	public long getMip(){
-		if (mip==0)
+		if (mip==0){
 			mip = createMip();
+			cleanable = NativeElementCleaner.register(this, new Deallocator(mip));
+		}
 		return mip;
 	}
 	
@@ -110,6 +116,10 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 			//to the actual computation of the exponentiation in the step below.
 			ebrickPointer = initExponentiateWithPrecomputedValues(base, exponent, getWindow(), getOrder().bitLength());
 			exponentiationsMap.put(base, ebrickPointer);
+			//The base is kept in the map, so it should not be freed by the current scope.
+			if (base instanceof NativeGroupElement){
+				NativeElementScope.detach((NativeGroupElement) base);
+			}
 		}
 		//At this stage we have a pointer to the ebrick pointer in native code, and we pass it on to compute base^exponent and obtain the resulting Group Element
 		return computeExponentiateWithPrecomputedValues(ebrickPointer, exponent);
@@ -117,6 +127,34 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	}
 	
 		
+	/**
+	 * Raises the given base to each of the given exponents.<p>
+	 * Miracl's ebrick pre computation of the base is done once and used by all the exponents. 
+	 * In case the base had no pre computed values before this call, they are deleted at its end.
+	 * @param base The group element to exponentiate.
+	 * @param exponents The exponents.
+	 * @return an array that holds base^exponents[i] in its i-th cell.
+	 */
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) {
+		//The ebrick pre computation covers non negative exponents of the length of the group order. Other exponents are computed regularly.
+		for (BigInteger exponent : exponents){
+			if (exponent.signum() < 0 || exponent.bitLength() > getOrder().bitLength()){
+				return super.exponentiateBatch(base, exponents);
+			}
+		}
+		
+		boolean wasPreComputed = exponentiationsMap.containsKey(base);
+		GroupElement[] results = new GroupElement[exponents.length];
+		for (int i = 0; i < exponents.length; i++){
+			results[i] = exponentiateWithPreComputedValues(base, exponents[i]);
+		}
+		if (!wasPreComputed){
+			endExponentiateWithPreComputedValues(base);
+		}
+		return results;
+	}
+	
 	//The window size is used when calling Miracl's implementation of exponentiate with pre-computed values. It is used as part of the Ebrick algorithm.
 	protected int getWindow(){
 		if (window != 0){
@@ -132,14 +170,30 @@ public abstract class MiraclAdapterDlogEC extends DlogGroupEC
 	}
 	
 	/**
-	 * deletes the related Dlog group object
+	 * Deletes the MIRACL pointer now, instead of waiting for this group to become unreachable.<p>
+	 * The group and its elements must not be used after it was closed. Calling this function more than once has no effect.
 	 */
-	public void finalize() throws Throwable {
-
-		// delete from the dll the dynamic allocation of MIRACL pointer.
-		deleteMip(mip);
-
-		super.finalize();
+	@Override
+	public void close() {
+		if (cleanable != null){
+			cleanable.clean();
+		}
+	}
+	
+	/*
+	 * Deletes the MIRACL pointer. It does not refer to the group, so that the group can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deleteMip(pointer);
+		}
 	}
 	
 }
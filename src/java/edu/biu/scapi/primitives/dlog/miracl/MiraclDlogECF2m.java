@@ -36,6 +36,8 @@ import edu.biu.scapi.primitives.dlog.DlogECF2m;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECF2mUtility;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mKoblitz;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mPentanomialBasis;
@@ -145,6 +147,8 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		// create the generator
 		// here we assume that (x,y) are the coordinates of a point that is indeed a generator
 		generator = new ECF2mPointMiracl(x, y, this);
+		//The generator lives as long as the group, so it must not be freed by an enclosing scope.
+		NativeElementScope.detach((NativeGroupElement) generator);
 	}
 
 	/**
@@ -265,7 +269,11 @@ public class MiraclDlogECF2m extends MiraclAdapterDlogEC implements DlogECF2m, D
 		//Koblitz curve has an optimization that causes the naive algorithm to be faster than the following optimized algorithm.
 		//so currently we use the naive algorithm instead of the optimized algorithm.
 		// may be in the future this will be change.
+		//For many bases, the bucket method saves most of the exponentiations.
 		if (groupParams instanceof ECF2mKoblitz) {
+			if (groupElements.length >= NATIVE_PIPPENGER_THRESHOLD){
+				return computePippenger(groupElements, exponentiations);
+			}
 			return computeNaive(groupElements, exponentiations);
 		}
 
@@ -36,6 +36,8 @@ import edu.biu.scapi.primitives.dlog.DlogECFp;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECFpUtility;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
 import edu.biu.scapi.primitives.dlog.groupParams.GroupParams;
 import edu.biu.scapi.securityLevel.DDH;
@@ -113,6 +115,8 @@ public class MiraclDlogECFp extends MiraclAdapterDlogEC implements DlogECFp, DDH
 		initFpCurve(getMip(), p.toByteArray(), fpParams.getA().mod(p).toByteArray(), fpParams.getB().toByteArray());
 		// create the generator
 		generator = new ECFpPointMiracl(fpParams.getXg(), fpParams.getYg(), this);
+		//The generator lives as long as the group, so it must not be freed by an enclosing scope.
+		NativeElementScope.detach((NativeGroupElement) generator);
 	}
 	
 	
@@ -29,6 +29,8 @@ import java.math.BigInteger;
 import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECF2mPoint;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 
 /**
  * This class is an adapter for F2m points of OpenSSL library.
@@ -36,15 +38,16 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class ECF2mPointOpenSSL implements ECF2mPoint{
+public class ECF2mPointOpenSSL implements ECF2mPoint, NativeGroupElement{
 	//Native functions that calls OpenSSL functionalities regarding the F2m points.
 	private native long createPoint(long curve, byte[] x, byte[] y); // Creates the native point.
 	private native byte[] getX(long curve, long point); 			 // Gets the x coordinate of the point.
 	private native byte[] getY(long curve, long point); 			 // Gets the y coordinate of the point.
 	private native boolean checkInfinity(long curve, long point);    // Checks if this point is the infinity. 
-	private native void deletePoint(long point);					 // Deletes the native point.
+	private static native void deletePoint(long point);					 // Deletes the native point.
 	
 	private long point; //Pointer to the native point object.
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native point.
 	
 	//For performance reasons we decided to keep redundant information about the point. Once we have the member long point which is a pointer
 	//to the actual point generated in the native code we do not really have a need to keep the BigIntegers x and y, since this data can be retrieved 
@@ -75,6 +78,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 		//indicating that this is not a valid point
 		if (point == 0)
 			throw new IllegalArgumentException("x, y values are not a point on this curve");
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		//Keep the coordinates for performance reasons. See long comment above next to declaration.
 		this.x = x;
 		this.y = y;
@@ -84,7 +88,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 			boolean valid = curve.isMember(this);
 			// checks validity
 			if (valid == false) {// if not valid, throws exception
-				deletePoint(point);
+				close();
 				throw new IllegalArgumentException("x, y values are not a point on this curve");
 			}
 		}
@@ -98,6 +102,7 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	 */
 	ECF2mPointOpenSSL(long curve, long point) {
 		this.point = point;
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		
 		if (checkInfinity(curve, point)){
 			x = null;
@@ -114,6 +119,9 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	 * @return the pointer to the native point.
 	 */
 	long getPoint(){
+		if (cleanable.isCleaned()){
+			throw new IllegalStateException("the element was closed");
+		}
 		return point;
 	}
 	
@@ -169,11 +177,37 @@ public class ECF2mPointOpenSSL implements ECF2mPoint{
 	}
 
 	/**
-	 * Delete the related point in OpenSSL's native code.
+	 * Frees the native point now, instead of waiting for this element to become unreachable.
 	 */
-	protected void finalize() throws Throwable{
-		//Delete from the dll the dynamic allocation of the point.
-		deletePoint(point);
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return cleanable.isCleaned();
+	}
+	
+	@Override
+	public NativeElementCleaner.Cleanable getCleanable() {
+		return cleanable;
+	}
+	
+	/*
+	 * Deletes the native point. It does not refer to the element, so that the element can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deletePoint(pointer);
+		}
 	}
 
 }
@@ -30,6 +30,8 @@ import edu.biu.scapi.primitives.dlog.ECElementSendableData;
 import edu.biu.scapi.primitives.dlog.ECFpPoint;
 import edu.biu.scapi.primitives.dlog.ECFpUtility;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
 
 /**
@@ -38,15 +40,16 @@ import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class ECFpPointOpenSSL implements ECFpPoint{
+public class ECFpPointOpenSSL implements ECFpPoint, NativeGroupElement{
 	//Native functions that calls OpenSSL functionalities regarding the Fp points.
 	private native long createPoint(long curve, byte[] x, byte[] y); 	//Creates the native point.
 	private native byte[] getX(long curve, long point);					// Gets the x coordinate of the point.
 	private native byte[] getY(long curve, long point);					// Gets the y coordinate of the point.
 	private native boolean checkInfinity(long curve, long point);		// Checks if this point is the infinity. 
-	private native void deletePoint(long point);						// Deletes the native point.
+	private static native void deletePoint(long point);						// Deletes the native point.
 	
 	private long point; //Pointer to the native point object.
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native point.
 	
 	//For performance reasons we decided to keep redundant information about the point. Once we have the member long point which is a pointer
 	//to the actual point generated in the native code we do not really have a need to keep the BigIntegers x and y, since this data can be retrieved 
@@ -84,6 +87,7 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 		//indicating that this is not a valid point
 		if (point == 0)
 			throw new IllegalArgumentException("x, y values are not a point on this curve");
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		//Keep the coordinates for performance reasons. See long comment above next to declaration.
 		this.x = x;
 		this.y = y;
@@ -97,6 +101,7 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 	 */
 	ECFpPointOpenSSL(long curve, long point) {
 		this.point = point;
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(point));
 		
 		if (checkInfinity(curve, point)){
 			x = null;
@@ -113,6 +118,9 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 	 * @return the pointer to the native point.
 	 */
 	long getPoint(){
+		if (cleanable.isCleaned()){
+			throw new IllegalStateException("the element was closed");
+		}
 		return point;
 	}
 	
@@ -168,10 +176,36 @@ public class ECFpPointOpenSSL implements ECFpPoint{
 	}
 
 	/**
-	 * Delete the related point in OpenSSL's native code.
+	 * Frees the native point now, instead of waiting for this element to become unreachable.
 	 */
-	protected void finalize() throws Throwable{
-		//Delete from the dll the dynamic allocation of the point.
-		deletePoint(point);
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return cleanable.isCleaned();
+	}
+	
+	@Override
+	public NativeElementCleaner.Cleanable getCleanable() {
+		return cleanable;
+	}
+	
+	/*
+	 * Deletes the native point. It does not refer to the element, so that the element can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deletePoint(pointer);
+		}
 	}
 }
@@ -30,6 +30,7 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.primitives.dlog.DlogGroupEC;
 import edu.biu.scapi.primitives.dlog.ECElement;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
 
 /**
  * An abstract class that implements some common functionalities for both elliptic curve types, Fp and F2m.
@@ -37,9 +38,10 @@ import edu.biu.scapi.primitives.dlog.ECElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public abstract class OpenSSLAdapterDlogEC extends DlogGroupEC{
+public abstract class OpenSSLAdapterDlogEC extends DlogGroupEC implements AutoCloseable{
 
 	protected long curve; //Pointer to the native curve.
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native curve.
 	
 	//Native functions that calls OpenSSL functionalities regarding the curve.
 	protected native long createInfinityPoint(long curve);							//Creates an infinity point.
@@ -50,7 +52,9 @@ public abstract class OpenSSLAdapterDlogEC extends DlogGroupEC{
 	protected native long simultaneousMultiply(long curve, long[] nativePoints, byte[][] exponents);//Raises each base to the respective exponent and multiplies the results.
 	protected native boolean validate(long curve);									//Validates the curve.
 	protected native long exponentiateWithPreComputedValues(long curve, byte[] exponent);//Raise the given base to the given exponent, using pre computed values.
-	protected native void deleteDlog(long curve);									//Deletes the native curve.
+	protected native long[] exponentiateBases(long curve, long[] points, byte[] exponent);	//Raises each of the given bases to the exponent.
+	protected native long[] exponentiateToExponents(long curve, long point, byte[][] exponents);//Raises the given base to each of the exponents, using pre computed values.
+	private static native void deleteDlog(long curve);								//Deletes the native curve.
 	
 	/**
 	 * Initialize this DlogGroup with the curve in the given file.
@@ -114,14 +118,38 @@ public abstract class OpenSSLAdapterDlogEC extends DlogGroupEC{
 	}
 	
 	/**
-	 * Deletes the related Dlog group object
+	 * Registers the native curve to be deleted once this group becomes unreachable. 
+	 * The concrete classes call this function right after they create the curve.
 	 */
-	protected void finalize() throws Throwable {
-
-		// Delete from the dll the dynamic allocation.
-		deleteDlog(curve);
-
-		super.finalize();
+	protected void registerCurve(){
+		cleanable = NativeElementCleaner.register(this, new Deallocator(curve));
+	}
+	
+	/**
+	 * Deletes the native curve now, instead of waiting for this group to become unreachable.<p>
+	 * The group and its elements must not be used after it was closed. Calling this function more than once has no effect.
+	 */
+	@Override
+	public void close() {
+		if (cleanable != null){
+			cleanable.clean();
+		}
+	}
+	
+	/*
+	 * Deletes the native curve. It does not refer to the group, so that the group can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deleteDlog(pointer);
+		}
 	}
 	
 	// Upload OpenSSL library.
@@ -34,6 +34,8 @@ import edu.biu.scapi.primitives.dlog.DlogECF2m;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECF2mUtility;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mGroupParams;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mKoblitz;
 import edu.biu.scapi.primitives.dlog.groupParams.ECF2mPentanomialBasis;
@@ -137,9 +139,12 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		
 		//Create the native curve.
 		curve = createCurve(p.toByteArray(), ((ECGroupParams) params).getA().toByteArray(), ((ECGroupParams) params).getB().toByteArray());
+		registerCurve();
 		
 		//Create the generator.
 		generator  = new ECF2mPointOpenSSL(((ECGroupParams) params).getXg(), ((ECGroupParams) params).getYg(), this, true);
+		//The generator lives as long as the group, so it must not be freed by an enclosing scope.
+		NativeElementScope.detach((NativeGroupElement) generator);
 		
 		//Initialize the native curve with the generator, order and cofactor.
 		initCurve(curve, ((ECF2mPointOpenSSL) generator).getPoint(), params.getQ().toByteArray(), ((ECF2mGroupParams) params).getCofactor().toByteArray());
@@ -203,6 +208,81 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 		return new ECF2mPointOpenSSL(curve, result);
 	}
 
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement[] bases, BigInteger exponent) {
+		//Create an array to hold the native points.
+		long[] nativePoints = new long[bases.length];
+		for (int i = 0; i < bases.length; i++) {
+			//If the GroupElement doesn't match the DlogGroup, throw exception.
+			if (!(bases[i] instanceof ECF2mPointOpenSSL)){
+				throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+			}
+			nativePoints[i] = ((ECF2mPointOpenSSL) bases[i]).getPoint();
+		}
+		
+		//If the exponent is negative, convert it to be the exponent modulus q.
+		if (exponent.compareTo(BigInteger.ZERO) < 0){
+			exponent = exponent.mod(getOrder());
+		}
+		
+		// Call the native function that exponentiates all the bases.
+		long[] results = exponentiateBases(curve, nativePoints, exponent.toByteArray());
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		// Build a ECF2mPointOpenSSL element from each result.
+		GroupElement[] elements = new GroupElement[results.length];
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new ECF2mPointOpenSSL(curve, results[i]);
+		}
+		return elements;
+	}
+	
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) {
+		//If the GroupElement doesn't match the DlogGroup, throw exception.
+		if (!(base instanceof ECF2mPointOpenSSL)){
+			throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+		}
+		
+		GroupElement[] elements = new GroupElement[exponents.length];
+		// The exponentiation of infinity point is infinity.
+		if (((ECF2mPointOpenSSL) base).isInfinity()) {
+			for (int i = 0; i < exponents.length; i++) {
+				elements[i] = base;
+			}
+			return elements;
+		}
+		
+		//If an exponent is negative, convert it to be the exponent modulus q.
+		//The pre computed values cover exponents of the length of q, so in case of a longer exponent, exponentiate each exponent.
+		byte[][] exponentsBytes = new byte[exponents.length][];
+		for (int i = 0; i < exponents.length; i++) {
+			BigInteger exponent = exponents[i];
+			if (exponent.compareTo(BigInteger.ZERO) < 0){
+				exponent = exponent.mod(getOrder());
+			}
+			if (exponent.bitLength() > getOrder().bitLength()){
+				for (int j = 0; j < exponents.length; j++) {
+					elements[j] = exponentiate(base, exponents[j]);
+				}
+				return elements;
+			}
+			exponentsBytes[i] = exponent.toByteArray();
+		}
+		
+		// Call the native function that pre computes the base's values once and exponentiates it to all the exponents.
+		long[] results = exponentiateToExponents(curve, ((ECF2mPointOpenSSL) base).getPoint(), exponentsBytes);
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		// Build a ECF2mPointOpenSSL element from each result.
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new ECF2mPointOpenSSL(curve, results[i]);
+		}
+		return elements;
+	}
+
 	@Override
 	public GroupElement multiplyGroupElements(GroupElement groupElement1, GroupElement groupElement2) throws IllegalArgumentException {
 		// If the GroupElements don't match the DlogGroup, throw exception.
@@ -272,6 +352,10 @@ public class OpenSSLDlogECF2m extends OpenSSLAdapterDlogEC implements DlogECF2m,
 	public GroupElement simultaneousMultipleExponentiations(GroupElement[] groupElements, BigInteger[] exponentiations) {
 		
 		//Our tests showed that for ECF2m the naive algorithm is faster than the simultaneousMultipleExponentiations algorithm.
+		//For many bases, the bucket method saves most of the exponentiations.
+		if (groupElements.length >= NATIVE_PIPPENGER_THRESHOLD){
+			return computePippenger(groupElements, exponentiations);
+		}
 		return computeNaive(groupElements, exponentiations);
 	}
 
@@ -34,6 +34,8 @@ import edu.biu.scapi.primitives.dlog.DlogECFp;
 import edu.biu.scapi.primitives.dlog.ECElement;
 import edu.biu.scapi.primitives.dlog.ECFpUtility;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
 import edu.biu.scapi.securityLevel.DDH;
 
@@ -116,9 +118,12 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		
 		// Create the ECCurve.
 		curve = createCurve(p.toByteArray(), fpParams.getA().mod(p).toByteArray(), fpParams.getB().toByteArray());
+		registerCurve();
 		
 		// Create the generator.
 		generator  = new ECFpPointOpenSSL(fpParams.getXg(), fpParams.getYg(), this, true);
+		//The generator lives as long as the group, so it must not be freed by an enclosing scope.
+		NativeElementScope.detach((NativeGroupElement) generator);
 		
 		//Initialize the curve with the generator and order.
 		initCurve(curve, ((ECFpPointOpenSSL) generator).getPoint(), fpParams.getQ().toByteArray());
@@ -183,6 +188,81 @@ public class OpenSSLDlogECFp extends OpenSSLAdapterDlogEC implements DlogECFp, D
 		return new ECFpPointOpenSSL(curve, result);
 	}
 
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement[] bases, BigInteger exponent) {
+		//Create an array to hold the native points.
+		long[] nativePoints = new long[bases.length];
+		for (int i = 0; i < bases.length; i++) {
+			//If the GroupElement doesn't match the DlogGroup, throw exception.
+			if (!(bases[i] instanceof ECFpPointOpenSSL)){
+				throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+			}
+			nativePoints[i] = ((ECFpPointOpenSSL) bases[i]).getPoint();
+		}
+		
+		//If the exponent is negative, convert it to be the exponent modulus q.
+		if (exponent.compareTo(BigInteger.ZERO) < 0){
+			exponent = exponent.mod(getOrder());
+		}
+		
+		// Call the native function that exponentiates all the bases.
+		long[] results = exponentiateBases(curve, nativePoints, exponent.toByteArray());
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		// Build a ECFpPointOpenSSL element from each result.
+		GroupElement[] elements = new GroupElement[results.length];
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new ECFpPointOpenSSL(curve, results[i]);
+		}
+		return elements;
+	}
+	
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) {
+		//If the GroupElement doesn't match the DlogGroup, throw exception.
+		if (!(base instanceof ECFpPointOpenSSL)){
+			throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+		}
+		
+		GroupElement[] elements = new GroupElement[exponents.length];
+		// The exponentiation of infinity point is infinity.
+		if (((ECFpPointOpenSSL) base).isInfinity()) {
+			for (int i = 0; i < exponents.length; i++) {
+				elements[i] = base;
+			}
+			return elements;
+		}
+		
+		//If an exponent is negative, convert it to be the exponent modulus q.
+		//The pre computed values cover exponents of the length of q, so in case of a longer exponent, exponentiate each exponent.
+		byte[][] exponentsBytes = new byte[exponents.length][];
+		for (int i = 0; i < exponents.length; i++) {
+			BigInteger exponent = exponents[i];
+			if (exponent.compareTo(BigInteger.ZERO) < 0){
+				exponent = exponent.mod(getOrder());
+			}
+			if (exponent.bitLength() > getOrder().bitLength()){
+				for (int j = 0; j < exponents.length; j++) {
+					elements[j] = exponentiate(base, exponents[j]);
+				}
+				return elements;
+			}
+			exponentsBytes[i] = exponent.toByteArray();
+		}
+		
+		// Call the native function that pre computes the base's values once and exponentiates it to all the exponents.
+		long[] results = exponentiateToExponents(curve, ((ECFpPointOpenSSL) base).getPoint(), exponentsBytes);
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		// Build a ECFpPointOpenSSL element from each result.
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new ECFpPointOpenSSL(curve, results[i]);
+		}
+		return elements;
+	}
+
 	@Override
 	public GroupElement multiplyGroupElements(GroupElement groupElement1, GroupElement groupElement2) throws IllegalArgumentException {
 		// If the GroupElements don't match the DlogGroup, throw exception.
@@ -32,6 +32,8 @@ import edu.biu.scapi.primitives.dlog.DlogGroupAbs;
 import edu.biu.scapi.primitives.dlog.DlogZpSafePrime;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeElementScope;
 import edu.biu.scapi.primitives.dlog.ZpElement;
 import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
 import edu.biu.scapi.primitives.dlog.groupParams.ZpGroupParams;
@@ -44,9 +46,10 @@ import edu.biu.scapi.tools.math.MathAlgorithms;
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  */
-public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePrime, DDH{
+public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePrime, DDH, AutoCloseable{
 
 	private long dlog; // Pointer to the native group object.
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native group.
 
 	/* Native functions for the Dlog functionality */
 	private native long createDlogZp(byte[] p, byte[] q, byte[] g); 	// Creates the native group using the given p, q, g.
@@ -56,8 +59,10 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 	private native byte[] getQ(long group);								// Returns q, such that p = 2q+1.
 	private native long inverseElement(long group, long element);		// Returns the inverse of the given element.
 	private native long exponentiateElement(long group, long element, byte[] exponent);// Raise the given element to the exponent.
+	private native long[] exponentiateElements(long group, long[] elements, byte[] exponent);// Raise each of the given elements to the exponent.
+	private native long[] exponentiateElementToExponents(long group, long element, byte[][] exponents);// Raise the given element to each of the exponents.
 	private native long multiplyElements(long group, long element1, long element2);// Multiplies the given elements.
-	private native void deleteDlogZp(long group);						// Deletes the native group.
+	private static native void deleteDlogZp(long group);						// Deletes the native group.
 	private native boolean validateZpGroup(long group);					// Validate the group.
 	private native boolean validateZpGenerator(long group);				// Validate the group's generator.
 	private native boolean validateZpElement(long group, long element);	// Validate the given element.
@@ -107,8 +112,11 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 			deleteDlogZp(dlog);
 			throw new IllegalArgumentException("generator value is not valid");
 		}
+		cleanable = NativeElementCleaner.register(this, new Deallocator(dlog));
 		//Create the  generator with the pointer that return from the native function.
 		generator = new OpenSSLZpSafePrimeElement(g, p, false);
+		//The generator is kept by the group, so it should not be freed by the current scope.
+		NativeElementScope.detach((OpenSSLZpSafePrimeElement) generator);
 		
 		//Now that we have p, we can calculate k which is the maximum length of a string to be converted to a Group Element of this group.
 		k = calcK(p);
@@ -163,10 +171,13 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 		
 		// Create random Zp dlog group.
 		dlog = createRandomDlogZp(numBits);
+		cleanable = NativeElementCleaner.register(this, new Deallocator(dlog));
 		// Get the generator value.
 		long pGenerator = getGenerator(dlog);
 		//Create the GroupElement - generator with the pointer that returned from the native function.
 		generator = new OpenSSLZpSafePrimeElement(pGenerator);
+		//The generator is kept by the group, so it should not be freed by the current scope.
+		NativeElementScope.detach((OpenSSLZpSafePrimeElement) generator);
 		
 		//Get the generated parameters and create a ZpGroupParams object.
 		BigInteger p = new BigInteger(1, getP(dlog));
@@ -316,6 +327,56 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 			
 	}
 	
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement[] bases, BigInteger exponent) {
+		//Create an array to hold the native elements.
+		long[] nativeElements = new long[bases.length];
+		for (int i = 0; i < bases.length; i++) {
+			if (!(bases[i] instanceof OpenSSLZpSafePrimeElement)){
+				throw new IllegalArgumentException("element type doesn't match the group type");
+			}
+			nativeElements[i] = ((OpenSSLZpSafePrimeElement) bases[i]).getNativeElement();
+		}
+		
+		//Call to native exponentiate function, which uses the same Montgomery context for all the elements.
+		long[] results = exponentiateElements(dlog, nativeElements, exponent.toByteArray());
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		
+		//Build an OpenSSLZpSafePrimeElement element from each result.
+		GroupElement[] elements = new GroupElement[results.length];
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new OpenSSLZpSafePrimeElement(results[i]);
+		}
+		return elements;
+	}
+	
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) {
+		if (!(base instanceof OpenSSLZpSafePrimeElement)){
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		} 
+		
+		byte[][] exponentsBytes = new byte[exponents.length][];
+		for (int i = 0; i < exponents.length; i++) {
+			exponentsBytes[i] = exponents[i].toByteArray();
+		}
+		
+		//Call to native exponentiate function, which uses the same Montgomery context for all the exponents.
+		long[] results = exponentiateElementToExponents(dlog, ((OpenSSLZpSafePrimeElement) base).getNativeElement(), exponentsBytes);
+		if (results == null){
+			throw new IllegalStateException("the native exponentiation failed");
+		}
+		
+		//Build an OpenSSLZpSafePrimeElement element from each result.
+		GroupElement[] elements = new GroupElement[results.length];
+		for (int i = 0; i < results.length; i++) {
+			elements[i] = new OpenSSLZpSafePrimeElement(results[i]);
+		}
+		return elements;
+	}
+	
 	public GroupElement exponentiateWithPreComputedValues(GroupElement groupElement, BigInteger exponent) {
 		return exponentiate(groupElement, exponent);
 	
@@ -355,7 +416,10 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 			}
 		}
 		//Currently in Zp* Group the native algorithm is faster than the optimized one due to many calls to the JNI.
-		//Thus, we operate the native algorithm. In the future we may change this.
+		//Thus, we operate the native algorithm, unless there are enough bases for the bucket method to save the JNI calls.
+		if (groupElements.length >= NATIVE_PIPPENGER_THRESHOLD){
+			return computePippenger(groupElements, exponentiations);
+		}
 		return computeNaive(groupElements, exponentiations);
 
 	}
@@ -402,14 +466,30 @@ public class OpenSSLDlogZpSafePrime extends DlogGroupAbs implements DlogZpSafePr
 	}
 	
 	/**
-	 * Deletes the related Dlog group object.
+	 * Deletes the native group now, instead of waiting for this group to become unreachable.<p>
+	 * The group and its elements must not be used after it was closed. Calling this function more than once has no effect.
 	 */
-	protected void finalize() throws Throwable {
-
-		// Delete from the dll the dynamic allocation of the Integer.
-		deleteDlogZp(dlog);
-
-		super.finalize();
+	@Override
+	public void close() {
+		if (cleanable != null){
+			cleanable.clean();
+		}
+	}
+	
+	/*
+	 * Deletes the native group. It does not refer to the group, so that the group can become unreachable.
+	 */
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deleteDlogZp(pointer);
+		}
 	}
 
 
@@ -30,6 +30,8 @@ import java.security.SecureRandom;
 import org.bouncycastle.util.BigIntegers;
 
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.NativeElementCleaner;
+import edu.biu.scapi.primitives.dlog.NativeGroupElement;
 import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
 import edu.biu.scapi.primitives.dlog.ZpSafePrimeElement;
 
@@ -40,13 +42,14 @@ import edu.biu.scapi.primitives.dlog.ZpSafePrimeElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
+public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement, NativeGroupElement{
 	
 	private long zpElement; // Pointer to the native element.
+	private NativeElementCleaner.Cleanable cleanable; //Frees the native element.
 
 	//Native functions that calls the OpenSSL functionalities.
 	private native long createElement(byte[] element);	//Creates the native element.
-	private native long deleteElement(long element);	//Deletes the native element.
+	private static native void deleteElement(long element);	//Deletes the native element.
 	private native byte[] getElement(long element);		//Returns the bytes of the element.
 
 	/**
@@ -70,6 +73,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 		} else {
 			zpElement = createElement(x.toByteArray());
 		}
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(zpElement));
 	}
 
 	/**
@@ -104,6 +108,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 		//calculate its power to get a number in the subgroup and set the power as the element. 
 		element = element.pow(2).mod(p);
 		zpElement = createElement(element.toByteArray());
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(zpElement));
 					
 	}
 
@@ -115,6 +120,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 */
 	OpenSSLZpSafePrimeElement(long ptr) {
 		zpElement = ptr;
+		cleanable = NativeElementCleaner.registerElement(this, new Deallocator(zpElement));
 	}
 
 	/*
@@ -122,6 +128,9 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 * @return
 	 */
 	long getNativeElement() {
+		if (cleanable.isCleaned()){
+			throw new IllegalStateException("the element was closed");
+		}
 		return zpElement;
 	}
 
@@ -129,7 +138,7 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 	 * @return BigInteger - value of the element
 	 */
 	public BigInteger getElementValue() {
-		return new BigInteger(1, getElement(zpElement));
+		return new BigInteger(1, getElement(getNativeElement()));
 	}
 	
 	/**
@@ -168,15 +177,38 @@ public class OpenSSLZpSafePrimeElement implements ZpSafePrimeElement{
 		return "OpenSSLZpElement [element value="	+  getElementValue() + "]";
 	}
 	
+	/**
+	 * Frees the native element now, instead of waiting for this element to become unreachable.
+	 */
+	@Override
+	public void close() {
+		cleanable.clean();
+	}
+	
+	@Override
+	public boolean isClosed() {
+		return cleanable.isCleaned();
+	}
+	
+	@Override
+	public NativeElementCleaner.Cleanable getCleanable() {
+		return cleanable;
+	}
+	
 	/*
-	 * Delete the related Dlog element object.
+	 * Deletes the native element. It does not refer to the element, so that the element can become unreachable.
 	 */
-	protected void finalize() throws Throwable {
-
-		// Delete from the dll the dynamic allocation of the Integer.
-		deleteElement(zpElement);
-
-		super.finalize();
+	private static class Deallocator implements Runnable {
+		private long pointer;
+		
+		Deallocator(long pointer){
+			this.pointer = pointer;
+		}
+		
+		@Override
+		public void run() {
+			deleteElement(pointer);
+		}
 	}
 	
 	/** 
@@ -0,0 +1,164 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog.pureJava;
+
+import java.math.BigInteger;
+
+import edu.biu.scapi.primitives.dlog.ECElementSendableData;
+import edu.biu.scapi.primitives.dlog.ECFpPoint;
+import edu.biu.scapi.primitives.dlog.ECFpUtility;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+
+/**
+ * This class is a point of {@link JavaDlogECFp}.<p>
+ * The point is kept in affine coordinates, both as BigIntegers and as field elements in Montgomery form, 
+ * so that the group can add it to a point in projective coordinates without converting it.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ECFpPointJava implements ECFpPoint{
+	
+	private BigInteger x;
+	private BigInteger y;
+	//The coordinates in Montgomery form. In case of infinity, there are no coordinates and they are null.
+	private long[] montX;
+	private long[] montY;
+	
+	/**
+	 * Constructor that accepts x,y possible values of a point on the requested curve.
+	 * If bCheckMembership is set to true it checks if the values are valid and if so, sets the point. If not valid, throws IllegalArgumentException
+	 * If bCheckMembership is set to false it creates the point without checking.
+	 * @param x coordinate of candidate point
+	 * @param y coordinate of candidate point
+	 * @param curve - DlogGroup for which we want to create the point
+	 * @param bCheckMembership whether to check if (x,y) are a valid point on curve or not 
+	 * @throws IllegalArgumentException if bCheckMembership is set to true AND if the coordinates x and y do not represent a valid point in the curve
+	 */
+	ECFpPointJava(BigInteger x, BigInteger y, JavaDlogECFp curve, boolean bCheckMembership) throws IllegalArgumentException{
+		BigInteger p = ((ECFpGroupParams) curve.getGroupParams()).getP();
+		if(bCheckMembership){
+			//checks if the given parameters are valid point on the curve.
+			boolean valid = new ECFpUtility().checkCurveMembership((ECFpGroupParams) curve.getGroupParams(), x, y);
+			// checks validity
+			if (valid == false) // if not valid, throws exception
+				throw new IllegalArgumentException("x, y values are not a point on this curve");
+		}
+		//The field elements must be reduced.
+		if (x.signum() < 0 || x.compareTo(p) >= 0 || y.signum() < 0 || y.compareTo(p) >= 0){
+			throw new IllegalArgumentException("x, y values are not in the field of this curve");
+		}
+		this.x = x;
+		this.y = y;
+		FpField field = curve.getField();
+		long[] t = new long[field.getScratchLength()];
+		montX = field.newElement();
+		montY = field.newElement();
+		field.toMontgomery(x, montX, t);
+		field.toMontgomery(y, montY, t);
+	}
+	
+	/*
+	 * Constructor that gets the coordinates in both forms and sets them. 
+	 * Only our inner functions use this constructor to set an element. 
+	 * The coordinates are a result of our DlogGroup functions, such as multiply. 
+	 * Null coordinates stand for the infinity point.
+	 */
+	ECFpPointJava(BigInteger x, BigInteger y, long[] montX, long[] montY) {
+		this.x = x;
+		this.y = y;
+		this.montX = montX;
+		this.montY = montY;
+	}
+	
+	/**
+	 * @return the x coordinate in Montgomery form.
+	 */
+	long[] getMontgomeryX(){
+		return montX;
+	}
+	
+	/**
+	 * @return the y coordinate in Montgomery form.
+	 */
+	long[] getMontgomeryY(){
+		return montY;
+	}
+	
+	@Override
+	public BigInteger getX() {
+		return x;
+	}
+
+	@Override
+	public BigInteger getY() {
+		return y;
+	}
+
+	@Override
+	public boolean isInfinity() {
+		return x == null;
+	}
+
+	@Override
+	public boolean isIdentity() {
+		return isInfinity();
+	}
+
+	@Override
+	public GroupElementSendableData generateSendableData() {
+		return new ECElementSendableData(getX(), getY());
+	}
+	
+	/**
+	 * Compares this Fp Point with elementToCompare.
+	 * @return <code>true </code> if this (x,y) coordinates are equal to elementToCompare's (x,y) coordinates, or both are the infinity point<p>
+	 *  		<code>false </code>, otherwise
+	 */
+	public boolean equals(Object elementToCompare){
+		if (!(elementToCompare instanceof ECFpPointJava)){
+			return false;
+		}
+		ECFpPointJava element = (ECFpPointJava) elementToCompare;
+		if (isInfinity() || element.isInfinity()){
+			return isInfinity() && element.isInfinity();
+		}
+		if ((element.getX().compareTo(getX()) ==0) && (element.getY().compareTo(getY()) == 0)){
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return isInfinity() ? 0 : x.hashCode() * 31 + y.hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return "ECFpPointJava [point= " + getX() + "; " + getY() + "]";
+	}
+}
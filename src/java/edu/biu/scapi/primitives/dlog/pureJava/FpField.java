@@ -0,0 +1,310 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog.pureJava;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo an odd prime p on field elements in Montgomery form.<p>
+ * An element is a long array of n limbs of 32 bits each, the least significant limb first, that holds a*R mod p where R = 2^(32n).
+ * Each limb is kept in a long so that the product of two limbs plus two more limbs fits in 64 unsigned bits.<p>
+ * The methods do not branch on the values of the elements and do not allocate memory; the caller provides the output 
+ * and the scratch arrays. An output array may be one of the input arrays.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class FpField {
+	private static final long MASK = 0xFFFFFFFFL;
+	
+	private BigInteger prime;
+	private int n;					//Number of limbs.
+	private long[] p;				//The prime.
+	private long n0Inverse;			//-p^(-1) mod 2^32.
+	private long[] rSquared;		//R^2 mod p, used to convert elements to Montgomery form.
+	private long[] one;				//R mod p, the one in Montgomery form.
+	private long[] plainOne;		//The number 1, used to convert elements from Montgomery form.
+	private long[] pMinusTwo;		//The exponent of the inversion.
+	
+	/**
+	 * @param prime the odd prime of the field.
+	 */
+	FpField(BigInteger prime){
+		this.prime = prime;
+		n = (prime.bitLength() + 31) / 32;
+		p = toLimbs(prime, n);
+		n0Inverse = prime.modInverse(BigInteger.ONE.shiftLeft(32)).negate().mod(BigInteger.ONE.shiftLeft(32)).longValue();
+		BigInteger r = BigInteger.ONE.shiftLeft(32 * n);
+		rSquared = toLimbs(r.multiply(r).mod(prime), n);
+		one = toLimbs(r.mod(prime), n);
+		plainOne = toLimbs(BigInteger.ONE, n);
+		pMinusTwo = toLimbs(prime.subtract(BigInteger.valueOf(2)), n);
+	}
+	
+	/**
+	 * @return the number of limbs of an element.
+	 */
+	int getNumLimbs(){
+		return n;
+	}
+	
+	/**
+	 * @return the length of the scratch array that the multiplication needs.
+	 */
+	int getScratchLength(){
+		return n + 2;
+	}
+	
+	/**
+	 * @return a new element.
+	 */
+	long[] newElement(){
+		return new long[n];
+	}
+	
+	/**
+	 * Sets r to be the one of the field.
+	 */
+	void setOne(long[] r){
+		System.arraycopy(one, 0, r, 0, n);
+	}
+	
+	/**
+	 * Sets r to be the zero of the field.
+	 */
+	void setZero(long[] r){
+		for (int i = 0; i < n; i++){
+			r[i] = 0;
+		}
+	}
+	
+	/**
+	 * Converts the given number to Montgomery form.
+	 * @param x a number in the range [0, p).
+	 * @param r the output element.
+	 * @param t scratch array of length getScratchLength().
+	 */
+	void toMontgomery(BigInteger x, long[] r, long[] t){
+		long[] limbs = toLimbs(x, n);
+		multiply(limbs, rSquared, r, t);
+	}
+	
+	/**
+	 * Converts the given element from Montgomery form.
+	 * @param a the element to convert.
+	 * @param t scratch array of length getScratchLength().
+	 * @return the number that the element represents, in the range [0, p).
+	 */
+	BigInteger fromMontgomery(long[] a, long[] t){
+		long[] limbs = new long[n];
+		multiply(a, plainOne, limbs, t);
+		byte[] bytes = new byte[4 * n];
+		for (int i = 0; i < n; i++){
+			long limb = limbs[n - 1 - i];
+			bytes[4 * i] = (byte) (limb >>> 24);
+			bytes[4 * i + 1] = (byte) (limb >>> 16);
+			bytes[4 * i + 2] = (byte) (limb >>> 8);
+			bytes[4 * i + 3] = (byte) limb;
+		}
+		return new BigInteger(1, bytes);
+	}
+	
+	/**
+	 * Computes r = a*b*R^(-1) mod p, which is the Montgomery product of the elements, by the CIOS method.
+	 * @param t scratch array of length getScratchLength(). It must not be one of the other arrays.
+	 */
+	void multiply(long[] a, long[] b, long[] r, long[] t){
+		for (int j = 0; j < n + 2; j++){
+			t[j] = 0;
+		}
+		for (int i = 0; i < n; i++){
+			//t = t + a*b[i]
+			long bi = b[i];
+			long carry = 0;
+			for (int j = 0; j < n; j++){
+				long s = t[j] + a[j] * bi + carry;
+				t[j] = s & MASK;
+				carry = s >>> 32;
+			}
+			long s = t[n] + carry;
+			t[n] = s & MASK;
+			t[n + 1] = s >>> 32;
+			
+			//t = (t + m*p) / 2^32, where m is chosen so that the division is exact.
+			long m = (t[0] * n0Inverse) & MASK;
+			carry = (t[0] + m * p[0]) >>> 32;
+			for (int j = 1; j < n; j++){
+				s = t[j] + m * p[j] + carry;
+				t[j - 1] = s & MASK;
+				carry = s >>> 32;
+			}
+			s = t[n] + carry;
+			t[n - 1] = s & MASK;
+			t[n] = t[n + 1] + (s >>> 32);
+		}
+		
+		//t < 2p. Set r = t - p, and keep t if the subtraction borrowed.
+		long borrow = 0;
+		for (int j = 0; j < n; j++){
+			long s = t[j] - p[j] - borrow;
+			r[j] = s & MASK;
+			borrow = s >>> 63;
+		}
+		long keepMask = -((t[n] - borrow) >>> 63);
+		for (int j = 0; j < n; j++){
+			r[j] = (t[j] & keepMask) | (r[j] & ~keepMask);
+		}
+	}
+	
+	/**
+	 * Computes r = a^2, in Montgomery form.
+	 * @param t scratch array of length getScratchLength(). It must not be one of the other arrays.
+	 */
+	void square(long[] a, long[] r, long[] t){
+		multiply(a, a, r, t);
+	}
+	
+	/**
+	 * Computes r = a + b mod p.
+	 */
+	void add(long[] a, long[] b, long[] r){
+		long carry = 0;
+		for (int j = 0; j < n; j++){
+			long s = a[j] + b[j] + carry;
+			r[j] = s & MASK;
+			carry = s >>> 32;
+		}
+
+		//Subtract p if the sum overflowed or is not smaller than p. The first pass only computes the borrow of r - p.
+		long borrow = 0;
+		for (int j = 0; j < n; j++){
+			borrow = (r[j] - p[j] - borrow) >>> 63;
+		}
+		long mask = -(carry | (borrow ^ 1));
+		borrow = 0;
+		for (int j = 0; j < n; j++){
+			long s = r[j] - (p[j] & mask) - borrow;
+			r[j] = s & MASK;
+			borrow = s >>> 63;
+		}
+	}
+	
+	/**
+	 * Computes r = a - b mod p.
+	 */
+	void subtract(long[] a, long[] b, long[] r){
+		long borrow = 0;
+		for (int j = 0; j < n; j++){
+			long s = a[j] - b[j] - borrow;
+			r[j] = s & MASK;
+			borrow = s >>> 63;
+		}
+		//If the subtraction borrowed, add p.
+		long mask = -borrow;
+		long carry = 0;
+		for (int j = 0; j < n; j++){
+			long s = r[j] + (p[j] & mask) + carry;
+			r[j] = s & MASK;
+			carry = s >>> 32;
+		}
+	}
+	
+	/**
+	 * Computes r = -a mod p.
+	 */
+	void negate(long[] a, long[] r){
+		//Compute 0 - a limb by limb, and add p if a is not zero.
+		long borrow = 0;
+		long nonZero = 0;
+		for (int j = 0; j < n; j++){
+			nonZero |= a[j];
+			long s = -a[j] - borrow;
+			r[j] = s & MASK;
+			borrow = s >>> 63;
+		}
+		long mask = -((-nonZero) >>> 63);
+		long carry = 0;
+		for (int j = 0; j < n; j++){
+			long s = r[j] + (p[j] & mask) + carry;
+			r[j] = s & MASK;
+			carry = s >>> 32;
+		}
+	}
+	
+	/**
+	 * Sets r = a if the mask is all ones, or r = b if the mask is zero.
+	 */
+	void select(long mask, long[] a, long[] b, long[] r){
+		for (int j = 0; j < n; j++){
+			r[j] = (a[j] & mask) | (b[j] & ~mask);
+		}
+	}
+	
+	/**
+	 * @return true if the given element is zero.
+	 */
+	boolean isZero(long[] a){
+		long acc = 0;
+		for (int j = 0; j < n; j++){
+			acc |= a[j];
+		}
+		return acc == 0;
+	}
+	
+	/**
+	 * Computes r = a^(-1) by raising a to p-2. The exponent is public, so its bits may control the flow.
+	 * @param r the output element. It must not be a.
+	 * @param t scratch array of length getScratchLength(). It must not be one of the other arrays.
+	 */
+	void invert(long[] a, long[] r, long[] t){
+		setOne(r);
+		for (int i = 32 * n - 1; i >= 0; i--){
+			square(r, r, t);
+			if (((pMinusTwo[i >>> 5] >>> (i & 31)) & 1) != 0){
+				multiply(r, a, r, t);
+			}
+		}
+	}
+	
+	/**
+	 * @return the prime of the field.
+	 */
+	BigInteger getPrime(){
+		return prime;
+	}
+	
+	/**
+	 * Splits the given non negative number to numLimbs limbs of 32 bits.
+	 */
+	static long[] toLimbs(BigInteger x, int numLimbs){
+		long[] limbs = new long[numLimbs];
+		byte[] bytes = x.toByteArray();
+		for (int i = 0; i < bytes.length && i < 4 * numLimbs; i++){
+			int index = bytes.length - 1 - i;
+			limbs[i >>> 2] |= ((long) (bytes[index] & 0xFF)) << (8 * (i & 3));
+		}
+		return limbs;
+	}
+}
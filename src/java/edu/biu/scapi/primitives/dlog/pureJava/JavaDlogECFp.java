@@ -0,0 +1,786 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog.pureJava;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Properties;
+
+import edu.biu.scapi.primitives.dlog.DlogECFp;
+import edu.biu.scapi.primitives.dlog.DlogGroupEC;
+import edu.biu.scapi.primitives.dlog.ECElement;
+import edu.biu.scapi.primitives.dlog.ECFpUtility;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.groupParams.ECFpGroupParams;
+import edu.biu.scapi.securityLevel.DDH;
+
+/**
+ * This class implements an Elliptic curve Dlog group over Fp in pure Java, without any native library.<p>
+ * 
+ * The field elements are arrays of 32 bits limbs in Montgomery form (see {@link FpField}). 
+ * The group operations are computed in projective coordinates by the complete addition formulas of Renes, Costello and Batina 
+ * for curves with a = -3, which hold for any pair of points, including equal points, inverse points and the infinity point. 
+ * Thus, the operations do not branch on secret values. The points of the group are kept in affine coordinates, so that each 
+ * addition of a point to a projective point is a mixed addition.<p>
+ * 
+ * An exponentiation uses a regular signed window recoding of the exponent (a wNAF in which every digit is odd and non zero) 
+ * over a table of the odd multiples of the base. Each window costs the same doublings and one mixed addition, and the table entry 
+ * is read by scanning the whole table, so the running time does not depend on the exponent.<p>
+ * 
+ * All the temporary arrays are kept in a workspace per thread, so the operations do not allocate memory except for their results.<p>
+ * 
+ * This group supports the curves over Fp with a = -3 and cofactor 1, which include all the NIST prime curves. 
+ * The complete formulas, and the reduction of the exponents modulo q, hold only in a group of prime order.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class JavaDlogECFp extends DlogGroupEC implements DlogECFp, DDH {
+	
+	private static final int WINDOW = 4; 						//The width of the signed window.
+	private static final int TABLE_SIZE = 1 << (WINDOW - 1);	//The number of odd multiples in the table of each base.
+	private static final long MASK = 0xFFFFFFFFL;
+	
+	private ECFpUtility util; //Utility class that computes some common ECFp functionalities.
+	private FpField field;
+	private long[] b;			//The b coefficient of the curve, in Montgomery form.
+	private long[] q;			//The order of the group, split to limbs.
+	private int scalarLimbs;	//The number of limbs of an exponent.
+	private int numDigits;		//The number of signed digits of an exponent.
+	private ThreadLocal<Workspace> workspaces;
+	
+	/**
+	 * Default constructor. Initializes this object with P-192 NIST curve.
+	 * @throws IOException 
+	 */
+	public JavaDlogECFp() throws IOException {
+		this("P-192");
+	}
+	
+	/**
+	 * Initialize this DlogGroup with the curve in the given file.
+	 * @param fileName the file to take the curve's parameters from.
+	 * @param curveName name of curve to initialized.
+	 * @throws IOException if there is a problem with the given file name.
+	 * @throws IllegalArgumentException if the a coefficient of the curve is not -3.
+	 */
+	public JavaDlogECFp(String fileName, String curveName) throws IOException {
+		super(fileName, curveName);	
+	}
+	
+	/**
+	 * Initialize this DlogGroup with the curve in the given file.
+	 * @param fileName the file to take the curve's parameters from.
+	 * @param curveName name of curve to initialized.
+	 * @param randNumGenAlg The random number generator to use.
+	 * @throws IOException if there is a problem with the given file name.
+	 * @throws NoSuchAlgorithmException 
+	 * @throws IllegalArgumentException if the a coefficient of the curve is not -3.
+	 */
+	public JavaDlogECFp(String fileName, String curveName, String randNumGenAlg) throws IOException, NoSuchAlgorithmException {
+		super(fileName, curveName, SecureRandom.getInstance(randNumGenAlg));	
+	}
+	
+	/**
+	 * Initialize this DlogGroup with one of NIST recommended elliptic curve.
+	 * @param curveName name of NIST curve to initialized
+	 * @throws IOException if there is a problem with NIST properties file.
+	 */
+	public JavaDlogECFp(String curveName) throws IOException {
+		this(NISTEC_PROPERTIES_FILE, curveName);
+	}
+	
+	/**
+	 * Initialize this DlogGroup with one of NIST recommended elliptic curve.
+	 * @param curveName name of NIST curve to initialized
+	 * @param random The source of randomness to use.
+	 * @throws IOException if there is a problem with NIST properties file.
+	 */
+	public JavaDlogECFp(String curveName, SecureRandom random) throws IOException {
+		super(NISTEC_PROPERTIES_FILE, curveName, random);
+	}
+	
+	@Override
+	protected void doInit(Properties ecProperties, String curveName) {
+		util = new ECFpUtility();
+		groupParams = util.checkAndCreateInitParams(ecProperties, curveName);
+		
+		//There is no need to check that the params passed are an instance of ECFpGroupParams since this function is only used by SCAPI.
+		ECFpGroupParams fpParams = (ECFpGroupParams)groupParams;
+		BigInteger p = fpParams.getP();
+		//Now that we have p, we can calculate k which is the maximum length in bytes of a string to be converted to a Group Element of this group. 
+		k = util.calcK(p);
+		
+		//The addition formulas are specific to a = -3.
+		if (!fpParams.getA().mod(p).equals(p.subtract(BigInteger.valueOf(3)))){
+			throw new IllegalArgumentException("JavaDlogECFp supports only curves with a = -3");
+		}
+		if (!fpParams.getCofactor().equals(BigInteger.ONE)){
+			throw new IllegalArgumentException("JavaDlogECFp supports only curves of prime order");
+		}
+		
+		field = new FpField(p);
+		b = field.newElement();
+		field.toMontgomery(fpParams.getB().mod(p), b, new long[field.getScratchLength()]);
+		
+		//An exponent is reduced modulo q, but the recoding needs one more limb for q - exponent and for the carries.
+		BigInteger order = fpParams.getQ();
+		scalarLimbs = (order.bitLength() + 31) / 32 + 1;
+		q = FpField.toLimbs(order, scalarLimbs);
+		numDigits = (order.bitLength() + WINDOW - 1) / WINDOW + 1;
+		
+		workspaces = new ThreadLocal<Workspace>(){
+			@Override
+			protected Workspace initialValue(){
+				return new Workspace();
+			}
+		};
+		
+		// Create the generator.
+		generator = new ECFpPointJava(fpParams.getXg(), fpParams.getYg(), this, true);
+	}
+	
+	/**
+	 * @return the field of the curve.
+	 */
+	FpField getField(){
+		return field;
+	}
+	
+	/**
+	 * @return the type of the group - ECFp.
+	 */
+	public String getGroupType() {
+		return util.getGroupType();
+	}
+	
+	@Override
+	public ECElement getInfinity() {
+		return new ECFpPointJava(null, null, null, null);
+	}
+	
+	@Override
+	public GroupElement getInverse(GroupElement groupElement) throws IllegalArgumentException {
+		//If the GroupElement doesn't match the DlogGroup, throw exception.
+		if (!(groupElement instanceof ECFpPointJava)){
+			throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
+		}
+		
+		ECFpPointJava point = (ECFpPointJava) groupElement;
+		// The inverse of infinity point is infinity.
+		if (point.isInfinity()) {
+			return groupElement;
+		}
+		
+		//The inverse of (x, y) is (x, -y).
+		long[] montY = field.newElement();
+		field.negate(point.getMontgomeryY(), montY);
+		BigInteger y = point.getY().negate().mod(field.getPrime());
+		return new ECFpPointJava(point.getX(), y, point.getMontgomeryX(), montY);
+	}
+	
+	@Override
+	public GroupElement exponentiate(GroupElement base, BigInteger exponent) throws IllegalArgumentException {
+		//If the GroupElement doesn't match the DlogGroup, throw exception.
+		if (!(base instanceof ECFpPointJava)){
+			throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+		}
+		
+		// The exponentiation of infinity point is infinity.
+		if (((ECFpPointJava) base).isInfinity()) {
+			return base;
+		}
+		
+		Workspace w = workspaces.get();
+		w.ensureCapacity(1);
+		buildTable(w, 0, (ECFpPointJava) base);
+		recode(w, 0, exponent);
+		evaluate(w, 1);
+		return toAffine(w);
+	}
+	
+	@Override
+	public GroupElement[] exponentiateBatch(GroupElement base, BigInteger[] exponents) {
+		//If the GroupElement doesn't match the DlogGroup, throw exception.
+		if (!(base instanceof ECFpPointJava)){
+			throw new IllegalArgumentException("the given base doesn't match the DlogGroup");
+		}
+		
+		GroupElement[] elements = new GroupElement[exponents.length];
+		// The exponentiation of infinity point is infinity.
+		if (((ECFpPointJava) base).isInfinity()) {
+			for (int i = 0; i < exponents.length; i++) {
+				elements[i] = base;
+			}
+			return elements;
+		}
+		
+		//Build the table of the base once and use it for all the exponents.
+		Workspace w = workspaces.get();
+		w.ensureCapacity(1);
+		buildTable(w, 0, (ECFpPointJava) base);
+		for (int i = 0; i < exponents.length; i++) {
+			recode(w, 0, exponents[i]);
+			evaluate(w, 1);
+			elements[i] = toAffine(w);
+		}
+		return elements;
+	}
+	
+	/**
+	 * The generic pre computation of DlogGroupAbs multiplies affine points, which costs an inversion for each multiplication. 
+	 * In this group the projective exponentiation is faster, so this function simply exponentiates.
+	 */
+	@Override
+	public GroupElement exponentiateWithPreComputedValues(GroupElement groupElement, BigInteger exponent) {
+		return exponentiate(groupElement, exponent);
+	}
+	
+	@Override
+	public GroupElement multiplyGroupElements(GroupElement groupElement1, GroupElement groupElement2) throws IllegalArgumentException {
+		// If the GroupElements don't match the DlogGroup, throw exception.
+		if (!(groupElement1 instanceof ECFpPointJava)) {
+			throw new IllegalArgumentException("the first group element doesn't match the DlogGroup");
+		}
+		if (!(groupElement2 instanceof ECFpPointJava)){
+			throw new IllegalArgumentException("the second group element doesn't match the DlogGroup");
+		}
+		
+		ECFpPointJava point1 = (ECFpPointJava) groupElement1;
+		ECFpPointJava point2 = (ECFpPointJava) groupElement2;
+		//If one of the points is the infinity point, the second one is the multiplication result.
+		if (point1.isInfinity()) {
+			return groupElement2;
+		}
+		if (point2.isInfinity()) {
+			return groupElement1;
+		}
+		
+		//Load the first point to projective coordinates and add the second one to it.
+		Workspace w = workspaces.get();
+		System.arraycopy(point1.getMontgomeryX(), 0, w.x, 0, w.x.length);
+		System.arraycopy(point1.getMontgomeryY(), 0, w.y, 0, w.y.length);
+		field.setOne(w.z);
+		mixedAdd(w.x, w.y, w.z, point2.getMontgomeryX(), point2.getMontgomeryY(), w.x3, w.y3, w.z3, w);
+		w.swapAccumulator();
+		return toAffine(w);
+	}
+	
+	/**
+	 * Computes the product of several exponentiations with distinct bases and distinct exponents.<p>
+	 * The exponentiations are interleaved: all the exponents are recoded to signed windows of the same length, 
+	 * and each window is computed by the doublings of one accumulator followed by a mixed addition for each base. 
+	 * Thus, the doublings are shared by all the bases.
+	 * @param groupElements
+	 * @param exponentiations
+	 * @return the exponentiation result
+	 */
+	@Override
+	public GroupElement simultaneousMultipleExponentiations(GroupElement[] groupElements, BigInteger[] exponentiations) {
+		for (int i = 0; i < groupElements.length; i++) {
+			// if the GroupElements don't match the DlogGroup, throw exception.
+			if (!(groupElements[i] instanceof ECFpPointJava)) {
+				throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
+			}
+		}
+		
+		Workspace w = workspaces.get();
+		w.ensureCapacity(groupElements.length);
+		//The infinity point does not change the product, so it is skipped.
+		int numBases = 0;
+		for (int i = 0; i < groupElements.length; i++) {
+			ECFpPointJava point = (ECFpPointJava) groupElements[i];
+			if (!point.isInfinity()){
+				buildTable(w, numBases, point);
+				recode(w, numBases, exponentiations[i]);
+				numBases++;
+			}
+		}
+		
+		evaluate(w, numBases);
+		return toAffine(w);
+	}
+	
+	@Override
+	public boolean isMember(GroupElement element) throws IllegalArgumentException {
+		// Checks that the element is the correct object.
+		if (!(element instanceof ECFpPointJava)) {
+			throw new IllegalArgumentException("groupElement doesn't match the DlogGroup");
+		}
+
+		ECFpPointJava point = (ECFpPointJava) element;
+		// Infinity point is a valid member.
+		if (point.isInfinity()) {
+			return true;
+		}
+
+		// A point (x, y) is a member of a Dlog group with prime order q over an Elliptic Curve if it meets the following two conditions:
+		// 1)	P = (x,y) is a point in the Elliptic curve, i.e (x,y) is a solution of the curves equation.
+		// 2)	P = (x,y) is a point in the q-order group which is a sub-group of the Elliptic Curve.
+		// Those two checks are implemented in ECFpUtility since they are independent of the underlying implementation.
+		boolean valid = util.checkCurveMembership((ECFpGroupParams) groupParams, point.getX(), point.getY());
+		valid = valid && util.checkSubGroupMembership(this, point);
+		
+		return valid;
+	}
+	
+	/**
+	 * @deprecated As of SCAPI-V2_0_0 use generateElment(boolean bCheckMembership, BigInteger...values)
+	 */
+	@Override
+	@Deprecated 
+	public ECElement generateElement(BigInteger x, BigInteger y) throws IllegalArgumentException {
+		return (ECElement) generateElement(true, x, y);
+	}
+	
+	@Override
+	public GroupElement generateElement(boolean bCheckMembership, BigInteger... values) throws IllegalArgumentException {
+		if(values.length != 2){
+			throw new IllegalArgumentException("To generate an ECElement you should pass the x and y coordinates of the point");
+		}
+		//Creates element with the given values.
+		ECFpPointJava point = new ECFpPointJava(values[0], values[1], this, bCheckMembership);
+		
+		if(bCheckMembership) {
+			//if the element was created, it is a point on the curve.
+			//checks if the point is in the sub-group, too.
+			boolean valid = util.checkSubGroupMembership(this, point);
+			
+			//if the point is not in the sub-group, throw exception.
+			if (valid == false){
+				throw new IllegalArgumentException("Could not generate the element. The given (x, y) is not a point in this Dlog group");
+			}
+		}
+		return point;
+	}
+	
+	/**
+	 * This function takes any string of length up to k bytes and encodes it to a Group Element. 
+	 * k can be obtained by calling getMaxLengthOfByteArrayForEncoding() and it is calculated upon construction of this group; it depends on the length in bits of p.<p>
+	 * The encoding-decoding functionality is not a bijection, that is, it is a 1-1 function but is not onto. 
+	 * Therefore, any string of length in bytes up to k can be encoded to a group element but not every group element can be decoded to a binary string in the group of binary strings of length up to 2^k.<p>
+	 * Thus, the right way to use this functionality is first to encode a byte array and then to decode it, and not the opposite.
+	 * 
+	 * @param binaryString the byte array to convert
+	 * @throws IndexOutOfBoundsException if the length of the binary array to encode is longer than k
+	 * @return the created group Element or null if could not find the encoding in reasonable time
+	 */
+	@Override
+	public GroupElement encodeByteArrayToGroupElement(byte[] binaryString) {
+		ECFpUtility.FpPoint fpPoint = util.findPointRepresentedByByteArray((ECFpGroupParams) groupParams, binaryString, k); 
+		if (fpPoint == null)
+			return null;
+		//When generating an element for an encoding always check that the (x,y) coordinates represent a point on the curve.
+		return generateElement(true, fpPoint.getX(), fpPoint.getY());
+	}
+	
+	@Override
+	public byte[] decodeGroupElementToByteArray(GroupElement groupElement) {
+		// Checks that the element is the correct object.
+		if (!(groupElement instanceof ECFpPointJava)) {
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		ECFpPointJava point = (ECFpPointJava) groupElement;
+		byte[] xByteArray = point.getX().toByteArray();
+		//The original size is placed in the last byte of x.
+		byte bOriginalSize = xByteArray[xByteArray.length -1];
+		byte[] b2 = new byte[bOriginalSize];
+		
+		//Copy the original byte array.
+		System.arraycopy(xByteArray, xByteArray.length -1  -  bOriginalSize, b2, 0, bOriginalSize);
+		return b2;
+	}
+	
+	@Override
+	public byte[] mapAnyGroupElementToByteArray(GroupElement groupElement) {
+		//This function simply returns an array which is the result of concatenating 
+		//the byte array representation of x with the byte array representation of y.
+		if (!(groupElement instanceof ECFpPointJava)) {
+			throw new IllegalArgumentException("element type doesn't match the group type");
+		}
+		ECFpPointJava point = (ECFpPointJava) groupElement;
+		
+		//The actual work is implemented in ECFpUtility since it is independent of the underlying library (BC, Miracl, or other)
+		//If we ever decide to change the implementation there will only be one place to change it.
+		return util.mapAnyGroupElementToByteArray(point.getX(), point.getY());
+	}
+	
+	/*
+	 * Fills the table of the given base with the odd multiples P, 3P, ..., (2*TABLE_SIZE-1)P, in affine coordinates.
+	 * The multiples are computed in projective coordinates and converted together by Montgomery's trick, with a single inversion.
+	 */
+	private void buildTable(Workspace w, int baseIndex, ECFpPointJava base){
+		long[][] projX = w.projX;
+		long[][] projY = w.projY;
+		long[][] projZ = w.projZ;
+		
+		//The first entry is P, and the rest are computed by adding 2P to the previous entry.
+		System.arraycopy(base.getMontgomeryX(), 0, projX[0], 0, projX[0].length);
+		System.arraycopy(base.getMontgomeryY(), 0, projY[0], 0, projY[0].length);
+		field.setOne(projZ[0]);
+		pointDouble(projX[0], projY[0], projZ[0], w.doubleX, w.doubleY, w.doubleZ, w);
+		for (int i = 1; i < TABLE_SIZE; i++){
+			pointAdd(projX[i - 1], projY[i - 1], projZ[i - 1], w.doubleX, w.doubleY, w.doubleZ, projX[i], projY[i], projZ[i], w);
+		}
+		
+		//prefix[i] = Z0 * Z1 * ... * Zi
+		long[][] prefix = w.prefix;
+		System.arraycopy(projZ[0], 0, prefix[0], 0, prefix[0].length);
+		for (int i = 1; i < TABLE_SIZE; i++){
+			field.multiply(prefix[i - 1], projZ[i], prefix[i], w.t);
+		}
+		
+		//The multiples of P are not the infinity since they are smaller than the order, so the product can be inverted.
+		field.invert(prefix[TABLE_SIZE - 1], w.inverse, w.t);
+		long[][] tableX = w.tableX[baseIndex];
+		long[][] tableY = w.tableY[baseIndex];
+		for (int i = TABLE_SIZE - 1; i > 0; i--){
+			//inverse = (Z0 * ... * Zi)^(-1), so Zi^(-1) = inverse * (Z0 * ... * Zi-1).
+			field.multiply(w.inverse, prefix[i - 1], w.zInverse, w.t);
+			field.multiply(w.inverse, projZ[i], w.inverse, w.t);
+			field.multiply(projX[i], w.zInverse, tableX[i], w.t);
+			field.multiply(projY[i], w.zInverse, tableY[i], w.t);
+		}
+		field.multiply(projX[0], w.inverse, tableX[0], w.t);
+		field.multiply(projY[0], w.inverse, tableY[0], w.t);
+	}
+	
+	/*
+	 * Recodes the given exponent to numDigits signed odd digits d0, ..., dm-1 in the range [-(2^WINDOW-1), 2^WINDOW-1], 
+	 * such that exponent = sum of di*2^(WINDOW*i) modulo q.<p>
+	 * The recoding needs an odd number, so an even exponent e is replaced by q - e, which is odd, and the signs of the digits are flipped.
+	 */
+	private void recode(Workspace w, int baseIndex, BigInteger exponent){
+		//If the exponent is negative or not smaller than q, convert it to be the exponent modulus q.
+		if (exponent.signum() < 0 || exponent.bitLength() > getOrder().bitLength() || exponent.compareTo(getOrder()) >= 0){
+			exponent = exponent.mod(getOrder());
+		}
+		
+		//Split the exponent to limbs.
+		long[] scalar = w.scalar;
+		for (int i = 0; i < scalarLimbs; i++){
+			scalar[i] = 0;
+		}
+		byte[] bytes = exponent.toByteArray();
+		for (int i = 0; i < bytes.length && i < 4 * scalarLimbs; i++){
+			scalar[i >>> 2] |= ((long) (bytes[bytes.length - 1 - i] & 0xFF)) << (8 * (i & 3));
+		}
+		
+		//negative = q - scalar. Use it if the scalar is even.
+		long[] negative = w.negativeScalar;
+		long borrow = 0;
+		for (int i = 0; i < scalarLimbs; i++){
+			long s = q[i] - scalar[i] - borrow;
+			negative[i] = s & MASK;
+			borrow = s >>> 63;
+		}
+		long evenMask = (scalar[0] & 1) - 1;
+		for (int i = 0; i < scalarLimbs; i++){
+			scalar[i] = (negative[i] & evenMask) | (scalar[i] & ~evenMask);
+		}
+		
+		int[] digits = w.digits[baseIndex];
+		int flip = (int) evenMask;
+		for (int i = 0; i < numDigits - 1; i++){
+			//The digit is the low WINDOW+1 bits minus 2^WINDOW, which is odd since the scalar is odd. 
+			//Subtracting it leaves the low WINDOW bits zero and the next bit one, so the shifted scalar is odd too.
+			int digit = (int) (scalar[0] & ((1 << (WINDOW + 1)) - 1)) - (1 << WINDOW);
+			long carry = -digit;
+			for (int j = 0; j < scalarLimbs; j++){
+				long s = scalar[j] + carry;
+				scalar[j] = s & MASK;
+				carry = s >> 32;
+			}
+			for (int j = 0; j < scalarLimbs - 1; j++){
+				scalar[j] = (scalar[j] >>> WINDOW) | ((scalar[j + 1] << (32 - WINDOW)) & MASK);
+			}
+			scalar[scalarLimbs - 1] >>>= WINDOW;
+			digits[i] = (digit ^ flip) - flip;
+		}
+		int digit = (int) scalar[0];
+		digits[numDigits - 1] = (digit ^ flip) - flip;
+	}
+	
+	/*
+	 * Computes the product of the recoded exponentiations of the first numBases tables into the accumulator.
+	 */
+	private void evaluate(Workspace w, int numBases){
+		//Start from the infinity point (0 : 1 : 0). The complete formulas handle it as any other point.
+		field.setZero(w.x);
+		field.setOne(w.y);
+		field.setZero(w.z);
+		for (int i = numDigits - 1; i >= 0; i--){
+			if (i < numDigits - 1){
+				for (int j = 0; j < WINDOW; j++){
+					pointDouble(w.x, w.y, w.z, w.x3, w.y3, w.z3, w);
+					w.swapAccumulator();
+				}
+			}
+			for (int base = 0; base < numBases; base++){
+				lookup(w, base, w.digits[base][i]);
+				mixedAdd(w.x, w.y, w.z, w.lookupX, w.lookupY, w.x3, w.y3, w.z3, w);
+				w.swapAccumulator();
+			}
+		}
+	}
+	
+	/*
+	 * Sets the lookup point to be digit*P, where P is the base of the given table. 
+	 * The whole table is scanned and the sign is applied by a mask, so the memory access does not depend on the digit.
+	 */
+	private void lookup(Workspace w, int baseIndex, int digit){
+		int sign = digit >> 31;
+		int index = (((digit ^ sign) - sign) - 1) >>> 1;
+		
+		long[][] tableX = w.tableX[baseIndex];
+		long[][] tableY = w.tableY[baseIndex];
+		long[] lookupX = w.lookupX;
+		long[] lookupY = w.lookupY;
+		field.setZero(lookupX);
+		field.setZero(lookupY);
+		for (int i = 0; i < TABLE_SIZE; i++){
+			long mask = ((long) (i ^ index) - 1) >> 63;
+			for (int j = 0; j < lookupX.length; j++){
+				lookupX[j] |= tableX[i][j] & mask;
+				lookupY[j] |= tableY[i][j] & mask;
+			}
+		}
+		
+		//-(x, y) = (x, -y)
+		field.negate(lookupY, w.negativeY);
+		field.select(sign, w.negativeY, lookupY, lookupY);
+	}
+	
+	/*
+	 * Converts the accumulator to a point of the group.
+	 */
+	private ECFpPointJava toAffine(Workspace w){
+		if (field.isZero(w.z)){
+			return (ECFpPointJava) getInfinity();
+		}
+		field.invert(w.z, w.inverse, w.t);
+		long[] montX = field.newElement();
+		long[] montY = field.newElement();
+		field.multiply(w.x, w.inverse, montX, w.t);
+		field.multiply(w.y, w.inverse, montY, w.t);
+		return new ECFpPointJava(field.fromMontgomery(montX, w.t), field.fromMontgomery(montY, w.t), montX, montY);
+	}
+	
+	/*
+	 * (x3 : y3 : z3) = (x1 : y1 : z1) + (x2 : y2 : z2), by algorithm 4 of Renes, Costello and Batina, 
+	 * "Complete addition formulas for prime order elliptic curves".
+	 * The output arrays must not be any of the input arrays.
+	 */
+	private void pointAdd(long[] x1, long[] y1, long[] z1, long[] x2, long[] y2, long[] z2, long[] x3, long[] y3, long[] z3, Workspace w){
+		long[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, t4 = w.t4, t = w.t;
+		field.multiply(x1, x2, t0, t);
+		field.multiply(y1, y2, t1, t);
+		field.multiply(z1, z2, t2, t);
+		field.add(x1, y1, t3);
+		field.add(x2, y2, t4);
+		field.multiply(t3, t4, t3, t);
+		field.add(t0, t1, t4);
+		field.subtract(t3, t4, t3);
+		field.add(y1, z1, t4);
+		field.add(y2, z2, x3);
+		field.multiply(t4, x3, t4, t);
+		field.add(t1, t2, x3);
+		field.subtract(t4, x3, t4);
+		field.add(x1, z1, x3);
+		field.add(x2, z2, y3);
+		field.multiply(x3, y3, x3, t);
+		field.add(t0, t2, y3);
+		field.subtract(x3, y3, y3);
+		field.multiply(b, t2, z3, t);
+		field.subtract(y3, z3, x3);
+		field.add(x3, x3, z3);
+		field.add(x3, z3, x3);
+		field.subtract(t1, x3, z3);
+		field.add(t1, x3, x3);
+		field.multiply(b, y3, y3, t);
+		field.add(t2, t2, t1);
+		field.add(t1, t2, t2);
+		field.subtract(y3, t2, y3);
+		field.subtract(y3, t0, y3);
+		field.add(y3, y3, t1);
+		field.add(t1, y3, y3);
+		field.add(t0, t0, t1);
+		field.add(t1, t0, t0);
+		field.subtract(t0, t2, t0);
+		field.multiply(t4, y3, t1, t);
+		field.multiply(t0, y3, t2, t);
+		field.multiply(x3, z3, y3, t);
+		field.add(y3, t2, y3);
+		field.multiply(t3, x3, x3, t);
+		field.subtract(x3, t1, x3);
+		field.multiply(t4, z3, z3, t);
+		field.multiply(t3, t0, t1, t);
+		field.add(z3, t1, z3);
+	}
+	
+	/*
+	 * (x3 : y3 : z3) = (x1 : y1 : z1) + (x2 : y2 : 1), by algorithm 5 of Renes, Costello and Batina.
+	 * The second point must not be the infinity. The output arrays must not be any of the input arrays.
+	 */
+	private void mixedAdd(long[] x1, long[] y1, long[] z1, long[] x2, long[] y2, long[] x3, long[] y3, long[] z3, Workspace w){
+		long[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, t4 = w.t4, t = w.t;
+		field.multiply(x1, x2, t0, t);
+		field.multiply(y1, y2, t1, t);
+		field.add(x2, y2, t3);
+		field.add(x1, y1, t4);
+		field.multiply(t3, t4, t3, t);
+		field.add(t0, t1, t4);
+		field.subtract(t3, t4, t3);
+		field.multiply(y2, z1, t4, t);
+		field.add(t4, y1, t4);
+		field.multiply(x2, z1, y3, t);
+		field.add(y3, x1, y3);
+		field.multiply(b, z1, z3, t);
+		field.subtract(y3, z3, x3);
+		field.add(x3, x3, z3);
+		field.add(x3, z3, x3);
+		field.subtract(t1, x3, z3);
+		field.add(t1, x3, x3);
+		field.multiply(b, y3, y3, t);
+		field.add(z1, z1, t1);
+		field.add(t1, z1, t2);
+		field.subtract(y3, t2, y3);
+		field.subtract(y3, t0, y3);
+		field.add(y3, y3, t1);
+		field.add(t1, y3, y3);
+		field.add(t0, t0, t1);
+		field.add(t1, t0, t0);
+		field.subtract(t0, t2, t0);
+		field.multiply(t4, y3, t1, t);
+		field.multiply(t0, y3, t2, t);
+		field.multiply(x3, z3, y3, t);
+		field.add(y3, t2, y3);
+		field.multiply(t3, x3, x3, t);
+		field.subtract(x3, t1, x3);
+		field.multiply(t4, z3, z3, t);
+		field.multiply(t3, t0, t1, t);
+		field.add(z3, t1, z3);
+	}
+	
+	/*
+	 * (x3 : y3 : z3) = 2 * (x : y : z), by algorithm 6 of Renes, Costello and Batina.
+	 * The output arrays must not be any of the input arrays.
+	 */
+	private void pointDouble(long[] x, long[] y, long[] z, long[] x3, long[] y3, long[] z3, Workspace w){
+		long[] t0 = w.t0, t1 = w.t1, t2 = w.t2, t3 = w.t3, t = w.t;
+		field.square(x, t0, t);
+		field.square(y, t1, t);
+		field.square(z, t2, t);
+		field.multiply(x, y, t3, t);
+		field.add(t3, t3, t3);
+		field.multiply(x, z, z3, t);
+		field.add(z3, z3, z3);
+		field.multiply(b, t2, y3, t);
+		field.subtract(y3, z3, y3);
+		field.add(y3, y3, x3);
+		field.add(x3, y3, y3);
+		field.subtract(t1, y3, x3);
+		field.add(t1, y3, y3);
+		field.multiply(x3, y3, y3, t);
+		field.multiply(x3, t3, x3, t);
+		field.add(t2, t2, t3);
+		field.add(t2, t3, t2);
+		field.multiply(b, z3, z3, t);
+		field.subtract(z3, t2, z3);
+		field.subtract(z3, t0, z3);
+		field.add(z3, z3, t3);
+		field.add(z3, t3, z3);
+		field.add(t0, t0, t3);
+		field.add(t3, t0, t0);
+		field.subtract(t0, t2, t0);
+		field.multiply(t0, z3, t0, t);
+		field.add(y3, t0, y3);
+		field.multiply(y, z, t0, t);
+		field.add(t0, t0, t0);
+		field.multiply(t0, z3, z3, t);
+		field.subtract(x3, z3, x3);
+		field.multiply(t0, t1, z3, t);
+		field.add(z3, z3, z3);
+		field.add(z3, z3, z3);
+	}
+	
+	/*
+	 * The temporary arrays of the group operations. Each thread has its own workspace, so that the operations 
+	 * do not allocate memory and the group can be used by several threads.
+	 */
+	private class Workspace {
+		long[] t = new long[field.getScratchLength()];	//Scratch of the field multiplication.
+		long[] t0 = field.newElement(), t1 = field.newElement(), t2 = field.newElement(), t3 = field.newElement(), t4 = field.newElement();
+		
+		//The accumulator and the output of the formulas. They are swapped after each operation.
+		long[] x = field.newElement(), y = field.newElement(), z = field.newElement();
+		long[] x3 = field.newElement(), y3 = field.newElement(), z3 = field.newElement();
+		
+		long[] lookupX = field.newElement(), lookupY = field.newElement(), negativeY = field.newElement();
+		long[] inverse = field.newElement(), zInverse = field.newElement();
+		
+		//Table construction.
+		long[] doubleX = field.newElement(), doubleY = field.newElement(), doubleZ = field.newElement();
+		long[][] projX = new long[TABLE_SIZE][field.getNumLimbs()];
+		long[][] projY = new long[TABLE_SIZE][field.getNumLimbs()];
+		long[][] projZ = new long[TABLE_SIZE][field.getNumLimbs()];
+		long[][] prefix = new long[TABLE_SIZE][field.getNumLimbs()];
+		
+		//Exponent recoding.
+		long[] scalar = new long[scalarLimbs];
+		long[] negativeScalar = new long[scalarLimbs];
+		
+		//The tables and the digits of each base.
+		long[][][] tableX = new long[0][][];
+		long[][][] tableY = new long[0][][];
+		int[][] digits = new int[0][];
+		
+		/*
+		 * Makes room for the tables and digits of the given number of bases.
+		 */
+		void ensureCapacity(int numBases){
+			if (tableX.length >= numBases){
+				return;
+			}
+			tableX = new long[numBases][TABLE_SIZE][field.getNumLimbs()];
+			tableY = new long[numBases][TABLE_SIZE][field.getNumLimbs()];
+			digits = new int[numBases][numDigits];
+		}
+		
+		void swapAccumulator(){
+			long[] temp = x;
+			x = x3;
+			x3 = temp;
+			temp = y;
+			y = y3;
+			y3 = temp;
+			temp = z;
+			z = z3;
+			z3 = temp;
+		}
+	}
+}
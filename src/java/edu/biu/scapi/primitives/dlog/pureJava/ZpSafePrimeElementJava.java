@@ -0,0 +1,178 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.dlog.pureJava;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpSafePrimeElement;
+import edu.biu.scapi.tools.math.MontgomeryModulus;
+
+/**
+ * This class is an element of {@link JavaDlogZpSafePrime}.<p>
+ * The element is kept as a BigInteger, as a residue in Montgomery form (see {@link MontgomeryModulus}), or both. 
+ * An element that was created by a multiplication has only the residue, and an element that was created by an exponentiation 
+ * has only the BigInteger. The other form is computed when it is first needed, so a chain of multiplications does not 
+ * convert its intermediate results, and an element that is only exponentiated is never converted.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ZpSafePrimeElementJava implements ZpSafePrimeElement {
+	
+	private MontgomeryModulus modulus;
+	//At least one of the forms is set. An element is immutable, so a form that was computed twice by two threads is the same value.
+	private volatile BigInteger x;
+	private volatile long[] residue;
+	
+	/**
+	 * This constructor accepts x value, the arithmetic modulo the safe prime p of the group and a boolean indicates if the x values needs to be checked.
+	 * If x is needs to be checked and it is valid element in the group, sets it; else, throws exception.
+	 * If x does not need to be checked, it is set without checking.
+	 * @param x element in the group.
+	 * @param modulus the arithmetic modulo the safe prime of the group.
+	 * @param bCheckMembership indicates if x is needs to be checked.
+	 * @throws IllegalArgumentException
+	 */
+	ZpSafePrimeElementJava(BigInteger x, MontgomeryModulus modulus, boolean bCheckMembership) throws IllegalArgumentException{
+		BigInteger p = modulus.getModulus();
+		if(bCheckMembership){
+			BigInteger q = p.subtract(BigInteger.ONE).shiftRight(1);
+			//If the element is in the expected range, set it. else, throw exception.
+			if ((x.compareTo(BigInteger.ZERO)>0) && (x.compareTo(p.subtract(BigInteger.ONE))<=0)){
+				if ((x.modPow(q, p)).compareTo(BigInteger.ONE)!=0){
+					throw new IllegalArgumentException("Cannot create Zp element. Requested value " + x + " is not a quadratic residue.");
+				}
+			} else throw new IllegalArgumentException("Cannot create Zp element. Requested value " + x + " is not in the range of this group.");
+		}
+		this.modulus = modulus;
+		this.x = x;
+	}
+	
+	/**
+	 * Constructor that chooses a random element with order q.
+	 * The algorithm is: 
+	 * input: modulus p.
+	 * choose a random element between 1 to p-1.
+	 * calculate element^2 mod p.
+	 *  
+	 * @param modulus the arithmetic modulo the safe prime of the group.
+	 * @param random The source of randomness to use.
+	 */
+	ZpSafePrimeElementJava(MontgomeryModulus modulus, SecureRandom random){
+		BigInteger p = modulus.getModulus();
+		// find a number in the range [1, ..., p-1]
+		BigInteger element = BigIntegers.createRandomInRange(BigInteger.ONE, p.subtract(BigInteger.ONE), random);
+		
+		//calculate its power to get a number in the subgroup and set the power as the element. 
+		this.modulus = modulus;
+		this.x = element.multiply(element).mod(p);
+	}
+	
+	/*
+	 * Constructor that gets the residue of the element in Montgomery form and sets it. 
+	 * Only our inner functions use this constructor to set an element. 
+	 * The residue is a result of our DlogGroup functions, such as multiply.
+	 */
+	ZpSafePrimeElementJava(long[] residue, MontgomeryModulus modulus){
+		this.modulus = modulus;
+		this.residue = residue;
+	}
+	
+	/**
+	 * @return the element in Montgomery form. The returned array must not be changed.
+	 */
+	long[] getResidue(){
+		long[] result = residue;
+		if (result == null){
+			result = modulus.toMontgomery(x);
+			residue = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * @return BigInteger - value of the element
+	 */
+	public BigInteger getElementValue() {
+		BigInteger result = x;
+		if (result == null){
+			result = modulus.fromMontgomery(residue);
+			x = result;
+		}
+		return result;
+	}
+	
+	/**
+	 * This function checks if this element is the identity of the Dlog group.
+	 * @return <code>true</code> if this element is the identity of the group; <code>false</code> otherwise.
+	 */
+	public boolean isIdentity(){
+		BigInteger value = x;
+		if (value != null){
+			return value.equals(BigInteger.ONE);
+		}
+		return modulus.isOne(residue);
+	}
+	
+	/**
+	 * Checks if the given GroupElement is equal to this groupElement.
+	 * 
+	 * @param elementToCompare
+	 * @return true if the given element is equal to this element. false, otherwise.
+	 */
+	public boolean equals(Object elementToCompare) {
+		if (!(elementToCompare instanceof ZpSafePrimeElementJava)) {
+			return false;
+		}
+		ZpSafePrimeElementJava element = (ZpSafePrimeElementJava) elementToCompare;
+		if (element.getElementValue().compareTo(getElementValue()) == 0) {
+			return true;
+		}
+		return false;
+	}
+	
+	@Override
+	public int hashCode() {
+		return getElementValue().hashCode();
+	}
+	
+	@Override
+	public String toString() {
+		return "ZpSafePrimeElementJava [element value=" + getElementValue() + "]";
+	}
+	
+	/** 
+	 * @see edu.biu.scapi.primitives.dlog.GroupElement#generateSendableData()
+	 */
+	@Override
+	public GroupElementSendableData generateSendableData() {
+		return new ZpElementSendableData(getElementValue());
+	}
+}
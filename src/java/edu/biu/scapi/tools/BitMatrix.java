@@ -0,0 +1,407 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools;
+
+/**
+ * A matrix of bits over GF(2), packed in a long array.<p>
+ * 
+ * The matrix is kept row by row, and each row takes a whole number of longs. Bit j of row i is bit j%64 of the long 
+ * i*getWordsPerRow() + j/64. The unused bits of the last long of a row are always zero.<p>
+ * 
+ * The class offers the bit operations that the protocols need on whole words instead of on single bits: 
+ * a blocked transpose, XOR of rows, the product by a vector or by another matrix over GF(2), and the extraction of the set bits of a row.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class BitMatrix {
+	
+	private final int numRows;
+	private final int numCols;
+	private final int wordsPerRow;
+	private final long[] data;
+	
+	/**
+	 * Creates a matrix of zeros.
+	 * @param numRows The number of rows.
+	 * @param numCols The number of columns.
+	 */
+	public BitMatrix(int numRows, int numCols){
+		this(numRows, numCols, new long[numRows * getNumOfWords(numCols)]);
+	}
+	
+	/**
+	 * Creates a matrix over the given array, without copying it.
+	 * @param numRows The number of rows.
+	 * @param numCols The number of columns.
+	 * @param data The rows of the matrix, in the layout that is described in the class documentation. 
+	 * The unused bits of the last long of each row must be zero.
+	 * @throws IllegalArgumentException if the length of the array does not match the sizes.
+	 */
+	public BitMatrix(int numRows, int numCols, long[] data){
+		if (numRows < 0 || numCols < 0){
+			throw new IllegalArgumentException("the sizes of the matrix should not be negative");
+		}
+		wordsPerRow = getNumOfWords(numCols);
+		if (data.length != numRows * wordsPerRow){
+			throw new IllegalArgumentException("the array should contain " + numRows * wordsPerRow + " longs");
+		}
+		this.numRows = numRows;
+		this.numCols = numCols;
+		this.data = data;
+	}
+	
+	/**
+	 * Creates a matrix from an array that holds one bit in each byte. A byte that is not zero is considered as one.
+	 * @param bits The rows of the matrix. All the rows should have the same length.
+	 * @return the packed matrix.
+	 */
+	public static BitMatrix fromBitArrays(byte[][] bits){
+		int numCols = (bits.length == 0) ? 0 : bits[0].length;
+		BitMatrix matrix = new BitMatrix(bits.length, numCols);
+		for (int i = 0; i < bits.length; i++){
+			if (bits[i].length != numCols){
+				throw new IllegalArgumentException("all the rows should have the same length");
+			}
+			pack(bits[i], matrix.data, i * matrix.wordsPerRow);
+		}
+		return matrix;
+	}
+	
+	/**
+	 * Creates a matrix from the given bytes. Each row takes numCols/8 bytes, and bit j of a row is bit j%8 of its byte j/8.<p>
+	 * This is the layout of an array of keys, each of numCols bits, so the keys are the rows of the matrix.
+	 * @param bytes The rows of the matrix.
+	 * @param numRows The number of rows.
+	 * @param numCols The number of columns. Must be a multiple of 8.
+	 * @return the packed matrix.
+	 */
+	public static BitMatrix fromBytes(byte[] bytes, int numRows, int numCols){
+		if (numCols % 8 != 0){
+			throw new IllegalArgumentException("the number of columns should be a multiple of 8");
+		}
+		int rowLength = numCols / 8;
+		if (bytes.length != numRows * rowLength){
+			throw new IllegalArgumentException("the array should contain " + numRows * rowLength + " bytes");
+		}
+		BitMatrix matrix = new BitMatrix(numRows, numCols);
+		for (int i = 0; i < numRows; i++){
+			int rowOffset = i * matrix.wordsPerRow;
+			for (int k = 0; k < rowLength; k++){
+				matrix.data[rowOffset + (k >>> 3)] |= ((long) (bytes[i * rowLength + k] & 0xFF)) << (8 * (k & 7));
+			}
+		}
+		return matrix;
+	}
+	
+	/**
+	 * Creates a matrix from the given rows. The longs are copied into a single array.
+	 * @param rows The rows of the matrix. Each row should hold at least getNumOfWords(numCols) longs, 
+	 * and its bits beyond numCols are ignored.
+	 * @param numCols The number of columns.
+	 * @return the packed matrix.
+	 */
+	public static BitMatrix fromRows(long[][] rows, int numCols){
+		BitMatrix matrix = new BitMatrix(rows.length, numCols);
+		for (int i = 0; i < rows.length; i++){
+			System.arraycopy(rows[i], 0, matrix.data, i * matrix.wordsPerRow, matrix.wordsPerRow);
+			matrix.clearPadding(i);
+		}
+		return matrix;
+	}
+	
+	/**
+	 * @return the number of longs that hold the given number of bits.
+	 */
+	public static int getNumOfWords(int numBits){
+		return (numBits + 63) >>> 6;
+	}
+	
+	/**
+	 * @return the number of rows of the matrix.
+	 */
+	public int getNumRows(){
+		return numRows;
+	}
+	
+	/**
+	 * @return the number of columns of the matrix.
+	 */
+	public int getNumCols(){
+		return numCols;
+	}
+	
+	/**
+	 * @return the number of longs that hold a row.
+	 */
+	public int getWordsPerRow(){
+		return wordsPerRow;
+	}
+	
+	/**
+	 * Returns the array that holds the matrix. The array is not copied, so changes to it change the matrix.
+	 */
+	public long[] getData(){
+		return data;
+	}
+	
+	/**
+	 * @return the bit in the given row and column, as 0 or 1.
+	 */
+	public int get(int row, int col){
+		return (int) (data[row * wordsPerRow + (col >>> 6)] >>> col) & 1;
+	}
+	
+	/**
+	 * Sets the bit in the given row and column to the given bit.
+	 * @param bit 0 or 1.
+	 */
+	public void set(int row, int col, int bit){
+		int index = row * wordsPerRow + (col >>> 6);
+		long mask = 1L << col;
+		data[index] = (data[index] & ~mask) | (-((long) (bit & 1)) & mask);
+	}
+	
+	/**
+	 * Returns the index of the first column, starting from fromCol, that its bit in the given row is one.
+	 * @return the index of the column, or -1 if there is no such column.
+	 */
+	public int nextSetBit(int row, int fromCol){
+		if (fromCol >= numCols){
+			return -1;
+		}
+		int rowOffset = row * wordsPerRow;
+		int w = fromCol >>> 6;
+		long word = data[rowOffset + w] & (-1L << fromCol);
+		while (true){
+			if (word != 0){
+				return (w << 6) + Long.numberOfTrailingZeros(word);
+			}
+			if (++w == wordsPerRow){
+				return -1;
+			}
+			word = data[rowOffset + w];
+		}
+	}
+	
+	/**
+	 * @return the number of ones in the given row.
+	 */
+	public int getRowWeight(int row){
+		int weight = 0;
+		for (int w = 0; w < wordsPerRow; w++){
+			weight += Long.bitCount(data[row * wordsPerRow + w]);
+		}
+		return weight;
+	}
+	
+	/**
+	 * Returns the bits of the given row, one bit in each byte.
+	 */
+	public byte[] getRowBits(int row){
+		byte[] bits = new byte[numCols];
+		unpack(data, row * wordsPerRow, bits);
+		return bits;
+	}
+	
+	/**
+	 * Sets row dest to be the XOR of itself and row src.
+	 */
+	public void xorRow(int dest, int src){
+		xorRow(dest, this, src);
+	}
+	
+	/**
+	 * Sets row dest to be the XOR of itself and row srcRow of the given matrix.
+	 * @param other A matrix with the same number of columns.
+	 */
+	public void xorRow(int dest, BitMatrix other, int srcRow){
+		checkSameColumns(other);
+		int d = dest * wordsPerRow;
+		int s = srcRow * wordsPerRow;
+		for (int w = 0; w < wordsPerRow; w++){
+			data[d + w] ^= other.data[s + w];
+		}
+	}
+	
+	/**
+	 * Copies row srcRow of the given matrix into row dest of this matrix.
+	 * @param other A matrix with the same number of columns.
+	 */
+	public void copyRow(int dest, BitMatrix other, int srcRow){
+		checkSameColumns(other);
+		System.arraycopy(other.data, srcRow * wordsPerRow, data, dest * wordsPerRow, wordsPerRow);
+	}
+	
+	/**
+	 * Computes the product of this matrix by the given column vector over GF(2).
+	 * @param vector The packed bits of a vector of getNumCols() bits, in the layout of a row.
+	 * @return the packed bits of the product, a vector of getNumRows() bits.
+	 */
+	public long[] multiply(long[] vector){
+		if (vector.length < wordsPerRow){
+			throw new IllegalArgumentException("the vector should contain " + wordsPerRow + " longs");
+		}
+		long[] result = new long[getNumOfWords(numRows)];
+		for (int i = 0; i < numRows; i++){
+			long acc = 0;
+			int rowOffset = i * wordsPerRow;
+			for (int w = 0; w < wordsPerRow; w++){
+				acc ^= data[rowOffset + w] & vector[w];
+			}
+			result[i >>> 6] |= ((long) (Long.bitCount(acc) & 1)) << i;
+		}
+		return result;
+	}
+	
+	/**
+	 * Computes the product of this matrix by the given matrix over GF(2).<p>
+	 * Row i of the product is the XOR of the rows of the given matrix that are chosen by the ones of row i of this matrix, 
+	 * so the work is proportional to the number of ones in this matrix.
+	 * @param other A matrix that its number of rows is the number of columns of this matrix.
+	 * @return the product, with the number of rows of this matrix and the number of columns of the given matrix.
+	 */
+	public BitMatrix multiply(BitMatrix other){
+		if (other.numRows != numCols){
+			throw new IllegalArgumentException("the number of rows of the given matrix should be " + numCols);
+		}
+		BitMatrix result = new BitMatrix(numRows, other.numCols);
+		for (int i = 0; i < numRows; i++){
+			for (int j = nextSetBit(i, 0); j >= 0; j = nextSetBit(i, j + 1)){
+				result.xorRow(i, other, j);
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the transpose of this matrix.<p>
+	 * The matrix is split into blocks of 64x64 bits, each block is transposed in place by the recursive swap of Eklundh 
+	 * and is written to the mirrored place. Each block is read and written once, so the transpose works on whole 
+	 * longs and stays within the cache.
+	 */
+	public BitMatrix transpose(){
+		BitMatrix result = new BitMatrix(numCols, numRows);
+		long[] block = new long[64];
+		int rowBlocks = getNumOfWords(numRows);
+		for (int rb = 0; rb < rowBlocks; rb++){
+			int rows = Math.min(64, numRows - 64 * rb);
+			for (int cb = 0; cb < wordsPerRow; cb++){
+				for (int k = 0; k < rows; k++){
+					block[k] = data[(64 * rb + k) * wordsPerRow + cb];
+				}
+				for (int k = rows; k < 64; k++){
+					block[k] = 0;
+				}
+				transpose64(block);
+				int cols = Math.min(64, numCols - 64 * cb);
+				for (int l = 0; l < cols; l++){
+					result.data[(64 * cb + l) * result.wordsPerRow + rb] = block[l];
+				}
+			}
+		}
+		return result;
+	}
+	
+	/**
+	 * Returns the matrix as bytes, in the layout of {@link #fromBytes(byte[], int, int)}.
+	 * @throws IllegalStateException if the number of columns is not a multiple of 8.
+	 */
+	public byte[] toBytes(){
+		if (numCols % 8 != 0){
+			throw new IllegalStateException("the number of columns should be a multiple of 8");
+		}
+		int rowLength = numCols / 8;
+		byte[] bytes = new byte[numRows * rowLength];
+		for (int i = 0; i < numRows; i++){
+			int rowOffset = i * wordsPerRow;
+			for (int k = 0; k < rowLength; k++){
+				bytes[i * rowLength + k] = (byte) (data[rowOffset + (k >>> 3)] >>> (8 * (k & 7)));
+			}
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Transposes in place the 64x64 bit matrix that its rows are the given longs, so that bit k of a[l] becomes bit l of a[k].<p>
+	 * Uses the recursive swap of the off diagonal blocks of "H. S. Warren. Hacker's Delight", in 6 rounds of 32 swaps each.
+	 */
+	public static void transpose64(long[] a){
+		long m = 0x00000000FFFFFFFFL;
+		for (int j = 32; j != 0; j >>>= 1, m ^= m << j){
+			for (int k = 0; k < 64; k = ((k | j) + 1) & ~j){
+				long t = ((a[k] >>> j) ^ a[k | j]) & m;
+				a[k | j] ^= t;
+				a[k] ^= t << j;
+			}
+		}
+	}
+	
+	/**
+	 * Packs the given bits, one bit in each byte, into longs. A byte that is not zero is considered as one.
+	 * @param bits The bits to pack.
+	 * @param out The array to write the packed bits to. The longs that hold the bits are overwritten.
+	 * @param offset The place of the first long in out.
+	 */
+	public static void pack(byte[] bits, long[] out, int offset){
+		int numWords = getNumOfWords(bits.length);
+		for (int w = 0; w < numWords; w++){
+			long word = 0;
+			int end = Math.min(64, bits.length - 64 * w);
+			for (int b = 0; b < end; b++){
+				int bit = bits[64 * w + b];
+				word |= ((long) ((bit | -bit) >>> 31)) << b;
+			}
+			out[offset + w] = word;
+		}
+	}
+	
+	/**
+	 * Unpacks bits from longs, one bit to each byte of the given array.
+	 * @param packed The packed bits.
+	 * @param offset The place of the first long in packed.
+	 * @param bits The array to fill with the bits, as 0 or 1. Its length is the number of unpacked bits.
+	 */
+	public static void unpack(long[] packed, int offset, byte[] bits){
+		for (int b = 0; b < bits.length; b++){
+			bits[b] = (byte) ((packed[offset + (b >>> 6)] >>> b) & 1);
+		}
+	}
+	
+	/*
+	 * Clears the bits of the given row beyond the last column.
+	 */
+	private void clearPadding(int row){
+		if ((numCols & 63) != 0){
+			data[(row + 1) * wordsPerRow - 1] &= (1L << numCols) - 1;
+		}
+	}
+	
+	private void checkSameColumns(BitMatrix other){
+		if (other.numCols != numCols){
+			throw new IllegalArgumentException("the matrices should have the same number of columns");
+		}
+	}
+}
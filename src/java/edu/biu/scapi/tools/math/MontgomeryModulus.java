@@ -0,0 +1,358 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools.math;
+
+import java.math.BigInteger;
+
+/**
+ * Arithmetic modulo an odd number m on residues in Montgomery form.<p>
+ * A residue is a long array of n limbs of 32 bits each, the least significant limb first, that holds a*R mod m where R = 2^(32n).
+ * Each limb is kept in a long so that the product of two limbs plus two more limbs fits in 64 unsigned bits.<p>
+ * 
+ * The residues are mutable, so a chain of multiplications can write its intermediate results to the same arrays instead of 
+ * creating a BigInteger for each of them. A Montgomery product does not divide, which is most of the cost of 
+ * BigInteger.multiply followed by BigInteger.mod. The conversions to and from Montgomery form cost a product each, 
+ * so the residues pay off when a value takes part in more than one multiplication, as in a group element that is 
+ * multiplied many times, or in the product of many values (see {@link #product(BigInteger[])}).<p>
+ * 
+ * An exponentiation is computed by BigInteger.modPow. modPow runs a sliding window over Montgomery products itself, and 
+ * the JVM replaces its inner Montgomery multiplication by an intrinsic that is several times faster than the same loop 
+ * written in Java. Therefore, a sliding window over the products of this class is slower for any exponent length.<p>
+ * 
+ * The scratch arrays are kept per thread, so an instance can be shared by several threads. 
+ * The output array of a function may be one of its input arrays.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class MontgomeryModulus {
+	private static final long MASK = 0xFFFFFFFFL;
+	
+	private BigInteger modulus;
+	private int n;					//Number of limbs.
+	private long[] m;				//The modulus.
+	private long n0Inverse;			//-m^(-1) mod 2^32.
+	private long[] rSquared;		//R^2 mod m, used to convert numbers to Montgomery form.
+	private long[] one;				//R mod m, the one in Montgomery form.
+	private long[] plainOne;		//The number 1, used to convert residues from Montgomery form.
+	private ThreadLocal<long[]> scratch;
+	
+	/**
+	 * @param modulus an odd number greater than 1.
+	 * @throws IllegalArgumentException if the modulus is even or not greater than 1.
+	 */
+	public MontgomeryModulus(BigInteger modulus){
+		if (modulus.compareTo(BigInteger.ONE) <= 0 || !modulus.testBit(0)){
+			throw new IllegalArgumentException("the modulus must be an odd number greater than 1");
+		}
+		this.modulus = modulus;
+		n = (modulus.bitLength() + 31) / 32;
+		m = toLimbs(modulus, n);
+		n0Inverse = modulus.modInverse(BigInteger.ONE.shiftLeft(32)).negate().mod(BigInteger.ONE.shiftLeft(32)).longValue();
+		BigInteger r = BigInteger.ONE.shiftLeft(32 * n);
+		rSquared = toLimbs(r.multiply(r).mod(modulus), n);
+		one = toLimbs(r.mod(modulus), n);
+		plainOne = toLimbs(BigInteger.ONE, n);
+		
+		//The squaring needs room for the whole double length square.
+		final int scratchLength = 2 * n + 1;
+		scratch = new ThreadLocal<long[]>(){
+			@Override
+			protected long[] initialValue() {
+				return new long[scratchLength];
+			}
+		};
+	}
+	
+	/**
+	 * @return the modulus.
+	 */
+	public BigInteger getModulus(){
+		return modulus;
+	}
+	
+	/**
+	 * @return the number of limbs of a residue.
+	 */
+	public int getNumLimbs(){
+		return n;
+	}
+	
+	/**
+	 * @return a new residue.
+	 */
+	public long[] newResidue(){
+		return new long[n];
+	}
+	
+	/**
+	 * Sets r to be the one in Montgomery form.
+	 */
+	public void setOne(long[] r){
+		System.arraycopy(one, 0, r, 0, n);
+	}
+	
+	/**
+	 * @return true if the given residue is the one in Montgomery form.
+	 */
+	public boolean isOne(long[] a){
+		for (int j = 0; j < n; j++){
+			if (a[j] != one[j]){
+				return false;
+			}
+		}
+		return true;
+	}
+	
+	/**
+	 * Converts the given number to Montgomery form.
+	 * @param x any number. It is reduced modulo m first.
+	 * @return the residue of x.
+	 */
+	public long[] toMontgomery(BigInteger x){
+		long[] r = new long[n];
+		toMontgomery(x, r);
+		return r;
+	}
+	
+	/**
+	 * Converts the given number to Montgomery form.
+	 * @param x any number. It is reduced modulo m first.
+	 * @param r the output residue.
+	 */
+	public void toMontgomery(BigInteger x, long[] r){
+		multiply(toLimbs(reduce(x), n), rSquared, r);
+	}
+	
+	/**
+	 * Converts the given residue from Montgomery form.
+	 * @param a the residue to convert.
+	 * @return the number that the residue represents, in the range [0, m).
+	 */
+	public BigInteger fromMontgomery(long[] a){
+		long[] limbs = new long[n];
+		multiply(a, plainOne, limbs);
+		return fromLimbs(limbs);
+	}
+	
+	/**
+	 * Computes r = a*b*R^(-1) mod m, which is the Montgomery product of the residues, by the CIOS method.
+	 */
+	public void multiply(long[] a, long[] b, long[] r){
+		long[] t = scratch.get();
+		for (int j = 0; j < n + 2; j++){
+			t[j] = 0;
+		}
+		for (int i = 0; i < n; i++){
+			//t = t + a*b[i]
+			long bi = b[i];
+			long carry = 0;
+			for (int j = 0; j < n; j++){
+				long s = t[j] + a[j] * bi + carry;
+				t[j] = s & MASK;
+				carry = s >>> 32;
+			}
+			long s = t[n] + carry;
+			t[n] = s & MASK;
+			t[n + 1] = s >>> 32;
+			
+			//t = (t + u*m) / 2^32, where u is chosen so that the division is exact.
+			long u = (t[0] * n0Inverse) & MASK;
+			carry = (t[0] + u * m[0]) >>> 32;
+			for (int j = 1; j < n; j++){
+				s = t[j] + u * m[j] + carry;
+				t[j - 1] = s & MASK;
+				carry = s >>> 32;
+			}
+			s = t[n] + carry;
+			t[n - 1] = s & MASK;
+			t[n] = t[n + 1] + (s >>> 32);
+		}
+		reduceOnce(t, 0, r);
+	}
+	
+	/**
+	 * Computes r = a*a*R^(-1) mod m.<p>
+	 * The square computes each cross product a[i]*a[j] once and doubles their sum, so it takes about three quarters 
+	 * of the limb multiplications of {@link #multiply(long[], long[], long[])}.
+	 */
+	public void square(long[] a, long[] r){
+		long[] t = scratch.get();
+		for (int j = 0; j < 2 * n + 1; j++){
+			t[j] = 0;
+		}
+		
+		//The cross products a[i]*a[j] for i < j.
+		for (int i = 0; i < n - 1; i++){
+			long ai = a[i];
+			long carry = 0;
+			for (int j = i + 1; j < n; j++){
+				long s = t[i + j] + ai * a[j] + carry;
+				t[i + j] = s & MASK;
+				carry = s >>> 32;
+			}
+			t[i + n] = carry;
+		}
+		
+		//Double the cross products and add the squares a[i]^2.
+		long carry = 0;
+		for (int i = 0; i < n; i++){
+			long square = a[i] * a[i];
+			long s = (t[2 * i] << 1) + (square & MASK) + carry;
+			t[2 * i] = s & MASK;
+			s = (s >>> 32) + (t[2 * i + 1] << 1) + (square >>> 32);
+			t[2 * i + 1] = s & MASK;
+			carry = s >>> 32;
+		}
+		
+		montgomeryReduce(t, r);
+	}
+	
+	/**
+	 * Computes the product of the given numbers modulo m.<p>
+	 * The numbers are multiplied as they are, without converting them to Montgomery form, so the product of k numbers 
+	 * is off by R^(k-1). One more Montgomery product with R^k mod m, which is computed from the residue of R in log(k) squarings, 
+	 * corrects it. Thus, this takes about k Montgomery products instead of k-1 multiplications and divisions of BigInteger.
+	 * @param values the numbers to multiply. Each of them is reduced modulo m first.
+	 * @return the product of the numbers, in the range [0, m).
+	 */
+	public BigInteger product(BigInteger[] values){
+		if (values.length == 0){
+			return BigInteger.ONE.mod(modulus);
+		}
+		if (values.length == 1){
+			return reduce(values[0]);
+		}
+		long[] acc = toLimbs(reduce(values[0]), n);
+		for (int i = 1; i < values.length; i++){
+			multiply(acc, toLimbs(reduce(values[i]), n), acc);
+		}
+		
+		//acc = product*R^(-(k-1)). The residue of R^(k-1) is R^k mod m, and multiplying by it removes the extra factor.
+		multiply(acc, powerOfR(values.length - 1), acc);
+		return fromLimbs(acc);
+	}
+	
+	/**
+	 * Computes r = a^exponent in Montgomery form, by BigInteger.modPow.
+	 * @param a the residue of the base.
+	 * @param exponent the exponent. If it is negative, the base must be invertible modulo m.
+	 * @param r the output residue.
+	 */
+	public void exponentiate(long[] a, BigInteger exponent, long[] r){
+		toMontgomery(fromMontgomery(a).modPow(exponent, modulus), r);
+	}
+	
+	/*
+	 * Returns the residue of R^e, that is, R^(e+1) mod m, by square and multiply over the residue of R, which is R^2 mod m.
+	 */
+	private long[] powerOfR(int e){
+		long[] result = new long[n];
+		setOne(result);
+		for (int i = 31 - Integer.numberOfLeadingZeros(e); i >= 0; i--){
+			square(result, result);
+			if (((e >>> i) & 1) != 0){
+				multiply(result, rSquared, result);
+			}
+		}
+		return result;
+	}
+	
+	/*
+	 * Computes r = t*R^(-1) mod m for a number t of 2n limbs in the given scratch array, which has room for 2n+1 limbs.
+	 */
+	private void montgomeryReduce(long[] t, long[] r){
+		for (int i = 0; i < n; i++){
+			//t = t + u*m*2^(32i), where u is chosen so that the limb i of t becomes zero.
+			long u = (t[i] * n0Inverse) & MASK;
+			long carry = 0;
+			for (int j = 0; j < n; j++){
+				long s = t[i + j] + u * m[j] + carry;
+				t[i + j] = s & MASK;
+				carry = s >>> 32;
+			}
+			for (int j = i + n; carry != 0; j++){
+				long s = t[j] + carry;
+				t[j] = s & MASK;
+				carry = s >>> 32;
+			}
+		}
+		//The result is t/R, which is in the upper n+1 limbs of t.
+		reduceOnce(t, n, r);
+	}
+	
+	/*
+	 * Sets r to the n+1 limbs number in t at the given offset, which is smaller than 2m, minus m if it is not smaller than m.
+	 */
+	private void reduceOnce(long[] t, int offset, long[] r){
+		long borrow = 0;
+		for (int j = 0; j < n; j++){
+			long s = t[offset + j] - m[j] - borrow;
+			r[j] = s & MASK;
+			borrow = s >>> 63;
+		}
+		if (((t[offset + n] - borrow) >>> 63) != 0){
+			System.arraycopy(t, offset, r, 0, n);
+		}
+	}
+	
+	/*
+	 * Reduces x modulo m, if it is not in the range [0, m) already.
+	 */
+	private BigInteger reduce(BigInteger x){
+		if (x.signum() < 0 || x.compareTo(modulus) >= 0){
+			return x.mod(modulus);
+		}
+		return x;
+	}
+	
+	/*
+	 * Returns the non negative number of the given limbs.
+	 */
+	private BigInteger fromLimbs(long[] limbs){
+		byte[] bytes = new byte[4 * n];
+		for (int i = 0; i < n; i++){
+			long limb = limbs[n - 1 - i];
+			bytes[4 * i] = (byte) (limb >>> 24);
+			bytes[4 * i + 1] = (byte) (limb >>> 16);
+			bytes[4 * i + 2] = (byte) (limb >>> 8);
+			bytes[4 * i + 3] = (byte) limb;
+		}
+		return new BigInteger(1, bytes);
+	}
+	
+	/*
+	 * Splits the given non negative number, which is smaller than 2^(32*numLimbs), to numLimbs limbs of 32 bits.
+	 */
+	private static long[] toLimbs(BigInteger x, int numLimbs){
+		long[] limbs = new long[numLimbs];
+		byte[] bytes = x.toByteArray();
+		for (int i = 0; i < bytes.length && i < 4 * numLimbs; i++){
+			int index = bytes.length - 1 - i;
+			limbs[i >>> 2] |= ((long) (bytes[index] & 0xFF)) << (8 * (i & 3));
+		}
+		return limbs;
+	}
+}
@@ -49,7 +49,7 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_MiraclAdapterD
   (JNIEnv *, jobject);
 
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_MiraclAdapterDlogEC_deleteMip
-  (JNIEnv *env, jobject obj, jlong mip);
+  (JNIEnv *env, jclass clazz, jlong mip);
 
 /*
  * Class:     edu_biu_scapi_primitives_dlog_miracl_MiraclDlogECFp
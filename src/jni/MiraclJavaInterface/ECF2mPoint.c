@@ -131,6 +131,6 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_ECF2mPoin
  * param p				  : pointer to elliptic curve point
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_ECF2mPointMiracl_deletePointF2m
-  (JNIEnv *env, jobject obj, jlong p){
+  (JNIEnv *env, jclass clazz, jlong p){
 	  epoint_free((epoint*)p);
 }
@@ -135,6 +135,6 @@ JNIEXPORT jbyteArray JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_ECFpPoint
  * param p				  : pointer to elliptic curve point
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_miracl_ECFpPointMiracl_deletePointFp
-  (JNIEnv *env, jobject obj, jlong p){
+  (JNIEnv *env, jclass clazz, jlong p){
 	  epoint_free((epoint*)p);
 }
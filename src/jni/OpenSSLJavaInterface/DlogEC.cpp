@@ -164,6 +164,99 @@ JNIEXPORT jlong JNICALL JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenS
 	  return (long) result;
 }
 
+/* 
+ * function exponentiateBases		: Raises each of the given bases to the exponent.
+ * param dlog						: Pointer to the dlog group.
+ * param bases						: The points that need to be raised.
+ * params exponent					: The number that the bases should be raised to.
+ * return							: Pointers to the exponentiate results, or NULL in case of a failure.
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_exponentiateBases
+  (JNIEnv *env, jobject, jlong dlog, jlongArray bases, jbyteArray exponentBytes){
+	  //Convert the exponent to BIGNUM.
+	  BIGNUM *exponent;
+	  jbyte* exponent_bytes  = (jbyte*) env->GetByteArrayElements(exponentBytes, 0);
+	  exponent = BN_bin2bn((unsigned char*)exponent_bytes, env->GetArrayLength(exponentBytes), NULL);
+	  env ->ReleaseByteArrayElements(exponentBytes, (jbyte*) exponent_bytes, 0);
+	  if(NULL == exponent) return NULL;
+
+	  int size = env->GetArrayLength(bases);
+	  jlong* basesArr = env->GetLongArrayElements(bases, 0);
+	  jlong* results = new jlong[size];
+	  int i;
+	  //Call the function in the Dlog group that exponentiates each base to the exponent.
+	  for(i=0; i<size; i++){
+		  EC_POINT *result;
+		  if(0 == (result = ((DlogEC*)dlog)->exponentiate((EC_POINT*)basesArr[i], exponent))) break;
+		  results[i] = (jlong) result;
+	  }
+
+	  //Release the allocated memory.
+	  env->ReleaseLongArrayElements(bases, basesArr, JNI_ABORT);
+	  BN_free(exponent);
+
+	  //In case of a failure, free the computed points.
+	  if(i < size){
+		  for(int j=0; j<i; j++){
+			  EC_POINT_free((EC_POINT*) results[j]);
+		  }
+		  delete [] results;
+		  return NULL;
+	  }
+
+	  jlongArray resultArray = env->NewLongArray(size);
+	  env->SetLongArrayRegion(resultArray, 0, size, results);
+	  delete [] results;
+	  return resultArray;
+}
+
+/* 
+ * function exponentiateToExponents	: Raises the given base to each of the exponents.
+ * param dlog						: Pointer to the dlog group.
+ * param base						: The point that needs to be raised.
+ * params exponents					: The numbers that the base should be raised to.
+ * return							: Pointers to the exponentiate results, or NULL in case of a failure.
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_exponentiateToExponents
+  (JNIEnv *env, jobject, jlong dlog, jlong base, jobjectArray exponents){
+	  int size = env->GetArrayLength(exponents);
+	  BIGNUM ** exponentsArr =  new BIGNUM*[size]; //Create an array to hold the exponents.
+	  int i;
+
+	  //Convert each exponent bytes to a BIGNUM object.
+	  for(i=0; i<size; i++){
+		  jbyteArray exponentBytes = (jbyteArray) env->GetObjectArrayElement(exponents, i);
+		  jbyte* exponent_bytes  = (jbyte*) env->GetByteArrayElements(exponentBytes, 0);
+		  exponentsArr[i] = BN_bin2bn((unsigned char*)exponent_bytes, env->GetArrayLength(exponentBytes), NULL);
+		  env ->ReleaseByteArrayElements(exponentBytes, exponent_bytes, 0);
+		  env->DeleteLocalRef(exponentBytes);
+		  if(NULL == exponentsArr[i]) break;
+	  }
+
+	  EC_POINT ** results = new EC_POINT*[size];
+	  //Call the function in the Dlog group that computes the exponentiations using the same pre computed values.
+	  BOOL success = (i == size) && ((DlogEC*)dlog)->exponentiateToExponents((EC_POINT*)base, exponentsArr, size, results);
+
+	  //Release the memory.
+	  for(int j=0; j<i; j++){
+		  BN_free(exponentsArr[j]);
+	  }
+	  delete [] exponentsArr;
+
+	  if(!success){
+		  delete [] results;
+		  return NULL;
+	  }
+
+	  jlongArray resultArray = env->NewLongArray(size);
+	  for(i=0; i<size; i++){
+		  jlong result = (jlong) results[i];
+		  env->SetLongArrayRegion(resultArray, i, 1, &result);
+	  }
+	  delete [] results;
+	  return resultArray;
+}
+
 /* 
  * function validate		: Validates the Dlog group
  * param dlog				: Pointer to the dlog group.
@@ -206,7 +299,7 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapte
  * param dlog					: Pointer to the dlog group.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_deleteDlog
-  (JNIEnv *, jobject, jlong dlog){
+  (JNIEnv *, jclass, jlong dlog){
 	  delete((DlogEC*)dlog);
 }
 
@@ -398,3 +491,48 @@ EC_POINT* DlogEC::exponentiateWithPreComputedValues(BIGNUM* exponent){
 	return result;
 
 }
+
+/* 
+ * function exponentiateToExponents		: Raises the given base to each of the given exponents.
+ *										  The base's multiples are pre computed once, on a copy of the curve whose generator is the base, 
+ *										  and used by all the exponentiations.
+ * param base							: The point that should be raised.
+ * param exponents						: The exponents. Each exponent should not be longer than the group order.
+ * param size							: The number of exponents.
+ * param results						: An array to fill with the results' points.
+ * return								: True if all the exponentiations succeeded; False, otherwise.
+ */
+BOOL DlogEC::exponentiateToExponents(EC_POINT* base, BIGNUM** exponents, int size, EC_POINT** results){
+	//Create a copy of the curve with the base as its generator.
+	EC_GROUP* baseCurve;
+	if(NULL == (baseCurve = EC_GROUP_dup(curveP))) return 0;
+	BIGNUM* order = BN_new();
+	BIGNUM* cofactor = BN_new();
+	BOOL success = (NULL != order) && (NULL != cofactor) &&
+		EC_GROUP_get_order(curveP, order, ctx) && EC_GROUP_get_cofactor(curveP, cofactor, ctx) &&
+		EC_GROUP_set_generator(baseCurve, base, order, cofactor) && EC_GROUP_precompute_mult(baseCurve, ctx);
+	BN_free(order);
+	BN_free(cofactor);
+
+	//Calculate the exponentiations with the pre computed values.
+	int i = 0;
+	if(success){
+		for(i=0; i<size; i++){
+			if(NULL == (results[i] = EC_POINT_new(curveP))) break;
+			if(0 == (EC_POINT_mul(baseCurve, results[i], exponents[i], NULL, NULL, ctx))){
+				EC_POINT_free(results[i]);
+				break;
+			}
+		}
+	}
+	EC_GROUP_free(baseCurve);
+
+	//In case of a failure, free the computed points.
+	if(!success || i < size){
+		for(int j=0; j<i; j++){
+			EC_POINT_free(results[j]);
+		}
+		return 0;
+	}
+	return 1;
+}
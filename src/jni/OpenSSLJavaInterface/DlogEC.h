@@ -97,13 +97,29 @@ JNIEXPORT jboolean JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAda
 JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_exponentiateWithPreComputedValues
   (JNIEnv *, jobject, jlong, jbyteArray);
 
+/*
+ * Class:     edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC
+ * Method:    exponentiateBases
+ * Signature: (J[J[B)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_exponentiateBases
+  (JNIEnv *, jobject, jlong, jlongArray, jbyteArray);
+
+/*
+ * Class:     edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC
+ * Method:    exponentiateToExponents
+ * Signature: (JJ[[B)[J
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_exponentiateToExponents
+  (JNIEnv *, jobject, jlong, jlong, jobjectArray);
+
 /*
  * Class:     edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC
  * Method:    deleteDlog
  * Signature: (J)V
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLAdapterDlogEC_deleteDlog
-  (JNIEnv *, jobject, jlong);
+  (JNIEnv *, jclass, jlong);
 
 #ifdef __cplusplus
 }
@@ -129,6 +145,7 @@ public:
 	EC_POINT* simultaneousMultiply(const EC_POINT** pointsArr, const BIGNUM** exponentsArr, int size);
 	BOOL validate();
 	EC_POINT* exponentiateWithPreComputedValues(BIGNUM* exponent);
+	BOOL exponentiateToExponents(EC_POINT* base, BIGNUM** exponents, int size, EC_POINT** results);
 };
 
 
@@ -244,6 +244,125 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogZp
 	  return (long) result;
 }
 
+/* 
+ * function exponentiateElements	: Raises each of the given base elements to the given exponent.
+ * param dlog						: Pointer to the native Dlog group.
+ * param bases						: Pointers to the elements that should be raised to the exponent.
+ * param exponent
+ * return							: Pointers to the results' elements, or NULL in case of a failure.
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogZpSafePrime_exponentiateElements
+  (JNIEnv *env, jobject, jlong dlog, jlongArray bases, jbyteArray exponent){
+	  DH* dh = ((DlogZp*) dlog) -> getDlog();
+	  BN_CTX* ctx = ((DlogZp*) dlog) -> getCTX();
+
+	  //Convert the exponent into a BIGNUM object.
+	  jbyte* exponent_bytes  = (jbyte*) env->GetByteArrayElements(exponent, 0);
+	  BIGNUM* expBN = BN_bin2bn((unsigned char*)exponent_bytes, env->GetArrayLength(exponent), NULL);
+	  env ->ReleaseByteArrayElements(exponent, (jbyte*) exponent_bytes, 0);
+	  if(NULL == expBN) return NULL;
+
+	  //The Montgomery context of p is computed once and used by all the exponentiations.
+	  BN_MONT_CTX* mont = BN_MONT_CTX_new();
+	  if(NULL == mont || 0 == BN_MONT_CTX_set(mont, dh->p, ctx)){
+		  BN_MONT_CTX_free(mont);
+		  BN_free(expBN);
+		  return NULL;
+	  }
+
+	  int size = env->GetArrayLength(bases);
+	  jlong* basesArr = env->GetLongArrayElements(bases, 0);
+	  jlong* results = new jlong[size];
+	  int i;
+	  for(i=0; i<size; i++){
+		  BIGNUM* result = BN_new();
+		  if(NULL == result || 0 == (BN_mod_exp_mont(result, (BIGNUM *) basesArr[i], expBN, dh->p, ctx, mont))){
+			  BN_free(result);
+			  break;
+		  }
+		  results[i] = (jlong) result;
+	  }
+
+	  //Release the allocated memory.
+	  env->ReleaseLongArrayElements(bases, basesArr, JNI_ABORT);
+	  BN_MONT_CTX_free(mont);
+	  BN_free(expBN);
+
+	  //In case of a failure, free the computed elements.
+	  if(i < size){
+		  for(int j=0; j<i; j++){
+			  BN_free((BIGNUM*) results[j]);
+		  }
+		  delete [] results;
+		  return NULL;
+	  }
+
+	  jlongArray resultArray = env->NewLongArray(size);
+	  env->SetLongArrayRegion(resultArray, 0, size, results);
+	  delete [] results;
+	  return resultArray;
+}
+
+/* 
+ * function exponentiateElementToExponents	: Raises the given base element to each of the given exponents.
+ * param dlog								: Pointer to the native Dlog group.
+ * param base								: That should be raised to the exponents.
+ * param exponents
+ * return									: Pointers to the results' elements, or NULL in case of a failure.
+ */
+JNIEXPORT jlongArray JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogZpSafePrime_exponentiateElementToExponents
+  (JNIEnv *env, jobject, jlong dlog, jlong base, jobjectArray exponents){
+	  DH* dh = ((DlogZp*) dlog) -> getDlog();
+	  BN_CTX* ctx = ((DlogZp*) dlog) -> getCTX();
+
+	  //The Montgomery context of p is computed once and used by all the exponentiations.
+	  BN_MONT_CTX* mont = BN_MONT_CTX_new();
+	  BIGNUM* expBN = BN_new();
+	  if(NULL == mont || NULL == expBN || 0 == BN_MONT_CTX_set(mont, dh->p, ctx)){
+		  BN_MONT_CTX_free(mont);
+		  BN_free(expBN);
+		  return NULL;
+	  }
+
+	  int size = env->GetArrayLength(exponents);
+	  jlong* results = new jlong[size];
+	  int i;
+	  for(i=0; i<size; i++){
+		  //Convert the exponent into the BIGNUM object.
+		  jbyteArray exponent = (jbyteArray) env->GetObjectArrayElement(exponents, i);
+		  jbyte* exponent_bytes  = (jbyte*) env->GetByteArrayElements(exponent, 0);
+		  BIGNUM* converted = BN_bin2bn((unsigned char*)exponent_bytes, env->GetArrayLength(exponent), expBN);
+		  env ->ReleaseByteArrayElements(exponent, (jbyte*) exponent_bytes, 0);
+		  env->DeleteLocalRef(exponent);
+		  if(NULL == converted) break;
+
+		  BIGNUM* result = BN_new();
+		  if(NULL == result || 0 == (BN_mod_exp_mont(result, (BIGNUM *) base, expBN, dh->p, ctx, mont))){
+			  BN_free(result);
+			  break;
+		  }
+		  results[i] = (jlong) result;
+	  }
+
+	  //Release the allocated memory.
+	  BN_MONT_CTX_free(mont);
+	  BN_free(expBN);
+
+	  //In case of a failure, free the computed elements.
+	  if(i < size){
+		  for(int j=0; j<i; j++){
+			  BN_free((BIGNUM*) results[j]);
+		  }
+		  delete [] results;
+		  return NULL;
+	  }
+
+	  jlongArray resultArray = env->NewLongArray(size);
+	  env->SetLongArrayRegion(resultArray, 0, size, results);
+	  delete [] results;
+	  return resultArray;
+}
+
 /* 
  * function multiplyElements	: Multiplies the given elements.
  * param dlog					: Pointer to the native Dlog group.
@@ -269,7 +388,7 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogZp
  * param dlog				: Pointer to the native Dlog group.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLDlogZpSafePrime_deleteDlogZp
-  (JNIEnv *, jobject, jlong dlog){
+  (JNIEnv *, jclass, jlong dlog){
 	  delete (DlogZp*) dlog;
 }
 
@@ -193,6 +193,6 @@ JNIEXPORT jboolean JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_ECFpPointO
  * param point				: Pointer to the point.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_ECFpPointOpenSSL_deletePoint
-  (JNIEnv *, jobject, jlong point){
+  (JNIEnv *, jclass, jlong point){
 	  EC_POINT_free((EC_POINT*) point);
 }
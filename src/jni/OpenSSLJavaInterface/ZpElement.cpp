@@ -59,7 +59,7 @@ JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLZpSafe
  * param zpElement				: A pointer to the element that should be deleted.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_dlog_openSSL_OpenSSLZpSafePrimeElement_deleteElement
-  (JNIEnv *, jobject, jlong zpElement){
+  (JNIEnv *, jclass, jlong zpElement){
 	  BN_free((BIGNUM*)zpElement);
 }
 